@@ -0,0 +1,96 @@
+package com.commandlinecommandos.campusmarketplace.cache;
+
+import com.commandlinecommandos.campusmarketplace.dto.ProductSearchResult;
+import com.commandlinecommandos.campusmarketplace.dto.SearchMetadata;
+import com.commandlinecommandos.campusmarketplace.dto.SearchResponse;
+import com.commandlinecommandos.campusmarketplace.model.ProductCategory;
+import com.commandlinecommandos.campusmarketplace.model.ProductCondition;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding and decoding a cached search page with the binary codec, next to the generic JSON
+ * serializer it replaced (configured as CacheConfig configures it for the other caches)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CacheCodecBenchmark {
+
+    private final CodecRedisSerializer<SearchResponse> codec = new CodecRedisSerializer<>(new SearchResponseCodec());
+    private GenericJackson2JsonRedisSerializer json;
+    private SearchResponse response;
+    private byte[] codecBytes;
+    private byte[] jsonBytes;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        json = new GenericJackson2JsonRedisSerializer(objectMapper);
+        response = searchResponse(20);
+        codecBytes = codec.serialize(response);
+        jsonBytes = json.serialize(response);
+    }
+
+    @Benchmark
+    public byte[] codecSerialize() {
+        return codec.serialize(response);
+    }
+
+    @Benchmark
+    public SearchResponse codecDeserialize() {
+        return codec.deserialize(codecBytes);
+    }
+
+    @Benchmark
+    public byte[] jsonSerialize() {
+        return json.serialize(response);
+    }
+
+    @Benchmark
+    public Object jsonDeserialize() {
+        return json.deserialize(jsonBytes);
+    }
+
+    private static SearchResponse searchResponse(int size) {
+        List<ProductSearchResult> results = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            ProductSearchResult result = new ProductSearchResult();
+            result.setProductId(UUID.randomUUID());
+            result.setTitle("Calculus Textbook " + i);
+            result.setDescription("Used calculus book, some highlighting in chapter " + i);
+            result.setPrice(new BigDecimal("45.99"));
+            result.setCategory(ProductCategory.TEXTBOOKS);
+            result.setCondition(ProductCondition.GOOD);
+            result.setSellerId(UUID.randomUUID());
+            result.setSellerName("Test Seller");
+            result.setSellerUsername("testseller");
+            result.setLocation("MLK Library");
+            result.setViewCount(i * 10);
+            result.setFavoriteCount(i);
+            result.setCreatedAt(LocalDateTime.of(2025, 10, 1, 12, 30).plusMinutes(i));
+            result.setImageUrls(List.of("https://cdn.example.com/listings/" + i + ".jpg"));
+            result.setRelevanceScore(0.5f + i);
+            result.setNegotiable(i % 2 == 0);
+            result.setQuantity(1);
+            results.add(result);
+        }
+        SearchMetadata metadata = new SearchMetadata(12, "Categories: [TEXTBOOKS]", 1, "relevance", false, "calculus");
+        return new SearchResponse(results, 137, 7, 0, 20, true, false, metadata);
+    }
+}
@@ -0,0 +1,37 @@
+package com.commandlinecommandos.campusmarketplace.config;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of one shared rate limiter hit by several threads at once
+ * "open" never reaches its limit (only the counter is contended), "saturated" rejects most
+ * calls and resets its window every millisecond
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class RateLimitBenchmark {
+
+    @Param({"open", "saturated"})
+    private String load;
+
+    private RateLimitingConfig.RateLimitData limiter;
+
+    @Setup
+    public void setUp() {
+        limiter = "open".equals(load)
+            ? new RateLimitingConfig.RateLimitData(Integer.MAX_VALUE, 1_000)
+            : new RateLimitingConfig.RateLimitData(100, 1);
+    }
+
+    @Benchmark
+    public boolean tryConsume() {
+        return limiter.tryConsume();
+    }
+}
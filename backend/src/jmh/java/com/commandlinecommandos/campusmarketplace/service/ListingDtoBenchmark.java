@@ -0,0 +1,71 @@
+package com.commandlinecommandos.campusmarketplace.service;
+
+import com.commandlinecommandos.campusmarketplace.dto.ListingDetailResponse;
+import com.commandlinecommandos.campusmarketplace.model.Product;
+import com.commandlinecommandos.campusmarketplace.model.ProductCategory;
+import com.commandlinecommandos.campusmarketplace.model.ProductCondition;
+import com.commandlinecommandos.campusmarketplace.model.User;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the two listing response mappings (favorite lookup excluded)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ListingDtoBenchmark {
+
+    private final ListingsService listingsService = new ListingsService();
+    private Product product;
+
+    @Setup
+    public void setUp() {
+        // No views pending, as for most listings between flushes
+        ReflectionTestUtils.setField(listingsService, "viewCountBuffer", new ViewCountBuffer());
+
+        User seller = new User();
+        seller.setUserId(UUID.randomUUID());
+        seller.setUsername("testseller");
+        seller.setFirstName("Test");
+        seller.setLastName("Seller");
+
+        product = new Product();
+        product.setProductId(UUID.randomUUID());
+        product.setTitle("Calculus Textbook");
+        product.setDescription("Used calculus book, some highlighting in chapter 3");
+        product.setPrice(new BigDecimal("45.99"));
+        product.setCategory(ProductCategory.TEXTBOOKS);
+        product.setCondition(ProductCondition.GOOD);
+        product.setPickupLocation("MLK Library");
+        product.setSeller(seller);
+        product.setImageUrls(List.of("https://cdn.example.com/listings/1.jpg", "https://cdn.example.com/listings/2.jpg"));
+        product.setViewCount(120);
+        product.setFavoriteCount(7);
+        product.setActive(true);
+        product.setNegotiable(true);
+        product.setQuantity(1);
+        product.setCreatedAt(LocalDateTime.now());
+        product.setUpdatedAt(LocalDateTime.now());
+    }
+
+    @Benchmark
+    public ListingDetailResponse toListingDetailResponse() {
+        return listingsService.toListingDetailResponse(product, false);
+    }
+
+    @Benchmark
+    public Map<String, Object> productToDto() {
+        return listingsService.productToDto(product);
+    }
+}
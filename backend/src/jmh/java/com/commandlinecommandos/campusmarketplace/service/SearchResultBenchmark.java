@@ -0,0 +1,79 @@
+package com.commandlinecommandos.campusmarketplace.service;
+
+import com.commandlinecommandos.campusmarketplace.dto.ProductSearchResult;
+import com.commandlinecommandos.campusmarketplace.model.ProductCategory;
+import com.commandlinecommandos.campusmarketplace.model.ProductCondition;
+import com.commandlinecommandos.campusmarketplace.repository.ProductSummaryView;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of turning one page of seller-joined projections into search results
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SearchResultBenchmark {
+
+    @Param({"20", "100"})
+    private int pageSize;
+
+    private List<ProductSummaryView> page;
+
+    @Setup
+    public void setUp() {
+        page = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            page.add(new SummaryRow(i));
+        }
+    }
+
+    @Benchmark
+    public List<ProductSearchResult> transformPage() {
+        List<ProductSearchResult> results = new ArrayList<>(page.size());
+        for (ProductSummaryView product : page) {
+            results.add(SearchService.transformToSearchResult(product, 0.5f));
+        }
+        return results;
+    }
+
+    /**
+     * Projection row with fixed values, as the JPA projection proxy would return them
+     */
+    private static final class SummaryRow implements ProductSummaryView {
+        private final int index;
+        private final UUID productId = UUID.randomUUID();
+        private final UUID sellerId = UUID.randomUUID();
+        private final LocalDateTime createdAt = LocalDateTime.now();
+
+        SummaryRow(int index) {
+            this.index = index;
+        }
+
+        public UUID getProductId() { return productId; }
+        public String getTitle() { return "Calculus Textbook " + index; }
+        public String getDescription() { return "Used calculus book, some highlighting in chapter " + index; }
+        public BigDecimal getPrice() { return new BigDecimal("45.99"); }
+        public ProductCategory getCategory() { return ProductCategory.TEXTBOOKS; }
+        public ProductCondition getCondition() { return ProductCondition.GOOD; }
+        public String getPickupLocation() { return "MLK Library"; }
+        public Integer getViewCount() { return index * 10; }
+        public Integer getFavoriteCount() { return index; }
+        public LocalDateTime getCreatedAt() { return createdAt; }
+        public Boolean getNegotiable() { return index % 2 == 0; }
+        public Integer getQuantity() { return 1; }
+        public UUID getSellerId() { return sellerId; }
+        public String getSellerUsername() { return "testseller"; }
+        public String getSellerFirstName() { return "Test"; }
+        public String getSellerLastName() { return "Seller"; }
+    }
+}
@@ -0,0 +1,29 @@
+package com.commandlinecommandos.campusmarketplace.cache;
+
+/**
+ * Typed binary codec for one kind of cached value
+ * Values are written field by field in a fixed order, with no class names or field names.
+ * Any change to the layout must bump version() and keep read() able to decode older versions
+ * (or reject them, which CodecRedisSerializer turns into a cache miss).
+ */
+public interface CacheValueCodec<T> {
+
+    /**
+     * Identifies the value type in the entry header, unique per codec
+     */
+    int typeId();
+
+    /**
+     * Layout version written into new entries
+     */
+    int version();
+
+    void write(T value, CodecWriter out);
+
+    /**
+     * Read a value written with the given layout version
+     *
+     * @throws IllegalStateException if the version is not supported or the data is malformed
+     */
+    T read(CodecReader in, int version);
+}
@@ -0,0 +1,164 @@
+package com.commandlinecommandos.campusmarketplace.cache;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+/**
+ * Reader for the layout produced by CodecWriter
+ * Every read throws IllegalStateException when the input is truncated or malformed.
+ */
+public final class CodecReader {
+
+    private final byte[] data;
+    private int position;
+
+    public CodecReader(byte[] data, int offset) {
+        this.data = data;
+        this.position = offset;
+    }
+
+    public boolean hasRemaining() {
+        return position < data.length;
+    }
+
+    public int readByte() {
+        if (position >= data.length) {
+            throw new IllegalStateException("Unexpected end of cache value");
+        }
+        return data[position++] & 0xFF;
+    }
+
+    public boolean readBoolean() {
+        return readByte() != 0;
+    }
+
+    public long readVarLong() {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalStateException("Malformed varint in cache value");
+    }
+
+    public long readSignedVarLong() {
+        long raw = readVarLong();
+        return (raw >>> 1) ^ -(raw & 1);
+    }
+
+    public int readVarInt() {
+        return (int) readVarLong();
+    }
+
+    public long readLong() {
+        long value = 0;
+        for (int i = 0; i < 8; i++) {
+            value = (value << 8) | readByte();
+        }
+        return value;
+    }
+
+    public String readString() {
+        int length = readVarInt();
+        if (length == 0) {
+            return null;
+        }
+        int byteCount = length - 1;
+        if (byteCount > data.length - position) {
+            throw new IllegalStateException("Unexpected end of cache value");
+        }
+        String value = new String(data, position, byteCount, StandardCharsets.UTF_8);
+        position += byteCount;
+        return value;
+    }
+
+    public Integer readNullableInt() {
+        return readBoolean() ? (int) readSignedVarLong() : null;
+    }
+
+    public Float readNullableFloat() {
+        if (!readBoolean()) {
+            return null;
+        }
+        int bits = 0;
+        for (int i = 0; i < 4; i++) {
+            bits = (bits << 8) | readByte();
+        }
+        return Float.intBitsToFloat(bits);
+    }
+
+    public Boolean readNullableBoolean() {
+        return switch (readByte()) {
+            case 0 -> Boolean.FALSE;
+            case 1 -> Boolean.TRUE;
+            case 2 -> null;
+            default -> throw new IllegalStateException("Malformed boolean in cache value");
+        };
+    }
+
+    public UUID readUuid() {
+        return readBoolean() ? new UUID(readLong(), readLong()) : null;
+    }
+
+    public BigDecimal readDecimal() {
+        return switch (readByte()) {
+            case 0 -> null;
+            case 1 -> {
+                int scale = (int) readSignedVarLong();
+                yield BigDecimal.valueOf(readSignedVarLong(), scale);
+            }
+            case 2 -> {
+                int scale = (int) readSignedVarLong();
+                yield new BigDecimal(new BigInteger(readBytes(readVarInt())), scale);
+            }
+            default -> throw new IllegalStateException("Malformed decimal in cache value");
+        };
+    }
+
+    public LocalDateTime readDateTime() {
+        if (!readBoolean()) {
+            return null;
+        }
+        long epochSecond = readSignedVarLong();
+        return LocalDateTime.ofEpochSecond(epochSecond, readVarInt(), ZoneOffset.UTC);
+    }
+
+    public <E extends Enum<E>> E readEnum(Class<E> type) {
+        String name = readString();
+        return name != null ? Enum.valueOf(type, name) : null;
+    }
+
+    /**
+     * Collection size with a sanity bound, so a corrupt length cannot trigger a huge allocation
+     */
+    public int readSize() {
+        return checkSize(readVarInt());
+    }
+
+    /**
+     * Validate a collection size read by other means (every element takes at least one byte)
+     */
+    public int checkSize(int size) {
+        if (size < 0 || size > data.length - position) {
+            throw new IllegalStateException("Malformed collection size in cache value");
+        }
+        return size;
+    }
+
+    private byte[] readBytes(int length) {
+        if (length < 0 || length > data.length - position) {
+            throw new IllegalStateException("Unexpected end of cache value");
+        }
+        byte[] bytes = new byte[length];
+        System.arraycopy(data, position, bytes, 0, length);
+        position += length;
+        return bytes;
+    }
+}
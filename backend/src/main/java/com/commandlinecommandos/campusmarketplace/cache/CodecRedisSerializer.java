@@ -0,0 +1,66 @@
+package com.commandlinecommandos.campusmarketplace.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+/**
+ * Redis value serializer backed by a CacheValueCodec
+ * Entry layout: magic byte, codec type id, layout version, then the codec payload.
+ * Entries from another codec, a newer layout or a corrupt write deserialize to null,
+ * which RedisCache treats as a miss, so format changes never surface as errors.
+ */
+public class CodecRedisSerializer<T> implements RedisSerializer<T> {
+
+    private static final Logger log = LoggerFactory.getLogger(CodecRedisSerializer.class);
+
+    static final int MAGIC = 0xC7;
+    static final int HEADER_SIZE = 3;
+
+    private static final int INITIAL_BUFFER_SIZE = 1024;
+
+    private final CacheValueCodec<T> codec;
+
+    public CodecRedisSerializer(CacheValueCodec<T> codec) {
+        this.codec = codec;
+    }
+
+    @Override
+    public byte[] serialize(T value) throws SerializationException {
+        if (value == null) {
+            return null;
+        }
+        CodecWriter out = new CodecWriter(INITIAL_BUFFER_SIZE);
+        out.writeByte(MAGIC);
+        out.writeByte(codec.typeId());
+        out.writeByte(codec.version());
+        try {
+            codec.write(value, out);
+        } catch (RuntimeException e) {
+            throw new SerializationException("Could not encode cache value with codec " + codec.typeId(), e);
+        }
+        return out.toByteArray();
+    }
+
+    @Override
+    public T deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length < HEADER_SIZE) {
+            return null;
+        }
+        int magic = bytes[0] & 0xFF;
+        int typeId = bytes[1] & 0xFF;
+        int version = bytes[2] & 0xFF;
+        if (magic != MAGIC || typeId != codec.typeId() || version > codec.version()) {
+            log.debug("Ignoring cache entry: magic={}, typeId={}, version={} (expected type {} v{})",
+                    magic, typeId, version, codec.typeId(), codec.version());
+            return null;
+        }
+        try {
+            return codec.read(new CodecReader(bytes, HEADER_SIZE), version);
+        } catch (RuntimeException e) {
+            log.warn("Discarding unreadable cache entry for codec {}: {}", codec.typeId(), e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.commandlinecommandos.campusmarketplace.cache;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Append-only binary writer used by cache value codecs
+ * Integers are written as varints, nullable values carry a one-byte presence flag,
+ * strings are length-prefixed UTF-8. CodecReader reads the same layout back.
+ */
+public final class CodecWriter {
+
+    // Plain growable buffer: ByteArrayOutputStream synchronizes every single-byte write
+    private byte[] buffer;
+    private int size;
+
+    public CodecWriter(int initialCapacity) {
+        this.buffer = new byte[Math.max(initialCapacity, 16)];
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buffer, size);
+    }
+
+    public void writeByte(int value) {
+        ensureCapacity(1);
+        buffer[size++] = (byte) value;
+    }
+
+    public void writeBoolean(boolean value) {
+        writeByte(value ? 1 : 0);
+    }
+
+    /**
+     * Unsigned varint (7 bits per byte, high bit = more bytes follow)
+     */
+    public void writeVarLong(long value) {
+        while ((value & ~0x7FL) != 0) {
+            writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        writeByte((int) value);
+    }
+
+    /**
+     * Signed varint, zigzag-encoded so small negative numbers stay short
+     */
+    public void writeSignedVarLong(long value) {
+        writeVarLong((value << 1) ^ (value >> 63));
+    }
+
+    public void writeVarInt(int value) {
+        writeVarLong(value & 0xFFFFFFFFL);
+    }
+
+    public void writeLong(long value) {
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            writeByte((int) (value >>> shift));
+        }
+    }
+
+    public void writeString(String value) {
+        if (value == null) {
+            writeVarInt(0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        // Length + 1 so that 0 can mean null
+        writeVarInt(bytes.length + 1);
+        writeBytes(bytes);
+    }
+
+    public void writeNullableInt(Integer value) {
+        writeBoolean(value != null);
+        if (value != null) {
+            writeSignedVarLong(value);
+        }
+    }
+
+    public void writeNullableFloat(Float value) {
+        writeBoolean(value != null);
+        if (value != null) {
+            int bits = Float.floatToIntBits(value);
+            for (int shift = 24; shift >= 0; shift -= 8) {
+                writeByte(bits >>> shift);
+            }
+        }
+    }
+
+    public void writeNullableBoolean(Boolean value) {
+        writeByte(value == null ? 2 : (value ? 1 : 0));
+    }
+
+    public void writeUuid(UUID value) {
+        writeBoolean(value != null);
+        if (value != null) {
+            writeLong(value.getMostSignificantBits());
+            writeLong(value.getLeastSignificantBits());
+        }
+    }
+
+    /**
+     * Scale plus unscaled value (prices fit a varint; larger values fall back to raw bytes)
+     */
+    public void writeDecimal(BigDecimal value) {
+        if (value == null) {
+            writeByte(0);
+            return;
+        }
+        if (value.unscaledValue().bitLength() < 63) {
+            writeByte(1);
+            writeSignedVarLong(value.scale());
+            writeSignedVarLong(value.unscaledValue().longValueExact());
+        } else {
+            writeByte(2);
+            writeSignedVarLong(value.scale());
+            byte[] unscaled = value.unscaledValue().toByteArray();
+            writeVarInt(unscaled.length);
+            writeBytes(unscaled);
+        }
+    }
+
+    /**
+     * Local date-time as epoch seconds (UTC offset, no zone conversion) plus nanos
+     */
+    public void writeDateTime(LocalDateTime value) {
+        writeBoolean(value != null);
+        if (value != null) {
+            writeSignedVarLong(value.toEpochSecond(ZoneOffset.UTC));
+            writeVarInt(value.getNano());
+        }
+    }
+
+    /**
+     * Enums are stored by name so reordering constants never changes decoded values
+     */
+    public void writeEnum(Enum<?> value) {
+        writeString(value != null ? value.name() : null);
+    }
+
+    private void writeBytes(byte[] bytes) {
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, buffer, size, bytes.length);
+        size += bytes.length;
+    }
+
+    private void ensureCapacity(int extra) {
+        if (size + extra > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + extra));
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.commandlinecommandos.campusmarketplace.cache;
+
+import com.commandlinecommandos.campusmarketplace.dto.ProductSummary;
+import com.commandlinecommandos.campusmarketplace.model.ProductCategory;
+import com.commandlinecommandos.campusmarketplace.model.ProductCondition;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Codec for cached discovery lists ("recommendedItems")
+ */
+public class ProductSummaryListCodec implements CacheValueCodec<List<ProductSummary>> {
+
+    public static final int TYPE_ID = 2;
+
+    @Override
+    public int typeId() {
+        return TYPE_ID;
+    }
+
+    @Override
+    public int version() {
+        return 1;
+    }
+
+    @Override
+    public void write(List<ProductSummary> value, CodecWriter out) {
+        out.writeVarInt(value.size());
+        for (ProductSummary summary : value) {
+            out.writeUuid(summary.getProductId());
+            out.writeString(summary.getTitle());
+            out.writeString(summary.getDescription());
+            out.writeDecimal(summary.getPrice());
+            out.writeEnum(summary.getCategory());
+            out.writeEnum(summary.getCondition());
+            writeStrings(summary.getImageUrls(), out);
+            out.writeNullableInt(summary.getViewCount());
+            out.writeNullableInt(summary.getFavoriteCount());
+            out.writeDateTime(summary.getCreatedAt());
+            out.writeUuid(summary.getSellerId());
+            out.writeString(summary.getSellerUsername());
+            out.writeString(summary.getLocation());
+            out.writeNullableBoolean(summary.getNegotiable());
+            out.writeNullableInt(summary.getQuantity());
+        }
+    }
+
+    @Override
+    public List<ProductSummary> read(CodecReader in, int version) {
+        if (version != 1) {
+            throw new IllegalStateException("Unsupported product summary layout v" + version);
+        }
+        int size = in.readSize();
+        List<ProductSummary> summaries = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            ProductSummary summary = new ProductSummary();
+            summary.setProductId(in.readUuid());
+            summary.setTitle(in.readString());
+            summary.setDescription(in.readString());
+            summary.setPrice(in.readDecimal());
+            summary.setCategory(in.readEnum(ProductCategory.class));
+            summary.setCondition(in.readEnum(ProductCondition.class));
+            summary.setImageUrls(readStrings(in));
+            summary.setViewCount(in.readNullableInt());
+            summary.setFavoriteCount(in.readNullableInt());
+            summary.setCreatedAt(in.readDateTime());
+            summary.setSellerId(in.readUuid());
+            summary.setSellerUsername(in.readString());
+            summary.setLocation(in.readString());
+            summary.setNegotiable(in.readNullableBoolean());
+            summary.setQuantity(in.readNullableInt());
+            summaries.add(summary);
+        }
+        return summaries;
+    }
+
+    /**
+     * Nullable string list: 0 = null, otherwise size + 1 followed by the elements
+     */
+    static void writeStrings(List<String> values, CodecWriter out) {
+        if (values == null) {
+            out.writeVarInt(0);
+            return;
+        }
+        out.writeVarInt(values.size() + 1);
+        for (String value : values) {
+            out.writeString(value);
+        }
+    }
+
+    static List<String> readStrings(CodecReader in) {
+        int encoded = in.readVarInt();
+        if (encoded == 0) {
+            return null;
+        }
+        int size = in.checkSize(encoded - 1);
+        List<String> values = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            values.add(in.readString());
+        }
+        return values;
+    }
+}
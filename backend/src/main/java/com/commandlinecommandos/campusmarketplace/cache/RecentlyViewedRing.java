@@ -0,0 +1,100 @@
+package com.commandlinecommandos.campusmarketplace.cache;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * A user's most recently viewed listing ids, most recent first, without duplicates
+ * Ids are kept as (most, least significant bits) pairs in one long array. Immutable:
+ * viewing a listing produces a new ring, which is put back into the cache.
+ */
+public final class RecentlyViewedRing {
+
+    private static final RecentlyViewedRing EMPTY = new RecentlyViewedRing(new long[0]);
+
+    private final long[] bits;
+
+    private RecentlyViewedRing(long[] bits) {
+        this.bits = bits;
+    }
+
+    public static RecentlyViewedRing empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Ring of the given ids, most recent first (duplicates after the first occurrence are dropped)
+     */
+    public static RecentlyViewedRing of(List<UUID> listingIds, int capacity) {
+        RecentlyViewedRing ring = EMPTY;
+        for (int i = listingIds.size() - 1; i >= 0; i--) {
+            ring = ring.withFirst(listingIds.get(i), capacity);
+        }
+        return ring;
+    }
+
+    /**
+     * This ring with a listing moved (or added) to the front, the oldest dropped beyond capacity
+     */
+    public RecentlyViewedRing withFirst(UUID listingId, int capacity) {
+        long most = listingId.getMostSignificantBits();
+        long least = listingId.getLeastSignificantBits();
+        int existing = indexOf(most, least);
+        if (existing == 0) {
+            return this;
+        }
+        int kept = existing > 0 ? size() - 1 : Math.min(size(), capacity - 1);
+        long[] next = new long[(kept + 1) * 2];
+        next[0] = most;
+        next[1] = least;
+        int to = 2;
+        for (int i = 0; i < size() && to < next.length; i++) {
+            if (i != existing) {
+                next[to++] = bits[2 * i];
+                next[to++] = bits[2 * i + 1];
+            }
+        }
+        return new RecentlyViewedRing(next);
+    }
+
+    public int size() {
+        return bits.length / 2;
+    }
+
+    public UUID get(int index) {
+        return new UUID(bits[2 * index], bits[2 * index + 1]);
+    }
+
+    /**
+     * Up to limit ids, most recent first
+     */
+    public List<UUID> first(int limit) {
+        int count = Math.min(limit, size());
+        List<UUID> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ids.add(get(i));
+        }
+        return ids;
+    }
+
+    private int indexOf(long most, long least) {
+        for (int i = 0; i < size(); i++) {
+            if (bits[2 * i] == most && bits[2 * i + 1] == least) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof RecentlyViewedRing && Arrays.equals(bits, ((RecentlyViewedRing) other).bits);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(bits);
+    }
+}
@@ -0,0 +1,44 @@
+package com.commandlinecommandos.campusmarketplace.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Codec for per-user recently viewed listing ids ("recentlyViewedIds")
+ */
+public class RecentlyViewedRingCodec implements CacheValueCodec<RecentlyViewedRing> {
+
+    public static final int TYPE_ID = 4;
+
+    @Override
+    public int typeId() {
+        return TYPE_ID;
+    }
+
+    @Override
+    public int version() {
+        return 1;
+    }
+
+    @Override
+    public void write(RecentlyViewedRing value, CodecWriter out) {
+        out.writeVarInt(value.size());
+        for (int i = 0; i < value.size(); i++) {
+            out.writeUuid(value.get(i));
+        }
+    }
+
+    @Override
+    public RecentlyViewedRing read(CodecReader in, int version) {
+        if (version != 1) {
+            throw new IllegalStateException("Unsupported recently viewed layout v" + version);
+        }
+        int size = in.readSize();
+        List<UUID> ids = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            ids.add(in.readUuid());
+        }
+        return RecentlyViewedRing.of(ids, size);
+    }
+}
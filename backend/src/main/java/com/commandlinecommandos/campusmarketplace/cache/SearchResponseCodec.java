@@ -0,0 +1,177 @@
+package com.commandlinecommandos.campusmarketplace.cache;
+
+import com.commandlinecommandos.campusmarketplace.dto.ProductSearchResult;
+import com.commandlinecommandos.campusmarketplace.dto.SearchFacets;
+import com.commandlinecommandos.campusmarketplace.dto.SearchMetadata;
+import com.commandlinecommandos.campusmarketplace.dto.SearchResponse;
+import com.commandlinecommandos.campusmarketplace.model.ProductCategory;
+import com.commandlinecommandos.campusmarketplace.model.ProductCondition;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Codec for cached search pages ("searchResults")
+ * v2 adds the facet counts to the metadata; v1 entries still decode (without facets).
+ */
+public class SearchResponseCodec implements CacheValueCodec<SearchResponse> {
+
+    public static final int TYPE_ID = 1;
+
+    @Override
+    public int typeId() {
+        return TYPE_ID;
+    }
+
+    @Override
+    public int version() {
+        return 2;
+    }
+
+    @Override
+    public void write(SearchResponse value, CodecWriter out) {
+        out.writeSignedVarLong(value.getTotalResults());
+        out.writeSignedVarLong(value.getTotalPages());
+        out.writeVarInt(value.getCurrentPage());
+        out.writeVarInt(value.getPageSize());
+        out.writeBoolean(value.isHasNext());
+        out.writeBoolean(value.isHasPrevious());
+        out.writeString(value.getNextCursor());
+
+        SearchMetadata metadata = value.getMetadata();
+        out.writeBoolean(metadata != null);
+        if (metadata != null) {
+            out.writeVarLong(metadata.getSearchTimeMs());
+            out.writeString(metadata.getAppliedFilters());
+            out.writeVarInt(metadata.getTotalFilters());
+            out.writeString(metadata.getSortedBy());
+            out.writeBoolean(metadata.isCached());
+            out.writeString(metadata.getSearchQuery());
+            writeFacets(metadata.getFacets(), out);
+        }
+
+        List<ProductSearchResult> results = value.getResults() != null ? value.getResults() : List.of();
+        out.writeVarInt(results.size());
+        for (ProductSearchResult result : results) {
+            writeResult(result, out);
+        }
+    }
+
+    @Override
+    public SearchResponse read(CodecReader in, int version) {
+        if (version < 1 || version > 2) {
+            throw new IllegalStateException("Unsupported search response layout v" + version);
+        }
+        SearchResponse response = new SearchResponse();
+        response.setTotalResults(in.readSignedVarLong());
+        response.setTotalPages((int) in.readSignedVarLong());
+        response.setCurrentPage(in.readVarInt());
+        response.setPageSize(in.readVarInt());
+        response.setHasNext(in.readBoolean());
+        response.setHasPrevious(in.readBoolean());
+        response.setNextCursor(in.readString());
+
+        if (in.readBoolean()) {
+            SearchMetadata metadata = new SearchMetadata();
+            metadata.setSearchTimeMs(in.readVarLong());
+            metadata.setAppliedFilters(in.readString());
+            metadata.setTotalFilters(in.readVarInt());
+            metadata.setSortedBy(in.readString());
+            metadata.setCached(in.readBoolean());
+            metadata.setSearchQuery(in.readString());
+            if (version >= 2) {
+                metadata.setFacets(readFacets(in));
+            }
+            response.setMetadata(metadata);
+        }
+
+        int size = in.readSize();
+        List<ProductSearchResult> results = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            results.add(readResult(in));
+        }
+        response.setResults(results);
+        return response;
+    }
+
+    private static void writeFacets(SearchFacets facets, CodecWriter out) {
+        out.writeBoolean(facets != null);
+        if (facets != null) {
+            writeCounts(facets.getCategories(), out);
+            writeCounts(facets.getConditions(), out);
+            writeCounts(facets.getPriceRanges(), out);
+        }
+    }
+
+    private static SearchFacets readFacets(CodecReader in) {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        Map<String, Long> categories = readCounts(in);
+        Map<String, Long> conditions = readCounts(in);
+        Map<String, Long> priceRanges = readCounts(in);
+        return new SearchFacets(categories, conditions, priceRanges);
+    }
+
+    private static void writeCounts(Map<String, Long> counts, CodecWriter out) {
+        Map<String, Long> entries = counts != null ? counts : Map.of();
+        out.writeVarInt(entries.size());
+        entries.forEach((key, count) -> {
+            out.writeString(key);
+            out.writeSignedVarLong(count != null ? count : 0);
+        });
+    }
+
+    private static Map<String, Long> readCounts(CodecReader in) {
+        int size = in.readSize();
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (int i = 0; i < size; i++) {
+            counts.put(in.readString(), in.readSignedVarLong());
+        }
+        return counts;
+    }
+
+    private static void writeResult(ProductSearchResult result, CodecWriter out) {
+        out.writeUuid(result.getProductId());
+        out.writeString(result.getTitle());
+        out.writeString(result.getDescription());
+        out.writeDecimal(result.getPrice());
+        out.writeEnum(result.getCategory());
+        out.writeEnum(result.getCondition());
+        out.writeUuid(result.getSellerId());
+        out.writeString(result.getSellerName());
+        out.writeString(result.getSellerUsername());
+        out.writeString(result.getLocation());
+        out.writeNullableInt(result.getViewCount());
+        out.writeNullableInt(result.getFavoriteCount());
+        out.writeDateTime(result.getCreatedAt());
+        ProductSummaryListCodec.writeStrings(result.getImageUrls(), out);
+        out.writeNullableFloat(result.getRelevanceScore());
+        out.writeNullableBoolean(result.getNegotiable());
+        out.writeNullableInt(result.getQuantity());
+    }
+
+    private static ProductSearchResult readResult(CodecReader in) {
+        ProductSearchResult result = new ProductSearchResult();
+        result.setProductId(in.readUuid());
+        result.setTitle(in.readString());
+        result.setDescription(in.readString());
+        result.setPrice(in.readDecimal());
+        result.setCategory(in.readEnum(ProductCategory.class));
+        result.setCondition(in.readEnum(ProductCondition.class));
+        result.setSellerId(in.readUuid());
+        result.setSellerName(in.readString());
+        result.setSellerUsername(in.readString());
+        result.setLocation(in.readString());
+        result.setViewCount(in.readNullableInt());
+        result.setFavoriteCount(in.readNullableInt());
+        result.setCreatedAt(in.readDateTime());
+        result.setImageUrls(ProductSummaryListCodec.readStrings(in));
+        result.setRelevanceScore(in.readNullableFloat());
+        result.setNegotiable(in.readNullableBoolean());
+        result.setQuantity(in.readNullableInt());
+        return result;
+    }
+}
@@ -0,0 +1,43 @@
+package com.commandlinecommandos.campusmarketplace.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Codec for cached autocomplete suggestions ("autocomplete")
+ */
+public class StringListCodec implements CacheValueCodec<List<String>> {
+
+    public static final int TYPE_ID = 3;
+
+    @Override
+    public int typeId() {
+        return TYPE_ID;
+    }
+
+    @Override
+    public int version() {
+        return 1;
+    }
+
+    @Override
+    public void write(List<String> value, CodecWriter out) {
+        out.writeVarInt(value.size());
+        for (String suggestion : value) {
+            out.writeString(suggestion);
+        }
+    }
+
+    @Override
+    public List<String> read(CodecReader in, int version) {
+        if (version != 1) {
+            throw new IllegalStateException("Unsupported string list layout v" + version);
+        }
+        int size = in.readSize();
+        List<String> values = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            values.add(in.readString());
+        }
+        return values;
+    }
+}
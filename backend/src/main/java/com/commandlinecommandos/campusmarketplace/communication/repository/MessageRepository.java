@@ -1,12 +1,14 @@
 package com.commandlinecommandos.campusmarketplace.communication.repository;
 
 import com.commandlinecommandos.campusmarketplace.communication.model.Message;
+import com.commandlinecommandos.campusmarketplace.repository.ListingActivity;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
@@ -18,6 +20,13 @@ public interface MessageRepository extends JpaRepository<Message, UUID> {
      */
     List<Message> findByConversation_ConversationIdOrderByCreatedAtAsc(UUID conversationId);
     
+    /**
+     * Messages about listings since a point in time, for seeding trending scores
+     */
+    @Query("SELECT m.conversation.listingId AS listingId, m.createdAt AS occurredAt FROM Message m " +
+           "WHERE m.createdAt > :since")
+    List<ListingActivity> findActivitySince(@Param("since") LocalDateTime since);
+    
     /**
      * Count unread messages in a conversation for a specific user
      */
@@ -8,6 +8,7 @@ import com.commandlinecommandos.campusmarketplace.exception.ConversationNotFound
 import com.commandlinecommandos.campusmarketplace.exception.UnauthorizedAccessException;
 import com.commandlinecommandos.campusmarketplace.exception.ConversationException;
 import com.commandlinecommandos.campusmarketplace.service.ListingsService;
+import com.commandlinecommandos.campusmarketplace.service.TrendingService;
 import com.commandlinecommandos.campusmarketplace.model.Product;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -37,6 +38,9 @@ public class ChatService {
     @Autowired(required = false)
     private EmailNotificationService emailNotificationService;
 
+    @Autowired
+    private TrendingService trendingService;
+
     /**
      * Creates or gets an existing conversation for a listing between buyer and seller.
      * 
@@ -108,6 +112,9 @@ public class ChatService {
         logger.info("Message {} sent in conversation {} by user {}", 
             message.getMessageId(), conversationId, senderId);
         
+        // Buyers asking about a listing is the strongest trending signal
+        trendingService.recordMessage(listingsService.getListingById(conversation.getListingId()));
+        
         if (emailNotificationService != null) {
             try {
                 emailNotificationService.sendMessageNotification(conversation, message, senderId);
@@ -11,6 +11,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -113,6 +114,58 @@ public class EmailNotificationService {
         }
     }
 
+    /**
+     * Sends an email notification when a new listing matches one of the user's saved searches.
+     * Runs asynchronously so listing creation never waits on SMTP; honours the same
+     * preferences as message notifications.
+     * 
+     * @param userId Owner of the saved search
+     * @param searchName Name of the matching saved search
+     * @param listingTitle Title of the new listing
+     */
+    @Async
+    @Transactional(readOnly = true)
+    public void sendSavedSearchMatchNotification(UUID userId, String searchName, String listingTitle) {
+        if (!emailNotificationsEnabled || emailService == null) {
+            logger.debug("Email notifications disabled or email service not configured");
+            return;
+        }
+
+        Optional<User> recipientOpt = userRepository.findById(userId);
+        if (recipientOpt.isEmpty()) {
+            logger.warn("Saved search owner {} not found", userId);
+            return;
+        }
+        User recipient = recipientOpt.get();
+
+        Optional<NotificationPreference> preference = preferenceRepository.findByUserId(userId);
+        if (preference.isPresent() && !preference.get().getEmailNotificationsEnabled()) {
+            logger.debug("User {} has explicitly disabled email notifications", userId);
+            return;
+        }
+
+        String recipientEmail = preference
+            .map(NotificationPreference::getEmail)
+            .filter(email -> email != null && !email.trim().isEmpty())
+            .orElse(recipient.getEmail());
+        String recipientFirstName = preference
+            .map(NotificationPreference::getFirstName)
+            .filter(name -> name != null && !name.trim().isEmpty())
+            .orElse(recipient.getFirstName());
+
+        if (recipientEmail == null || recipientEmail.trim().isEmpty()) {
+            logger.warn("No email address found for user {}", userId);
+            return;
+        }
+
+        try {
+            emailService.sendSavedSearchMatchEmail(recipientEmail, recipientFirstName, searchName, listingTitle);
+            logger.info("✅ Saved search notification sent to {} for '{}'", recipientEmail, searchName);
+        } catch (Exception e) {
+            logger.error("❌ Failed to send saved search notification to {}: {}", recipientEmail, e.getMessage(), e);
+        }
+    }
+
     /**
      * Gets the display name for a user (firstName lastName or username).
      */
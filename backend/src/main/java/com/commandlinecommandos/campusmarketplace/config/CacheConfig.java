@@ -1,5 +1,11 @@
 package com.commandlinecommandos.campusmarketplace.config;
 
+import com.commandlinecommandos.campusmarketplace.cache.CacheValueCodec;
+import com.commandlinecommandos.campusmarketplace.cache.CodecRedisSerializer;
+import com.commandlinecommandos.campusmarketplace.cache.ProductSummaryListCodec;
+import com.commandlinecommandos.campusmarketplace.cache.RecentlyViewedRingCodec;
+import com.commandlinecommandos.campusmarketplace.cache.SearchResponseCodec;
+import com.commandlinecommandos.campusmarketplace.cache.StringListCodec;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
@@ -24,6 +30,8 @@ import com.fasterxml.jackson.databind.SerializationFeature;
 import com.github.benmanes.caffeine.cache.Caffeine;
 
 import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * Cache Configuration with graceful Redis fallback
@@ -46,6 +54,11 @@ import java.time.Duration;
 public class CacheConfig {
     
     private static final Logger log = LoggerFactory.getLogger(CacheConfig.class);
+    
+    private static final Duration SEARCH_RESULTS_TTL = Duration.ofMinutes(1);
+    
+    // Recently viewed rings are kept up to date on every view, so they only expire when unused
+    private static final Duration RECENTLY_VIEWED_TTL = Duration.ofDays(30);
 
     /**
      * Redis Cache Manager (Primary)
@@ -81,8 +94,10 @@ public class CacheConfig {
             
             // Redis cache manager allows dynamic cache creation by default
             // No need to pre-define cache names - they're created on first use
+            // Hot caches use compact binary codecs instead of JSON with embedded class names
             return RedisCacheManager.builder(connectionFactory)
                 .cacheDefaults(config)
+                .withInitialCacheConfigurations(codecCacheConfigurations(config))
                 .transactionAware()
                 .build();
                 
@@ -92,6 +107,25 @@ public class CacheConfig {
         }
     }
 
+    /**
+     * Per-cache configurations for caches with a typed binary codec
+     * Search pages get a short TTL since listing writes do not evict them
+     */
+    private Map<String, RedisCacheConfiguration> codecCacheConfigurations(RedisCacheConfiguration defaults) {
+        Map<String, RedisCacheConfiguration> configs = new HashMap<>();
+        configs.put("searchResults", withCodec(defaults, new SearchResponseCodec()).entryTtl(SEARCH_RESULTS_TTL));
+        configs.put("autocomplete", withCodec(defaults, new StringListCodec()));
+        configs.put("recommendedItems", withCodec(defaults, new ProductSummaryListCodec()));
+        configs.put("recentlyViewedIds",
+            withCodec(defaults, new RecentlyViewedRingCodec()).entryTtl(RECENTLY_VIEWED_TTL));
+        return configs;
+    }
+    
+    private static RedisCacheConfiguration withCodec(RedisCacheConfiguration defaults, CacheValueCodec<?> codec) {
+        return defaults.serializeValuesWith(
+            RedisSerializationContext.SerializationPair.fromSerializer(new CodecRedisSerializer<>(codec)));
+    }
+
     /**
      * Caffeine Cache Manager (Fallback)
      * Used when Redis is unavailable or CACHE_TYPE=caffeine
@@ -114,7 +148,7 @@ public class CacheConfig {
             "trendingProducts",
             "recommendations",
             "recommendedItems",
-            "recentlyViewed",
+            "recentlyViewedIds",
             "autocomplete"
         );
         
@@ -122,6 +156,16 @@ public class CacheConfig {
             .maximumSize(1000)
             .expireAfterWrite(Duration.ofMinutes(10))
             .recordStats());
+        cacheManager.registerCustomCache("searchResults", Caffeine.newBuilder()
+            .maximumSize(1000)
+            .expireAfterWrite(SEARCH_RESULTS_TTL)
+            .recordStats()
+            .build());
+        cacheManager.registerCustomCache("recentlyViewedIds", Caffeine.newBuilder()
+            .maximumSize(100_000)
+            .expireAfterAccess(RECENTLY_VIEWED_TTL)
+            .recordStats()
+            .build());
         
         log.info("✅ Caffeine cache enabled - Using in-memory caching");
         
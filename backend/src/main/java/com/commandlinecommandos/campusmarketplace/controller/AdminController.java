@@ -9,8 +9,10 @@ import com.commandlinecommandos.campusmarketplace.model.UserRole;
 import com.commandlinecommandos.campusmarketplace.repository.ProductRepository;
 import com.commandlinecommandos.campusmarketplace.repository.UserRepository;
 import com.commandlinecommandos.campusmarketplace.repository.UserReportRepository;
+import com.commandlinecommandos.campusmarketplace.search.ListingSearchIndex;
 import com.commandlinecommandos.campusmarketplace.security.RequireRole;
 import com.commandlinecommandos.campusmarketplace.service.EmailService;
+import com.commandlinecommandos.campusmarketplace.service.TrendingService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -53,6 +55,12 @@ public class AdminController {
     @Autowired(required = false)
     private EmailService emailService;
     
+    @Autowired
+    private ListingSearchIndex listingSearchIndex;
+    
+    @Autowired
+    private TrendingService trendingService;
+    
     /**
      * Get admin dashboard with real statistics
      */
@@ -108,6 +116,8 @@ public class AdminController {
             
             product.setModerationStatus(newStatus);
             productRepository.save(product);
+            listingSearchIndex.indexAfterCommit(product);
+            trendingService.update(product);
             
             // Send email notification for rejected listings
             if (newStatus == ModerationStatus.REJECTED && emailService != null) {
@@ -1,5 +1,6 @@
 package com.commandlinecommandos.campusmarketplace.controller;
 
+import com.commandlinecommandos.campusmarketplace.dto.DiscoveryFeedResponse;
 import com.commandlinecommandos.campusmarketplace.dto.ProductSummary;
 import com.commandlinecommandos.campusmarketplace.dto.TrendingResponse;
 import com.commandlinecommandos.campusmarketplace.dto.RecommendedResponse;
@@ -11,6 +12,7 @@ import com.commandlinecommandos.campusmarketplace.exception.UnauthorizedExceptio
 import com.commandlinecommandos.campusmarketplace.model.User;
 import com.commandlinecommandos.campusmarketplace.repository.UserRepository;
 import com.commandlinecommandos.campusmarketplace.security.JwtUtil;
+import com.commandlinecommandos.campusmarketplace.service.DiscoveryFeedService;
 import com.commandlinecommandos.campusmarketplace.service.DiscoveryService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -38,6 +40,9 @@ public class DiscoveryController {
     @Autowired
     private DiscoveryService discoveryService;
     
+    @Autowired
+    private DiscoveryFeedService discoveryFeedService;
+    
     @Autowired
     private JwtUtil jwtUtil;
     
@@ -192,6 +197,42 @@ public class DiscoveryController {
         }
     }
     
+    /**
+     * Get the whole discovery home feed in one request
+     * Trending, recommended, recently viewed and (with similarTo) similar items, fetched concurrently;
+     * a section that is too slow comes back empty and is named in missingSections
+     * 
+     * @param similarTo Product UUID the similar section is about (optional)
+     * @param limit Maximum number of products per section (default: 10)
+     * @param token JWT authorization token
+     * @return All feed sections
+     */
+    @GetMapping("/feed")
+    @Operation(summary = "Get the discovery home feed",
+               description = "Get trending, recommended, recently viewed and similar products in one response")
+    public ResponseEntity<?> getFeed(
+            @Parameter(description = "Product UUID for the similar section") 
+            @RequestParam(required = false) UUID similarTo,
+            @Parameter(description = "Maximum number of products per section") 
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestHeader(value = "Authorization", required = false) String token) {
+        
+        try {
+            if (limit < 1 || limit > 50) {
+                return ResponseEntity.badRequest().body(new ErrorResponse("limit must be between 1 and 50"));
+            }
+            
+            User user = getCurrentUser(token);
+            DiscoveryFeedResponse feed = discoveryFeedService.getFeed(user, similarTo, limit);
+            
+            log.debug("Discovery feed: user={}, missing={}", user.getUsername(), feed.getMissingSections());
+            return ResponseEntity.ok(feed);
+        } catch (UnauthorizedException e) {
+            log.warn("Unauthorized feed request: {}", e.getMessage());
+            return ResponseEntity.status(401).build();
+        }
+    }
+    
     /**
      * Helper method to extract user from JWT token
      * 
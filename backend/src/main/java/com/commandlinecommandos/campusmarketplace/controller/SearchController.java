@@ -1,12 +1,17 @@
 package com.commandlinecommandos.campusmarketplace.controller;
 
 import com.commandlinecommandos.campusmarketplace.dto.*;
+import com.commandlinecommandos.campusmarketplace.exception.NotFoundException;
 import com.commandlinecommandos.campusmarketplace.exception.UnauthorizedException;
 import com.commandlinecommandos.campusmarketplace.model.SearchHistory;
 import com.commandlinecommandos.campusmarketplace.model.User;
 import com.commandlinecommandos.campusmarketplace.repository.SearchHistoryRepository;
 import com.commandlinecommandos.campusmarketplace.repository.UserRepository;
+import com.commandlinecommandos.campusmarketplace.search.PopularSearchTracker;
 import com.commandlinecommandos.campusmarketplace.security.JwtUtil;
+import com.commandlinecommandos.campusmarketplace.service.SavedSearchService;
+import com.commandlinecommandos.campusmarketplace.service.SearchExportService;
+import com.commandlinecommandos.campusmarketplace.service.SearchHistoryService;
 import com.commandlinecommandos.campusmarketplace.service.SearchService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -14,10 +19,14 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
 
 /**
  * Controller for product search and autocomplete
@@ -30,6 +39,8 @@ public class SearchController {
     
     private static final Logger log = LoggerFactory.getLogger(SearchController.class);
     
+    private static final String NDJSON = "application/x-ndjson";
+    
     @Autowired
     private SearchService searchService;
     
@@ -42,6 +53,15 @@ public class SearchController {
     @Autowired
     private SearchHistoryRepository searchHistoryRepository;
     
+    @Autowired
+    private SearchHistoryService searchHistoryService;
+    
+    @Autowired
+    private SearchExportService searchExportService;
+    
+    @Autowired
+    private SavedSearchService savedSearchService;
+    
     /**
      * Main search endpoint
      * Supports full-text search, filtering, sorting, and pagination
@@ -77,6 +97,13 @@ public class SearchController {
             }
             SearchResponse response = searchService.search(request, user);
             
+            // Record history here rather than in the (cached) service, once per search, not per scrolled page
+            boolean firstPage = request.getCursor() == null || request.getCursor().isEmpty();
+            if (firstPage && request.getQuery() != null && !request.getQuery().trim().isEmpty()) {
+                searchHistoryService.recordSearch(user, request.getQuery(),
+                    (int) Math.max(response.getTotalResults(), response.getResults().size()));
+            }
+            
             log.info("Search request: user={}, query='{}', results={}",
                     user.getUsername(), request.getQuery(), response.getTotalResults());
             
@@ -93,8 +120,51 @@ public class SearchController {
         }
     }
     
+    /**
+     * Export endpoint
+     * Streams every result of a search as NDJSON (one JSON object per line) without a page cap;
+     * page, size and cursor are ignored
+     * 
+     * @param request Search request with query and filters
+     * @param token JWT authorization token
+     * @return application/x-ndjson stream of search results
+     */
+    @PostMapping("/export")
+    @Operation(summary = "Export search results",
+               description = "Stream all results of a search as newline-delimited JSON. Every query term " +
+                             "must appear in the title or description, as in /search, but there is no " +
+                             "fuzzy fallback for typos and relevance sort falls back to newest first")
+    public ResponseEntity<?> export(
+            @RequestBody SearchRequest request,
+            @RequestHeader(value = "Authorization", required = false) String token) {
+        
+        try {
+            User user = getCurrentUser(token);
+            
+            if (request.getMinPrice() != null && request.getMaxPrice() != null && 
+                request.getMinPrice().compareTo(request.getMaxPrice()) > 0) {
+                return ResponseEntity.badRequest().body(new ErrorResponse("minPrice cannot be greater than maxPrice"));
+            }
+            if (request.getSortBy() != null && !isValidSortBy(request.getSortBy())) {
+                return ResponseEntity.badRequest().body(new ErrorResponse("Invalid sortBy parameter: " + request.getSortBy()));
+            }
+            if (user.getUniversity() == null) {
+                return ResponseEntity.badRequest().body(new ErrorResponse("User must have a university assigned to export searches"));
+            }
+            
+            log.info("Search export request: user={}, query='{}'", user.getUsername(), request.getQuery());
+            StreamingResponseBody body = out -> searchExportService.exportNdjson(request, user, out);
+            return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NDJSON))
+                .body(body);
+        } catch (UnauthorizedException e) {
+            log.warn("Unauthorized search export attempt: {}", e.getMessage());
+            return ResponseEntity.status(401).build();
+        }
+    }
+    
     private boolean isValidSortBy(String sortBy) {
-        return sortBy.matches("^(relevance|price_(asc|desc)|date_(asc|desc))$");
+        return sortBy.matches("^(relevance|price_(asc|desc)|date_(asc|desc)|popularity)$");
     }
     
     /**
@@ -137,6 +207,72 @@ public class SearchController {
         }
     }
     
+    /**
+     * Popular searches endpoint
+     * Most searched queries at the user's university, counted in memory with a bounded error
+     * 
+     * @param window hour, day or week
+     * @param limit Maximum number of queries (1-50)
+     * @param token JWT authorization token
+     * @return Popular queries with their approximate counts
+     */
+    @GetMapping("/popular")
+    @Operation(summary = "Get popular searches",
+               description = "Most searched queries at the user's university in the last hour, day or week")
+    public ResponseEntity<?> popularSearches(
+            @RequestParam(value = "window", defaultValue = "week") String window,
+            @RequestParam(value = "limit", defaultValue = "10") int limit,
+            @RequestHeader(value = "Authorization", required = false) String token) {
+        
+        try {
+            User user = getCurrentUser(token);
+            if (limit < 1 || limit > 50) {
+                return ResponseEntity.badRequest().body(new ErrorResponse("limit: must be between 1 and 50"));
+            }
+            PopularSearchTracker.Window timeWindow = PopularSearchTracker.Window.from(window);
+            if (user.getUniversity() == null) {
+                return ResponseEntity.ok(new PopularSearchesResponse(timeWindow.name().toLowerCase(Locale.ROOT), List.of()));
+            }
+            List<PopularSearchItem> searches = searchHistoryService.getPopularSearches(
+                user.getUniversity().getUniversityId(), timeWindow, limit);
+            return ResponseEntity.ok(new PopularSearchesResponse(timeWindow.name().toLowerCase(Locale.ROOT), searches));
+        } catch (UnauthorizedException e) {
+            log.warn("Unauthorized popular searches attempt: {}", e.getMessage());
+            return ResponseEntity.status(401).build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+        }
+    }
+    
+    /**
+     * Trending searches endpoint
+     * Queries searched in the last hour more often than the day's hourly average
+     * 
+     * @param limit Maximum number of queries (1-50)
+     * @param token JWT authorization token
+     * @return Trending queries, count is the rise over the hourly average
+     */
+    @GetMapping("/trending")
+    @Operation(summary = "Get trending searches",
+               description = "Queries at the user's university that are rising in the last hour")
+    public ResponseEntity<?> trendingSearches(
+            @RequestParam(value = "limit", defaultValue = "10") int limit,
+            @RequestHeader(value = "Authorization", required = false) String token) {
+        
+        try {
+            User user = getCurrentUser(token);
+            if (limit < 1 || limit > 50) {
+                return ResponseEntity.badRequest().body(new ErrorResponse("limit: must be between 1 and 50"));
+            }
+            List<PopularSearchItem> searches = user.getUniversity() == null ? List.of()
+                : searchHistoryService.getTrendingSearches(user.getUniversity().getUniversityId(), limit);
+            return ResponseEntity.ok(new PopularSearchesResponse("hour", searches));
+        } catch (UnauthorizedException e) {
+            log.warn("Unauthorized trending searches attempt: {}", e.getMessage());
+            return ResponseEntity.status(401).build();
+        }
+    }
+    
     /**
      * Get search history for current user
      * Returns recent search queries
@@ -175,6 +311,82 @@ public class SearchController {
         }
     }
     
+    /**
+     * Get saved searches for current user
+     * 
+     * @param token JWT authorization token
+     * @return Saved searches, newest first
+     */
+    @GetMapping("/saved")
+    @Operation(summary = "Get saved searches",
+               description = "Get the current user's saved searches")
+    public ResponseEntity<?> getSavedSearches(
+            @RequestHeader(value = "Authorization", required = false) String token) {
+        
+        try {
+            User user = getCurrentUser(token);
+            return ResponseEntity.ok(new SavedSearchResponse(savedSearchService.getSavedSearches(user)));
+        } catch (UnauthorizedException e) {
+            log.warn("Unauthorized saved search attempt: {}", e.getMessage());
+            return ResponseEntity.status(401).build();
+        }
+    }
+    
+    /**
+     * Save a search
+     * New listings matching the criteria trigger a notification instead of the user re-running the search
+     * 
+     * @param request Name, criteria and whether to notify
+     * @param token JWT authorization token
+     * @return The saved search
+     */
+    @PostMapping("/saved")
+    @Operation(summary = "Save a search",
+               description = "Save search criteria and get notified about new matching listings")
+    public ResponseEntity<?> saveSearch(
+            @RequestBody SaveSearchRequest request,
+            @RequestHeader(value = "Authorization", required = false) String token) {
+        
+        try {
+            User user = getCurrentUser(token);
+            SavedSearchItem saved = savedSearchService.saveSearch(
+                user, request.getName(), request.getCriteria(), request.getNotify());
+            return ResponseEntity.status(201).body(saved);
+        } catch (UnauthorizedException e) {
+            log.warn("Unauthorized saved search attempt: {}", e.getMessage());
+            return ResponseEntity.status(401).build();
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid saved search: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+        }
+    }
+    
+    /**
+     * Delete a saved search
+     * 
+     * @param id Saved search ID
+     * @param token JWT authorization token
+     * @return 204 when deleted
+     */
+    @DeleteMapping("/saved/{id}")
+    @Operation(summary = "Delete a saved search",
+               description = "Delete one of the current user's saved searches")
+    public ResponseEntity<?> deleteSavedSearch(
+            @PathVariable UUID id,
+            @RequestHeader(value = "Authorization", required = false) String token) {
+        
+        try {
+            User user = getCurrentUser(token);
+            savedSearchService.deleteSavedSearch(user, id);
+            return ResponseEntity.noContent().build();
+        } catch (UnauthorizedException e) {
+            log.warn("Unauthorized saved search attempt: {}", e.getMessage());
+            return ResponseEntity.status(401).build();
+        } catch (NotFoundException e) {
+            return ResponseEntity.status(404).body(new ErrorResponse(e.getMessage()));
+        }
+    }
+    
     /**
      * Helper method to extract user from JWT token
      * 
@@ -0,0 +1,68 @@
+package com.commandlinecommandos.campusmarketplace.dto;
+
+import java.util.List;
+
+/**
+ * Response wrapper for the discovery home feed
+ * Sections that missed their deadline or failed are empty and listed in missingSections
+ */
+public class DiscoveryFeedResponse {
+    private List<ProductSummary> trending;
+    private List<ProductSummary> recommended;
+    private List<ProductSummary> recentlyViewed;
+    private List<ProductSummary> similar;
+    private List<String> missingSections;
+
+    public DiscoveryFeedResponse() {
+    }
+
+    public DiscoveryFeedResponse(List<ProductSummary> trending, List<ProductSummary> recommended,
+                                 List<ProductSummary> recentlyViewed, List<ProductSummary> similar,
+                                 List<String> missingSections) {
+        this.trending = trending;
+        this.recommended = recommended;
+        this.recentlyViewed = recentlyViewed;
+        this.similar = similar;
+        this.missingSections = missingSections;
+    }
+
+    public List<ProductSummary> getTrending() {
+        return trending;
+    }
+
+    public void setTrending(List<ProductSummary> trending) {
+        this.trending = trending;
+    }
+
+    public List<ProductSummary> getRecommended() {
+        return recommended;
+    }
+
+    public void setRecommended(List<ProductSummary> recommended) {
+        this.recommended = recommended;
+    }
+
+    public List<ProductSummary> getRecentlyViewed() {
+        return recentlyViewed;
+    }
+
+    public void setRecentlyViewed(List<ProductSummary> recentlyViewed) {
+        this.recentlyViewed = recentlyViewed;
+    }
+
+    public List<ProductSummary> getSimilar() {
+        return similar;
+    }
+
+    public void setSimilar(List<ProductSummary> similar) {
+        this.similar = similar;
+    }
+
+    public List<String> getMissingSections() {
+        return missingSections;
+    }
+
+    public void setMissingSections(List<String> missingSections) {
+        this.missingSections = missingSections;
+    }
+}
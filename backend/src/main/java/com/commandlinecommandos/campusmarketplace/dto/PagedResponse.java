@@ -15,6 +15,7 @@ public class PagedResponse<T> {
     private boolean first;
     private boolean last;
     private boolean empty;
+    private String nextCursor;
 
     // Constructors
     public PagedResponse() {
@@ -79,6 +80,11 @@ public class PagedResponse<T> {
             return this;
         }
 
+        public PagedResponseBuilder<T> nextCursor(String nextCursor) {
+            response.nextCursor = nextCursor;
+            return this;
+        }
+
         public PagedResponse<T> build() {
             return response;
         }
@@ -148,4 +154,15 @@ public class PagedResponse<T> {
     public void setEmpty(boolean empty) {
         this.empty = empty;
     }
+
+    /**
+     * Keyset pagination token for the next page (null on the last page or in page-number mode)
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
 }
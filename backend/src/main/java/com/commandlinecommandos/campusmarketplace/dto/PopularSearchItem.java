@@ -0,0 +1,45 @@
+package com.commandlinecommandos.campusmarketplace.dto;
+
+/**
+ * DTO for a popular or trending search query
+ * Counts come from a heavy-hitters sketch: the query was searched between
+ * count - errorBound and count times in the window
+ */
+public class PopularSearchItem {
+    private String query;
+    private long count;
+    private long errorBound;
+
+    public PopularSearchItem() {
+    }
+
+    public PopularSearchItem(String query, long count, long errorBound) {
+        this.query = query;
+        this.count = count;
+        this.errorBound = errorBound;
+    }
+
+    public String getQuery() {
+        return query;
+    }
+
+    public void setQuery(String query) {
+        this.query = query;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+
+    public long getErrorBound() {
+        return errorBound;
+    }
+
+    public void setErrorBound(long errorBound) {
+        this.errorBound = errorBound;
+    }
+}
@@ -0,0 +1,35 @@
+package com.commandlinecommandos.campusmarketplace.dto;
+
+import java.util.List;
+
+/**
+ * Response wrapper for popular and trending searches
+ */
+public class PopularSearchesResponse {
+    private String window;
+    private List<PopularSearchItem> searches;
+
+    public PopularSearchesResponse() {
+    }
+
+    public PopularSearchesResponse(String window, List<PopularSearchItem> searches) {
+        this.window = window;
+        this.searches = searches;
+    }
+
+    public String getWindow() {
+        return window;
+    }
+
+    public void setWindow(String window) {
+        this.window = window;
+    }
+
+    public List<PopularSearchItem> getSearches() {
+        return searches;
+    }
+
+    public void setSearches(List<PopularSearchItem> searches) {
+        this.searches = searches;
+    }
+}
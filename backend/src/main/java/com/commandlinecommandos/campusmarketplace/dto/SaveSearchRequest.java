@@ -0,0 +1,39 @@
+package com.commandlinecommandos.campusmarketplace.dto;
+
+/**
+ * Request to save a search
+ * Only query, categories, conditions, price range and location of the criteria are stored
+ */
+public class SaveSearchRequest {
+    
+    private String name;
+    private SearchRequest criteria;
+    private Boolean notify;
+    
+    public SaveSearchRequest() {
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public void setName(String name) {
+        this.name = name;
+    }
+    
+    public SearchRequest getCriteria() {
+        return criteria;
+    }
+    
+    public void setCriteria(SearchRequest criteria) {
+        this.criteria = criteria;
+    }
+    
+    public Boolean getNotify() {
+        return notify;
+    }
+    
+    public void setNotify(Boolean notify) {
+        this.notify = notify;
+    }
+}
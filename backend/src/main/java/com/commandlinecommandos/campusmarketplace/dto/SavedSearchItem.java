@@ -0,0 +1,67 @@
+package com.commandlinecommandos.campusmarketplace.dto;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * DTO for a saved search
+ * criteria can be posted to /search as is
+ */
+public class SavedSearchItem {
+    private UUID id;
+    private String name;
+    private SearchRequest criteria;
+    private boolean notify;
+    private LocalDateTime createdAt;
+    
+    public SavedSearchItem() {
+    }
+    
+    public SavedSearchItem(UUID id, String name, SearchRequest criteria, boolean notify, LocalDateTime createdAt) {
+        this.id = id;
+        this.name = name;
+        this.criteria = criteria;
+        this.notify = notify;
+        this.createdAt = createdAt;
+    }
+    
+    public UUID getId() {
+        return id;
+    }
+    
+    public void setId(UUID id) {
+        this.id = id;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public void setName(String name) {
+        this.name = name;
+    }
+    
+    public SearchRequest getCriteria() {
+        return criteria;
+    }
+    
+    public void setCriteria(SearchRequest criteria) {
+        this.criteria = criteria;
+    }
+    
+    public boolean isNotify() {
+        return notify;
+    }
+    
+    public void setNotify(boolean notify) {
+        this.notify = notify;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
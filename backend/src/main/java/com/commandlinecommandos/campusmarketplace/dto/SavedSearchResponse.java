@@ -0,0 +1,25 @@
+package com.commandlinecommandos.campusmarketplace.dto;
+
+import java.util.List;
+
+/**
+ * Response wrapper for saved searches
+ */
+public class SavedSearchResponse {
+    private List<SavedSearchItem> savedSearches;
+
+    public SavedSearchResponse() {
+    }
+
+    public SavedSearchResponse(List<SavedSearchItem> savedSearches) {
+        this.savedSearches = savedSearches;
+    }
+
+    public List<SavedSearchItem> getSavedSearches() {
+        return savedSearches;
+    }
+
+    public void setSavedSearches(List<SavedSearchItem> savedSearches) {
+        this.savedSearches = savedSearches;
+    }
+}
@@ -0,0 +1,59 @@
+package com.commandlinecommandos.campusmarketplace.dto;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Result counts per category, condition and price range for a search
+ * Each dimension is counted with all other filters applied but not its own, so the
+ * counts show how many results picking another value would give.
+ */
+public class SearchFacets {
+
+    private Map<String, Long> categories = new LinkedHashMap<>();
+    private Map<String, Long> conditions = new LinkedHashMap<>();
+    private Map<String, Long> priceRanges = new LinkedHashMap<>();
+
+    public SearchFacets() {
+    }
+
+    public SearchFacets(Map<String, Long> categories, Map<String, Long> conditions,
+                        Map<String, Long> priceRanges) {
+        this.categories = categories;
+        this.conditions = conditions;
+        this.priceRanges = priceRanges;
+    }
+
+    /**
+     * Counts keyed by ProductCategory name
+     */
+    public Map<String, Long> getCategories() {
+        return categories;
+    }
+
+    public void setCategories(Map<String, Long> categories) {
+        this.categories = categories;
+    }
+
+    /**
+     * Counts keyed by ProductCondition name
+     */
+    public Map<String, Long> getConditions() {
+        return conditions;
+    }
+
+    public void setConditions(Map<String, Long> conditions) {
+        this.conditions = conditions;
+    }
+
+    /**
+     * Counts keyed by price range label ("0-25", "25-50", ..., "500+")
+     */
+    public Map<String, Long> getPriceRanges() {
+        return priceRanges;
+    }
+
+    public void setPriceRanges(Map<String, Long> priceRanges) {
+        this.priceRanges = priceRanges;
+    }
+}
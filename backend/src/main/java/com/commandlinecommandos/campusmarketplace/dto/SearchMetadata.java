@@ -1,5 +1,8 @@
 package com.commandlinecommandos.campusmarketplace.dto;
 
+import java.util.List;
+import java.util.UUID;
+
 /**
  * Metadata about the search query execution
  * Provides information about search performance and applied filters
@@ -12,6 +15,9 @@ public class SearchMetadata {
     private String sortedBy;
     private boolean cached;
     private String searchQuery;
+    private SearchFacets facets;
+    private boolean partialResults;
+    private List<UUID> unavailableUniversityIds;
     
     public SearchMetadata() {
     }
@@ -73,5 +79,37 @@ public class SearchMetadata {
     public void setSearchQuery(String searchQuery) {
         this.searchQuery = searchQuery;
     }
+    
+    /**
+     * Category, condition and price range counts (null when the search ran without the index)
+     */
+    public SearchFacets getFacets() {
+        return facets;
+    }
+    
+    public void setFacets(SearchFacets facets) {
+        this.facets = facets;
+    }
+    
+    /**
+     * Whether some universities of a federated search did not answer in time and are missing
+     */
+    public boolean isPartialResults() {
+        return partialResults;
+    }
+    
+    public void setPartialResults(boolean partialResults) {
+        this.partialResults = partialResults;
+    }
+    
+    /**
+     * Universities left out of a partial federated result (null otherwise)
+     */
+    public List<UUID> getUnavailableUniversityIds() {
+        return unavailableUniversityIds;
+    }
+    
+    public void setUnavailableUniversityIds(List<UUID> unavailableUniversityIds) {
+        this.unavailableUniversityIds = unavailableUniversityIds;
+    }
 }
-
@@ -6,6 +6,7 @@ import com.commandlinecommandos.campusmarketplace.model.ProductCondition;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.UUID;
 
 /**
  * Search request DTO for product search
@@ -43,12 +44,24 @@ public class SearchRequest {
      */
     private String location;
     
+    /**
+     * Also match pickup locations next to the requested one
+     * Only applies when location names a campus location known to the location dictionary
+     */
+    private boolean includeNearby;
+    
     /**
      * Filter by date posted (null = all dates)
-     * Can be set to last 24h, 7d, 30d, 90d
+     * Set from dateRange when that is given
      */
     private LocalDateTime dateFrom;
     
+    /**
+     * Filter by date posted relative to now: 24h, 7d, 30d or 90d (null = use dateFrom)
+     * Unlike a dateFrom computed by the client, the same range gives the same cache key
+     */
+    private String dateRange;
+    
     /**
      * Sort order
      * Values: relevance, price_asc, price_desc, date_desc, date_asc, popularity
@@ -65,6 +78,18 @@ public class SearchRequest {
      */
     private int size = 20;
     
+    /**
+     * Keyset pagination token (nextCursor from a previous response)
+     * When set, page is ignored and results continue right after the cursor
+     */
+    private String cursor;
+    
+    /**
+     * Universities to search across (federated mode, null = the user's own university)
+     * Each university is searched as its own shard and the results are merged in sort order
+     */
+    private List<UUID> universityIds;
+    
     /**
      * Generate cache key for Redis
      * Used to cache search results based on search parameters
@@ -72,16 +97,38 @@ public class SearchRequest {
      * @return Cache key string
      */
     public String cacheKey() {
-        return String.format("%s_%s_%s_%s_%s_%s_%s_%d_%d", 
+        return String.format("%s_%s_%s_%s_%s_%s%s_%s_%s_%d_%d_%s_%s", 
             query != null ? query : "all",
             categories != null ? categories.toString() : "all",
             conditions != null ? conditions.toString() : "all",
             minPrice != null ? minPrice : "0",
             maxPrice != null ? maxPrice : "max",
             location != null ? location : "all",
+            includeNearby ? "+nearby" : "",
+            dateRange != null ? dateRange : dateFrom != null ? dateFrom : "any",
             sortBy != null ? sortBy : "relevance",
             page, 
-            size);
+            size,
+            cursor != null ? cursor : "first",
+            universityIds != null ? universityIds.toString() : "own");
+    }
+    
+    /**
+     * Set dateFrom from dateRange, if given, relative to now
+     * 
+     * @throws IllegalArgumentException for a dateRange other than 24h, 7d, 30d or 90d
+     */
+    public void applyDateRange(LocalDateTime now) {
+        if (dateRange == null) {
+            return;
+        }
+        dateFrom = switch (dateRange) {
+            case "24h" -> now.minusHours(24);
+            case "7d" -> now.minusDays(7);
+            case "30d" -> now.minusDays(30);
+            case "90d" -> now.minusDays(90);
+            default -> throw new IllegalArgumentException("dateRange must be one of 24h, 7d, 30d, 90d");
+        };
     }
     
     // Explicit getters and setters (Lombok fallback)
@@ -133,6 +180,14 @@ public class SearchRequest {
         this.location = location;
     }
     
+    public boolean isIncludeNearby() {
+        return includeNearby;
+    }
+    
+    public void setIncludeNearby(boolean includeNearby) {
+        this.includeNearby = includeNearby;
+    }
+    
     public LocalDateTime getDateFrom() {
         return dateFrom;
     }
@@ -141,6 +196,14 @@ public class SearchRequest {
         this.dateFrom = dateFrom;
     }
     
+    public String getDateRange() {
+        return dateRange;
+    }
+    
+    public void setDateRange(String dateRange) {
+        this.dateRange = dateRange;
+    }
+    
     public String getSortBy() {
         return sortBy;
     }
@@ -164,5 +227,20 @@ public class SearchRequest {
     public void setSize(int size) {
         this.size = size;
     }
+    
+    public String getCursor() {
+        return cursor;
+    }
+    
+    public void setCursor(String cursor) {
+        this.cursor = cursor;
+    }
+    
+    public List<UUID> getUniversityIds() {
+        return universityIds;
+    }
+    
+    public void setUniversityIds(List<UUID> universityIds) {
+        this.universityIds = universityIds;
+    }
 }
-
@@ -16,6 +16,12 @@ public class SearchResponse {
     private boolean hasPrevious;
     private SearchMetadata metadata;
     
+    /**
+     * Token for the next page in keyset mode (null on the last page)
+     * In keyset mode totalPages is -1, and totalResults is -1 unless the count came for free
+     */
+    private String nextCursor;
+    
     public SearchResponse() {
     }
     
@@ -95,5 +101,12 @@ public class SearchResponse {
     public void setMetadata(SearchMetadata metadata) {
         this.metadata = metadata;
     }
+    
+    public String getNextCursor() {
+        return nextCursor;
+    }
+    
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
 }
-
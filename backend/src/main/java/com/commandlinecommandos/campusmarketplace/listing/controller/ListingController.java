@@ -6,7 +6,10 @@ import com.commandlinecommandos.campusmarketplace.model.Product;
 import com.commandlinecommandos.campusmarketplace.model.ProductCategory;
 import com.commandlinecommandos.campusmarketplace.model.User;
 import com.commandlinecommandos.campusmarketplace.repository.UserRepository;
+import com.commandlinecommandos.campusmarketplace.search.SearchCursor;
+import com.commandlinecommandos.campusmarketplace.search.SearchSort;
 import com.commandlinecommandos.campusmarketplace.service.ListingsService;
+import com.commandlinecommandos.campusmarketplace.service.ProductViewService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -15,6 +18,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -45,6 +49,9 @@ public class ListingController {
     
     @Autowired
     private UserRepository userRepository;
+    
+    @Autowired
+    private ProductViewService productViewService;
 
     /**
      * Get all listings with pagination and optional filtering
@@ -57,9 +64,15 @@ public class ListingController {
             @Parameter(description = "Number of items per page")
             @RequestParam(defaultValue = "20") int size,
             @Parameter(description = "Filter by category")
-            @RequestParam(required = false) ProductCategory category) {
+            @RequestParam(required = false) ProductCategory category,
+            @Parameter(description = "Keyset cursor (nextCursor of the previous response, empty for the first page); replaces page")
+            @RequestParam(required = false) String cursor) {
         try {
-            log.info("Fetching listings - page: {}, size: {}, category: {}", page, size, category);
+            log.info("Fetching listings - page: {}, size: {}, category: {}, cursor: {}", page, size, category, cursor);
+
+            if (cursor != null) {
+                return ResponseEntity.ok(getListingsAfterCursor(category, cursor, size));
+            }
 
             Page<Product> productsPage;
             if (category != null) {
@@ -83,6 +96,15 @@ public class ListingController {
             response.put("last", productsPage.isLast());
 
             return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid listings request: {}", e.getMessage());
+            ErrorResponse error = new ErrorResponse(
+                "INVALID_REQUEST",
+                e.getMessage(),
+                HttpStatus.BAD_REQUEST.value(),
+                "/listings"
+            );
+            return ResponseEntity.badRequest().body(error);
         } catch (Exception e) {
             log.error("Error fetching listings: {}", e.getMessage(), e);
             ErrorResponse error = new ErrorResponse(
@@ -95,6 +117,32 @@ public class ListingController {
         }
     }
 
+    /**
+     * Keyset variant of the listings feed: newest first, no COUNT, nextCursor instead of page totals
+     */
+    private Map<String, Object> getListingsAfterCursor(ProductCategory category, String cursor, int size) {
+        SearchCursor after = cursor.isEmpty() ? null : SearchCursor.decode(cursor, SearchSort.DATE_DESC);
+        Slice<Product> slice = listingsService.getListingsAfter(category, after, size);
+
+        List<ListingDetailResponse> listings = slice.getContent().stream()
+            .map(listingsService::toListingDetailResponse)
+            .collect(Collectors.toList());
+
+        String nextCursor = null;
+        if (slice.hasNext() && !listings.isEmpty()) {
+            Product last = slice.getContent().get(slice.getContent().size() - 1);
+            nextCursor = SearchCursor.after(SearchSort.DATE_DESC, last, null).encode();
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("content", listings);
+        response.put("size", size);
+        response.put("first", after == null);
+        response.put("last", !slice.hasNext());
+        response.put("nextCursor", nextCursor);
+        return response;
+    }
+
     /**
      * Get a specific listing by ID
      */
@@ -102,13 +150,23 @@ public class ListingController {
     @Operation(summary = "Get listing by ID", description = "Retrieve detailed information about a specific listing")
     public ResponseEntity<?> getListingById(
             @Parameter(description = "Listing UUID")
-            @PathVariable UUID id) {
+            @PathVariable UUID id,
+            Authentication authentication) {
         try {
             log.info("Fetching listing with ID: {}", id);
             Product product = listingsService.getListingById(id);
             
             // Use new DTO format matching frontend mockdata
             ListingDetailResponse listing = listingsService.toListingDetailResponse(product);
+            
+            // Signed-in views feed view counts and trending; sellers viewing their own listing don't count
+            if (authentication != null && authentication.getPrincipal() instanceof User) {
+                User viewer = (User) authentication.getPrincipal();
+                if (!viewer.getUserId().equals(product.getSeller().getUserId())) {
+                    productViewService.recordRecentView(viewer, product);
+                    productViewService.trackView(viewer, product);
+                }
+            }
             return ResponseEntity.ok(listing);
         } catch (Exception e) {
             log.error("Error fetching listing {}: {}", id, e.getMessage());
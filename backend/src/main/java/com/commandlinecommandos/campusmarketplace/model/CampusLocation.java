@@ -0,0 +1,101 @@
+package com.commandlinecommandos.campusmarketplace.model;
+
+import jakarta.persistence.*;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Campus Location entity
+ * Dictionary entry for a pickup location: display name, match-key aliases and the ids of
+ * nearby locations (adjacency is stored in both directions)
+ */
+@Entity
+@Table(name = "campus_locations", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_campus_locations_name", columnNames = {"university_id", "normalized_name"})
+})
+public class CampusLocation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "location_id", updatable = false, nullable = false)
+    private Integer id;
+
+    @Column(name = "university_id", nullable = false)
+    private UUID universityId;
+
+    @Column(name = "name", nullable = false, length = 100)
+    private String name;
+
+    @Column(name = "normalized_name", nullable = false, length = 100)
+    private String normalizedName;
+
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "campus_location_aliases", joinColumns = @JoinColumn(name = "location_id"))
+    @Column(name = "alias", nullable = false, length = 100)
+    private Set<String> aliases = new HashSet<>();
+
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "campus_location_adjacency", joinColumns = @JoinColumn(name = "location_id"))
+    @Column(name = "nearby_location_id", nullable = false)
+    private Set<Integer> nearbyLocationIds = new HashSet<>();
+
+    public CampusLocation() {
+    }
+
+    public CampusLocation(UUID universityId, String name, String normalizedName) {
+        this.universityId = universityId;
+        this.name = name;
+        this.normalizedName = normalizedName;
+    }
+
+    // Getters and Setters
+    public Integer getId() {
+        return id;
+    }
+
+    public void setId(Integer id) {
+        this.id = id;
+    }
+
+    public UUID getUniversityId() {
+        return universityId;
+    }
+
+    public void setUniversityId(UUID universityId) {
+        this.universityId = universityId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getNormalizedName() {
+        return normalizedName;
+    }
+
+    public void setNormalizedName(String normalizedName) {
+        this.normalizedName = normalizedName;
+    }
+
+    public Set<String> getAliases() {
+        return aliases;
+    }
+
+    public void setAliases(Set<String> aliases) {
+        this.aliases = aliases;
+    }
+
+    public Set<Integer> getNearbyLocationIds() {
+        return nearbyLocationIds;
+    }
+
+    public void setNearbyLocationIds(Set<Integer> nearbyLocationIds) {
+        this.nearbyLocationIds = nearbyLocationIds;
+    }
+}
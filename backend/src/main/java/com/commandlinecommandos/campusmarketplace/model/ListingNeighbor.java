@@ -0,0 +1,81 @@
+package com.commandlinecommandos.campusmarketplace.model;
+
+import jakarta.persistence.*;
+
+import java.util.UUID;
+
+/**
+ * Listing Neighbor entity
+ * One entry of a listing's precomputed "viewed together" list, saved so the in-memory
+ * neighbor lists are available right after a restart. Rows of a listing are replaced
+ * whenever its list is recomputed.
+ */
+@Entity
+@Table(name = "listing_neighbors", indexes = {
+    @Index(name = "idx_listing_neighbors_listing", columnList = "listing_id,neighbor_rank")
+})
+public class ListingNeighbor {
+
+    @Id
+    @GeneratedValue(generator = "UUID")
+    @Column(name = "id", updatable = false, nullable = false)
+    private UUID id;
+
+    @Column(name = "listing_id", nullable = false)
+    private UUID listingId;
+
+    @Column(name = "neighbor_id", nullable = false)
+    private UUID neighborId;
+
+    /** Position in the listing's list, 0 for the most similar */
+    @Column(name = "neighbor_rank", nullable = false)
+    private int neighborRank;
+
+    /** Cosine similarity of the two listings' co-views */
+    @Column(name = "score", nullable = false)
+    private float score;
+
+    public ListingNeighbor() {
+    }
+
+    // Getters and Setters
+    public UUID getId() {
+        return id;
+    }
+
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
+    public UUID getListingId() {
+        return listingId;
+    }
+
+    public void setListingId(UUID listingId) {
+        this.listingId = listingId;
+    }
+
+    public UUID getNeighborId() {
+        return neighborId;
+    }
+
+    public void setNeighborId(UUID neighborId) {
+        this.neighborId = neighborId;
+    }
+
+    public int getNeighborRank() {
+        return neighborRank;
+    }
+
+    public void setNeighborRank(int neighborRank) {
+        this.neighborRank = neighborRank;
+    }
+
+    public float getScore() {
+        return score;
+    }
+
+    public void setScore(float score) {
+        this.score = score;
+    }
+}
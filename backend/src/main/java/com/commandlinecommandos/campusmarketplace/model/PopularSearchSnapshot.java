@@ -0,0 +1,114 @@
+package com.commandlinecommandos.campusmarketplace.model;
+
+import jakarta.persistence.*;
+
+import java.util.UUID;
+
+/**
+ * Popular Search Snapshot entity
+ * One heavy-hitters counter of one time slot, saved periodically so the in-memory popular
+ * search windows survive a restart. Each instance rewrites its own rows on every snapshot.
+ */
+@Entity
+@Table(name = "popular_search_snapshots", indexes = {
+    @Index(name = "idx_popular_search_snapshots_university", columnList = "university_id,time_window,slot"),
+    @Index(name = "idx_popular_search_snapshots_instance", columnList = "instance_id")
+})
+public class PopularSearchSnapshot {
+
+    @Id
+    @GeneratedValue(generator = "UUID")
+    @Column(name = "snapshot_id", updatable = false, nullable = false)
+    private UUID id;
+
+    /** Application instance whose sketches the row belongs to */
+    @Column(name = "instance_id", nullable = false)
+    private String instanceId;
+
+    @Column(name = "university_id", nullable = false)
+    private UUID universityId;
+
+    @Column(name = "time_window", nullable = false, length = 10)
+    private String timeWindow;
+
+    /** Slot number: epoch millis divided by the window's slot length */
+    @Column(name = "slot", nullable = false)
+    private long slot;
+
+    @Column(name = "search_query", nullable = false, length = 500)
+    private String searchQuery;
+
+    @Column(name = "search_count", nullable = false)
+    private long searchCount;
+
+    @Column(name = "error_bound", nullable = false)
+    private long errorBound;
+
+    public PopularSearchSnapshot() {
+    }
+
+    // Getters and Setters
+    public UUID getId() {
+        return id;
+    }
+
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
+    public String getInstanceId() {
+        return instanceId;
+    }
+
+    public void setInstanceId(String instanceId) {
+        this.instanceId = instanceId;
+    }
+
+    public UUID getUniversityId() {
+        return universityId;
+    }
+
+    public void setUniversityId(UUID universityId) {
+        this.universityId = universityId;
+    }
+
+    public String getTimeWindow() {
+        return timeWindow;
+    }
+
+    public void setTimeWindow(String timeWindow) {
+        this.timeWindow = timeWindow;
+    }
+
+    public long getSlot() {
+        return slot;
+    }
+
+    public void setSlot(long slot) {
+        this.slot = slot;
+    }
+
+    public String getSearchQuery() {
+        return searchQuery;
+    }
+
+    public void setSearchQuery(String searchQuery) {
+        this.searchQuery = searchQuery;
+    }
+
+    public long getSearchCount() {
+        return searchCount;
+    }
+
+    public void setSearchCount(long searchCount) {
+        this.searchCount = searchCount;
+    }
+
+    public long getErrorBound() {
+        return errorBound;
+    }
+
+    public void setErrorBound(long errorBound) {
+        this.errorBound = errorBound;
+    }
+}
@@ -30,7 +30,8 @@ import java.util.UUID;
     @Index(name = "idx_listings_category", columnList = "category"),
     @Index(name = "idx_listings_status", columnList = "moderation_status"),
     @Index(name = "idx_listings_price", columnList = "price"),
-    @Index(name = "idx_listings_search", columnList = "university_id,category,is_active,price")
+    @Index(name = "idx_listings_search", columnList = "university_id,category,is_active,price"),
+    @Index(name = "idx_listings_university_location", columnList = "university_id,location_id")
 })
 public class Product {
 
@@ -123,6 +124,10 @@ public class Product {
     @Column(name = "pickup_location")
     private String pickupLocation;
     
+    // Campus location dictionary id resolved from pickupLocation (null if it names no known location)
+    @Column(name = "location_id")
+    private Integer locationId;
+    
     // Image URLs (stored as JSON array for S3 URLs)
     @Lob
     @Type(JsonType.class)
@@ -376,6 +381,14 @@ public class Product {
         this.pickupLocation = pickupLocation;
     }
     
+    public Integer getLocationId() {
+        return locationId;
+    }
+    
+    public void setLocationId(Integer locationId) {
+        this.locationId = locationId;
+    }
+    
     public List<String> getImageUrls() {
         return imageUrls;
     }
@@ -0,0 +1,13 @@
+package com.commandlinecommandos.campusmarketplace.repository;
+
+import com.commandlinecommandos.campusmarketplace.model.CampusLocation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository for CampusLocation entity
+ * The whole dictionary is small and is loaded into CampusLocationResolver
+ */
+@Repository
+public interface CampusLocationRepository extends JpaRepository<CampusLocation, Integer> {
+}
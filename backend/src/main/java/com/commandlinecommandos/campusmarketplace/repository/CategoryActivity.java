@@ -0,0 +1,15 @@
+package com.commandlinecommandos.campusmarketplace.repository;
+
+import com.commandlinecommandos.campusmarketplace.model.ProductCategory;
+
+import java.time.LocalDateTime;
+
+/**
+ * Projection for one view or favorite of a user, reduced to the listing's category and when it happened
+ */
+public interface CategoryActivity {
+
+    ProductCategory getCategory();
+
+    LocalDateTime getOccurredAt();
+}
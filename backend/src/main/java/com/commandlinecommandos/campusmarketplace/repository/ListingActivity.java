@@ -0,0 +1,14 @@
+package com.commandlinecommandos.campusmarketplace.repository;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Projection for one engagement event on a listing (a view, favorite or message) and when it happened
+ */
+public interface ListingActivity {
+
+    UUID getListingId();
+
+    LocalDateTime getOccurredAt();
+}
@@ -0,0 +1,18 @@
+package com.commandlinecommandos.campusmarketplace.repository;
+
+import com.commandlinecommandos.campusmarketplace.model.ListingNeighbor;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Repository for ListingNeighbor entity
+ * Reads the saved neighbor lists back at startup
+ */
+@Repository
+public interface ListingNeighborRepository extends JpaRepository<ListingNeighbor, UUID> {
+
+    List<ListingNeighbor> findAllByOrderByListingIdAscNeighborRankAsc();
+}
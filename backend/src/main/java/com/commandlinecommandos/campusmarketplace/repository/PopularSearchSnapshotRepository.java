@@ -0,0 +1,18 @@
+package com.commandlinecommandos.campusmarketplace.repository;
+
+import com.commandlinecommandos.campusmarketplace.model.PopularSearchSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Repository for PopularSearchSnapshot entity
+ * Reads the saved popular search windows back at startup
+ */
+@Repository
+public interface PopularSearchSnapshotRepository extends JpaRepository<PopularSearchSnapshot, UUID> {
+
+    List<PopularSearchSnapshot> findByInstanceId(String instanceId);
+}
@@ -7,6 +7,7 @@ import com.commandlinecommandos.campusmarketplace.model.User;
 import com.commandlinecommandos.campusmarketplace.model.University;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
@@ -15,6 +16,7 @@ import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -97,44 +99,29 @@ public interface ProductRepository extends JpaRepository<Product, UUID>, JpaSpec
     long countBySellerAndIsActiveTrue(User seller);
     
     /**
-     * Full-text search with PostgreSQL ts_rank (falls back gracefully for H2)
+     * Keyed fetch of search hits as summaries (result order is not preserved)
      */
-    @Query(value = "SELECT p.* FROM listings p " +
-           "WHERE p.university_id = :universityId " +
-           "AND p.is_active = true " +
-           "AND p.moderation_status = 'APPROVED' " +
-           "AND (to_tsvector('english', p.title || ' ' || p.description) @@ plainto_tsquery('english', :query)) " +
-           "ORDER BY ts_rank(to_tsvector('english', p.title || ' ' || p.description), plainto_tsquery('english', :query)) DESC",
-           nativeQuery = true)
-    Page<Product> searchWithFullText(
-        @Param("universityId") UUID universityId,
-        @Param("query") String query,
-        Pageable pageable
-    );
+    @Query(ProductSummaryView.SELECT + "FROM Product p JOIN p.seller s WHERE p.productId IN :ids")
+    List<ProductSummaryView> findSummariesByIdIn(@Param("ids") Collection<UUID> ids);
     
     /**
-     * Fuzzy search using PostgreSQL similarity() function
+     * Keyed fetch of active listings of one university as summaries (result order is not preserved)
      */
-    @Query(value = "SELECT p.* FROM listings p " +
-           "WHERE p.university_id = :universityId " +
-           "AND p.is_active = true " +
-           "AND p.moderation_status = 'APPROVED' " +
-           "AND (similarity(p.title, :query) > 0.3 OR similarity(p.description, :query) > 0.2) " +
-           "ORDER BY similarity(p.title, :query) DESC",
-           nativeQuery = true)
-    Page<Product> fuzzySearch(
-        @Param("universityId") UUID universityId,
-        @Param("query") String query,
-        Pageable pageable
-    );
+    @Query(ProductSummaryView.SELECT + "FROM Product p JOIN p.seller s " +
+           "WHERE p.productId IN :ids " +
+           "AND p.university.universityId = :universityId " +
+           "AND p.isActive = true")
+    List<ProductSummaryView> findActiveSummariesByIdIn(@Param("ids") Collection<UUID> ids,
+                                                       @Param("universityId") UUID universityId);
     
     /**
-     * Find title suggestions for autocomplete using PostgreSQL similarity()
+     * Find title suggestions for autocomplete using pg_trgm (% uses the title trigram index)
      */
-    @Query(value = "SELECT DISTINCT p.title FROM listings p " +
+    @Query(value = "SELECT p.title FROM listings p " +
            "WHERE p.university_id = :universityId " +
            "AND p.is_active = true " +
-           "AND similarity(p.title, :query) > 0.3 " +
+           "AND p.title % :query " +
+           "GROUP BY p.title " +
            "ORDER BY similarity(p.title, :query) DESC " +
            "LIMIT 10",
            nativeQuery = true)
@@ -157,12 +144,51 @@ public interface ProductRepository extends JpaRepository<Product, UUID>, JpaSpec
     );
     
     /**
-     * Find top products by views
+     * Find top products by views as summaries
      */
-    @Query("SELECT p FROM Product p WHERE p.university = :university " +
+    @Query(ProductSummaryView.SELECT + "FROM Product p JOIN p.seller s " +
+           "WHERE p.university.universityId = :universityId " +
            "AND p.isActive = true " +
            "ORDER BY COALESCE(p.viewCount, 0) DESC, p.createdAt DESC")
-    List<Product> findTopByViews(@Param("university") University university, Pageable pageable);
+    List<ProductSummaryView> findTopSummariesByViews(@Param("universityId") UUID universityId, Pageable pageable);
+    
+    /**
+     * Find approved active products of a category as summaries, newest first
+     */
+    @Query(ProductSummaryView.SELECT + "FROM Product p JOIN p.seller s " +
+           "WHERE p.university.universityId = :universityId " +
+           "AND p.category = :category " +
+           "AND p.isActive = true " +
+           "AND p.moderationStatus = 'APPROVED' " +
+           "ORDER BY p.createdAt DESC")
+    List<ProductSummaryView> findSummariesByCategory(
+        @Param("universityId") UUID universityId,
+        @Param("category") ProductCategory category,
+        Pageable pageable
+    );
+    
+    /**
+     * Newest approved active products of each of several categories as summaries, in one statement
+     * Returns up to perCategory listings per category (ranked with a window function), newest first
+     */
+    @Query(ProductSummaryView.SELECT + "FROM Product p JOIN p.seller s " +
+           "WHERE p.productId IN (" +
+           "    SELECT ranked.productId FROM (" +
+           "        SELECT c.productId AS productId, " +
+           "               ROW_NUMBER() OVER (PARTITION BY c.category ORDER BY c.createdAt DESC) AS position " +
+           "        FROM Product c " +
+           "        WHERE c.university.universityId = :universityId " +
+           "        AND c.category IN :categories " +
+           "        AND c.isActive = true " +
+           "        AND c.moderationStatus = 'APPROVED'" +
+           "    ) ranked " +
+           "    WHERE ranked.position <= :perCategory) " +
+           "ORDER BY p.createdAt DESC")
+    List<ProductSummaryView> findNewestSummariesPerCategory(
+        @Param("universityId") UUID universityId,
+        @Param("categories") Collection<ProductCategory> categories,
+        @Param("perCategory") long perCategory
+    );
     
     /**
      * Find all active products with approved status
@@ -182,5 +208,12 @@ public interface ProductRepository extends JpaRepository<Product, UUID>, JpaSpec
      * Find active products by seller ID
      */
     Page<Product> findBySellerUserIdAndIsActiveTrue(UUID sellerId, Pageable pageable);
+
+    /**
+     * Load searchable products with seller and university for the in-memory search index
+     */
+    @Query("SELECT p FROM Product p JOIN FETCH p.seller JOIN FETCH p.university " +
+           "WHERE p.isActive = true AND p.moderationStatus = 'APPROVED'")
+    Slice<Product> findAllForIndexing(Pageable pageable);
 }
 
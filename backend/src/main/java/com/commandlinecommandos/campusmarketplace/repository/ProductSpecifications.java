@@ -4,12 +4,17 @@ import com.commandlinecommandos.campusmarketplace.model.ModerationStatus;
 import com.commandlinecommandos.campusmarketplace.model.Product;
 import com.commandlinecommandos.campusmarketplace.model.ProductCategory;
 import com.commandlinecommandos.campusmarketplace.model.ProductCondition;
+import com.commandlinecommandos.campusmarketplace.search.SearchCursor;
+import com.commandlinecommandos.campusmarketplace.search.SearchTextAnalyzer;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Path;
 import jakarta.persistence.criteria.Predicate;
 import org.springframework.data.jpa.domain.Specification;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -28,6 +33,7 @@ public class ProductSpecifications {
      * @param minPrice Minimum price (optional)
      * @param maxPrice Maximum price (optional)
      * @param location Location search term (optional)
+     * @param locationIds Campus location ids the location term resolved to (null = substring match on location)
      * @param dateFrom Minimum creation date (optional)
      * @return Specification for filtering products
      */
@@ -38,6 +44,7 @@ public class ProductSpecifications {
             BigDecimal minPrice,
             BigDecimal maxPrice,
             String location,
+            Collection<Integer> locationIds,
             LocalDateTime dateFrom) {
         
         return (root, query, criteriaBuilder) -> {
@@ -68,8 +75,10 @@ public class ProductSpecifications {
                 predicates.add(criteriaBuilder.lessThanOrEqualTo(root.get("price"), maxPrice));
             }
             
-            // Location filter - case-insensitive like search
-            if (location != null && !location.trim().isEmpty()) {
+            // Location filter - indexed IN lookup for dictionary locations, else case-insensitive like search
+            if (locationIds != null) {
+                predicates.add(root.get("locationId").in(locationIds));
+            } else if (location != null && !location.trim().isEmpty()) {
                 predicates.add(criteriaBuilder.like(
                     criteriaBuilder.lower(root.get("pickupLocation")),
                     "%" + location.toLowerCase() + "%"
@@ -143,5 +152,62 @@ public class ProductSpecifications {
             return criteriaBuilder.and(predicates.toArray(new Predicate[0]));
         };
     }
+    
+    /**
+     * Every term of the text appears in the title or description (case-insensitive substrings)
+     * Terms are analyzed like the in-memory index (stop words dropped, plurals stemmed);
+     * text without any terms matches every listing
+     */
+    public static Specification<Product> textContainsAllTerms(String text) {
+        List<String> terms = SearchTextAnalyzer.tokenize(text).stream().distinct().toList();
+        return (root, query, criteriaBuilder) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            
+            for (String term : terms) {
+                String searchPattern = "%" + term + "%";
+                predicates.add(criteriaBuilder.or(
+                    criteriaBuilder.like(criteriaBuilder.lower(root.get("title")), searchPattern),
+                    criteriaBuilder.like(criteriaBuilder.lower(root.get("description")), searchPattern)
+                ));
+            }
+            
+            return criteriaBuilder.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+    
+    /**
+     * Keyset predicate: rows that sort strictly after the cursor position
+     * Must be combined with the matching sort (sort key, then listing id in the same direction)
+     */
+    public static Specification<Product> afterCursor(SearchCursor cursor) {
+        return (root, query, criteriaBuilder) -> {
+            Path<UUID> id = root.get("productId");
+            Predicate idAfter = cursor.isAscending()
+                ? criteriaBuilder.greaterThan(id, cursor.getListingId())
+                : criteriaBuilder.lessThan(id, cursor.getListingId());
+            
+            return switch (cursor.getSort()) {
+                case PRICE_ASC, PRICE_DESC ->
+                    keyAfter(criteriaBuilder, root.get("price"), cursor.getPrice(), cursor.isAscending(), idAfter);
+                case DATE_ASC, DATE_DESC, RELEVANCE ->
+                    keyAfter(criteriaBuilder, root.get("createdAt"), cursor.getCreatedAt(), cursor.isAscending(), idAfter);
+                case POPULARITY -> {
+                    Predicate favoritesAfter = keyAfter(criteriaBuilder, root.get("favoriteCount"),
+                        cursor.getFavoriteCount(), false, idAfter);
+                    yield keyAfter(criteriaBuilder, root.get("viewCount"), cursor.getViewCount(), false, favoritesAfter);
+                }
+            };
+        };
+    }
+    
+    /**
+     * (key > value) OR (key = value AND tieBreak), with the comparison flipped for descending order
+     */
+    private static <T extends Comparable<? super T>> Predicate keyAfter(
+            CriteriaBuilder criteriaBuilder, Path<T> key, T value, boolean ascending, Predicate tieBreak) {
+        Predicate strictlyAfter = ascending
+            ? criteriaBuilder.greaterThan(key, value)
+            : criteriaBuilder.lessThan(key, value);
+        return criteriaBuilder.or(strictlyAfter, criteriaBuilder.and(criteriaBuilder.equal(key, value), tieBreak));
+    }
 }
-
@@ -0,0 +1,58 @@
+package com.commandlinecommandos.campusmarketplace.repository;
+
+import com.commandlinecommandos.campusmarketplace.model.ProductCategory;
+import com.commandlinecommandos.campusmarketplace.model.ProductCondition;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Projection for listing cards: listing columns plus the seller's id and names
+ * Selected in one statement with the seller joined, so no Product or User entity
+ * (nor the user's eager roles) is loaded per row.
+ */
+public interface ProductSummaryView {
+
+    /**
+     * JPQL select list for this projection; queries must alias Product as p and its seller as s
+     */
+    String SELECT = "SELECT p.productId AS productId, p.title AS title, p.description AS description, " +
+        "p.price AS price, p.category AS category, p.condition AS condition, " +
+        "p.pickupLocation AS pickupLocation, p.viewCount AS viewCount, p.favoriteCount AS favoriteCount, " +
+        "p.createdAt AS createdAt, p.negotiable AS negotiable, p.quantity AS quantity, " +
+        "s.userId AS sellerId, s.username AS sellerUsername, " +
+        "s.firstName AS sellerFirstName, s.lastName AS sellerLastName ";
+
+    UUID getProductId();
+
+    String getTitle();
+
+    String getDescription();
+
+    BigDecimal getPrice();
+
+    ProductCategory getCategory();
+
+    ProductCondition getCondition();
+
+    String getPickupLocation();
+
+    Integer getViewCount();
+
+    Integer getFavoriteCount();
+
+    LocalDateTime getCreatedAt();
+
+    Boolean getNegotiable();
+
+    Integer getQuantity();
+
+    UUID getSellerId();
+
+    String getSellerUsername();
+
+    String getSellerFirstName();
+
+    String getSellerLastName();
+}
@@ -13,7 +13,6 @@ import org.springframework.stereotype.Repository;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.Optional;
 import java.util.UUID;
 
 /**
@@ -24,36 +23,59 @@ import java.util.UUID;
 public interface ProductViewRepository extends JpaRepository<ProductView, UUID> {
     
     /**
-     * Find existing view for user and product on a specific date
-     * Used to check if view already exists today
+     * Views (one per user and product) stored for a day, for seeding the daily view filter
      */
-    Optional<ProductView> findByUserAndProductAndViewedAtDate(
-        User user, Product product, LocalDate date
-    );
+    @Query("SELECT pv.user.userId AS userId, pv.product.productId AS listingId, pv.viewedAt AS viewedAt " +
+           "FROM ProductView pv WHERE pv.viewedAtDate = :date")
+    List<UserListingView> findViewsOn(@Param("date") LocalDate date);
     
     /**
-     * Find recently viewed products by user
-     * Returns products ordered by most recent view
-     * Note: Seller is fetched separately in service layer to avoid JOIN FETCH + Pageable issues
-     * @param user The user
+     * Views (first view per user per day) since a point in time, for seeding trending scores
+     */
+    @Query("SELECT pv.product.productId AS listingId, pv.viewedAt AS occurredAt FROM ProductView pv " +
+           "WHERE pv.viewedAt > :since")
+    List<ListingActivity> findActivitySince(@Param("since") LocalDateTime since);
+    
+    /**
+     * Views in a time range, grouped by user and in time order, for building co-view counts
+     */
+    @Query("SELECT pv.user.userId AS userId, pv.product.productId AS listingId, pv.viewedAt AS viewedAt " +
+           "FROM ProductView pv " +
+           "WHERE pv.viewedAt > :from AND pv.viewedAt <= :to " +
+           "ORDER BY pv.user.userId, pv.viewedAt")
+    List<UserListingView> findViewsBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+    
+    /**
+     * Categories of the listings a user viewed since a point in time, for seeding interest profiles
+     */
+    @Query("SELECT pv.product.category AS category, pv.viewedAt AS occurredAt FROM ProductView pv " +
+           "WHERE pv.user.userId = :userId AND pv.viewedAt > :since")
+    List<CategoryActivity> findCategoryActivitySince(@Param("userId") UUID userId, @Param("since") LocalDateTime since);
+    
+    /**
+     * Ids of the products a user viewed, most recently viewed first, once per product
+     * Only used to build a user's recently viewed ring when it is not cached
+     * @param userId The user ID
      * @param pageable Pagination settings
-     * @return List of recently viewed products
+     * @return Product IDs ordered by most recent view
      */
-    @Query("SELECT DISTINCT pv.product FROM ProductView pv " +
-           "WHERE pv.user = :user " +
-           "ORDER BY pv.viewedAt DESC")
-    List<Product> findRecentlyViewedByUser(@Param("user") User user, Pageable pageable);
+    @Query("SELECT pv.product.productId FROM ProductView pv " +
+           "WHERE pv.user.userId = :userId " +
+           "GROUP BY pv.product.productId " +
+           "ORDER BY MAX(pv.viewedAt) DESC")
+    List<UUID> findRecentlyViewedListingIds(@Param("userId") UUID userId, Pageable pageable);
     
     /**
      * Update view timestamp for existing view
      * @param user The user
      * @param product The product
      * @param now Current timestamp
+     * @return number of views updated (0 if the user has not viewed the product that day)
      */
     @Modifying
     @Query("UPDATE ProductView pv SET pv.viewedAt = :now " +
            "WHERE pv.user = :user AND pv.product = :product AND pv.viewedAtDate = :date")
-    void updateViewTime(@Param("user") User user, 
+    int updateViewTime(@Param("user") User user, 
                        @Param("product") Product product,
                        @Param("date") LocalDate date,
                        @Param("now") LocalDateTime now);
@@ -62,25 +84,4 @@ public interface ProductViewRepository extends JpaRepository<ProductView, UUID>
      * Count total views for a product
      */
     long countByProduct(Product product);
-    
-    /**
-     * Get products frequently viewed together (for recommendations)
-     * @param productId The product ID
-     * @param limit Maximum number of results
-     * @return List of product IDs frequently viewed with this product
-     */
-    @Query(value = 
-        "SELECT pv2.product_id, COUNT(*) as co_view_count " +
-        "FROM product_views pv1 " +
-        "JOIN product_views pv2 ON pv1.user_id = pv2.user_id " +
-        "    AND pv1.product_id != pv2.product_id " +
-        "    AND ABS(EXTRACT(EPOCH FROM (pv1.viewed_at - pv2.viewed_at))) < 3600 " +
-        "WHERE pv1.product_id = :productId " +
-        "GROUP BY pv2.product_id " +
-        "ORDER BY co_view_count DESC " +
-        "LIMIT :limit",
-        nativeQuery = true)
-    List<UUID> findFrequentlyViewedTogether(@Param("productId") UUID productId, 
-                                            @Param("limit") int limit);
 }
-
@@ -0,0 +1,15 @@
+package com.commandlinecommandos.campusmarketplace.repository;
+
+import java.util.UUID;
+
+/**
+ * Projection for search history aggregates: how often a university searched for a query
+ */
+public interface QueryFrequency {
+
+    UUID getUniversityId();
+
+    String getQuery();
+
+    long getSearches();
+}
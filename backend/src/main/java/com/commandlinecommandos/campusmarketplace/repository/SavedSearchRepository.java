@@ -0,0 +1,40 @@
+package com.commandlinecommandos.campusmarketplace.repository;
+
+import com.commandlinecommandos.campusmarketplace.model.SavedSearch;
+import com.commandlinecommandos.campusmarketplace.model.User;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Repository for SavedSearch entity
+ * Handles saved search CRUD and loading the percolator
+ */
+@Repository
+public interface SavedSearchRepository extends JpaRepository<SavedSearch, UUID> {
+
+    /**
+     * Saved searches of a user, newest first
+     */
+    List<SavedSearch> findByUserOrderByCreatedAtDesc(User user);
+
+    /**
+     * A saved search, only if it belongs to the user
+     */
+    Optional<SavedSearch> findByIdAndUser(UUID id, User user);
+
+    /**
+     * Number of saved searches of a user
+     */
+    long countByUser(User user);
+
+    /**
+     * Every saved search that wants notifications (owner ids only, users are not loaded)
+     */
+    @Query("SELECT s FROM SavedSearch s WHERE s.notify = true")
+    List<SavedSearch> findAllToNotify();
+}
@@ -7,6 +7,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
@@ -36,17 +37,12 @@ public interface SearchHistoryRepository extends JpaRepository<SearchHistory, UU
     List<SearchHistory> findByUserOrderByCreatedAtDesc(User user);
     
     /**
-     * Find popular search queries (for autocomplete suggestions)
-     * @param limit Maximum number of results
-     * @return List of popular search queries
+     * Searches per university and lowercased query since a point in time
+     * Only searches that returned results count (feeds autocomplete weights)
      */
-    @Query(value = "SELECT search_query, COUNT(*) as count " +
-           "FROM search_history " +
-           "WHERE created_at > CURRENT_TIMESTAMP - INTERVAL '30 days' " +
-           "GROUP BY search_query " +
-           "ORDER BY count DESC, MAX(created_at) DESC " +
-           "LIMIT :limit",
-           nativeQuery = true)
-    List<String> findPopularSearches(@Param("limit") int limit);
+    @Query("SELECT u.universityId AS universityId, LOWER(sh.searchQuery) AS query, COUNT(sh) AS searches " +
+           "FROM SearchHistory sh JOIN sh.user usr JOIN usr.university u " +
+           "WHERE sh.resultsCount > 0 AND sh.createdAt > :since " +
+           "GROUP BY u.universityId, LOWER(sh.searchQuery)")
+    List<QueryFrequency> countQueriesByUniversity(@Param("since") LocalDateTime since);
 }
-
@@ -10,6 +10,8 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -25,6 +27,20 @@ public interface UserFavoriteRepository extends JpaRepository<UserFavorite, UUID
     @Query("SELECT f FROM UserFavorite f JOIN FETCH f.product WHERE f.user = :user ORDER BY f.createdAt DESC")
     Page<UserFavorite> findByUserWithProduct(@Param("user") User user, Pageable pageable);
     
+    /**
+     * Favorites added since a point in time, for seeding trending scores
+     */
+    @Query("SELECT f.product.productId AS listingId, f.createdAt AS occurredAt FROM UserFavorite f " +
+           "WHERE f.createdAt > :since")
+    List<ListingActivity> findActivitySince(@Param("since") LocalDateTime since);
+    
+    /**
+     * Categories of the listings a user favorited since a point in time, for seeding interest profiles
+     */
+    @Query("SELECT f.product.category AS category, f.createdAt AS occurredAt FROM UserFavorite f " +
+           "WHERE f.user.userId = :userId AND f.createdAt > :since")
+    List<CategoryActivity> findCategoryActivitySince(@Param("userId") UUID userId, @Param("since") LocalDateTime since);
+    
     /**
      * Check if user favorited a product
      */
@@ -0,0 +1,16 @@
+package com.commandlinecommandos.campusmarketplace.repository;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Projection for one view of a listing by a user, as replayed into the co-view matrix
+ */
+public interface UserListingView {
+
+    UUID getUserId();
+
+    UUID getListingId();
+
+    LocalDateTime getViewedAt();
+}
@@ -0,0 +1,309 @@
+package com.commandlinecommandos.campusmarketplace.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Compressed prefix trie of suggestion phrases with precomputed top-k completions per node
+ * A suggestion (listing title or popular query) is reachable from the start of each of its
+ * first few words, so "book" completes "Calculus Textbook" as well as "Book shelf".
+ * Weights are adjusted incrementally; nodes on a changed path are only marked dirty and
+ * their top-k lists are rebuilt from their children by refresh(), so bulk loads pay once.
+ * Not thread-safe: IndexShard guards it with its lock.
+ */
+final class AutocompleteTrie {
+
+    // Completions are reachable from the first MAX_KEY_WORDS word starts of a phrase
+    private static final int MAX_KEY_WORDS = 6;
+
+    private static final Suggestion[] NO_SUGGESTIONS = new Suggestion[0];
+
+    private static final Comparator<Suggestion> BY_WEIGHT = Comparator
+        .comparingLong((Suggestion s) -> s.weight).reversed()
+        .thenComparing(s -> s.text);
+
+    private final int topK;
+    private final Node root = new Node("");
+
+    AutocompleteTrie(int topK) {
+        this.topK = topK;
+    }
+
+    /**
+     * Add delta to the weight of a suggestion; it disappears once its weight drops to zero
+     */
+    void adjust(String text, long delta) {
+        if (text == null || delta == 0) {
+            return;
+        }
+        String display = text.trim();
+        for (String key : keysFor(display)) {
+            adjustKey(key, display, delta);
+        }
+    }
+
+    /**
+     * Whether adjustments are waiting for refresh()
+     */
+    boolean isDirty() {
+        return root.dirty;
+    }
+
+    /**
+     * Rebuild the top-k lists of every node touched since the last refresh
+     */
+    void refresh() {
+        refresh(root);
+    }
+
+    /**
+     * Highest-weighted suggestions under a typed prefix (call refresh() first)
+     */
+    List<String> complete(String prefix, int limit) {
+        String key = normalizePrefix(prefix);
+        if (key.isEmpty()) {
+            return List.of();
+        }
+        Node node = root;
+        int i = 0;
+        while (i < key.length()) {
+            Node child = node.children.get(key.charAt(i));
+            if (child == null) {
+                return List.of();
+            }
+            String label = child.label;
+            int remaining = key.length() - i;
+            if (remaining <= label.length()) {
+                if (!label.startsWith(key.substring(i))) {
+                    return List.of();
+                }
+            } else if (!key.startsWith(label, i)) {
+                return List.of();
+            }
+            i += label.length();
+            node = child;
+        }
+
+        int count = Math.min(limit, node.top.length);
+        List<String> completions = new ArrayList<>(count);
+        for (int j = 0; j < count; j++) {
+            completions.add(node.top[j].text);
+        }
+        return completions;
+    }
+
+    private void adjustKey(String key, String display, long delta) {
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        path.add(node);
+        int i = 0;
+        while (i < key.length()) {
+            char c = key.charAt(i);
+            Node child = node.children.get(c);
+            if (child == null) {
+                if (delta < 0) {
+                    return;  // nothing to remove
+                }
+                child = new Node(key.substring(i));
+                node.children.put(c, child);
+            } else {
+                int common = commonPrefix(child.label, key, i);
+                if (common < child.label.length()) {
+                    if (delta < 0) {
+                        return;
+                    }
+                    child = split(node, child, common);
+                }
+            }
+            i += child.label.length();
+            node = child;
+            path.add(node);
+        }
+
+        if (node.terminals == null) {
+            if (delta < 0) {
+                return;
+            }
+            node.terminals = new HashMap<>(4);
+        }
+        long weight = node.terminals.getOrDefault(display, 0L) + delta;
+        if (weight > 0) {
+            node.terminals.put(display, weight);
+        } else {
+            node.terminals.remove(display);
+            if (node.terminals.isEmpty()) {
+                node.terminals = null;
+            }
+        }
+
+        for (Node onPath : path) {
+            onPath.dirty = true;
+        }
+        prune(path);
+    }
+
+    /**
+     * Split child's edge after common characters, returning the new intermediate node
+     */
+    private static Node split(Node parent, Node child, int common) {
+        Node middle = new Node(child.label.substring(0, common));
+        child.label = child.label.substring(common);
+        middle.children.put(child.label.charAt(0), child);
+        middle.dirty = true;
+        parent.children.put(middle.label.charAt(0), middle);
+        return middle;
+    }
+
+    /**
+     * Drop empty leaves and merge pass-through nodes bottom-up so the trie stays compressed
+     */
+    private static void prune(List<Node> path) {
+        for (int p = path.size() - 1; p > 0; p--) {
+            Node node = path.get(p);
+            Node parent = path.get(p - 1);
+            if (node.terminals != null) {
+                return;
+            }
+            if (node.children.isEmpty()) {
+                parent.children.remove(node.label.charAt(0));
+            } else if (node.children.size() == 1) {
+                Node only = node.children.values().iterator().next();
+                only.label = node.label + only.label;
+                parent.children.put(only.label.charAt(0), only);
+                return;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private void refresh(Node node) {
+        if (!node.dirty) {
+            return;
+        }
+        Map<String, Long> best = new HashMap<>();
+        if (node.terminals != null) {
+            // Spellings of one phrase ("Mini fridge", "mini fridge") show as the heaviest
+            // spelling with their combined weight
+            Map<String, Suggestion> phrases = new HashMap<>();
+            for (Map.Entry<String, Long> entry : node.terminals.entrySet()) {
+                Suggestion spelling = new Suggestion(entry.getKey(), entry.getValue());
+                phrases.merge(normalizePrefix(entry.getKey()).trim(), spelling, AutocompleteTrie::combine);
+            }
+            for (Suggestion phrase : phrases.values()) {
+                best.put(phrase.text, phrase.weight);
+            }
+        }
+        for (Node child : node.children.values()) {
+            refresh(child);
+            for (Suggestion suggestion : child.top) {
+                best.merge(suggestion.text, suggestion.weight, Math::max);
+            }
+        }
+
+        if (best.isEmpty()) {
+            node.top = NO_SUGGESTIONS;
+        } else {
+            Suggestion[] candidates = new Suggestion[best.size()];
+            int i = 0;
+            for (Map.Entry<String, Long> entry : best.entrySet()) {
+                candidates[i++] = new Suggestion(entry.getKey(), entry.getValue());
+            }
+            Arrays.sort(candidates, BY_WEIGHT);
+            node.top = candidates.length > topK ? Arrays.copyOf(candidates, topK) : candidates;
+        }
+        node.dirty = false;
+    }
+
+    /**
+     * Normalized phrase starting at each of the first few words
+     */
+    static Set<String> keysFor(String text) {
+        String normalized = normalizePrefix(text).trim();
+        Set<String> keys = new LinkedHashSet<>();
+        if (normalized.isEmpty()) {
+            return keys;
+        }
+        keys.add(normalized);
+        int start = 0;
+        for (int words = 1; words < MAX_KEY_WORDS; words++) {
+            int space = normalized.indexOf(' ', start);
+            if (space < 0) {
+                break;
+            }
+            start = space + 1;
+            keys.add(normalized.substring(start));
+        }
+        return keys;
+    }
+
+    /**
+     * Lowercase, runs of non-alphanumerics become one space, no leading space
+     * A trailing space is kept so "desk " only matches phrases with another word after "desk"
+     */
+    static String normalizePrefix(String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder out = new StringBuilder(text.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                if (pendingSpace && out.length() > 0) {
+                    out.append(' ');
+                }
+                pendingSpace = false;
+                out.append(Character.toLowerCase(c));
+            } else {
+                pendingSpace = true;
+            }
+        }
+        if (pendingSpace && out.length() > 0) {
+            out.append(' ');
+        }
+        return out.toString();
+    }
+
+    private static Suggestion combine(Suggestion a, Suggestion b) {
+        Suggestion heavier = BY_WEIGHT.compare(a, b) <= 0 ? a : b;
+        return new Suggestion(heavier.text, a.weight + b.weight);
+    }
+
+    private static int commonPrefix(String label, String key, int offset) {
+        int max = Math.min(label.length(), key.length() - offset);
+        int i = 0;
+        while (i < max && label.charAt(i) == key.charAt(offset + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    private static final class Node {
+        private String label;
+        private final Map<Character, Node> children = new HashMap<>(4);
+        private Map<String, Long> terminals;
+        private Suggestion[] top = NO_SUGGESTIONS;
+        private boolean dirty;
+
+        Node(String label) {
+            this.label = label;
+        }
+    }
+
+    private static final class Suggestion {
+        private final String text;
+        private final long weight;
+
+        Suggestion(String text, long weight) {
+            this.text = text;
+            this.weight = weight;
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.commandlinecommandos.campusmarketplace.search;
+
+import com.commandlinecommandos.campusmarketplace.model.CampusLocation;
+import com.commandlinecommandos.campusmarketplace.repository.CampusLocationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * In-memory campus location dictionary: resolves location text to location ids
+ * Names and aliases are compared as match keys (lowercase, anything but letters and digits
+ * collapsed to one space). A location filter resolves only on an exact name or alias, a
+ * listing's pickup text on the longest name or alias it contains as whole words (the same
+ * rule the V19 backfill uses). Reloaded at startup; lookups read an immutable snapshot.
+ */
+@Component
+public class CampusLocationResolver {
+
+    private static final Logger log = LoggerFactory.getLogger(CampusLocationResolver.class);
+
+    @Autowired
+    private CampusLocationRepository campusLocationRepository;
+
+    private volatile Map<UUID, Dictionary> dictionaries = Map.of();
+
+    /**
+     * Load the dictionary from the database
+     * Runs before the other startup listeners, which compile location filters against it
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void reload() {
+        List<CampusLocation> locations = campusLocationRepository.findAll();
+        load(locations);
+        log.info("Campus location dictionary loaded: {} locations", locations.size());
+    }
+
+    /**
+     * Location ids a location filter stands for, or null if the text names no known location
+     * (callers then fall back to a substring match on the pickup text)
+     *
+     * @param includeNearby also return the locations adjacent to the named one
+     */
+    public Set<Integer> filterIds(UUID universityId, String location, boolean includeNearby) {
+        Dictionary dictionary = universityId != null ? dictionaries.get(universityId) : null;
+        String key = matchKey(location);
+        if (dictionary == null || key.isEmpty()) {
+            return null;
+        }
+        Integer id = dictionary.byKey.get(key);
+        if (id == null) {
+            return null;
+        }
+        Set<Integer> ids = new LinkedHashSet<>();
+        ids.add(id);
+        if (includeNearby) {
+            ids.addAll(dictionary.nearby.getOrDefault(id, Set.of()));
+        }
+        return ids;
+    }
+
+    /**
+     * Location id for a listing's pickup text, or null if it mentions no known location
+     */
+    public Integer resolveListing(UUID universityId, String pickupLocation) {
+        Dictionary dictionary = universityId != null ? dictionaries.get(universityId) : null;
+        String key = matchKey(pickupLocation);
+        if (dictionary == null || key.isEmpty()) {
+            return null;
+        }
+        String padded = " " + key + " ";
+        for (String candidate : dictionary.keysLongestFirst) {
+            if (padded.contains(" " + candidate + " ")) {
+                return dictionary.byKey.get(candidate);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Lowercase, with every run of characters other than a-z and 0-9 turned into one space
+     */
+    static String matchKey(String text) {
+        if (text == null) {
+            return "";
+        }
+        return text.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9]+", " ").trim();
+    }
+
+    /**
+     * Replace the snapshot with the given locations
+     */
+    void load(Collection<CampusLocation> locations) {
+        List<CampusLocation> ordered = new ArrayList<>(locations);
+        ordered.sort(Comparator.comparing(CampusLocation::getId));
+
+        Map<UUID, Dictionary> loaded = new HashMap<>();
+        for (CampusLocation location : ordered) {
+            Dictionary dictionary = loaded.computeIfAbsent(location.getUniversityId(), id -> new Dictionary());
+            Set<String> keys = new LinkedHashSet<>();
+            keys.add(matchKey(location.getNormalizedName()));
+            location.getAliases().forEach(alias -> keys.add(matchKey(alias)));
+            for (String key : keys) {
+                // Lowest id keeps an ambiguous alias, matching the backfill's tie-break
+                Integer previous = key.isEmpty() ? null : dictionary.byKey.putIfAbsent(key, location.getId());
+                if (previous != null && !previous.equals(location.getId())) {
+                    log.warn("Campus location alias '{}' is used by locations {} and {}", key, previous, location.getId());
+                }
+            }
+            dictionary.nearby.put(location.getId(), Set.copyOf(location.getNearbyLocationIds()));
+        }
+        for (Dictionary dictionary : loaded.values()) {
+            dictionary.keysLongestFirst.addAll(dictionary.byKey.keySet());
+            dictionary.keysLongestFirst.sort(Comparator.comparingInt(String::length).reversed()
+                .thenComparing(dictionary.byKey::get));
+        }
+        dictionaries = Map.copyOf(loaded);
+    }
+
+    /**
+     * One university's locations
+     */
+    private static final class Dictionary {
+        private final Map<String, Integer> byKey = new HashMap<>();
+        private final List<String> keysLongestFirst = new ArrayList<>();
+        private final Map<Integer, Set<Integer>> nearby = new HashMap<>();
+    }
+}
@@ -0,0 +1,206 @@
+package com.commandlinecommandos.campusmarketplace.search;
+
+import com.commandlinecommandos.campusmarketplace.dto.SearchFacets;
+import com.commandlinecommandos.campusmarketplace.dto.SearchRequest;
+import com.commandlinecommandos.campusmarketplace.model.ProductCategory;
+import com.commandlinecommandos.campusmarketplace.model.ProductCondition;
+
+import java.math.BigDecimal;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.IntToLongFunction;
+
+/**
+ * Attribute bitmaps over a shard's doc ids: one per category, condition and price bucket,
+ * plus one for searchable (active and approved) listings
+ * Category, condition and price filters become OR/AND over these bitmaps, and every facet
+ * count is the cardinality of one bitmap ANDed with the other dimensions' selections.
+ * Not thread-safe: IndexShard guards it with its lock.
+ */
+final class FacetIndex {
+
+    private static final PriceBucket[] BUCKETS = PriceBucket.values();
+
+    private final Map<ProductCategory, BitSet> categories = new EnumMap<>(ProductCategory.class);
+    private final Map<ProductCondition, BitSet> conditions = new EnumMap<>(ProductCondition.class);
+    private final BitSet[] priceBuckets = new BitSet[BUCKETS.length];
+    private final BitSet searchable = new BitSet();
+
+    FacetIndex() {
+        for (ProductCategory category : ProductCategory.values()) {
+            categories.put(category, new BitSet());
+        }
+        for (ProductCondition condition : ProductCondition.values()) {
+            conditions.put(condition, new BitSet());
+        }
+        for (int b = 0; b < priceBuckets.length; b++) {
+            priceBuckets[b] = new BitSet();
+        }
+    }
+
+    void add(int doc, IndexedListing listing) {
+        if (listing.getCategory() != null) {
+            categories.get(listing.getCategory()).set(doc);
+        }
+        if (listing.getCondition() != null) {
+            conditions.get(listing.getCondition()).set(doc);
+        }
+        priceBuckets[PriceBucket.of(listing.getPriceCents()).ordinal()].set(doc);
+        searchable.set(doc, listing.isSearchable());
+    }
+
+    void remove(int doc) {
+        categories.values().forEach(bitmap -> bitmap.clear(doc));
+        conditions.values().forEach(bitmap -> bitmap.clear(doc));
+        for (BitSet bitmap : priceBuckets) {
+            bitmap.clear(doc);
+        }
+        searchable.clear(doc);
+    }
+
+    void clear() {
+        categories.values().forEach(BitSet::clear);
+        conditions.values().forEach(BitSet::clear);
+        for (BitSet bitmap : priceBuckets) {
+            bitmap.clear();
+        }
+        searchable.clear();
+    }
+
+    /**
+     * Turn the request's category, condition and price filters into bitmaps
+     *
+     * @param priceCents exact price of a doc, used for the buckets a price bound cuts through
+     */
+    Selection select(SearchRequest request, IntToLongFunction priceCents) {
+        return new Selection(
+            union(categories, request.getCategories()),
+            union(conditions, request.getConditions()),
+            priceRange(request.getMinPrice(), request.getMaxPrice(), priceCents));
+    }
+
+    /**
+     * Docs of base that are searchable and pass every selected filter
+     */
+    BitSet matches(BitSet base, Selection selection) {
+        BitSet result = searchableIn(base);
+        andIfSelected(result, selection.categories);
+        andIfSelected(result, selection.conditions);
+        andIfSelected(result, selection.price);
+        return result;
+    }
+
+    /**
+     * Facet counts for the searchable docs of base
+     * Each dimension ignores its own selection so the other values keep their counts
+     */
+    SearchFacets count(BitSet base, Selection selection) {
+        BitSet scope = searchableIn(base);
+
+        BitSet forCategories = (BitSet) scope.clone();
+        andIfSelected(forCategories, selection.conditions);
+        andIfSelected(forCategories, selection.price);
+        Map<String, Long> categoryCounts = new LinkedHashMap<>();
+        categories.forEach((category, bitmap) ->
+            categoryCounts.put(category.name(), intersectionCount(forCategories, bitmap)));
+
+        BitSet forConditions = (BitSet) scope.clone();
+        andIfSelected(forConditions, selection.categories);
+        andIfSelected(forConditions, selection.price);
+        Map<String, Long> conditionCounts = new LinkedHashMap<>();
+        conditions.forEach((condition, bitmap) ->
+            conditionCounts.put(condition.name(), intersectionCount(forConditions, bitmap)));
+
+        BitSet forPrices = scope;
+        andIfSelected(forPrices, selection.categories);
+        andIfSelected(forPrices, selection.conditions);
+        Map<String, Long> priceCounts = new LinkedHashMap<>();
+        for (PriceBucket bucket : BUCKETS) {
+            priceCounts.put(bucket.getLabel(), intersectionCount(forPrices, priceBuckets[bucket.ordinal()]));
+        }
+
+        return new SearchFacets(categoryCounts, conditionCounts, priceCounts);
+    }
+
+    private BitSet searchableIn(BitSet base) {
+        BitSet result = (BitSet) base.clone();
+        result.and(searchable);
+        return result;
+    }
+
+    /**
+     * OR of the bitmaps of the selected values, or null when nothing is selected
+     */
+    private static <E extends Enum<E>> BitSet union(Map<E, BitSet> bitmaps, Collection<E> selected) {
+        if (selected == null || selected.isEmpty()) {
+            return null;
+        }
+        BitSet result = new BitSet();
+        for (E value : selected) {
+            if (value != null) {
+                result.or(bitmaps.get(value));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Docs priced within [min, max]: buckets inside the range are ORed whole, the (at most two)
+     * buckets a bound cuts through are checked doc by doc
+     */
+    private BitSet priceRange(BigDecimal min, BigDecimal max, IntToLongFunction priceCents) {
+        if (min == null && max == null) {
+            return null;
+        }
+        long minCents = min != null ? min.movePointRight(2).longValue() : Long.MIN_VALUE;
+        long maxCents = max != null ? max.movePointRight(2).longValue() : Long.MAX_VALUE;
+        BitSet result = new BitSet();
+        for (PriceBucket bucket : BUCKETS) {
+            if (!bucket.overlaps(minCents, maxCents)) {
+                continue;
+            }
+            BitSet bitmap = priceBuckets[bucket.ordinal()];
+            if (bucket.lowestCents() >= minCents && bucket.highestCents() <= maxCents) {
+                result.or(bitmap);
+                continue;
+            }
+            for (int doc = bitmap.nextSetBit(0); doc >= 0; doc = bitmap.nextSetBit(doc + 1)) {
+                long price = priceCents.applyAsLong(doc);
+                if (price >= minCents && price <= maxCents) {
+                    result.set(doc);
+                }
+            }
+        }
+        return result;
+    }
+
+    private static void andIfSelected(BitSet target, BitSet selection) {
+        if (selection != null) {
+            target.and(selection);
+        }
+    }
+
+    private static long intersectionCount(BitSet a, BitSet b) {
+        BitSet both = (BitSet) a.clone();
+        both.and(b);
+        return both.cardinality();
+    }
+
+    /**
+     * Per-dimension filter bitmaps for one request (null = dimension not filtered)
+     */
+    static final class Selection {
+        private final BitSet categories;
+        private final BitSet conditions;
+        private final BitSet price;
+
+        Selection(BitSet categories, BitSet conditions, BitSet price) {
+            this.categories = categories;
+            this.conditions = conditions;
+            this.price = price;
+        }
+    }
+}
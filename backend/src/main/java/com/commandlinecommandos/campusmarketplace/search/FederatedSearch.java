@@ -0,0 +1,296 @@
+package com.commandlinecommandos.campusmarketplace.search;
+
+import com.commandlinecommandos.campusmarketplace.dto.SearchFacets;
+import com.commandlinecommandos.campusmarketplace.dto.SearchRequest;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Searches several universities as separate shards and merges their pages into one
+ * Every university runs the same executor on its own thread with a shared deadline; shards
+ * that miss it (or fail) are cancelled and left out, and the result says which ones are
+ * missing instead of failing the whole search. Each shard returns its own top results after
+ * the request's cursor (or its top page * size for OFFSET paging), so the global page is
+ * always within their union and a k-way merge on the sort key picks it out.
+ * Relevance scores are merged as-is, so they should come from the same executor and scale.
+ * Shard outcomes are counted as "search.federated.shards" (tag outcome) and each fan-out is
+ * timed as "search.federated" (tag partial).
+ */
+public final class FederatedSearch {
+
+    private static final Logger log = LoggerFactory.getLogger(FederatedSearch.class);
+
+    /**
+     * Loads the sort keys of the candidate listings for the merge
+     */
+    @FunctionalInterface
+    public interface SortKeyLoader {
+
+        /**
+         * Sort key per listing id (listings no longer in the database are left out)
+         *
+         * @param scores relevance scores of the listings that have one
+         */
+        Map<UUID, SearchCursor> load(List<UUID> listingIds, SearchSort sort, Map<UUID, Float> scores);
+    }
+
+    private final ExecutorService executor;
+    private final MeterRegistry meterRegistry;
+    private final long shardTimeoutMillis;
+    private final int maxWindow;
+
+    /**
+     * @param shardTimeoutMillis time budget shared by all shards of one search
+     * @param maxWindow deepest result (page * size + size) OFFSET paging may reach
+     */
+    public FederatedSearch(ExecutorService executor, MeterRegistry meterRegistry,
+                           long shardTimeoutMillis, int maxWindow) {
+        this.executor = executor;
+        this.meterRegistry = meterRegistry;
+        this.shardTimeoutMillis = shardTimeoutMillis;
+        this.maxWindow = maxWindow;
+    }
+
+    /**
+     * Run the search on every university and merge the answers into one page
+     *
+     * @param searchExecutor executor each shard runs
+     * @param cursor keyset position to continue after (keyset mode is request.getCursor() != null)
+     * @throws IllegalArgumentException if OFFSET paging goes deeper than the merge window
+     * @throws QueryTimeoutException if interrupted while waiting for the shards
+     */
+    public Result execute(SearchExecutor searchExecutor, List<UUID> universityIds, SearchRequest request,
+                          SearchCursor cursor, SortKeyLoader sortKeys) {
+        boolean keyset = request.getCursor() != null;
+        int skip = keyset ? 0 : request.getPage() * request.getSize();
+        if (skip + request.getSize() > maxWindow) {
+            throw new IllegalArgumentException("Federated search can page through the first " + maxWindow
+                + " results only, use cursor paging to go further");
+        }
+        SearchRequest shardRequest = shardRequest(request, skip + request.getSize());
+
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(shardTimeoutMillis);
+        List<Future<SearchHits>> futures = new ArrayList<>(universityIds.size());
+        for (UUID universityId : universityIds) {
+            futures.add(executor.submit(() -> searchExecutor.execute(universityId, shardRequest, cursor)));
+        }
+
+        List<SearchHits> answered = new ArrayList<>(universityIds.size());
+        List<UUID> unavailable = new ArrayList<>();
+        try {
+            for (int i = 0; i < futures.size(); i++) {
+                SearchHits hits = await(futures.get(i), universityIds.get(i), deadline);
+                if (hits != null) {
+                    answered.add(hits);
+                } else {
+                    unavailable.add(universityIds.get(i));
+                }
+            }
+        } finally {
+            futures.forEach(future -> future.cancel(true));
+            Timer.builder("search.federated")
+                .description("Federated search fan-out time")
+                .tag("partial", Boolean.toString(!unavailable.isEmpty()))
+                .register(meterRegistry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+
+        SearchHits merged = merge(answered, SearchSort.from(request.getSortBy()), skip, request.getSize(),
+            keyset, sortKeys);
+        return new Result(merged, unavailable);
+    }
+
+    /**
+     * K-way merge of sorted shard pages: skip, then take size results in sort order
+     */
+    static SearchHits merge(List<SearchHits> shards, SearchSort sort, int skip, int size, boolean keyset,
+                            SortKeyLoader sortKeys) {
+        List<UUID> candidates = new ArrayList<>();
+        Map<UUID, Float> scores = new HashMap<>();
+        for (SearchHits shard : shards) {
+            for (int i = 0; i < shard.getListingIds().size(); i++) {
+                UUID id = shard.getListingIds().get(i);
+                candidates.add(id);
+                if (shard.getScores().get(i) != null) {
+                    scores.put(id, shard.getScores().get(i));
+                }
+            }
+        }
+        Map<UUID, SearchCursor> keys = candidates.isEmpty()
+            ? new HashMap<>() : new HashMap<>(sortKeys.load(candidates, sort, scores));
+        // A shard that sorted on its own keys is merged on them, so its next cursor picks up where it stopped
+        for (SearchHits shard : shards) {
+            if (shard.getPositions() != null) {
+                for (int i = 0; i < shard.getListingIds().size(); i++) {
+                    keys.replace(shard.getListingIds().get(i), shard.getPositions().get(i));
+                }
+            }
+        }
+
+        PriorityQueue<Head> heads = new PriorityQueue<>((a, b) -> SearchCursor.compare(a.key, b.key));
+        for (SearchHits shard : shards) {
+            advance(new Head(shard.getListingIds()), keys, heads);
+        }
+
+        List<UUID> ids = new ArrayList<>(size);
+        List<Float> mergedScores = new ArrayList<>(size);
+        List<SearchCursor> positions = new ArrayList<>(size);
+        int skipped = 0;
+        while (!heads.isEmpty() && ids.size() < size) {
+            Head head = heads.poll();
+            if (skipped < skip) {
+                skipped++;
+            } else {
+                ids.add(head.key.getListingId());
+                mergedScores.add(scores.get(head.key.getListingId()));
+                positions.add(head.key);
+            }
+            advance(head, keys, heads);
+        }
+
+        if (keyset) {
+            boolean hasMore = !heads.isEmpty() || shards.stream().anyMatch(SearchHits::hasMore);
+            return new SearchHits(ids, mergedScores, -1, hasMore, mergeFacets(shards), positions);
+        }
+        long total = shards.stream().mapToLong(SearchHits::getTotalHits).sum();
+        return new SearchHits(ids, mergedScores, total, skip + ids.size() < total, mergeFacets(shards), positions);
+    }
+
+    /**
+     * Move a shard to its next listing that still has a sort key and queue it, if there is one
+     */
+    private static void advance(Head head, Map<UUID, SearchCursor> keys, PriorityQueue<Head> heads) {
+        while (head.next < head.ids.size()) {
+            SearchCursor key = keys.get(head.ids.get(head.next++));
+            if (key != null) {
+                head.key = key;
+                heads.add(head);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Sum of the shards' facet counts, or null unless every shard computed facets
+     */
+    private static SearchFacets mergeFacets(List<SearchHits> shards) {
+        if (shards.isEmpty() || shards.stream().anyMatch(shard -> shard.getFacets() == null)) {
+            return null;
+        }
+        SearchFacets merged = new SearchFacets(new LinkedHashMap<>(), new LinkedHashMap<>(), new LinkedHashMap<>());
+        for (SearchHits shard : shards) {
+            shard.getFacets().getCategories().forEach((key, count) -> merged.getCategories().merge(key, count, Long::sum));
+            shard.getFacets().getConditions().forEach((key, count) -> merged.getConditions().merge(key, count, Long::sum));
+            shard.getFacets().getPriceRanges().forEach((key, count) -> merged.getPriceRanges().merge(key, count, Long::sum));
+        }
+        return merged;
+    }
+
+    /**
+     * Shard hits, or null if the shard missed the deadline or failed
+     */
+    private SearchHits await(Future<SearchHits> future, UUID universityId, long deadline) {
+        String outcome = "completed";
+        try {
+            return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            outcome = "timeout";
+            log.warn("Federated search: university {} did not answer within {}ms", universityId, shardTimeoutMillis);
+            return null;
+        } catch (ExecutionException e) {
+            outcome = "failed";
+            log.warn("Federated search: university {} failed: {}", universityId, e.getCause().getMessage());
+            return null;
+        } catch (InterruptedException e) {
+            outcome = "interrupted";
+            Thread.currentThread().interrupt();
+            throw new QueryTimeoutException("Interrupted while waiting for university shards");
+        } finally {
+            Counter.builder("search.federated.shards")
+                .description("Federated search shard answers by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .increment();
+        }
+    }
+
+    /**
+     * Copy of the request that asks a shard for its first window results (or its next page after the cursor)
+     */
+    private static SearchRequest shardRequest(SearchRequest request, int window) {
+        SearchRequest shard = new SearchRequest();
+        shard.setQuery(request.getQuery());
+        shard.setCategories(request.getCategories());
+        shard.setConditions(request.getConditions());
+        shard.setMinPrice(request.getMinPrice());
+        shard.setMaxPrice(request.getMaxPrice());
+        shard.setLocation(request.getLocation());
+        shard.setIncludeNearby(request.isIncludeNearby());
+        shard.setDateFrom(request.getDateFrom());
+        shard.setSortBy(request.getSortBy());
+        shard.setCursor(request.getCursor());
+        shard.setPage(0);
+        shard.setSize(request.getCursor() != null ? request.getSize() : window);
+        return shard;
+    }
+
+    /**
+     * Merge position in one shard's ids
+     */
+    private static final class Head {
+        private final List<UUID> ids;
+        private int next;
+        private SearchCursor key;
+
+        Head(List<UUID> ids) {
+            this.ids = ids;
+        }
+    }
+
+    /**
+     * Merged page plus the universities that are missing from it
+     */
+    public static final class Result {
+
+        private final SearchHits hits;
+        private final List<UUID> unavailableUniversityIds;
+
+        Result(SearchHits hits, List<UUID> unavailableUniversityIds) {
+            this.hits = hits;
+            this.unavailableUniversityIds = unavailableUniversityIds;
+        }
+
+        public SearchHits getHits() {
+            return hits;
+        }
+
+        /**
+         * Universities that timed out or failed (empty when the result is complete)
+         */
+        public List<UUID> getUnavailableUniversityIds() {
+            return unavailableUniversityIds;
+        }
+
+        public boolean isPartial() {
+            return !unavailableUniversityIds.isEmpty();
+        }
+    }
+}
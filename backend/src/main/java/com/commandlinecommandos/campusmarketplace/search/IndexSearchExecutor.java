@@ -0,0 +1,34 @@
+package com.commandlinecommandos.campusmarketplace.search;
+
+import com.commandlinecommandos.campusmarketplace.dto.SearchRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+/**
+ * Serves searches from the in-memory listing index once it has loaded
+ */
+@Component
+@Order(0)
+public class IndexSearchExecutor implements SearchExecutor {
+
+    @Autowired
+    private ListingSearchIndex listingSearchIndex;
+
+    @Override
+    public boolean isAvailable() {
+        return listingSearchIndex.isReady();
+    }
+
+    @Override
+    public SearchHits execute(UUID universityId, SearchRequest request, SearchCursor cursor) {
+        return listingSearchIndex.search(universityId, request, cursor);
+    }
+
+    @Override
+    public String name() {
+        return "index";
+    }
+}
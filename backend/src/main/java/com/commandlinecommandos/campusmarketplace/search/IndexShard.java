@@ -0,0 +1,500 @@
+package com.commandlinecommandos.campusmarketplace.search;
+
+import com.commandlinecommandos.campusmarketplace.dto.SearchFacets;
+import com.commandlinecommandos.campusmarketplace.dto.SearchRequest;
+
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Inverted index over the listings of a single university
+ * Documents get dense int ids; postings are sorted primitive arrays with a term weight per doc.
+ * Text edits tombstone the old doc id and append a new one, so postings stay append-only;
+ * the shard compacts itself once a quarter of its doc ids are dead.
+ * Queries without an exact match fall back to typo-tolerant matching through a trigram
+ * index over the term dictionary (TrigramTermIndex).
+ * Category, condition, price and searchable state are kept as bitmaps (FacetIndex), which
+ * answer those filters and the facet counts of every search.
+ * It also owns the university's autocomplete trie, weighted by listing popularity and past queries,
+ * and the MinHash signatures of its listings' text (MinHashIndex) for similar-listing lookups.
+ */
+final class IndexShard {
+
+    // Same weights ts_rank uses for setweight() classes A and B
+    private static final float TITLE_WEIGHT = 1.0f;
+    private static final float DESCRIPTION_WEIGHT = 0.4f;
+
+    private static final int COMPACTION_MIN_DELETED = 64;
+
+    // Fuzzy matching: same minimum query length as the SQL executor, closest corrections per term
+    private static final int FUZZY_MIN_QUERY_LENGTH = 4;
+    private static final int FUZZY_EXPANSIONS = 5;
+
+    // Autocomplete weights: every searchable title counts, views and favorites add popularity
+    static final int SUGGESTION_TOP_K = 10;
+    private static final long TITLE_BASE_WEIGHT = 1;
+    private static final long VIEW_WEIGHT = 1;
+    private static final long FAVORITE_WEIGHT = 5;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final List<IndexedListing> docs = new ArrayList<>();
+    private final BitSet live = new BitSet();
+    private final Map<UUID, Integer> docIds = new HashMap<>();
+    private final Map<String, Postings> postings = new HashMap<>();
+    private final TrigramTermIndex vocabulary = new TrigramTermIndex();
+    private final FacetIndex facets = new FacetIndex();
+    private final AutocompleteTrie suggestions = new AutocompleteTrie(SUGGESTION_TOP_K);
+    private final MinHashIndex signatures = new MinHashIndex();
+    private int deletedCount;
+
+    /**
+     * Add or replace a listing
+     * Attribute-only changes (price, counters, status) are applied in place
+     */
+    void upsert(IndexedListing listing) {
+        lock.writeLock().lock();
+        try {
+            Integer existing = docIds.get(listing.getListingId());
+            IndexedListing previous = existing != null ? docs.get(existing) : null;
+            updateSuggestion(previous, listing);
+            if (existing != null) {
+                if (previous.sameText(listing)) {
+                    docs.set(existing, listing);
+                    facets.remove(existing);
+                    facets.add(existing, listing);
+                    return;
+                }
+                tombstone(existing);
+            }
+            addDocument(listing);
+            signatures.put(listing.getListingId(), listing.getSignature());
+            maybeCompact();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove a listing, returns false if it was not in this shard
+     */
+    boolean remove(UUID listingId) {
+        lock.writeLock().lock();
+        try {
+            Integer existing = docIds.remove(listingId);
+            if (existing == null) {
+                return false;
+            }
+            updateSuggestion(docs.get(existing), null);
+            tombstone(existing);
+            signatures.remove(listingId);
+            maybeCompact();
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Number of live documents
+     */
+    int size() {
+        lock.readLock().lock();
+        try {
+            return docIds.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Listings whose text is most similar to a listing's, most similar first
+     */
+    List<UUID> similar(UUID listingId, int limit) {
+        lock.readLock().lock();
+        try {
+            return signatures.similar(listingId, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Count a search for a query phrase towards its autocomplete weight
+     */
+    void recordQuery(String query, long weight) {
+        lock.writeLock().lock();
+        try {
+            suggestions.adjust(query, weight);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Top weighted titles and past queries completing a typed prefix
+     * Pending trie updates are folded in by the first reader after a write
+     */
+    List<String> complete(String prefix, int limit) {
+        lock.readLock().lock();
+        try {
+            if (!suggestions.isDirty()) {
+                return suggestions.complete(prefix, limit);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        lock.writeLock().lock();
+        try {
+            suggestions.refresh();
+            return suggestions.complete(prefix, limit);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Run a text + filter query and return one page of ids in the requested order, with facet counts
+     * In keyset mode (request cursor set) the page starts right after the cursor instead of at page * size
+     *
+     * @param locationIds dictionary ids the location filter resolved to (null = substring match)
+     */
+    SearchHits search(SearchRequest request, SearchCursor cursor, Set<Integer> locationIds) {
+        lock.readLock().lock();
+        try {
+            Set<String> terms = new LinkedHashSet<>(SearchTextAnalyzer.tokenize(request.getQuery()));
+
+            int[] candidates;
+            float[] scores = null;
+            int count;
+            if (!terms.isEmpty()) {
+                TextMatches matches = matchTerms(terms, false);
+                if (matches.count == 0 && request.getQuery().trim().length() >= FUZZY_MIN_QUERY_LENGTH) {
+                    // Typo fallback, like the trigram branch of the SQL executor
+                    matches = matchTerms(terms, true);
+                }
+                candidates = matches.docs;
+                scores = matches.scores;
+                count = matches.count;
+            } else {
+                candidates = new int[docIds.size()];
+                count = 0;
+                for (int d = live.nextSetBit(0); d >= 0; d = live.nextSetBit(d + 1)) {
+                    candidates[count++] = d;
+                }
+            }
+
+            // Text and location/date matches, then the bitmap filters on top
+            QueryFilter filter = new QueryFilter(request, locationIds);
+            BitSet base = new BitSet(docs.size());
+            for (int i = 0; i < count; i++) {
+                int doc = candidates[i];
+                if (live.get(doc) && filter.matches(docs.get(doc))) {
+                    base.set(doc);
+                }
+            }
+            FacetIndex.Selection selection = facets.select(request, doc -> docs.get(doc).getPriceCents());
+            BitSet hits = facets.matches(base, selection);
+            SearchFacets facetCounts = facets.count(base, selection);
+
+            int totalHits = hits.cardinality();
+            int matched = 0;
+            for (int i = 0; i < count; i++) {
+                int doc = candidates[i];
+                if (!hits.get(doc)) {
+                    continue;
+                }
+                Float score = scores != null ? scores[i] : null;
+                if (cursor != null && !cursor.follows(docs.get(doc), score)) {
+                    continue;
+                }
+                candidates[matched] = doc;
+                if (scores != null) {
+                    scores[matched] = scores[i];
+                }
+                matched++;
+            }
+
+            int offset = request.getCursor() != null ? 0 : request.getPage() * request.getSize();
+            if (offset >= matched) {
+                return new SearchHits(List.of(), List.of(), totalHits, false, facetCounts, List.of());
+            }
+            int limit = Math.min(matched, offset + request.getSize());
+            SearchSort sort = SearchSort.from(request.getSortBy());
+            int[] ordered = topN(candidates, scores, matched, limit, sort);
+
+            List<UUID> ids = new ArrayList<>(limit - offset);
+            List<Float> pageScores = new ArrayList<>(limit - offset);
+            List<SearchCursor> positions = new ArrayList<>(limit - offset);
+            for (int i = offset; i < limit; i++) {
+                int position = ordered[i];
+                IndexedListing listing = docs.get(candidates[position]);
+                Float score = scores != null ? scores[position] : null;
+                ids.add(listing.getListingId());
+                pageScores.add(score);
+                positions.add(SearchCursor.after(sort, listing, score));
+            }
+            return new SearchHits(ids, pageScores, totalHits, limit < matched, facetCounts, positions);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Move a listing's autocomplete contribution from its previous to its current state
+     */
+    private void updateSuggestion(IndexedListing previous, IndexedListing current) {
+        long before = suggestionWeight(previous);
+        long after = suggestionWeight(current);
+        if (previous != null && current != null && Objects.equals(previous.getTitle(), current.getTitle())) {
+            suggestions.adjust(current.getTitle(), after - before);
+            return;
+        }
+        if (previous != null) {
+            suggestions.adjust(previous.getTitle(), -before);
+        }
+        if (current != null) {
+            suggestions.adjust(current.getTitle(), after);
+        }
+    }
+
+    private static long suggestionWeight(IndexedListing listing) {
+        if (listing == null || !listing.isSearchable() || listing.getTitle() == null) {
+            return 0;
+        }
+        return TITLE_BASE_WEIGHT
+            + VIEW_WEIGHT * Math.max(0, listing.getViewCount())
+            + FAVORITE_WEIGHT * Math.max(0, listing.getFavoriteCount());
+    }
+
+    private void addDocument(IndexedListing listing) {
+        int doc = docs.size();
+        docs.add(listing);
+        live.set(doc);
+        docIds.put(listing.getListingId(), doc);
+        facets.add(doc, listing);
+
+        Map<String, Float> termWeights = new HashMap<>();
+        for (String term : SearchTextAnalyzer.tokenize(listing.getTitle())) {
+            termWeights.merge(term, TITLE_WEIGHT, Float::sum);
+        }
+        for (String term : SearchTextAnalyzer.tokenize(listing.getDescription())) {
+            termWeights.merge(term, DESCRIPTION_WEIGHT, Float::sum);
+        }
+        termWeights.forEach((term, weight) -> postings.computeIfAbsent(term, t -> {
+            vocabulary.add(t);
+            return new Postings();
+        }).add(doc, weight));
+    }
+
+    private void tombstone(int doc) {
+        live.clear(doc);
+        facets.remove(doc);
+        docs.set(doc, null);
+        deletedCount++;
+    }
+
+    private void maybeCompact() {
+        if (deletedCount < COMPACTION_MIN_DELETED || deletedCount * 4 < docs.size()) {
+            return;
+        }
+        List<IndexedListing> survivors = new ArrayList<>(docIds.size());
+        for (int d = live.nextSetBit(0); d >= 0; d = live.nextSetBit(d + 1)) {
+            survivors.add(docs.get(d));
+        }
+        docs.clear();
+        live.clear();
+        docIds.clear();
+        postings.clear();
+        vocabulary.clear();
+        facets.clear();
+        deletedCount = 0;
+        survivors.forEach(this::addDocument);
+    }
+
+    /**
+     * Docs containing every term (AND semantics, like plainto_tsquery) with summed tf-idf scores
+     * In fuzzy mode each term also matches its closest dictionary terms, weighted by similarity
+     */
+    private TextMatches matchTerms(Set<String> terms, boolean fuzzy) {
+        Postings[] lists = new Postings[terms.size()];
+        int i = 0;
+        for (String term : terms) {
+            Postings list = fuzzy ? fuzzyPostings(term) : postings.get(term);
+            if (list == null || list.size == 0) {
+                return TextMatches.NONE;
+            }
+            lists[i++] = list;
+        }
+        Arrays.sort(lists, Comparator.comparingInt(p -> p.size));
+
+        int docCount = Math.max(1, docIds.size());
+        Postings first = lists[0];
+        int[] candidates = Arrays.copyOf(first.docs, first.size);
+        float[] scores = new float[first.size];
+        float idf = idf(docCount, first.size);
+        for (int j = 0; j < first.size; j++) {
+            scores[j] = first.weights[j] * idf;
+        }
+        int count = first.size;
+
+        for (int k = 1; k < lists.length && count > 0; k++) {
+            count = intersect(candidates, scores, count, lists[k], idf(docCount, lists[k].size));
+        }
+        return new TextMatches(candidates, scores, count);
+    }
+
+    /**
+     * Union of the postings of a term and its closest corrections (best weight per doc)
+     */
+    private Postings fuzzyPostings(String term) {
+        Map<Integer, Float> weights = new HashMap<>();
+        Postings exact = postings.get(term);
+        if (exact != null) {
+            for (int j = 0; j < exact.size; j++) {
+                weights.merge(exact.docs[j], exact.weights[j], Math::max);
+            }
+        }
+        for (TrigramTermIndex.FuzzyTerm correction : vocabulary.similar(term, FUZZY_EXPANSIONS)) {
+            Postings list = postings.get(correction.term);
+            for (int j = 0; j < list.size; j++) {
+                weights.merge(list.docs[j], list.weights[j] * correction.similarity, Math::max);
+            }
+        }
+        if (weights.isEmpty()) {
+            return null;
+        }
+        Postings merged = new Postings();
+        weights.keySet().stream().sorted().forEach(doc -> merged.add(doc, weights.get(doc)));
+        return merged;
+    }
+
+    /**
+     * Intersect the first count candidates with a postings list in place, accumulating scores
+     * Both sides are sorted by doc id; returns the new candidate count
+     */
+    private static int intersect(int[] candidates, float[] scores, int count, Postings list, float idf) {
+        int out = 0;
+        int i = 0;
+        int j = 0;
+        while (i < count && j < list.size) {
+            int a = candidates[i];
+            int b = list.docs[j];
+            if (a == b) {
+                candidates[out] = a;
+                scores[out] = scores[i] + list.weights[j] * idf;
+                out++;
+                i++;
+                j++;
+            } else if (a < b) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return out;
+    }
+
+    private static float idf(int docCount, int docFrequency) {
+        return (float) Math.log(1.0 + (double) docCount / docFrequency);
+    }
+
+    /**
+     * Partial sort: positions (into candidates) of the first limit matches in sort order
+     */
+    private int[] topN(int[] candidates, float[] scores, int matched, int limit, SearchSort sort) {
+        Comparator<IndexedListing> listingOrder = sort.comparator();
+        Comparator<Integer> order;
+        if (sort == SearchSort.RELEVANCE && scores != null) {
+            Comparator<Integer> byScore = (a, b) -> Float.compare(scores[b], scores[a]);
+            order = byScore.thenComparing(p -> docs.get(candidates[p]), listingOrder);
+        } else {
+            order = Comparator.comparing(p -> docs.get(candidates[p]), listingOrder);
+        }
+
+        PriorityQueue<Integer> heap = new PriorityQueue<>(limit + 1, order.reversed());
+        for (int position = 0; position < matched; position++) {
+            if (heap.size() < limit) {
+                heap.add(position);
+            } else if (order.compare(position, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(position);
+            }
+        }
+        int[] result = new int[heap.size()];
+        for (int i = result.length - 1; i >= 0; i--) {
+            result[i] = heap.poll();
+        }
+        return result;
+    }
+
+    /**
+     * Growable postings list: doc ids ascending with one weight per doc
+     */
+    private static final class Postings {
+        private int[] docs = new int[4];
+        private float[] weights = new float[4];
+        private int size;
+
+        void add(int doc, float weight) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            docs[size] = doc;
+            weights[size] = weight;
+            size++;
+        }
+    }
+
+    /**
+     * Text match candidates: doc ids ascending with their scores, first count entries valid
+     */
+    private static final class TextMatches {
+        private static final TextMatches NONE = new TextMatches(new int[0], new float[0], 0);
+
+        private final int[] docs;
+        private final float[] scores;
+        private final int count;
+
+        TextMatches(int[] docs, float[] scores, int count) {
+            this.docs = docs;
+            this.scores = scores;
+            this.count = count;
+        }
+    }
+
+    /**
+     * Location and date filters, checked per document (the other filters are bitmaps)
+     */
+    private static final class QueryFilter {
+        private final String location;
+        private final Set<Integer> locationIds;
+        private final long dateFromMillis;
+
+        QueryFilter(SearchRequest request, Set<Integer> locationIds) {
+            String normalizedLocation = SearchTextAnalyzer.normalize(request.getLocation());
+            this.locationIds = locationIds;
+            location = locationIds != null || normalizedLocation.isEmpty() ? null : normalizedLocation;
+            dateFromMillis = request.getDateFrom() == null
+                ? Long.MIN_VALUE : request.getDateFrom().toInstant(ZoneOffset.UTC).toEpochMilli();
+        }
+
+        boolean matches(IndexedListing listing) {
+            return (locationIds == null || locationIds.contains(listing.getLocationId()))
+                && (location == null || listing.getNormalizedLocation().contains(location))
+                && listing.getCreatedAtMillis() >= dateFromMillis;
+        }
+    }
+}
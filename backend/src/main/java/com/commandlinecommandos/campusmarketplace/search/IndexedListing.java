@@ -0,0 +1,206 @@
+package com.commandlinecommandos.campusmarketplace.search;
+
+import com.commandlinecommandos.campusmarketplace.model.ModerationStatus;
+import com.commandlinecommandos.campusmarketplace.model.Product;
+import com.commandlinecommandos.campusmarketplace.model.ProductCategory;
+import com.commandlinecommandos.campusmarketplace.model.ProductCondition;
+import com.commandlinecommandos.campusmarketplace.model.User;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+/**
+ * Immutable snapshot of the listing fields the in-memory search index needs
+ * Taken from a Product entity so the index never touches Hibernate proxies later
+ */
+public final class IndexedListing {
+
+    private final UUID listingId;
+    private final UUID universityId;
+    private final UUID sellerId;
+    private final String sellerUsername;
+    private final String sellerName;
+    private final String title;
+    private final String description;
+    private final BigDecimal price;
+    private final long priceCents;
+    private final ProductCategory category;
+    private final ProductCondition condition;
+    private final String location;
+    private final String normalizedLocation;
+    private final Integer locationId;
+    private final int viewCount;
+    private final int favoriteCount;
+    private final LocalDateTime createdAt;
+    private final long createdAtMillis;
+    private final boolean negotiable;
+    private final int quantity;
+    private final boolean searchable;
+    private final long[] signature;
+
+    public IndexedListing(UUID listingId, UUID universityId, UUID sellerId, String sellerUsername,
+                          String sellerName, String title, String description, BigDecimal price,
+                          ProductCategory category, ProductCondition condition, String location,
+                          Integer locationId, int viewCount, int favoriteCount, LocalDateTime createdAt,
+                          boolean negotiable, int quantity, boolean searchable) {
+        this.listingId = listingId;
+        this.universityId = universityId;
+        this.sellerId = sellerId;
+        this.sellerUsername = sellerUsername;
+        this.sellerName = sellerName;
+        this.title = title != null ? title : "";
+        this.description = description != null ? description : "";
+        this.price = price != null ? price : BigDecimal.ZERO;
+        this.priceCents = this.price.movePointRight(2).longValue();
+        this.category = category;
+        this.condition = condition;
+        this.location = location;
+        this.normalizedLocation = SearchTextAnalyzer.normalize(location);
+        this.locationId = locationId;
+        this.viewCount = viewCount;
+        this.favoriteCount = favoriteCount;
+        this.createdAt = createdAt != null ? createdAt : LocalDateTime.now();
+        this.createdAtMillis = this.createdAt.toInstant(ZoneOffset.UTC).toEpochMilli();
+        this.negotiable = negotiable;
+        this.quantity = quantity;
+        this.searchable = searchable;
+        // Computed here so shard writers don't hash text while holding the lock
+        this.signature = MinHashIndex.signature(this.title, this.description);
+    }
+
+    /**
+     * Snapshot a product entity (seller and university must be loaded or be proxies with ids)
+     */
+    public static IndexedListing from(Product product) {
+        User seller = product.getSeller();
+        String sellerName = null;
+        if (seller != null) {
+            String first = seller.getFirstName() != null ? seller.getFirstName() : "";
+            String last = seller.getLastName() != null ? seller.getLastName() : "";
+            sellerName = (first + " " + last).trim();
+        }
+        return new IndexedListing(
+            product.getProductId(),
+            product.getUniversity() != null ? product.getUniversity().getUniversityId() : null,
+            seller != null ? seller.getUserId() : null,
+            seller != null ? seller.getUsername() : null,
+            sellerName,
+            product.getTitle(),
+            product.getDescription(),
+            product.getPrice(),
+            product.getCategory(),
+            product.getCondition(),
+            product.getPickupLocation(),
+            product.getLocationId(),
+            product.getViewCount() != null ? product.getViewCount() : 0,
+            product.getFavoriteCount() != null ? product.getFavoriteCount() : 0,
+            product.getCreatedAt(),
+            product.isNegotiable(),
+            product.getQuantity() != null ? product.getQuantity() : 0,
+            product.isActive() && product.getModerationStatus() == ModerationStatus.APPROVED
+        );
+    }
+
+    /**
+     * Whether title and description are identical (postings can be reused)
+     */
+    boolean sameText(IndexedListing other) {
+        return title.equals(other.title) && description.equals(other.description);
+    }
+
+    public UUID getListingId() {
+        return listingId;
+    }
+
+    public UUID getUniversityId() {
+        return universityId;
+    }
+
+    public UUID getSellerId() {
+        return sellerId;
+    }
+
+    public String getSellerUsername() {
+        return sellerUsername;
+    }
+
+    public String getSellerName() {
+        return sellerName;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    public long getPriceCents() {
+        return priceCents;
+    }
+
+    public ProductCategory getCategory() {
+        return category;
+    }
+
+    public ProductCondition getCondition() {
+        return condition;
+    }
+
+    public String getLocation() {
+        return location;
+    }
+
+    public String getNormalizedLocation() {
+        return normalizedLocation;
+    }
+
+    /**
+     * Campus location dictionary id (null if the pickup text names no known location)
+     */
+    public Integer getLocationId() {
+        return locationId;
+    }
+
+    public int getViewCount() {
+        return viewCount;
+    }
+
+    public int getFavoriteCount() {
+        return favoriteCount;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public long getCreatedAtMillis() {
+        return createdAtMillis;
+    }
+
+    public boolean isNegotiable() {
+        return negotiable;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public boolean isSearchable() {
+        return searchable;
+    }
+
+    /**
+     * MinHash signature of title and description (null if they have no index terms)
+     */
+    long[] getSignature() {
+        return signature;
+    }
+}
@@ -0,0 +1,108 @@
+package com.commandlinecommandos.campusmarketplace.search;
+
+import com.commandlinecommandos.campusmarketplace.dto.SearchRequest;
+import com.commandlinecommandos.campusmarketplace.model.Product;
+import com.commandlinecommandos.campusmarketplace.repository.ProductSpecifications;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Portable search executor built on JPA criteria (used on H2 and whenever nothing better is available)
+ * Every query term must appear (case-insensitive LIKE) in the title or description, as in the
+ * in-memory index, combined with every request filter in the same WHERE clause; results are
+ * unranked, so relevance falls back to newest first.
+ */
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE)
+public class JpaSearchExecutor implements SearchExecutor {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private CampusLocationResolver locationResolver;
+
+    @Override
+    public boolean isAvailable() {
+        return true;
+    }
+
+    @Override
+    public SearchHits execute(UUID universityId, SearchRequest request, SearchCursor cursor) {
+        Specification<Product> spec = ProductSpecifications.withFilters(
+            universityId,
+            request.getCategories(),
+            request.getConditions(),
+            request.getMinPrice(),
+            request.getMaxPrice(),
+            request.getLocation(),
+            locationResolver.filterIds(universityId, request.getLocation(), request.isIncludeNearby()),
+            request.getDateFrom()
+        );
+        if (request.getQuery() != null && !request.getQuery().trim().isEmpty()) {
+            spec = spec.and(ProductSpecifications.textContainsAllTerms(request.getQuery()));
+        }
+
+        boolean keyset = request.getCursor() != null;
+        if (cursor != null) {
+            spec = spec.and(ProductSpecifications.afterCursor(cursor));
+        }
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<UUID> idQuery = cb.createQuery(UUID.class);
+        Root<Product> root = idQuery.from(Product.class);
+        idQuery.select(root.get("productId"))
+               .where(spec.toPredicate(root, idQuery, cb))
+               .orderBy(QueryUtils.toOrders(SearchSort.from(request.getSortBy()).entitySort(), root, cb));
+
+        TypedQuery<UUID> query = entityManager.createQuery(idQuery);
+        if (keyset) {
+            // One extra row tells us whether there is a next page without counting
+            query.setMaxResults(request.getSize() + 1);
+            List<UUID> ids = new ArrayList<>(query.getResultList());
+            boolean hasMore = ids.size() > request.getSize();
+            if (hasMore) {
+                ids.remove(ids.size() - 1);
+            }
+            return new SearchHits(ids, Collections.nCopies(ids.size(), null), -1, hasMore);
+        }
+
+        int offset = request.getPage() * request.getSize();
+        query.setFirstResult(offset);
+        query.setMaxResults(request.getSize());
+        List<UUID> ids = query.getResultList();
+        // A short, non-empty page (or an empty first page) already tells us the total
+        long total = ids.size() < request.getSize() && (offset == 0 || !ids.isEmpty())
+            ? offset + ids.size()
+            : count(spec);
+        return new SearchHits(ids, Collections.nCopies(ids.size(), null), total, offset + ids.size() < total);
+    }
+
+    @Override
+    public String name() {
+        return "jpa";
+    }
+
+    private long count(Specification<Product> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> countQuery = cb.createQuery(Long.class);
+        Root<Product> root = countQuery.from(Product.class);
+        countQuery.select(cb.count(root)).where(spec.toPredicate(root, countQuery, cb));
+        return entityManager.createQuery(countQuery).getSingleResult();
+    }
+}
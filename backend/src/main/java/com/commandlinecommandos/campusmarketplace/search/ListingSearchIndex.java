@@ -0,0 +1,343 @@
+package com.commandlinecommandos.campusmarketplace.search;
+
+import com.commandlinecommandos.campusmarketplace.dto.PopularSearchItem;
+import com.commandlinecommandos.campusmarketplace.dto.SearchRequest;
+import com.commandlinecommandos.campusmarketplace.model.Product;
+import com.commandlinecommandos.campusmarketplace.repository.ProductRepository;
+import com.commandlinecommandos.campusmarketplace.repository.QueryFrequency;
+import com.commandlinecommandos.campusmarketplace.repository.SearchHistoryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory search index over active listings, sharded by university
+ * Bulk-loaded at startup and rebuilt periodically; listing writes are applied
+ * incrementally after their transaction commits. SearchService falls back to the
+ * database until the first load has finished.
+ * Each shard also serves autocomplete, weighted by listing popularity and by how often
+ * the university searched a phrase: search history of the last 30 days on the first load,
+ * the week's popular searches (PopularSearchTracker) on later rebuilds, plus live searches.
+ */
+@Component
+public class ListingSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ListingSearchIndex.class);
+
+    private static final int LOAD_BATCH_SIZE = 500;
+
+    // Autocomplete weight of one successful search for a phrase
+    private static final long QUERY_WEIGHT = 3;
+    private static final int QUERY_HISTORY_DAYS = 30;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private SearchHistoryRepository searchHistoryRepository;
+
+    @Autowired
+    private CampusLocationResolver locationResolver;
+
+    @Autowired
+    private PopularSearchTracker popularSearchTracker;
+
+    @Value("${app.search.index.enabled:true}")
+    private boolean enabled;
+
+    private volatile Map<UUID, IndexShard> shards = new ConcurrentHashMap<>();
+    private volatile boolean ready;
+
+    // Writes seen while a rebuild is running, replayed onto the new shards before the swap
+    private final Object writeMonitor = new Object();
+    private List<PendingWrite> pendingWrites;
+
+    /**
+     * Whether searches can be answered from memory
+     */
+    public boolean isReady() {
+        return enabled && ready;
+    }
+
+    /**
+     * Search one university's listings (empty result if the university has none)
+     *
+     * @param cursor keyset position to continue after, or null for page-based paging
+     */
+    public SearchHits search(UUID universityId, SearchRequest request, SearchCursor cursor) {
+        IndexShard shard = shards.get(universityId);
+        if (shard == null) {
+            return SearchHits.empty();
+        }
+        return shard.search(request, cursor,
+            locationResolver.filterIds(universityId, request.getLocation(), request.isIncludeNearby()));
+    }
+
+    /**
+     * Autocomplete suggestions for a typed prefix, best first
+     */
+    public List<String> complete(UUID universityId, String prefix, int limit) {
+        IndexShard shard = shards.get(universityId);
+        if (shard == null) {
+            return List.of();
+        }
+        return shard.complete(prefix, limit);
+    }
+
+    /**
+     * Listings of the same university with the most similar title and description, most similar first
+     * Empty if the listing is not indexed
+     */
+    public List<UUID> similar(UUID universityId, UUID listingId, int limit) {
+        IndexShard shard = shards.get(universityId);
+        if (shard == null) {
+            return List.of();
+        }
+        return shard.similar(listingId, limit);
+    }
+
+    /**
+     * Count a search that returned results towards the query's autocomplete weight
+     */
+    public void recordQuery(UUID universityId, String query) {
+        String normalized = SearchTextAnalyzer.normalize(query);
+        if (!enabled || universityId == null || normalized.isEmpty()) {
+            return;
+        }
+        apply(new QueryWrite(universityId, normalized, QUERY_WEIGHT));
+    }
+
+    /**
+     * Number of listings held for a university
+     */
+    public int size(UUID universityId) {
+        IndexShard shard = shards.get(universityId);
+        return shard != null ? shard.size() : 0;
+    }
+
+    /**
+     * Add, update or drop a listing depending on whether it is still searchable
+     * The entity is snapshotted immediately, so call this while it is still attached
+     */
+    public void index(Product product) {
+        if (!enabled || product.getProductId() == null) {
+            return;
+        }
+        apply(new ListingWrite(product.getProductId(), IndexedListing.from(product)));
+    }
+
+    /**
+     * Drop a listing from the index
+     */
+    public void remove(UUID listingId) {
+        if (!enabled) {
+            return;
+        }
+        apply(new ListingWrite(listingId, null));
+    }
+
+    /**
+     * Index a listing once the surrounding transaction commits (immediately if there is none)
+     * Rolled-back writes never reach the index
+     */
+    public void indexAfterCommit(Product product) {
+        if (!enabled || product.getProductId() == null) {
+            return;
+        }
+        PendingWrite write = new ListingWrite(product.getProductId(), IndexedListing.from(product));
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(write);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                apply(write);
+            }
+        });
+    }
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    @Scheduled(initialDelayString = "${app.search.index.refresh-interval-ms:600000}",
+               fixedDelayString = "${app.search.index.refresh-interval-ms:600000}")
+    public void scheduledRebuild() {
+        rebuild();
+    }
+
+    /**
+     * Reload every active listing into fresh shards and swap them in
+     * Incremental writes keep flowing to the current shards during the load
+     */
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        long startTime = System.currentTimeMillis();
+        synchronized (writeMonitor) {
+            if (pendingWrites != null) {
+                log.debug("Search index rebuild already running, skipping");
+                return;
+            }
+            pendingWrites = new ArrayList<>();
+        }
+
+        Map<UUID, IndexShard> fresh = new ConcurrentHashMap<>();
+        int loaded = 0;
+        try {
+            Pageable pageable = PageRequest.of(0, LOAD_BATCH_SIZE, Sort.by("productId"));
+            Slice<Product> batch;
+            do {
+                batch = productRepository.findAllForIndexing(pageable);
+                for (Product product : batch) {
+                    IndexedListing listing = IndexedListing.from(product);
+                    if (listing.getUniversityId() != null && listing.isSearchable()) {
+                        fresh.computeIfAbsent(listing.getUniversityId(), id -> new IndexShard()).upsert(listing);
+                        loaded++;
+                    }
+                }
+                pageable = batch.nextPageable();
+            } while (batch.hasNext());
+
+            if (ready) {
+                seedQueriesFromPopularSearches(fresh);
+            } else {
+                seedQueriesFromHistory(fresh);
+            }
+        } catch (Exception e) {
+            log.error("Search index rebuild failed: {}", e.getMessage(), e);
+            synchronized (writeMonitor) {
+                pendingWrites = null;
+            }
+            return;
+        }
+
+        synchronized (writeMonitor) {
+            for (PendingWrite write : pendingWrites) {
+                write.applyTo(fresh);
+            }
+            pendingWrites = null;
+            shards = fresh;
+            ready = true;
+        }
+        log.info("Search index rebuilt: listings={}, universities={}, time={}ms",
+                loaded, fresh.size(), System.currentTimeMillis() - startTime);
+    }
+
+    /**
+     * Phrase weights from the search history table; one aggregate over 30 days, so first load only
+     */
+    private void seedQueriesFromHistory(Map<UUID, IndexShard> fresh) {
+        LocalDateTime since = LocalDateTime.now().minusDays(QUERY_HISTORY_DAYS);
+        for (QueryFrequency frequency : searchHistoryRepository.countQueriesByUniversity(since)) {
+            IndexShard shard = fresh.get(frequency.getUniversityId());
+            if (shard != null) {
+                shard.recordQuery(SearchTextAnalyzer.normalize(frequency.getQuery()),
+                    QUERY_WEIGHT * frequency.getSearches());
+            }
+        }
+    }
+
+    /**
+     * Phrase weights from the in-memory week sketches, counting only the certain part of each count
+     */
+    private void seedQueriesFromPopularSearches(Map<UUID, IndexShard> fresh) {
+        fresh.forEach((universityId, shard) -> {
+            for (PopularSearchItem item : popularSearchTracker.top(universityId, PopularSearchTracker.Window.WEEK,
+                    Integer.MAX_VALUE)) {
+                long searches = item.getCount() - item.getErrorBound();
+                if (searches > 0) {
+                    shard.recordQuery(item.getQuery(), QUERY_WEIGHT * searches);
+                }
+            }
+        });
+    }
+
+    private void apply(PendingWrite write) {
+        synchronized (writeMonitor) {
+            write.applyTo(shards);
+            if (pendingWrites != null) {
+                pendingWrites.add(write);
+            }
+        }
+    }
+
+    /**
+     * A write that can be applied to the live shards and replayed onto rebuilt ones
+     */
+    private interface PendingWrite {
+        void applyTo(Map<UUID, IndexShard> target);
+    }
+
+    /**
+     * Upsert (listing set) or removal (listing null) of a single listing
+     */
+    private static final class ListingWrite implements PendingWrite {
+        private final UUID listingId;
+        private final IndexedListing listing;
+
+        ListingWrite(UUID listingId, IndexedListing listing) {
+            this.listingId = listingId;
+            this.listing = listing;
+        }
+
+        @Override
+        public void applyTo(Map<UUID, IndexShard> target) {
+            if (listing == null || !listing.isSearchable() || listing.getUniversityId() == null) {
+                for (IndexShard shard : target.values()) {
+                    if (shard.remove(listingId)) {
+                        break;
+                    }
+                }
+                return;
+            }
+            target.computeIfAbsent(listing.getUniversityId(), id -> new IndexShard()).upsert(listing);
+        }
+    }
+
+    /**
+     * Autocomplete weight for a searched phrase
+     */
+    private static final class QueryWrite implements PendingWrite {
+        private final UUID universityId;
+        private final String query;
+        private final long weight;
+
+        QueryWrite(UUID universityId, String query, long weight) {
+            this.universityId = universityId;
+            this.query = query;
+            this.weight = weight;
+        }
+
+        @Override
+        public void applyTo(Map<UUID, IndexShard> target) {
+            IndexShard shard = target.get(universityId);
+            if (shard != null) {
+                shard.recordQuery(query, weight);
+            }
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.commandlinecommandos.campusmarketplace.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * MinHash signatures and LSH buckets for finding listings with similar text
+ * A listing's shingles are its analyzed title and description terms plus adjacent term pairs;
+ * its signature keeps the minimum of SIGNATURE_SIZE seeded 64-bit hashes over them, so the
+ * share of equal positions in two signatures estimates the Jaccard similarity of their
+ * shingle sets. Signatures are cut into BANDS bands of ROWS rows and every band is a bucket
+ * key, so a lookup only compares the listings sharing at least one bucket.
+ * Not thread-safe: IndexShard guards it with its lock.
+ */
+final class MinHashIndex {
+
+    static final int SIGNATURE_SIZE = 64;
+    static final int BANDS = 32;
+    static final int ROWS = SIGNATURE_SIZE / BANDS;
+
+    // Estimated Jaccard similarity below which a bucket neighbor is not reported
+    static final float MIN_SIMILARITY = 0.2f;
+
+    private static final long[] SEEDS = new long[SIGNATURE_SIZE];
+
+    static {
+        long seed = 0x5DEECE66DL;
+        for (int i = 0; i < SIGNATURE_SIZE; i++) {
+            seed += 0x9E3779B97F4A7C15L;
+            SEEDS[i] = mix(seed);
+        }
+    }
+
+    private final Map<UUID, long[]> signatures = new HashMap<>();
+    private final Map<Long, List<UUID>> buckets = new HashMap<>();
+
+    /**
+     * Signature of a listing's text, null if it has no index terms
+     */
+    static long[] signature(String title, String description) {
+        Set<String> shingles = new LinkedHashSet<>();
+        addShingles(shingles, SearchTextAnalyzer.tokenize(title));
+        addShingles(shingles, SearchTextAnalyzer.tokenize(description));
+        if (shingles.isEmpty()) {
+            return null;
+        }
+        long[] signature = new long[SIGNATURE_SIZE];
+        Arrays.fill(signature, Long.MAX_VALUE);
+        for (String shingle : shingles) {
+            long hash = hash(shingle);
+            for (int i = 0; i < SIGNATURE_SIZE; i++) {
+                long value = mix(hash ^ SEEDS[i]);
+                if (value < signature[i]) {
+                    signature[i] = value;
+                }
+            }
+        }
+        return signature;
+    }
+
+    /**
+     * Estimated Jaccard similarity of the texts behind two signatures
+     */
+    static float similarity(long[] a, long[] b) {
+        int equal = 0;
+        for (int i = 0; i < SIGNATURE_SIZE; i++) {
+            if (a[i] == b[i]) {
+                equal++;
+            }
+        }
+        return (float) equal / SIGNATURE_SIZE;
+    }
+
+    /**
+     * Add or replace a listing's signature (null just removes the listing)
+     */
+    void put(UUID listingId, long[] signature) {
+        remove(listingId);
+        if (signature == null) {
+            return;
+        }
+        signatures.put(listingId, signature);
+        for (int band = 0; band < BANDS; band++) {
+            buckets.computeIfAbsent(bandKey(signature, band), k -> new ArrayList<>()).add(listingId);
+        }
+    }
+
+    void remove(UUID listingId) {
+        long[] signature = signatures.remove(listingId);
+        if (signature == null) {
+            return;
+        }
+        for (int band = 0; band < BANDS; band++) {
+            Long key = bandKey(signature, band);
+            List<UUID> bucket = buckets.get(key);
+            bucket.remove(listingId);
+            if (bucket.isEmpty()) {
+                buckets.remove(key);
+            }
+        }
+    }
+
+    int size() {
+        return signatures.size();
+    }
+
+    /**
+     * Up to limit listings with text most similar to a listing's, most similar first
+     * Only listings sharing a bucket with it are compared
+     */
+    List<UUID> similar(UUID listingId, int limit) {
+        long[] signature = signatures.get(listingId);
+        if (signature == null || limit <= 0) {
+            return List.of();
+        }
+        Map<UUID, Float> scores = new HashMap<>();
+        for (int band = 0; band < BANDS; band++) {
+            for (UUID candidate : buckets.get(bandKey(signature, band))) {
+                if (!candidate.equals(listingId) && !scores.containsKey(candidate)) {
+                    scores.put(candidate, similarity(signature, signatures.get(candidate)));
+                }
+            }
+        }
+        return scores.entrySet().stream()
+            .filter(e -> e.getValue() >= MIN_SIMILARITY)
+            .sorted(Map.Entry.<UUID, Float>comparingByValue(Comparator.reverseOrder()))
+            .limit(limit)
+            .map(Map.Entry::getKey)
+            .toList();
+    }
+
+    private static void addShingles(Set<String> shingles, List<String> terms) {
+        for (int i = 0; i < terms.size(); i++) {
+            shingles.add(terms.get(i));
+            if (i > 0) {
+                shingles.add(terms.get(i - 1) + ' ' + terms.get(i));
+            }
+        }
+    }
+
+    private static long bandKey(long[] signature, int band) {
+        long key = band;
+        for (int row = band * ROWS; row < (band + 1) * ROWS; row++) {
+            key = mix(key * 31 + signature[row]);
+        }
+        return key;
+    }
+
+    // FNV-1a over the UTF-16 chars, finished with mix() for better low bits
+    private static long hash(String shingle) {
+        long hash = 0xCBF29CE484222325L;
+        for (int i = 0; i < shingle.length(); i++) {
+            hash ^= shingle.charAt(i);
+            hash *= 0x100000001B3L;
+        }
+        return mix(hash);
+    }
+
+    // SplitMix64 finalizer
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
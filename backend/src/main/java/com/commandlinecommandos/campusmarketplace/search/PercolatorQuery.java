@@ -0,0 +1,148 @@
+package com.commandlinecommandos.campusmarketplace.search;
+
+import com.commandlinecommandos.campusmarketplace.dto.SearchRequest;
+import com.commandlinecommandos.campusmarketplace.model.ProductCategory;
+import com.commandlinecommandos.campusmarketplace.model.ProductCondition;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * A saved search compiled for the percolator: analyzed terms, filter sets and price bounds in cents
+ * Text and location semantics follow the index shards: every term must occur in the title or
+ * description, and a location naming a campus location matches listings resolved to it.
+ * dateFrom is ignored, new listings are always newer than any saved date filter.
+ */
+public final class PercolatorQuery {
+
+    private final UUID savedSearchId;
+    private final UUID userId;
+    private final UUID universityId;
+    private final String name;
+    private final List<String> terms;
+    private final Set<ProductCategory> categories;
+    private final Set<ProductCondition> conditions;
+    private final long minCents;
+    private final long maxCents;
+    private final Set<Integer> locationIds;
+    private final String location;
+
+    private PercolatorQuery(UUID savedSearchId, UUID userId, UUID universityId, String name,
+                            List<String> terms, Set<ProductCategory> categories,
+                            Set<ProductCondition> conditions, long minCents, long maxCents,
+                            Set<Integer> locationIds, String location) {
+        this.savedSearchId = savedSearchId;
+        this.userId = userId;
+        this.universityId = universityId;
+        this.name = name;
+        this.terms = terms;
+        this.categories = categories;
+        this.conditions = conditions;
+        this.minCents = minCents;
+        this.maxCents = maxCents;
+        this.locationIds = locationIds;
+        this.location = location;
+    }
+
+    /**
+     * Compile search criteria (only query, categories, conditions, price and location are used)
+     *
+     * @param locationIds campus location ids the location resolved to (null = substring match on the pickup text)
+     */
+    public static PercolatorQuery compile(UUID savedSearchId, UUID userId, UUID universityId, String name,
+                                          SearchRequest criteria, Set<Integer> locationIds) {
+        String normalizedLocation = locationIds != null ? "" : SearchTextAnalyzer.normalize(criteria.getLocation());
+        return new PercolatorQuery(
+            savedSearchId, userId, universityId, name,
+            SearchTextAnalyzer.tokenize(criteria.getQuery()).stream().distinct().toList(),
+            enumSet(ProductCategory.class, criteria.getCategories()),
+            enumSet(ProductCondition.class, criteria.getConditions()),
+            cents(criteria.getMinPrice(), Long.MIN_VALUE),
+            cents(criteria.getMaxPrice(), Long.MAX_VALUE),
+            locationIds,
+            normalizedLocation.isEmpty() ? null : normalizedLocation);
+    }
+
+    /**
+     * Full check of a listing against the criteria
+     *
+     * @param listingTerms analyzed terms of the listing's title and description
+     */
+    boolean matches(IndexedListing listing, Set<String> listingTerms) {
+        return universityId.equals(listing.getUniversityId())
+            && (categories.isEmpty() || categories.contains(listing.getCategory()))
+            && (conditions.isEmpty() || conditions.contains(listing.getCondition()))
+            && listing.getPriceCents() >= minCents
+            && listing.getPriceCents() <= maxCents
+            && (locationIds == null
+                || (listing.getLocationId() != null && locationIds.contains(listing.getLocationId())))
+            && (location == null || listing.getNormalizedLocation().contains(location))
+            && listingTerms.containsAll(terms);
+    }
+
+    /**
+     * Term the query is filed under: the longest one, as a cheap stand-in for the rarest
+     */
+    String anchorTerm() {
+        String anchor = null;
+        for (String term : terms) {
+            if (anchor == null || term.length() > anchor.length()
+                    || (term.length() == anchor.length() && term.compareTo(anchor) < 0)) {
+                anchor = term;
+            }
+        }
+        return anchor;
+    }
+
+    boolean hasPriceBounds() {
+        return minCents != Long.MIN_VALUE || maxCents != Long.MAX_VALUE;
+    }
+
+    public UUID getSavedSearchId() {
+        return savedSearchId;
+    }
+
+    public UUID getUserId() {
+        return userId;
+    }
+
+    public UUID getUniversityId() {
+        return universityId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    Set<ProductCategory> getCategories() {
+        return categories;
+    }
+
+    long getMinCents() {
+        return minCents;
+    }
+
+    long getMaxCents() {
+        return maxCents;
+    }
+
+    private static <E extends Enum<E>> Set<E> enumSet(Class<E> type, Collection<E> values) {
+        Set<E> result = EnumSet.noneOf(type);
+        if (values != null) {
+            for (E value : values) {
+                if (value != null) {
+                    result.add(value);
+                }
+            }
+        }
+        return result;
+    }
+
+    private static long cents(BigDecimal price, long unbounded) {
+        return price != null ? price.movePointRight(2).longValue() : unbounded;
+    }
+}
@@ -0,0 +1,346 @@
+package com.commandlinecommandos.campusmarketplace.search;
+
+import com.commandlinecommandos.campusmarketplace.dto.PopularSearchItem;
+import com.commandlinecommandos.campusmarketplace.model.PopularSearchSnapshot;
+import com.commandlinecommandos.campusmarketplace.repository.PopularSearchSnapshotRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.InetAddress;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Popular and trending searches per university, counted in memory
+ * Every successful search is offered to Space-Saving sketches of the last hour, day and week.
+ * A window is a ring of time slots with one sketch each, so old slots simply fall out of it;
+ * a query's count is summed over the live slots and is off by at most the reported error
+ * bound (at most searches in the window / capacity). Trending compares the last hour with
+ * the day's hourly average. The sketches are snapshotted to popular_search_snapshots every
+ * snapshot-interval-ms and on shutdown, and loaded back at startup. Each instance only
+ * replaces and restores its own rows (instance-id, the host name by default), since its
+ * sketches only count the searches it served.
+ */
+@Component
+public class PopularSearchTracker {
+
+    private static final Logger log = LoggerFactory.getLogger(PopularSearchTracker.class);
+
+    private static final String INSERT_SQL = "INSERT INTO popular_search_snapshots "
+        + "(snapshot_id, instance_id, university_id, time_window, slot, search_query, search_count, error_bound) "
+        + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    /**
+     * Time window and the slots it is made of
+     */
+    public enum Window {
+        HOUR(Duration.ofMinutes(5), 12),
+        DAY(Duration.ofHours(1), 24),
+        WEEK(Duration.ofHours(6), 28);
+
+        private final long slotMillis;
+        private final int slots;
+
+        Window(Duration slot, int slots) {
+            this.slotMillis = slot.toMillis();
+            this.slots = slots;
+        }
+
+        /**
+         * Window by name (hour, day or week)
+         *
+         * @throws IllegalArgumentException for any other name
+         */
+        public static Window from(String name) {
+            try {
+                return valueOf(name.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException | NullPointerException e) {
+                throw new IllegalArgumentException("window must be one of hour, day, week");
+            }
+        }
+    }
+
+    @Autowired
+    private PopularSearchSnapshotRepository snapshotRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${app.search.popular.capacity:200}")
+    private int capacity;
+
+    @Value("${app.search.popular.instance-id:}")
+    private String instanceId;
+
+    private final Map<UUID, Windows> universities = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void init() {
+        if (instanceId == null || instanceId.isBlank()) {
+            try {
+                instanceId = InetAddress.getLocalHost().getHostName();
+            } catch (Exception e) {
+                instanceId = UUID.randomUUID().toString();
+                log.warn("Could not resolve host name, popular search snapshots will not be restored: {}",
+                    e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Count one search of a university
+     */
+    public void record(UUID universityId, String query) {
+        record(universityId, query, System.currentTimeMillis());
+    }
+
+    void record(UUID universityId, String query, long nowMillis) {
+        String key = SearchTextAnalyzer.normalize(query);
+        if (universityId == null || key.isEmpty()) {
+            return;
+        }
+        Windows windows = universities.computeIfAbsent(universityId, id -> new Windows(capacity));
+        synchronized (windows) {
+            for (SlidingSketch sketch : windows.sketches.values()) {
+                sketch.offer(key, nowMillis);
+            }
+        }
+    }
+
+    /**
+     * Most searched queries of a university in a window, most searched first
+     */
+    public List<PopularSearchItem> top(UUID universityId, Window window, int limit) {
+        return top(universityId, window, limit, System.currentTimeMillis());
+    }
+
+    List<PopularSearchItem> top(UUID universityId, Window window, int limit, long nowMillis) {
+        Windows windows = universities.get(universityId);
+        if (windows == null) {
+            return List.of();
+        }
+        List<PopularSearchItem> items;
+        synchronized (windows) {
+            items = windows.sketches.get(window).estimates(nowMillis);
+        }
+        return items.size() > limit ? items.subList(0, limit) : items;
+    }
+
+    /**
+     * Queries searched in the last hour clearly more often than the day's hourly average
+     * Count is the excess over that average, highest first
+     */
+    public List<PopularSearchItem> trending(UUID universityId, int limit) {
+        return trending(universityId, limit, System.currentTimeMillis());
+    }
+
+    List<PopularSearchItem> trending(UUID universityId, int limit, long nowMillis) {
+        Windows windows = universities.get(universityId);
+        if (windows == null) {
+            return List.of();
+        }
+        List<PopularSearchItem> trending = new ArrayList<>();
+        synchronized (windows) {
+            Map<String, PopularSearchItem> day = new HashMap<>();
+            windows.sketches.get(Window.DAY).estimates(nowMillis).forEach(item -> day.put(item.getQuery(), item));
+            for (PopularSearchItem hour : windows.sketches.get(Window.HOUR).estimates(nowMillis)) {
+                PopularSearchItem daily = day.get(hour.getQuery());
+                long expected = daily != null ? Math.round(daily.getCount() / (double) Window.DAY.slots) : 0;
+                // Only the part of the hourly count that is certain may count as a rise
+                long excess = hour.getCount() - hour.getErrorBound() - expected;
+                if (excess > 0) {
+                    trending.add(new PopularSearchItem(hour.getQuery(), excess, hour.getErrorBound()));
+                }
+            }
+        }
+        trending.sort(Comparator.comparingLong(PopularSearchItem::getCount).reversed()
+            .thenComparing(PopularSearchItem::getQuery));
+        return trending.size() > limit ? trending.subList(0, limit) : trending;
+    }
+
+    /**
+     * Load this instance's last snapshot, dropping slots that have left their window since
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void restore() {
+        try {
+            long now = System.currentTimeMillis();
+            Map<UUID, Map<Window, Map<Long, List<PopularSearchSnapshot>>>> grouped = new HashMap<>();
+            for (PopularSearchSnapshot row : snapshotRepository.findByInstanceId(instanceId)) {
+                grouped.computeIfAbsent(row.getUniversityId(), id -> new HashMap<>())
+                    .computeIfAbsent(Window.valueOf(row.getTimeWindow()), w -> new HashMap<>())
+                    .computeIfAbsent(row.getSlot(), s -> new ArrayList<>())
+                    .add(row);
+            }
+            grouped.forEach((universityId, byWindow) -> {
+                Windows windows = universities.computeIfAbsent(universityId, id -> new Windows(capacity));
+                synchronized (windows) {
+                    byWindow.forEach((window, bySlot) -> bySlot.forEach((slot, rows) -> {
+                        rows.sort(Comparator.comparingLong(PopularSearchSnapshot::getSearchCount).reversed());
+                        SpaceSavingSketch sketch = windows.sketches.get(window).slot(slot, now);
+                        if (sketch != null) {
+                            rows.forEach(row -> sketch.restore(row.getSearchQuery(), row.getSearchCount(), row.getErrorBound()));
+                        }
+                    }));
+                }
+            });
+            log.info("Popular searches restored for {} universities", grouped.size());
+        } catch (Exception e) {
+            log.error("Could not restore popular searches: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Replace this instance's saved snapshot with the current sketches
+     * Expired slots are deleted for every instance, so rows of instances that are gone age out
+     */
+    @Scheduled(initialDelayString = "${app.search.popular.snapshot-interval-ms:300000}",
+               fixedDelayString = "${app.search.popular.snapshot-interval-ms:300000}")
+    @PreDestroy
+    public void snapshot() {
+        long now = System.currentTimeMillis();
+        List<Object[]> rows = new ArrayList<>();
+        universities.forEach((universityId, windows) -> {
+            synchronized (windows) {
+                windows.sketches.forEach((window, sketch) -> sketch.forEachLiveSlot(now, (slot, slotSketch) -> {
+                    for (SpaceSavingSketch.Counter counter : slotSketch.counters()) {
+                        rows.add(new Object[] {UUID.randomUUID(), instanceId, universityId, window.name(), slot,
+                            counter.getKey(), counter.getCount(), counter.getError()});
+                    }
+                }));
+            }
+        });
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.update("DELETE FROM popular_search_snapshots WHERE instance_id = ?", instanceId);
+                for (Window window : Window.values()) {
+                    jdbcTemplate.update("DELETE FROM popular_search_snapshots WHERE time_window = ? AND slot <= ?",
+                        window.name(), now / window.slotMillis - window.slots);
+                }
+                jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+            });
+            log.debug("Popular searches snapshot saved: {} counters", rows.size());
+        } catch (Exception e) {
+            log.error("Could not save popular searches snapshot: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * One university's windows
+     */
+    private static final class Windows {
+        private final Map<Window, SlidingSketch> sketches = new HashMap<>();
+
+        Windows(int capacity) {
+            for (Window window : Window.values()) {
+                sketches.put(window, new SlidingSketch(window, capacity));
+            }
+        }
+    }
+
+    /**
+     * Ring of per-slot sketches covering one window
+     */
+    private static final class SlidingSketch {
+        private final Window window;
+        private final int capacity;
+        private final long[] slotNumbers;
+        private final SpaceSavingSketch[] slots;
+
+        SlidingSketch(Window window, int capacity) {
+            this.window = window;
+            this.capacity = capacity;
+            this.slotNumbers = new long[window.slots];
+            this.slots = new SpaceSavingSketch[window.slots];
+        }
+
+        void offer(String key, long nowMillis) {
+            slot(nowMillis / window.slotMillis, nowMillis).offer(key, 1);
+        }
+
+        /**
+         * Sketch of a slot, started fresh if its ring position still holds an older slot;
+         * null if the slot is no longer inside the window
+         */
+        SpaceSavingSketch slot(long slot, long nowMillis) {
+            long current = nowMillis / window.slotMillis;
+            if (slot > current || slot <= current - window.slots) {
+                return null;
+            }
+            int index = (int) (slot % window.slots);
+            if (slots[index] == null || slotNumbers[index] != slot) {
+                slots[index] = new SpaceSavingSketch(capacity);
+                slotNumbers[index] = slot;
+            }
+            return slots[index];
+        }
+
+        void forEachLiveSlot(long nowMillis, SlotConsumer consumer) {
+            long current = nowMillis / window.slotMillis;
+            for (int i = 0; i < slots.length; i++) {
+                if (slots[i] != null && slotNumbers[i] > current - window.slots && slotNumbers[i] <= current) {
+                    consumer.accept(slotNumbers[i], slots[i]);
+                }
+            }
+        }
+
+        /**
+         * Every held query with its count summed over the live slots, most searched first
+         * A slot that does not hold a query adds its unheld bound to the error only
+         */
+        List<PopularSearchItem> estimates(long nowMillis) {
+            List<SpaceSavingSketch> live = new ArrayList<>();
+            forEachLiveSlot(nowMillis, (slot, sketch) -> live.add(sketch));
+            Set<String> keys = new LinkedHashSet<>();
+            live.forEach(sketch -> sketch.counters().forEach(counter -> keys.add(counter.getKey())));
+
+            List<PopularSearchItem> items = new ArrayList<>(keys.size());
+            for (String key : keys) {
+                long upper = 0;
+                long lower = 0;
+                for (SpaceSavingSketch sketch : live) {
+                    SpaceSavingSketch.Counter counter = sketch.get(key);
+                    if (counter != null) {
+                        upper += counter.getCount();
+                        lower += counter.getCount() - counter.getError();
+                    } else {
+                        upper += sketch.unheldBound();
+                    }
+                }
+                items.add(new PopularSearchItem(key, upper, upper - lower));
+            }
+            items.sort(Comparator.comparingLong((PopularSearchItem item) -> item.getCount() - item.getErrorBound())
+                .reversed()
+                .thenComparing(Comparator.comparingLong(PopularSearchItem::getCount).reversed())
+                .thenComparing(PopularSearchItem::getQuery));
+            return items;
+        }
+    }
+
+    @FunctionalInterface
+    private interface SlotConsumer {
+        void accept(long slot, SpaceSavingSketch sketch);
+    }
+}
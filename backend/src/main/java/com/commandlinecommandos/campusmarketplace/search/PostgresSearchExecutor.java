@@ -0,0 +1,392 @@
+package com.commandlinecommandos.campusmarketplace.search;
+
+import com.commandlinecommandos.campusmarketplace.dto.SearchRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.PreparedStatementCreatorFactory;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterUtils;
+import org.springframework.jdbc.core.namedparam.ParsedSql;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * PostgreSQL search executor: one statement per search
+ * Text match on the stored search_vector (GIN), trigram fuzzy fallback only when the
+ * full-text CTE is empty, every request filter, ordering, keyset/offset paging and the
+ * total (COUNT(*) OVER ()) all come back from a single round trip.
+ * First pages of fuzzy-eligible queries run speculatively instead: full-text and fuzzy
+ * statements start together on virtual threads, full-text wins when it finds anything and
+ * the other statement is cancelled (Statement.cancel), so a typo costs max(fts, fuzzy)
+ * rather than fts + fuzzy. Each speculative search holds two pooled connections.
+ */
+@Component
+@Order(1)
+public class PostgresSearchExecutor implements SearchExecutor {
+
+    private static final Logger log = LoggerFactory.getLogger(PostgresSearchExecutor.class);
+
+    // Same rule SearchService used before: only try fuzzy matching for longer queries
+    private static final int FUZZY_MIN_QUERY_LENGTH = 4;
+
+    private static final String HIT_COLUMNS =
+        "p.listing_id, p.price, p.created_at, " +
+        "COALESCE(p.view_count, 0) AS view_count, COALESCE(p.favorite_count, 0) AS favorite_count";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private CampusLocationResolver locationResolver;
+
+    @Value("${app.search.speculative.enabled:true}")
+    private boolean speculative;
+
+    @Value("${app.search.speculative.deadline-ms:3000}")
+    private long speculativeDeadlineMs;
+
+    private final ExecutorService strategyThreads = Executors.newVirtualThreadPerTaskExecutor();
+    private SpeculativeExecution speculativeExecution;
+
+    private volatile Boolean postgres;
+
+    @PostConstruct
+    void init() {
+        speculativeExecution = new SpeculativeExecution(strategyThreads, meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        strategyThreads.shutdownNow();
+    }
+
+    @Override
+    public boolean isAvailable() {
+        Boolean detected = postgres;
+        if (detected == null) {
+            try {
+                detected = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+                    connection.getMetaData().getDatabaseProductName().toLowerCase().contains("postgresql"));
+            } catch (Exception e) {
+                log.warn("Could not detect database type, PostgreSQL search disabled: {}", e.getMessage());
+                detected = false;
+            }
+            postgres = detected;
+        }
+        return Boolean.TRUE.equals(detected);
+    }
+
+    @Override
+    public SearchHits execute(UUID universityId, SearchRequest request, SearchCursor cursor) {
+        String query = request.getQuery() != null ? request.getQuery().trim() : "";
+        // Only a first page can tell "full-text found nothing" from "page past the end"
+        boolean firstPage = cursor == null && (request.getCursor() != null || request.getPage() == 0);
+        if (speculative && firstPage && query.length() >= FUZZY_MIN_QUERY_LENGTH) {
+            return speculativeExecution.run(
+                new StatementStrategy("fulltext", TextMatch.FULL_TEXT, universityId, request),
+                new StatementStrategy("fuzzy", TextMatch.FUZZY, universityId, request),
+                hits -> !hits.getListingIds().isEmpty(),
+                speculativeDeadlineMs);
+        }
+
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        String sql = buildSql(universityId, request, cursor, params);
+        return namedParameterJdbcTemplate.query(sql, params, hitsExtractor(request));
+    }
+
+    @Override
+    public String name() {
+        return "postgres";
+    }
+
+    /**
+     * Collects the hit rows of a search statement into SearchHits
+     */
+    private ResultSetExtractor<SearchHits> hitsExtractor(SearchRequest request) {
+        boolean keyset = request.getCursor() != null;
+        return rs -> {
+            List<UUID> ids = new ArrayList<>();
+            List<Float> scores = new ArrayList<>();
+            long total = 0;
+            while (rs.next()) {
+                ids.add(rs.getObject("listing_id", UUID.class));
+                float rank = rs.getFloat("rank");
+                scores.add(rs.wasNull() ? null : rank);
+                if (!keyset) {
+                    total = rs.getLong("total_hits");
+                }
+            }
+
+            if (keyset) {
+                boolean hasMore = ids.size() > request.getSize();
+                if (hasMore) {
+                    ids.remove(ids.size() - 1);
+                    scores.remove(scores.size() - 1);
+                }
+                return new SearchHits(ids, scores, -1, hasMore);
+            }
+            long offset = (long) request.getPage() * request.getSize();
+            return new SearchHits(ids, scores, total, offset + ids.size() < total);
+        };
+    }
+
+    /**
+     * Build the single search statement, binding parameters into params
+     */
+    String buildSql(UUID universityId, SearchRequest request, SearchCursor cursor, MapSqlParameterSource params) {
+        return buildSql(universityId, request, cursor, params, TextMatch.COMBINED);
+    }
+
+    /**
+     * Build a search statement using one text matching strategy (ignored without a query)
+     */
+    String buildSql(UUID universityId, SearchRequest request, SearchCursor cursor, MapSqlParameterSource params,
+                    TextMatch textMatch) {
+        String filters = filterClause(universityId, request, params);
+        String query = request.getQuery() != null ? request.getQuery().trim() : "";
+        boolean hasQuery = !query.isEmpty();
+        SearchSort sort = SearchSort.from(request.getSortBy());
+
+        StringBuilder sql = new StringBuilder();
+        if (hasQuery) {
+            params.addValue("query", query);
+            if (textMatch == TextMatch.FUZZY) {
+                sql.append("WITH hits AS (").append(fuzzySelect(filters)).append(")");
+            } else {
+                sql.append("WITH fts AS (")
+                   .append("SELECT ").append(HIT_COLUMNS)
+                   .append(", ts_rank(p.search_vector, plainto_tsquery('english', :query)) AS rank ")
+                   .append("FROM listings p WHERE ").append(filters)
+                   .append(" AND p.search_vector @@ plainto_tsquery('english', :query))");
+                if (textMatch == TextMatch.COMBINED && query.length() >= FUZZY_MIN_QUERY_LENGTH) {
+                    sql.append(", fuzzy AS (").append(fuzzySelect(filters))
+                       .append(" AND NOT EXISTS (SELECT 1 FROM fts))")
+                       .append(", hits AS (SELECT * FROM fts UNION ALL SELECT * FROM fuzzy)");
+                } else {
+                    sql.append(", hits AS (SELECT * FROM fts)");
+                }
+            }
+        } else {
+            sql.append("WITH hits AS (")
+               .append("SELECT ").append(HIT_COLUMNS).append(", CAST(NULL AS real) AS rank ")
+               .append("FROM listings p WHERE ").append(filters).append(")");
+        }
+
+        boolean keyset = request.getCursor() != null;
+        sql.append(" SELECT h.listing_id, h.rank");
+        if (!keyset) {
+            sql.append(", COUNT(*) OVER () AS total_hits");
+        }
+        sql.append(" FROM hits h");
+        if (cursor != null) {
+            sql.append(" WHERE ").append(cursorClause(cursor, hasQuery, params));
+        }
+        sql.append(" ORDER BY ").append(orderClause(sort, hasQuery));
+
+        if (keyset) {
+            params.addValue("limit", request.getSize() + 1);
+            sql.append(" LIMIT :limit");
+        } else {
+            params.addValue("limit", request.getSize());
+            params.addValue("offset", (long) request.getPage() * request.getSize());
+            sql.append(" LIMIT :limit OFFSET :offset");
+        }
+        return sql.toString();
+    }
+
+    private static String fuzzySelect(String filters) {
+        return "SELECT " + HIT_COLUMNS + ", similarity(p.title, :query) AS rank "
+            + "FROM listings p WHERE " + filters
+            + " AND (p.title % :query OR p.description % :query)";
+    }
+
+    /**
+     * WHERE conditions equivalent to ProductSpecifications.withFilters
+     */
+    private String filterClause(UUID universityId, SearchRequest request, MapSqlParameterSource params) {
+        List<String> conditions = new ArrayList<>();
+        conditions.add("p.university_id = :universityId");
+        conditions.add("p.is_active = true");
+        conditions.add("p.moderation_status = 'APPROVED'");
+        params.addValue("universityId", universityId);
+
+        if (request.getCategories() != null && !request.getCategories().isEmpty()) {
+            conditions.add("CAST(p.category AS text) IN (:categories)");
+            params.addValue("categories", request.getCategories().stream().map(Enum::name).toList());
+        }
+        if (request.getConditions() != null && !request.getConditions().isEmpty()) {
+            conditions.add("CAST(p.condition AS text) IN (:conditions)");
+            params.addValue("conditions", request.getConditions().stream().map(Enum::name).toList());
+        }
+        if (request.getMinPrice() != null) {
+            conditions.add("p.price >= :minPrice");
+            params.addValue("minPrice", request.getMinPrice());
+        }
+        if (request.getMaxPrice() != null) {
+            conditions.add("p.price <= :maxPrice");
+            params.addValue("maxPrice", request.getMaxPrice());
+        }
+        Set<Integer> locationIds = locationResolver.filterIds(universityId, request.getLocation(),
+            request.isIncludeNearby());
+        if (locationIds != null) {
+            // Dictionary locations use idx_listings_university_location
+            conditions.add("p.location_id IN (:locationIds)");
+            params.addValue("locationIds", locationIds);
+        } else if (request.getLocation() != null && !request.getLocation().trim().isEmpty()) {
+            conditions.add("LOWER(p.pickup_location) LIKE :location");
+            params.addValue("location", "%" + request.getLocation().toLowerCase() + "%");
+        }
+        if (request.getDateFrom() != null) {
+            conditions.add("p.created_at >= :dateFrom");
+            params.addValue("dateFrom", request.getDateFrom());
+        }
+        return String.join(" AND ", conditions);
+    }
+
+    /**
+     * Row-value comparison against the cursor, matching orderClause
+     */
+    private String cursorClause(SearchCursor cursor, boolean hasQuery, MapSqlParameterSource params) {
+        params.addValue("cursorId", cursor.getListingId());
+        return switch (cursor.getSort()) {
+            case PRICE_ASC, PRICE_DESC -> {
+                params.addValue("cursorPrice", cursor.getPrice());
+                yield "(h.price, h.listing_id) " + (cursor.isAscending() ? ">" : "<") + " (:cursorPrice, :cursorId)";
+            }
+            case DATE_ASC, DATE_DESC -> {
+                params.addValue("cursorCreatedAt", cursor.getCreatedAt());
+                yield "(h.created_at, h.listing_id) " + (cursor.isAscending() ? ">" : "<") + " (:cursorCreatedAt, :cursorId)";
+            }
+            case POPULARITY -> {
+                params.addValue("cursorViews", cursor.getViewCount());
+                params.addValue("cursorFavorites", cursor.getFavoriteCount());
+                yield "(h.view_count, h.favorite_count, h.listing_id) < (:cursorViews, :cursorFavorites, :cursorId)";
+            }
+            case RELEVANCE -> {
+                params.addValue("cursorCreatedAt", cursor.getCreatedAt());
+                if (hasQuery && cursor.getScore() != null) {
+                    params.addValue("cursorScore", cursor.getScore());
+                    yield "(h.rank, h.created_at, h.listing_id) < (CAST(:cursorScore AS real), :cursorCreatedAt, :cursorId)";
+                }
+                yield "(h.created_at, h.listing_id) < (:cursorCreatedAt, :cursorId)";
+            }
+        };
+    }
+
+    private String orderClause(SearchSort sort, boolean hasQuery) {
+        return switch (sort) {
+            case PRICE_ASC -> "h.price ASC, h.listing_id ASC";
+            case PRICE_DESC -> "h.price DESC, h.listing_id DESC";
+            case DATE_ASC -> "h.created_at ASC, h.listing_id ASC";
+            case DATE_DESC -> "h.created_at DESC, h.listing_id DESC";
+            case POPULARITY -> "h.view_count DESC, h.favorite_count DESC, h.listing_id DESC";
+            case RELEVANCE -> hasQuery
+                ? "h.rank DESC, h.created_at DESC, h.listing_id DESC"
+                : "h.created_at DESC, h.listing_id DESC";
+        };
+    }
+
+    /**
+     * How the text query is matched: full-text with fuzzy fallback in one statement, or either alone
+     */
+    enum TextMatch {
+        COMBINED,
+        FULL_TEXT,
+        FUZZY
+    }
+
+    /**
+     * One text matching strategy as a statement that can be cancelled from another thread
+     */
+    private final class StatementStrategy implements SpeculativeExecution.Strategy<SearchHits> {
+        private final String name;
+        private final String sql;
+        private final MapSqlParameterSource params = new MapSqlParameterSource();
+        private final SearchRequest request;
+        private final AtomicReference<Statement> statement = new AtomicReference<>();
+        private volatile boolean cancelled;
+
+        StatementStrategy(String name, TextMatch textMatch, UUID universityId, SearchRequest request) {
+            this.name = name;
+            this.request = request;
+            this.sql = buildSql(universityId, request, null, params, textMatch);
+        }
+
+        @Override
+        public String name() {
+            return name;
+        }
+
+        @Override
+        public SearchHits call() {
+            try {
+                return jdbcTemplate.query(cancellable(), hitsExtractor(request));
+            } catch (RuntimeException e) {
+                if (cancelled) {
+                    throw new SpeculativeExecution.CancelledException(name + " search cancelled");
+                }
+                throw e;
+            }
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            Statement running = statement.get();
+            if (running != null) {
+                try {
+                    running.cancel();
+                } catch (SQLException e) {
+                    log.debug("Could not cancel {} search statement: {}", name, e.getMessage());
+                }
+            }
+        }
+
+        /**
+         * Named-parameter statement that registers itself for cancel(), or refuses to start if
+         * the strategy was already cancelled
+         */
+        private PreparedStatementCreator cancellable() {
+            ParsedSql parsed = NamedParameterUtils.parseSqlStatement(sql);
+            PreparedStatementCreator creator = new PreparedStatementCreatorFactory(
+                    NamedParameterUtils.substituteNamedParameters(parsed, params),
+                    NamedParameterUtils.buildSqlParameterList(parsed, params))
+                .newPreparedStatementCreator(NamedParameterUtils.buildValueArray(parsed, params, null));
+            return connection -> {
+                if (cancelled) {
+                    throw new SQLException(name + " search cancelled before it started");
+                }
+                PreparedStatement prepared = creator.createPreparedStatement(connection);
+                statement.set(prepared);
+                return prepared;
+            };
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.commandlinecommandos.campusmarketplace.search;
+
+/**
+ * Fixed price ranges used for price facets, lower bound inclusive, upper bound exclusive
+ */
+public enum PriceBucket {
+
+    UNDER_25("0-25", 0, 2_500),
+    FROM_25_TO_50("25-50", 2_500, 5_000),
+    FROM_50_TO_100("50-100", 5_000, 10_000),
+    FROM_100_TO_250("100-250", 10_000, 25_000),
+    FROM_250_TO_500("250-500", 25_000, 50_000),
+    OVER_500("500+", 50_000, Long.MAX_VALUE);
+
+    private final String label;
+    private final long minCents;
+    private final long maxCents;
+
+    PriceBucket(String label, long minCents, long maxCents) {
+        this.label = label;
+        this.minCents = minCents;
+        this.maxCents = maxCents;
+    }
+
+    /**
+     * Bucket holding a price (negative prices count as the lowest bucket)
+     */
+    public static PriceBucket of(long priceCents) {
+        for (PriceBucket bucket : values()) {
+            if (priceCents < bucket.maxCents) {
+                return bucket;
+            }
+        }
+        return OVER_500;
+    }
+
+    /**
+     * Lowest price held, inclusive (the lowest bucket also holds negative prices)
+     */
+    long lowestCents() {
+        return ordinal() == 0 ? Long.MIN_VALUE : minCents;
+    }
+
+    /**
+     * Highest price held, inclusive
+     */
+    long highestCents() {
+        return maxCents == Long.MAX_VALUE ? Long.MAX_VALUE : maxCents - 1;
+    }
+
+    /**
+     * Whether any price in [minCents, maxCents] falls into this bucket
+     */
+    boolean overlaps(long minCents, long maxCents) {
+        return highestCents() >= minCents && lowestCents() <= maxCents;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public long getMinCents() {
+        return minCents;
+    }
+
+    public long getMaxCents() {
+        return maxCents;
+    }
+}
@@ -0,0 +1,185 @@
+package com.commandlinecommandos.campusmarketplace.search;
+
+import com.commandlinecommandos.campusmarketplace.model.ProductCategory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Reverse index of saved searches: matches a new listing against the stored queries
+ * Every query is filed under one anchor, the most selective thing it requires: its longest
+ * term, else its categories, else the price buckets its range touches, else the catch-all of
+ * its university. A listing only looks up its own terms, category and price bucket, so the
+ * work is proportional to the queries sharing an anchor with it rather than to all saved
+ * searches; each of those candidates is then checked against its full criteria.
+ * Thread-safe: matching shares a read lock, registrations take the write lock.
+ */
+@Component
+public class SavedSearchPercolator {
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<UUID, PercolatorQuery> queries = new HashMap<>();
+    private final Map<UUID, Anchors> anchorsByUniversity = new HashMap<>();
+
+    /**
+     * Add a query, replacing an earlier version with the same saved search id
+     */
+    public void register(PercolatorQuery query) {
+        lock.writeLock().lock();
+        try {
+            PercolatorQuery previous = queries.put(query.getSavedSearchId(), query);
+            if (previous != null) {
+                file(previous, false);
+            }
+            file(query, true);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void unregister(UUID savedSearchId) {
+        lock.writeLock().lock();
+        try {
+            PercolatorQuery previous = queries.remove(savedSearchId);
+            if (previous != null) {
+                file(previous, false);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Swap in a complete set of queries (startup load)
+     */
+    public void replaceAll(Collection<PercolatorQuery> all) {
+        lock.writeLock().lock();
+        try {
+            queries.clear();
+            anchorsByUniversity.clear();
+            for (PercolatorQuery query : all) {
+                queries.put(query.getSavedSearchId(), query);
+                file(query, true);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Saved searches the listing satisfies (none for unsearchable listings)
+     */
+    public List<PercolatorQuery> match(IndexedListing listing) {
+        if (!listing.isSearchable() || listing.getUniversityId() == null) {
+            return List.of();
+        }
+        Set<String> terms = new LinkedHashSet<>(SearchTextAnalyzer.tokenize(listing.getTitle()));
+        terms.addAll(SearchTextAnalyzer.tokenize(listing.getDescription()));
+
+        lock.readLock().lock();
+        try {
+            Anchors anchors = anchorsByUniversity.get(listing.getUniversityId());
+            if (anchors == null) {
+                return List.of();
+            }
+            // A query has exactly one anchor kind and the listing one value per kind,
+            // so no query is visited twice
+            List<PercolatorQuery> matches = new ArrayList<>();
+            for (String term : terms) {
+                collect(anchors.byTerm.get(term), listing, terms, matches);
+            }
+            collect(anchors.byCategory.get(listing.getCategory()), listing, terms, matches);
+            collect(anchors.byPriceBucket.get(PriceBucket.of(listing.getPriceCents())), listing, terms, matches);
+            collect(anchors.catchAll, listing, terms, matches);
+            return matches;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return queries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void collect(Set<UUID> candidates, IndexedListing listing, Set<String> terms,
+                         List<PercolatorQuery> matches) {
+        if (candidates == null) {
+            return;
+        }
+        for (UUID id : candidates) {
+            PercolatorQuery query = queries.get(id);
+            if (query.matches(listing, terms)) {
+                matches.add(query);
+            }
+        }
+    }
+
+    /**
+     * Add the query under its anchor keys, or take it out again
+     */
+    private void file(PercolatorQuery query, boolean add) {
+        Anchors anchors = anchorsByUniversity.computeIfAbsent(query.getUniversityId(), id -> new Anchors());
+        UUID id = query.getSavedSearchId();
+        String term = query.anchorTerm();
+        if (term != null) {
+            update(anchors.byTerm, term, id, add);
+        } else if (!query.getCategories().isEmpty()) {
+            for (ProductCategory category : query.getCategories()) {
+                update(anchors.byCategory, category, id, add);
+            }
+        } else if (query.hasPriceBounds()) {
+            for (PriceBucket bucket : PriceBucket.values()) {
+                if (bucket.overlaps(query.getMinCents(), query.getMaxCents())) {
+                    update(anchors.byPriceBucket, bucket, id, add);
+                }
+            }
+        } else if (add) {
+            anchors.catchAll.add(id);
+        } else {
+            anchors.catchAll.remove(id);
+        }
+        if (!add && anchors.isEmpty()) {
+            anchorsByUniversity.remove(query.getUniversityId());
+        }
+    }
+
+    private static <K> void update(Map<K, Set<UUID>> index, K key, UUID id, boolean add) {
+        if (add) {
+            index.computeIfAbsent(key, k -> new HashSet<>()).add(id);
+            return;
+        }
+        Set<UUID> ids = index.get(key);
+        if (ids != null && ids.remove(id) && ids.isEmpty()) {
+            index.remove(key);
+        }
+    }
+
+    /**
+     * Anchor keys of one university's queries
+     */
+    private static final class Anchors {
+        private final Map<String, Set<UUID>> byTerm = new HashMap<>();
+        private final Map<ProductCategory, Set<UUID>> byCategory = new EnumMap<>(ProductCategory.class);
+        private final Map<PriceBucket, Set<UUID>> byPriceBucket = new EnumMap<>(PriceBucket.class);
+        private final Set<UUID> catchAll = new HashSet<>();
+
+        boolean isEmpty() {
+            return byTerm.isEmpty() && byCategory.isEmpty() && byPriceBucket.isEmpty() && catchAll.isEmpty();
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package com.commandlinecommandos.campusmarketplace.search;
+
+import com.commandlinecommandos.campusmarketplace.model.Product;
+import com.commandlinecommandos.campusmarketplace.repository.ProductSummaryView;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Opaque keyset pagination token
+ * Holds the sort key of the last row a client has seen plus the listing id as tie-breaker,
+ * so the next page is "everything after this key" instead of an OFFSET.
+ * Which key fields are set depends on the sort:
+ * price (price_*), createdAt (date_* and relevance), viewCount + favoriteCount (popularity),
+ * and additionally the relevance score when relevance was ranked by the search index.
+ */
+public final class SearchCursor {
+
+    private static final String VERSION = "v1";
+    private static final String SEPARATOR = "~";
+
+    private final SearchSort sort;
+    private final Float score;
+    private final BigDecimal price;
+    private final LocalDateTime createdAt;
+    private final int viewCount;
+    private final int favoriteCount;
+    private final UUID listingId;
+
+    private SearchCursor(SearchSort sort, Float score, BigDecimal price, LocalDateTime createdAt,
+                         int viewCount, int favoriteCount, UUID listingId) {
+        this.sort = sort;
+        this.score = score;
+        this.price = price;
+        this.createdAt = createdAt;
+        this.viewCount = viewCount;
+        this.favoriteCount = favoriteCount;
+        this.listingId = listingId;
+    }
+
+    /**
+     * Cursor positioned on a product loaded from the database
+     */
+    public static SearchCursor after(SearchSort sort, Product product, Float score) {
+        return new SearchCursor(sort, sort == SearchSort.RELEVANCE ? score : null,
+            product.getPrice(), product.getCreatedAt(),
+            product.getViewCount() != null ? product.getViewCount() : 0,
+            product.getFavoriteCount() != null ? product.getFavoriteCount() : 0,
+            product.getProductId());
+    }
+
+    /**
+     * Cursor positioned on a product summary projection
+     */
+    public static SearchCursor after(SearchSort sort, ProductSummaryView product, Float score) {
+        return new SearchCursor(sort, sort == SearchSort.RELEVANCE ? score : null,
+            product.getPrice(), product.getCreatedAt(),
+            product.getViewCount() != null ? product.getViewCount() : 0,
+            product.getFavoriteCount() != null ? product.getFavoriteCount() : 0,
+            product.getProductId());
+    }
+
+    /**
+     * Cursor positioned on an indexed listing, with the keys the index sorted it by
+     */
+    public static SearchCursor after(SearchSort sort, IndexedListing listing, Float score) {
+        return new SearchCursor(sort, sort == SearchSort.RELEVANCE ? score : null,
+            listing.getPrice(), listing.getCreatedAt(), listing.getViewCount(), listing.getFavoriteCount(),
+            listing.getListingId());
+    }
+
+    /**
+     * Parse a token issued for the given sort
+     *
+     * @throws IllegalArgumentException if the token is malformed or belongs to a different sort
+     */
+    public static SearchCursor decode(String token, SearchSort expectedSort) {
+        String[] parts;
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            parts = raw.split(SEPARATOR, -1);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        if (parts.length != 8 || !VERSION.equals(parts[0])) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+
+        if (!expectedSort.name().equals(parts[1])) {
+            throw new IllegalArgumentException("Cursor does not match sortBy " + expectedSort.name().toLowerCase());
+        }
+
+        boolean priceSort = expectedSort == SearchSort.PRICE_ASC || expectedSort == SearchSort.PRICE_DESC;
+        boolean dateSort = expectedSort == SearchSort.DATE_ASC || expectedSort == SearchSort.DATE_DESC
+            || expectedSort == SearchSort.RELEVANCE;
+        if ((priceSort && parts[3].isEmpty()) || (dateSort && parts[4].isEmpty())) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+
+        try {
+            return new SearchCursor(
+                expectedSort,
+                parts[2].isEmpty() ? null : Float.intBitsToFloat(Integer.parseInt(parts[2])),
+                parts[3].isEmpty() ? null : new BigDecimal(parts[3]),
+                parts[4].isEmpty() ? null : LocalDateTime.parse(parts[4]),
+                Integer.parseInt(parts[5]),
+                Integer.parseInt(parts[6]),
+                UUID.fromString(parts[7])
+            );
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    /**
+     * Encode as a URL-safe token
+     */
+    public String encode() {
+        String raw = String.join(SEPARATOR,
+            VERSION,
+            sort.name(),
+            score != null ? Integer.toString(Float.floatToIntBits(score)) : "",
+            price != null ? price.toPlainString() : "",
+            createdAt != null ? createdAt.toString() : "",
+            Integer.toString(viewCount),
+            Integer.toString(favoriteCount),
+            listingId.toString());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Whether an indexed listing sorts strictly after this cursor
+     *
+     * @param listingScore relevance score of the listing (null when there is no text query)
+     */
+    public boolean follows(IndexedListing listing, Float listingScore) {
+        int cmp = switch (sort) {
+            case PRICE_ASC -> listing.getPrice().compareTo(price);
+            case PRICE_DESC -> price.compareTo(listing.getPrice());
+            case DATE_ASC -> listing.getCreatedAt().compareTo(createdAt);
+            case DATE_DESC -> createdAt.compareTo(listing.getCreatedAt());
+            case POPULARITY -> {
+                int views = Integer.compare(viewCount, listing.getViewCount());
+                yield views != 0 ? views : Integer.compare(favoriteCount, listing.getFavoriteCount());
+            }
+            case RELEVANCE -> {
+                int byScore = score != null && listingScore != null ? Float.compare(score, listingScore) : 0;
+                yield byScore != 0 ? byScore : createdAt.compareTo(listing.getCreatedAt());
+            }
+        };
+        if (cmp != 0) {
+            return cmp > 0;
+        }
+        int byId = SearchSort.compareIds(listing.getListingId(), listingId);
+        return isAscending() ? byId > 0 : byId < 0;
+    }
+
+    /**
+     * Order of two positions of the same sort: negative when a is returned before b
+     * Same key semantics as follows(), so merged shard results page like a single search.
+     */
+    static int compare(SearchCursor a, SearchCursor b) {
+        int cmp = switch (a.sort) {
+            case PRICE_ASC -> a.price.compareTo(b.price);
+            case PRICE_DESC -> b.price.compareTo(a.price);
+            case DATE_ASC -> a.createdAt.compareTo(b.createdAt);
+            case DATE_DESC -> b.createdAt.compareTo(a.createdAt);
+            case POPULARITY -> {
+                int views = Integer.compare(b.viewCount, a.viewCount);
+                yield views != 0 ? views : Integer.compare(b.favoriteCount, a.favoriteCount);
+            }
+            case RELEVANCE -> {
+                int byScore = a.score != null && b.score != null ? Float.compare(b.score, a.score) : 0;
+                yield byScore != 0 ? byScore : b.createdAt.compareTo(a.createdAt);
+            }
+        };
+        if (cmp != 0) {
+            return cmp;
+        }
+        int byId = SearchSort.compareIds(a.listingId, b.listingId);
+        return a.isAscending() ? byId : -byId;
+    }
+
+    /**
+     * Direction of the listing id tie-breaker (follows the primary sort direction)
+     */
+    public boolean isAscending() {
+        return sort == SearchSort.PRICE_ASC || sort == SearchSort.DATE_ASC;
+    }
+
+    public SearchSort getSort() {
+        return sort;
+    }
+
+    public Float getScore() {
+        return score;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public int getViewCount() {
+        return viewCount;
+    }
+
+    public int getFavoriteCount() {
+        return favoriteCount;
+    }
+
+    public UUID getListingId() {
+        return listingId;
+    }
+}
@@ -0,0 +1,34 @@
+package com.commandlinecommandos.campusmarketplace.search;
+
+import com.commandlinecommandos.campusmarketplace.dto.SearchRequest;
+
+import java.util.UUID;
+
+/**
+ * Strategy that turns a search request into one page of ranked listing ids
+ * Every executor applies the text predicate (with fuzzy fallback where supported), all
+ * request filters, ordering and paging in a single pass, so SearchService only has to do
+ * the keyed entity fetch. SearchService uses the first available executor in @Order order.
+ */
+public interface SearchExecutor {
+
+    /**
+     * Whether this executor can serve searches right now
+     */
+    boolean isAvailable();
+
+    /**
+     * Run the search
+     *
+     * @param universityId university the results are scoped to
+     * @param request query, filters, sort and page size
+     * @param cursor keyset position to continue after (keyset mode is request.getCursor() != null)
+     * @return ids in result order with relevance scores and hit count
+     */
+    SearchHits execute(UUID universityId, SearchRequest request, SearchCursor cursor);
+
+    /**
+     * Short name for logs and metrics
+     */
+    String name();
+}
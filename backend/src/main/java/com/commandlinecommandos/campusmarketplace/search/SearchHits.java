@@ -0,0 +1,85 @@
+package com.commandlinecommandos.campusmarketplace.search;
+
+import com.commandlinecommandos.campusmarketplace.dto.SearchFacets;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Page of ranked listing ids returned by a SearchExecutor
+ * Callers do a final keyed fetch for the entities in this order
+ */
+public class SearchHits {
+
+    private final List<UUID> listingIds;
+    private final List<Float> scores;
+    private final long totalHits;
+    private final boolean hasMore;
+    private final SearchFacets facets;
+    private final List<SearchCursor> positions;
+
+    public SearchHits(List<UUID> listingIds, List<Float> scores, long totalHits, boolean hasMore) {
+        this(listingIds, scores, totalHits, hasMore, null);
+    }
+
+    public SearchHits(List<UUID> listingIds, List<Float> scores, long totalHits, boolean hasMore,
+                      SearchFacets facets) {
+        this(listingIds, scores, totalHits, hasMore, facets, null);
+    }
+
+    public SearchHits(List<UUID> listingIds, List<Float> scores, long totalHits, boolean hasMore,
+                      SearchFacets facets, List<SearchCursor> positions) {
+        this.listingIds = listingIds;
+        this.scores = scores;
+        this.totalHits = totalHits;
+        this.hasMore = hasMore;
+        this.facets = facets;
+        this.positions = positions;
+    }
+
+    public static SearchHits empty() {
+        return new SearchHits(List.of(), List.of(), 0, false);
+    }
+
+    public List<UUID> getListingIds() {
+        return listingIds;
+    }
+
+    /**
+     * Relevance scores aligned with listingIds (null entries when no text query was given)
+     */
+    public List<Float> getScores() {
+        return scores;
+    }
+
+    /**
+     * All matches for the query and filters, regardless of page or cursor (-1 if not counted)
+     */
+    public long getTotalHits() {
+        return totalHits;
+    }
+
+    /**
+     * Whether more matches follow this page
+     */
+    public boolean hasMore() {
+        return hasMore;
+    }
+
+    /**
+     * Facet counts for the whole result set, or null if the executor does not compute them
+     */
+    public SearchFacets getFacets() {
+        return facets;
+    }
+
+    /**
+     * Sort key each listing was ordered by, aligned with listingIds, or null if the executor sorted
+     * on the database columns (the keyed fetch then returns the same keys)
+     * Next-page cursors must be built from these: an in-memory index may hold older view counts
+     * than the database.
+     */
+    public List<SearchCursor> getPositions() {
+        return positions;
+    }
+}
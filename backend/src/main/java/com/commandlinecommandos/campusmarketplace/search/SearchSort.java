@@ -0,0 +1,83 @@
+package com.commandlinecommandos.campusmarketplace.search;
+
+import org.springframework.data.domain.Sort;
+
+import java.util.Comparator;
+import java.util.Locale;
+import java.util.UUID;
+
+/**
+ * Sort options accepted by the search API
+ * Mirrors the sortBy values understood by SearchService.createSort
+ */
+public enum SearchSort {
+    RELEVANCE,
+    PRICE_ASC,
+    PRICE_DESC,
+    DATE_ASC,
+    DATE_DESC,
+    POPULARITY;
+
+    /**
+     * Parse a sortBy request parameter (unknown or null values mean relevance)
+     */
+    public static SearchSort from(String sortBy) {
+        if (sortBy == null) {
+            return RELEVANCE;
+        }
+        return switch (sortBy.toLowerCase(Locale.ROOT)) {
+            case "price_asc" -> PRICE_ASC;
+            case "price_desc" -> PRICE_DESC;
+            case "date_asc" -> DATE_ASC;
+            case "date_desc" -> DATE_DESC;
+            case "popularity" -> POPULARITY;
+            default -> RELEVANCE;
+        };
+    }
+
+    /**
+     * Ordering of indexed listings for this sort, with listing id as the final tie-breaker
+     * Dates compare at full precision, like the database columns and SearchCursor
+     * Relevance without a text query falls back to newest first (same as createSort)
+     */
+    public Comparator<IndexedListing> comparator() {
+        return switch (this) {
+            case PRICE_ASC -> Comparator.comparingLong(IndexedListing::getPriceCents)
+                .thenComparing(IndexedListing::getListingId, SearchSort::compareIds);
+            case PRICE_DESC -> Comparator.comparingLong(IndexedListing::getPriceCents)
+                .thenComparing(IndexedListing::getListingId, SearchSort::compareIds)
+                .reversed();
+            case DATE_ASC -> Comparator.comparing(IndexedListing::getCreatedAt)
+                .thenComparing(IndexedListing::getListingId, SearchSort::compareIds);
+            case POPULARITY -> Comparator.comparingInt(IndexedListing::getViewCount)
+                .thenComparingInt(IndexedListing::getFavoriteCount)
+                .thenComparing(IndexedListing::getListingId, SearchSort::compareIds)
+                .reversed();
+            case DATE_DESC, RELEVANCE -> Comparator.comparing(IndexedListing::getCreatedAt)
+                .thenComparing(IndexedListing::getListingId, SearchSort::compareIds)
+                .reversed();
+        };
+    }
+
+    /**
+     * Product entity sort for this option, with the listing id as a unique tie-breaker
+     * (required for keyset paging); relevance is unranked here and means newest first
+     */
+    public Sort entitySort() {
+        return switch (this) {
+            case PRICE_ASC -> Sort.by(Sort.Direction.ASC, "price", "productId");
+            case PRICE_DESC -> Sort.by(Sort.Direction.DESC, "price", "productId");
+            case DATE_ASC -> Sort.by(Sort.Direction.ASC, "createdAt", "productId");
+            case POPULARITY -> Sort.by(Sort.Direction.DESC, "viewCount", "favoriteCount", "productId");
+            case DATE_DESC, RELEVANCE -> Sort.by(Sort.Direction.DESC, "createdAt", "productId");
+        };
+    }
+
+    /**
+     * Compare UUIDs byte-wise (unsigned), which is how PostgreSQL and H2 order uuid columns
+     */
+    public static int compareIds(UUID a, UUID b) {
+        int cmp = Long.compareUnsigned(a.getMostSignificantBits(), b.getMostSignificantBits());
+        return cmp != 0 ? cmp : Long.compareUnsigned(a.getLeastSignificantBits(), b.getLeastSignificantBits());
+    }
+}
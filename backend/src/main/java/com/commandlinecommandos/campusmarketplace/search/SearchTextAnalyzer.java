@@ -0,0 +1,79 @@
+package com.commandlinecommandos.campusmarketplace.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Text analysis shared by the in-memory search structures
+ * Lowercases, splits on non-alphanumeric characters, drops English stop words
+ * and applies a light plural stemmer (roughly what PostgreSQL 'english' does for our titles)
+ */
+public final class SearchTextAnalyzer {
+
+    private static final Set<String> STOP_WORDS = Set.of(
+        "a", "an", "and", "are", "as", "at", "be", "but", "by", "for", "from", "if", "in",
+        "into", "is", "it", "no", "not", "of", "on", "or", "such", "that", "the", "their",
+        "then", "there", "these", "they", "this", "to", "was", "will", "with"
+    );
+
+    private SearchTextAnalyzer() {
+    }
+
+    /**
+     * Split text into normalized index terms (duplicates preserved, in order)
+     */
+    public static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return terms;
+        }
+
+        StringBuilder current = new StringBuilder();
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                current.append(Character.toLowerCase(c));
+            } else if (current.length() > 0) {
+                addTerm(terms, current.toString());
+                current.setLength(0);
+            }
+        }
+        if (current.length() > 0) {
+            addTerm(terms, current.toString());
+        }
+        return terms;
+    }
+
+    /**
+     * Normalize a single lowercase token (stemming only, no stop word check)
+     */
+    public static String stem(String token) {
+        int len = token.length();
+        if (len > 4 && token.endsWith("ies")) {
+            return token.substring(0, len - 3) + "y";
+        }
+        if (len > 4 && (token.endsWith("ches") || token.endsWith("shes")
+                || token.endsWith("sses") || token.endsWith("xes") || token.endsWith("zes"))) {
+            return token.substring(0, len - 2);
+        }
+        if (len > 3 && token.endsWith("s") && !token.endsWith("ss") && !token.endsWith("us")) {
+            return token.substring(0, len - 1);
+        }
+        return token;
+    }
+
+    /**
+     * Lowercase and trim free text for substring comparisons (locations, prefixes)
+     */
+    public static String normalize(String text) {
+        return text == null ? "" : text.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static void addTerm(List<String> terms, String token) {
+        if (!STOP_WORDS.contains(token)) {
+            terms.add(stem(token));
+        }
+    }
+}
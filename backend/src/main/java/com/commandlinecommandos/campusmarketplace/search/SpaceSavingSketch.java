@@ -0,0 +1,130 @@
+package com.commandlinecommandos.campusmarketplace.search;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Space-Saving heavy-hitters summary over a stream of keys
+ * Keeps at most capacity counters. An unseen key takes over the smallest counter and inherits
+ * its count as error, so every count is an overestimate by at most its error, which is at most
+ * total / capacity; any key seen more often than that is guaranteed to be held.
+ * Not thread-safe.
+ */
+public final class SpaceSavingSketch {
+
+    private static final Comparator<Counter> BY_COUNT = Comparator.comparingLong(Counter::getCount)
+        .thenComparingLong(counter -> counter.order);
+
+    private final int capacity;
+    private final Map<String, Counter> counters = new HashMap<>();
+    private final TreeSet<Counter> byCount = new TreeSet<>(BY_COUNT);
+    private long total;
+    private long nextOrder;
+
+    public SpaceSavingSketch(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.capacity = capacity;
+    }
+
+    /**
+     * Count weight occurrences of a key
+     */
+    public void offer(String key, long weight) {
+        total += weight;
+        Counter counter = counters.get(key);
+        if (counter != null) {
+            byCount.remove(counter);
+            counter.count += weight;
+        } else if (counters.size() < capacity) {
+            counter = new Counter(key, weight, 0);
+            counters.put(key, counter);
+        } else {
+            Counter smallest = byCount.pollFirst();
+            counters.remove(smallest.key);
+            counter = new Counter(key, smallest.count + weight, smallest.count);
+            counters.put(key, counter);
+        }
+        counter.order = nextOrder++;
+        byCount.add(counter);
+    }
+
+    /**
+     * Put back a counter from a snapshot (only while the sketch has room)
+     */
+    public void restore(String key, long count, long error) {
+        if (counters.containsKey(key) || counters.size() >= capacity) {
+            return;
+        }
+        Counter counter = new Counter(key, count, error);
+        counter.order = nextOrder++;
+        counters.put(key, counter);
+        byCount.add(counter);
+        total += count;
+    }
+
+    /**
+     * Counter of a held key, or null
+     */
+    public Counter get(String key) {
+        return counters.get(key);
+    }
+
+    /**
+     * Most a key that is not held can have been seen (0 until the sketch is full)
+     */
+    public long unheldBound() {
+        return counters.size() < capacity ? 0 : byCount.first().count;
+    }
+
+    /**
+     * Held counters, highest count first
+     */
+    public List<Counter> counters() {
+        return new ArrayList<>(byCount.descendingSet());
+    }
+
+    /**
+     * Sum of all offered weights (always equal to the sum of the held counts)
+     */
+    public long total() {
+        return total;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Estimated count of one key: count is an upper bound, count - error a lower bound
+     */
+    public static final class Counter {
+        private final String key;
+        private long count;
+        private final long error;
+        private long order;
+
+        Counter(String key, long count, long error) {
+            this.key = key;
+            this.count = count;
+            this.error = error;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getError() {
+            return error;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.commandlinecommandos.campusmarketplace.search;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Predicate;
+
+/**
+ * Runs a preferred and a fallback strategy at the same time and keeps the preferred result
+ * whenever it is acceptable
+ * The fallback is cancelled as soon as the preferred result is accepted and only waited for
+ * when it is rejected, so the fallback case costs max(preferred, fallback) instead of the sum.
+ * Every strategy run is timed as "search.strategy" (tags strategy, outcome) and every race as
+ * "search.speculative" (tag winner).
+ */
+final class SpeculativeExecution {
+
+    /**
+     * One way of answering a search; cancel() may be called from another thread at any time
+     */
+    interface Strategy<T> {
+
+        String name();
+
+        T call() throws Exception;
+
+        /**
+         * Best-effort abort of a running (or not yet started) call, which should then end
+         * with a CancelledException
+         */
+        void cancel();
+    }
+
+    private final ExecutorService executor;
+    private final MeterRegistry meterRegistry;
+
+    SpeculativeExecution(ExecutorService executor, MeterRegistry meterRegistry) {
+        this.executor = executor;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Start both strategies and return the preferred result if acceptable, else the fallback's
+     *
+     * At the deadline the result that has already arrived is returned (the preferred one, even if
+     * rejected, when both have) and the strategy still running is cancelled
+     *
+     * @param deadlineMillis time budget for the whole race
+     * @throws QueryTimeoutException if neither strategy finished before the deadline
+     */
+    <T> T run(Strategy<T> preferred, Strategy<T> fallback, Predicate<T> acceptable, long deadlineMillis) {
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(deadlineMillis);
+        Future<T> preferredResult = executor.submit(() -> timed(preferred));
+        Future<T> fallbackResult = executor.submit(() -> timed(fallback));
+
+        String winner = "none";
+        try {
+            T result;
+            try {
+                result = await(preferredResult, deadline);
+            } catch (QueryTimeoutException e) {
+                T fallbackResultNow = finished(fallbackResult);
+                if (fallbackResultNow == null) {
+                    throw e;
+                }
+                preferred.cancel();
+                winner = fallback.name();
+                return fallbackResultNow;
+            }
+            if (acceptable.test(result)) {
+                fallback.cancel();
+                winner = preferred.name();
+                return result;
+            }
+            try {
+                T fallbackResultNow = await(fallbackResult, deadline);
+                winner = fallback.name();
+                return fallbackResultNow;
+            } catch (QueryTimeoutException e) {
+                // A rejected answer in time beats no answer
+                fallback.cancel();
+                winner = preferred.name();
+                return result;
+            }
+        } catch (RuntimeException e) {
+            preferred.cancel();
+            fallback.cancel();
+            throw e;
+        } finally {
+            Timer.builder("search.speculative")
+                .description("Speculative search races by winning strategy")
+                .tag("winner", winner)
+                .register(meterRegistry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private <T> T timed(Strategy<T> strategy) throws Exception {
+        long start = System.nanoTime();
+        String outcome = "completed";
+        try {
+            return strategy.call();
+        } catch (Exception e) {
+            outcome = e instanceof CancelledException ? "cancelled" : "failed";
+            throw e;
+        } finally {
+            Timer.builder("search.strategy")
+                .description("Search strategy execution time")
+                .tag("strategy", strategy.name())
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Result of a strategy that has already completed successfully, else null
+     */
+    private static <T> T finished(Future<T> future) {
+        return future.state() == Future.State.SUCCESS ? future.resultNow() : null;
+    }
+
+    private static <T> T await(Future<T> future, long deadline) {
+        try {
+            return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            throw new QueryTimeoutException("Search strategies did not finish before the deadline");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new QueryTimeoutException("Interrupted while waiting for search strategies");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("Search strategy failed: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    /**
+     * Thrown by a strategy whose call ended because it was cancelled
+     */
+    static final class CancelledException extends RuntimeException {
+        CancelledException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.commandlinecommandos.campusmarketplace.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Trigram index over a shard's term dictionary, used to correct misspelled query terms
+ * Terms are padded like pg_trgm ("  desk "), candidates sharing enough trigrams (Dice
+ * coefficient) are verified with an edit distance bounded by term length, so a lookup
+ * touches only the posting lists of the query term's trigrams.
+ * Not thread-safe: IndexShard guards it with its lock.
+ */
+final class TrigramTermIndex {
+
+    // Shortest term we try to correct; below this almost everything is one edit away
+    static final int MIN_TERM_LENGTH = 4;
+
+    private static final float MIN_DICE = 0.5f;
+
+    private final List<String> terms = new ArrayList<>();
+    private final List<Set<String>> termTrigrams = new ArrayList<>();
+    private final Map<String, TermIds> postings = new HashMap<>();
+
+    /**
+     * Add a term to the dictionary (callers add each term once)
+     */
+    void add(String term) {
+        int id = terms.size();
+        Set<String> trigrams = trigrams(term);
+        terms.add(term);
+        termTrigrams.add(trigrams);
+        for (String trigram : trigrams) {
+            postings.computeIfAbsent(trigram, t -> new TermIds()).add(id);
+        }
+    }
+
+    void clear() {
+        terms.clear();
+        termTrigrams.clear();
+        postings.clear();
+    }
+
+    /**
+     * Dictionary terms within the allowed edit distance of term, most similar first
+     * The term itself is not returned
+     */
+    List<FuzzyTerm> similar(String term, int limit) {
+        if (term.length() < MIN_TERM_LENGTH || terms.isEmpty()) {
+            return List.of();
+        }
+        Set<String> queryTrigrams = trigrams(term);
+        int[] shared = new int[terms.size()];
+        int[] touched = new int[Math.min(terms.size(), 64)];
+        int touchedCount = 0;
+        for (String trigram : queryTrigrams) {
+            TermIds ids = postings.get(trigram);
+            if (ids == null) {
+                continue;
+            }
+            for (int i = 0; i < ids.size; i++) {
+                int id = ids.ids[i];
+                if (shared[id]++ == 0) {
+                    if (touchedCount == touched.length) {
+                        touched = Arrays.copyOf(touched, touchedCount * 2);
+                    }
+                    touched[touchedCount++] = id;
+                }
+            }
+        }
+
+        int maxEdits = maxEdits(term.length());
+        List<FuzzyTerm> matches = new ArrayList<>();
+        for (int i = 0; i < touchedCount; i++) {
+            int id = touched[i];
+            String candidate = terms.get(id);
+            float dice = 2f * shared[id] / (queryTrigrams.size() + termTrigrams.get(id).size());
+            if (dice < MIN_DICE || candidate.equals(term)
+                    || Math.abs(candidate.length() - term.length()) > maxEdits) {
+                continue;
+            }
+            int distance = boundedDistance(term, candidate, maxEdits);
+            if (distance <= maxEdits) {
+                float similarity = 1f - (float) distance / Math.max(term.length(), candidate.length());
+                matches.add(new FuzzyTerm(candidate, similarity));
+            }
+        }
+        matches.sort(Comparator.comparingDouble((FuzzyTerm m) -> m.similarity).reversed()
+            .thenComparing(m -> m.term));
+        return matches.size() > limit ? matches.subList(0, limit) : matches;
+    }
+
+    /**
+     * Edits allowed for a query term: one for short words, two from eight characters on
+     */
+    static int maxEdits(int length) {
+        return length < 8 ? 1 : 2;
+    }
+
+    /**
+     * Levenshtein distance, or max + 1 as soon as it is known to exceed max
+     * Only the diagonal band of width 2 * max + 1 is computed.
+     */
+    static int boundedDistance(String a, String b, int max) {
+        int n = a.length();
+        int m = b.length();
+        if (Math.abs(n - m) > max) {
+            return max + 1;
+        }
+        int outside = max + 1;
+        int[] previous = new int[m + 1];
+        int[] current = new int[m + 1];
+        for (int j = 0; j <= m; j++) {
+            previous[j] = j <= max ? j : outside;
+        }
+        for (int i = 1; i <= n; i++) {
+            int from = Math.max(1, i - max);
+            int to = Math.min(m, i + max);
+            current[0] = i <= max ? i : outside;
+            if (from > 1) {
+                current[from - 1] = outside;
+            }
+            int rowMin = current[0];
+            for (int j = from; j <= to; j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(previous[j - 1] + cost, Math.min(previous[j], current[j - 1]) + 1);
+                current[j] = Math.min(value, outside);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (to < m) {
+                current[to + 1] = outside;
+            }
+            if (rowMin > max) {
+                return outside;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return Math.min(previous[m], outside);
+    }
+
+    private static Set<String> trigrams(String term) {
+        String padded = "  " + term + " ";
+        Set<String> trigrams = new LinkedHashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            trigrams.add(padded.substring(i, i + 3));
+        }
+        return trigrams;
+    }
+
+    /**
+     * A dictionary term close to a query term, similarity in (0, 1]
+     */
+    static final class FuzzyTerm {
+        final String term;
+        final float similarity;
+
+        FuzzyTerm(String term, float similarity) {
+            this.term = term;
+            this.similarity = similarity;
+        }
+    }
+
+    /**
+     * Growable list of term ids
+     */
+    private static final class TermIds {
+        private int[] ids = new int[4];
+        private int size;
+
+        void add(int id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.commandlinecommandos.campusmarketplace.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size Bloom filter over keys given as two 64-bit hashes
+ * Sized for an expected number of keys and false positive rate; the k bit positions of a key
+ * are h1 + i * h2 (Kirsch-Mitzenmacher double hashing). Bits are set with a lock-free OR, so
+ * put() and mightContain() are safe for any number of threads.
+ */
+public final class BloomFilter {
+
+    private final AtomicLongArray words;
+    private final long bitCount;
+    private final int hashCount;
+    private final AtomicLong setBits = new AtomicLong();
+
+    /**
+     * @param expectedKeys keys the filter is sized for (more are accepted at a higher false positive rate)
+     * @param falsePositiveRate wanted false positive rate at expectedKeys, between 0 and 1
+     */
+    public BloomFilter(long expectedKeys, double falsePositiveRate) {
+        if (expectedKeys < 1 || falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("expectedKeys must be positive and falsePositiveRate between 0 and 1");
+        }
+        long bits = (long) Math.ceil(-expectedKeys * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int wordCount = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(1, (bits + 63) / 64));
+        this.words = new AtomicLongArray(wordCount);
+        this.bitCount = (long) wordCount * 64;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedKeys * Math.log(2)));
+    }
+
+    /**
+     * Add a key
+     *
+     * @return true if the key was certainly not in the filter before
+     */
+    public boolean put(long h1, long h2) {
+        boolean changed = false;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitCount);
+            long mask = 1L << bit;
+            int word = (int) (bit >>> 6);
+            long before = words.getAndAccumulate(word, mask, (current, m) -> current | m);
+            if ((before & mask) == 0) {
+                setBits.incrementAndGet();
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Whether the key may have been added (false means it certainly was not)
+     */
+    public boolean mightContain(long h1, long h2) {
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitCount);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Chance that a key never added is reported as present, given the bits set so far
+     */
+    public double expectedFalsePositiveRate() {
+        return Math.pow((double) setBits.get() / bitCount, hashCount);
+    }
+
+    public long bitCount() {
+        return bitCount;
+    }
+
+    public int hashCount() {
+        return hashCount;
+    }
+}
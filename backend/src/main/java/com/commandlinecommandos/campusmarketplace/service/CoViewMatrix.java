@@ -0,0 +1,202 @@
+package com.commandlinecommandos.campusmarketplace.service;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Sparse symmetric co-view counts between listings
+ * Listings get dense ordinals; every row is an open-addressing int-to-int table of co-view
+ * counts with the other listings, next to a view count per listing. Neighbors are ranked by
+ * cosine similarity, co-views / sqrt(views(a) * views(b)), and handed out as primitive arrays
+ * that no longer depend on the matrix. Not thread-safe.
+ */
+public final class CoViewMatrix {
+
+    private final Map<UUID, Integer> ordinals = new HashMap<>();
+    private UUID[] listingIds = new UUID[64];
+    private int[] viewCounts = new int[64];
+    private Row[] rows = new Row[64];
+    private int size;
+
+    /**
+     * Ordinal of a listing, assigned on first sight
+     */
+    public int ordinal(UUID listingId) {
+        Integer ordinal = ordinals.get(listingId);
+        if (ordinal != null) {
+            return ordinal;
+        }
+        if (size == listingIds.length) {
+            int capacity = size * 2;
+            listingIds = Arrays.copyOf(listingIds, capacity);
+            viewCounts = Arrays.copyOf(viewCounts, capacity);
+            rows = Arrays.copyOf(rows, capacity);
+        }
+        listingIds[size] = listingId;
+        ordinals.put(listingId, size);
+        return size++;
+    }
+
+    public UUID listingId(int ordinal) {
+        return listingIds[ordinal];
+    }
+
+    /**
+     * Number of listings seen so far
+     */
+    public int size() {
+        return size;
+    }
+
+    public void addView(int listing) {
+        viewCounts[listing]++;
+    }
+
+    /**
+     * Count one co-view of two different listings (in both rows)
+     */
+    public void addCoView(int a, int b) {
+        row(a).increment(b);
+        row(b).increment(a);
+    }
+
+    public int views(int listing) {
+        return viewCounts[listing];
+    }
+
+    public int coViews(int a, int b) {
+        return rows[a] != null ? rows[a].get(b) : 0;
+    }
+
+    /**
+     * Up to limit listings most similar to a listing, most similar first
+     *
+     * @param minCoViews co-views a pair needs before it counts as similar
+     */
+    public Neighbors neighbors(int listing, int limit, int minCoViews) {
+        Row row = rows[listing];
+        int[] top = new int[limit];
+        float[] scores = new float[limit];
+        int count = 0;
+        if (row != null && viewCounts[listing] > 0) {
+            for (int i = 0; i < row.keys.length; i++) {
+                if (row.keys[i] == 0 || row.counts[i] < minCoViews) {
+                    continue;
+                }
+                int other = row.keys[i] - 1;
+                float score = (float) (row.counts[i] / Math.sqrt((double) viewCounts[listing] * Math.max(1, viewCounts[other])));
+                // Insertion into the (short) sorted top list
+                if (count == limit && (count == 0 || score <= scores[count - 1])) {
+                    continue;
+                }
+                int at = count < limit ? count++ : count - 1;
+                while (at > 0 && scores[at - 1] < score) {
+                    top[at] = top[at - 1];
+                    scores[at] = scores[at - 1];
+                    at--;
+                }
+                top[at] = other;
+                scores[at] = score;
+            }
+        }
+        long[] bits = new long[count * 2];
+        for (int i = 0; i < count; i++) {
+            bits[2 * i] = listingIds[top[i]].getMostSignificantBits();
+            bits[2 * i + 1] = listingIds[top[i]].getLeastSignificantBits();
+        }
+        return new Neighbors(bits, Arrays.copyOf(scores, count));
+    }
+
+    private Row row(int listing) {
+        if (rows[listing] == null) {
+            rows[listing] = new Row();
+        }
+        return rows[listing];
+    }
+
+    /**
+     * Co-view counts of one listing: keys hold ordinal + 1 so that 0 marks a free slot
+     */
+    private static final class Row {
+        private int[] keys = new int[4];
+        private int[] counts = new int[4];
+        private int used;
+
+        int get(int other) {
+            int mask = keys.length - 1;
+            for (int i = slot(other, mask); keys[i] != 0; i = (i + 1) & mask) {
+                if (keys[i] == other + 1) {
+                    return counts[i];
+                }
+            }
+            return 0;
+        }
+
+        void increment(int other) {
+            int mask = keys.length - 1;
+            int i = slot(other, mask);
+            while (keys[i] != 0) {
+                if (keys[i] == other + 1) {
+                    counts[i]++;
+                    return;
+                }
+                i = (i + 1) & mask;
+            }
+            keys[i] = other + 1;
+            counts[i] = 1;
+            if (++used * 2 > keys.length) {
+                grow();
+            }
+        }
+
+        private void grow() {
+            int[] oldKeys = keys;
+            int[] oldCounts = counts;
+            keys = new int[oldKeys.length * 2];
+            counts = new int[oldKeys.length * 2];
+            int mask = keys.length - 1;
+            for (int j = 0; j < oldKeys.length; j++) {
+                if (oldKeys[j] != 0) {
+                    int i = slot(oldKeys[j] - 1, mask);
+                    while (keys[i] != 0) {
+                        i = (i + 1) & mask;
+                    }
+                    keys[i] = oldKeys[j];
+                    counts[i] = oldCounts[j];
+                }
+            }
+        }
+
+        private static int slot(int key, int mask) {
+            int hash = key * 0x9E3779B9;
+            return (hash ^ hash >>> 16) & mask;
+        }
+    }
+
+    /**
+     * Ranked neighbors of one listing: ids as (most, least significant bits) pairs and their scores
+     */
+    public static final class Neighbors {
+        private final long[] bits;
+        private final float[] scores;
+
+        public Neighbors(long[] bits, float[] scores) {
+            this.bits = bits;
+            this.scores = scores;
+        }
+
+        public int size() {
+            return scores.length;
+        }
+
+        public UUID listingId(int index) {
+            return new UUID(bits[2 * index], bits[2 * index + 1]);
+        }
+
+        public float score(int index) {
+            return scores[index];
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.commandlinecommandos.campusmarketplace.service;
+
+import com.commandlinecommandos.campusmarketplace.repository.ProductViewRepository;
+import com.commandlinecommandos.campusmarketplace.repository.UserListingView;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Decides in memory whether a view is a user's first view of a listing today
+ * (user, listing) pairs seen today go into a Bloom filter that is replaced by an empty one
+ * on the first view after midnight. A pair the filter has never seen is certainly a first
+ * view, so only possible repeats need the database. Each day's filter is seeded with the
+ * views already stored for that day, so a restart does not forget them; if seeding fails
+ * the day's filter is not trusted and every view is treated as a possible repeat.
+ * The filter is sized from expected-views-per-day and false-positive-rate; its current
+ * false positive rate is exported as "listing.views.dedupe.false_positive_rate".
+ */
+@Service
+public class DailyViewFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(DailyViewFilter.class);
+
+    @Autowired
+    private ProductViewRepository productViewRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.listings.views.dedupe.expected-views-per-day:200000}")
+    private long expectedViewsPerDay;
+
+    @Value("${app.listings.views.dedupe.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    private volatile Day current;
+    private Counter falsePositives;
+
+    @PostConstruct
+    void init() {
+        falsePositives = Counter.builder("listing.views.dedupe.false_positives")
+            .description("Views the daily filter took for repeats that were first views")
+            .register(meterRegistry);
+        Gauge.builder("listing.views.dedupe.false_positive_rate", this, DailyViewFilter::falsePositiveRate)
+            .description("Expected false positive rate of today's view filter")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Record a view of a listing by a user on a day
+     *
+     * @return true if it is certainly the user's first view of the listing that day,
+     *         false if it may be a repeat (check the database)
+     */
+    public boolean markViewed(UUID userId, UUID listingId, LocalDate date) {
+        Day day = current;
+        if (day == null || !day.date.equals(date)) {
+            day = rotate(date);
+            if (day == null) {
+                return false;  // an older day than the current filter: let the database decide
+            }
+        }
+        boolean added = day.filter.put(hash1(userId, listingId), hash2(userId, listingId));
+        return added && day.trusted;
+    }
+
+    /**
+     * Count a possible repeat that the database showed to be a first view
+     */
+    public void recordFalsePositive() {
+        falsePositives.increment();
+    }
+
+    double falsePositiveRate() {
+        Day day = current;
+        return day != null ? day.filter.expectedFalsePositiveRate() : 0;
+    }
+
+    /**
+     * Switch to a new filter for a later day, seeded with that day's stored views
+     *
+     * @return the day's filter, or null if the date is before the current day
+     */
+    private synchronized Day rotate(LocalDate date) {
+        Day day = current;
+        if (day != null && !date.isAfter(day.date)) {
+            return day.date.equals(date) ? day : null;
+        }
+        BloomFilter filter = new BloomFilter(expectedViewsPerDay, falsePositiveRate);
+        boolean trusted = true;
+        int seeded = 0;
+        try {
+            for (UserListingView view : productViewRepository.findViewsOn(date)) {
+                filter.put(hash1(view.getUserId(), view.getListingId()), hash2(view.getUserId(), view.getListingId()));
+                seeded++;
+            }
+        } catch (Exception e) {
+            trusted = false;
+            log.warn("Could not seed the view filter for {}, checking every view in the database: {}", date, e.getMessage());
+        }
+        day = new Day(date, filter, trusted);
+        current = day;
+        log.debug("View filter for {}: {} bits, {} hashes, {} views seeded", date, filter.bitCount(), filter.hashCount(), seeded);
+        return day;
+    }
+
+    private static long hash1(UUID userId, UUID listingId) {
+        long hash = mix(userId.getMostSignificantBits());
+        hash = mix(hash ^ userId.getLeastSignificantBits());
+        hash = mix(hash ^ listingId.getMostSignificantBits());
+        return mix(hash ^ listingId.getLeastSignificantBits());
+    }
+
+    private static long hash2(UUID userId, UUID listingId) {
+        return mix(hash1(userId, listingId) + 0x9E3779B97F4A7C15L);
+    }
+
+    // SplitMix64 finalizer
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static final class Day {
+        private final LocalDate date;
+        private final BloomFilter filter;
+        private final boolean trusted;
+
+        Day(LocalDate date, BloomFilter filter, boolean trusted) {
+            this.date = date;
+            this.filter = filter;
+            this.trusted = trusted;
+        }
+    }
+}
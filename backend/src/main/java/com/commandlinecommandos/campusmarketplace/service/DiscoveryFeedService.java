@@ -0,0 +1,124 @@
+package com.commandlinecommandos.campusmarketplace.service;
+
+import com.commandlinecommandos.campusmarketplace.dto.DiscoveryFeedResponse;
+import com.commandlinecommandos.campusmarketplace.dto.ProductSummary;
+import com.commandlinecommandos.campusmarketplace.model.User;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Service for the discovery home feed
+ * Trending, recommended, recently viewed and similar items are fetched at the same time, one
+ * virtual thread per section, for a user authenticated once by the caller. Every section has
+ * its own deadline counted from the start of the feed; a section that misses it (or fails) is
+ * cancelled and returned empty, and the response names it instead of failing the whole feed.
+ * Section outcomes are counted as "discovery.feed.sections" (tags section, outcome).
+ */
+@Service
+public class DiscoveryFeedService {
+
+    private static final Logger log = LoggerFactory.getLogger(DiscoveryFeedService.class);
+
+    @Autowired
+    private DiscoveryService discoveryService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.discovery.feed.trending-timeout-ms:500}")
+    private long trendingTimeoutMs;
+
+    @Value("${app.discovery.feed.recommended-timeout-ms:800}")
+    private long recommendedTimeoutMs;
+
+    @Value("${app.discovery.feed.recently-viewed-timeout-ms:500}")
+    private long recentlyViewedTimeoutMs;
+
+    @Value("${app.discovery.feed.similar-timeout-ms:800}")
+    private long similarTimeoutMs;
+
+    private final ExecutorService sectionThreads = Executors.newVirtualThreadPerTaskExecutor();
+
+    @PreDestroy
+    void shutdown() {
+        sectionThreads.shutdownNow();
+    }
+
+    /**
+     * Build the home feed of a user
+     *
+     * @param similarTo listing the similar section is about (null leaves the section empty)
+     * @param limit maximum number of products per section
+     */
+    public DiscoveryFeedResponse getFeed(User user, UUID similarTo, int limit) {
+        long start = System.nanoTime();
+        UUID universityId = user.getUniversity().getUniversityId();
+        Future<List<ProductSummary>> trending =
+            sectionThreads.submit(() -> discoveryService.getTrendingItems(universityId, limit));
+        Future<List<ProductSummary>> recommended =
+            sectionThreads.submit(() -> discoveryService.getRecommendedItems(user, limit));
+        Future<List<ProductSummary>> recentlyViewed =
+            sectionThreads.submit(() -> discoveryService.getRecentlyViewedItems(user, limit));
+        Callable<List<ProductSummary>> similarTask = similarTo != null
+            ? () -> discoveryService.getSimilarItems(similarTo, limit)
+            : List::of;
+        Future<List<ProductSummary>> similar = sectionThreads.submit(similarTask);
+
+        List<String> missing = new ArrayList<>();
+        return new DiscoveryFeedResponse(
+            await("trending", trending, start, trendingTimeoutMs, missing),
+            await("recommended", recommended, start, recommendedTimeoutMs, missing),
+            await("recentlyViewed", recentlyViewed, start, recentlyViewedTimeoutMs, missing),
+            await("similar", similar, start, similarTimeoutMs, missing),
+            missing);
+    }
+
+    /**
+     * Section items, or an empty list (and the section added to missing) if it missed its deadline or failed
+     */
+    private List<ProductSummary> await(String section, Future<List<ProductSummary>> future, long start,
+                                       long timeoutMs, List<String> missing) {
+        String outcome = "completed";
+        try {
+            long remaining = start + TimeUnit.MILLISECONDS.toNanos(timeoutMs) - System.nanoTime();
+            return future.get(Math.max(0, remaining), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            outcome = "timeout";
+            future.cancel(true);
+            log.warn("Discovery feed: {} did not answer within {}ms", section, timeoutMs);
+        } catch (ExecutionException e) {
+            outcome = "failed";
+            log.warn("Discovery feed: {} failed: {}", section, e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            outcome = "interrupted";
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+        } finally {
+            Counter.builder("discovery.feed.sections")
+                .description("Discovery feed sections by outcome")
+                .tag("section", section)
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .increment();
+        }
+        missing.add(section);
+        return List.of();
+    }
+}
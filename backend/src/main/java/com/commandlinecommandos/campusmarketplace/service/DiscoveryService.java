@@ -2,14 +2,12 @@ package com.commandlinecommandos.campusmarketplace.service;
 
 import com.commandlinecommandos.campusmarketplace.dto.ProductSummary;
 import com.commandlinecommandos.campusmarketplace.exception.NotFoundException;
-import com.commandlinecommandos.campusmarketplace.model.ModerationStatus;
 import com.commandlinecommandos.campusmarketplace.model.Product;
 import com.commandlinecommandos.campusmarketplace.model.ProductCategory;
-import com.commandlinecommandos.campusmarketplace.model.University;
 import com.commandlinecommandos.campusmarketplace.model.User;
 import com.commandlinecommandos.campusmarketplace.repository.ProductRepository;
-import com.commandlinecommandos.campusmarketplace.repository.ProductViewRepository;
-import com.commandlinecommandos.campusmarketplace.repository.UniversityRepository;
+import com.commandlinecommandos.campusmarketplace.repository.ProductSummaryView;
+import com.commandlinecommandos.campusmarketplace.search.ListingSearchIndex;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -18,7 +16,12 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -31,18 +34,31 @@ public class DiscoveryService {
     
     private static final Logger log = LoggerFactory.getLogger(DiscoveryService.class);
     
+    // Interest categories a recommendation draws from
+    private static final int MAX_INTEREST_CATEGORIES = 3;
+    
     @Autowired
     private ProductRepository productRepository;
     
     @Autowired
-    private ProductViewRepository productViewRepository;
+    private RecentlyViewedService recentlyViewedService;
+    
+    @Autowired
+    private TrendingService trendingService;
+    
+    @Autowired
+    private SimilarListingsService similarListingsService;
     
     @Autowired
-    private UniversityRepository universityRepository;
+    private InterestProfileService interestProfileService;
+    
+    @Autowired
+    private ListingSearchIndex listingSearchIndex;
     
     /**
      * Get trending products for a university
-     * Based on view count and favorite count
+     * Ranked by time-decayed views, favorites and messages held in memory by TrendingService;
+     * topped up with the most viewed listings while few listings have recent activity
      * 
      * @param universityId University UUID
      * @param limit Maximum number of products to return
@@ -50,19 +66,36 @@ public class DiscoveryService {
      */
     public List<ProductSummary> getTrendingItems(UUID universityId, int limit) {
         try {
-            // Get University entity
-            University university = universityRepository.findById(universityId)
-                .orElseThrow(() -> new RuntimeException("University not found"));
-            
-            // Get top products by views
-            List<Product> products = productRepository.findTopByViews(
-                university,
-                PageRequest.of(0, limit)
-            );
+            List<UUID> ids = trendingService.getTrending(universityId, limit);
+            List<ProductSummary> trending = new ArrayList<>(limit);
+            if (!ids.isEmpty()) {
+                // One keyed statement for the cards, then back into score order
+                Map<UUID, ProductSummaryView> byId = productRepository
+                    .findActiveSummariesByIdIn(ids, universityId)
+                    .stream()
+                    .collect(Collectors.toMap(ProductSummaryView::getProductId, p -> p));
+                ids.stream()
+                    .map(byId::get)
+                    .filter(Objects::nonNull)
+                    .map(this::transformToSummary)
+                    .forEach(trending::add);
+            }
             
-            List<ProductSummary> trending = products.stream()
-                .map(this::transformToSummary)
-                .collect(Collectors.toList());
+            if (trending.size() < limit) {
+                // Get top products by views (an unknown university simply has none)
+                Set<UUID> seen = trending.stream()
+                    .map(ProductSummary::getProductId)
+                    .collect(Collectors.toSet());
+                List<ProductSummaryView> products = productRepository.findTopSummariesByViews(
+                    universityId,
+                    PageRequest.of(0, limit)
+                );
+                products.stream()
+                    .filter(product -> !seen.contains(product.getProductId()))
+                    .limit(limit - trending.size())
+                    .map(this::transformToSummary)
+                    .forEach(trending::add);
+            }
             
             log.debug("Trending items: universityId={}, count={}", universityId, trending.size());
             return trending;
@@ -74,7 +107,8 @@ public class DiscoveryService {
     
     /**
      * Get recommended items for a user
-     * Based on their browsing history and interests
+     * Based on their interest profile: the strongest categories share the limit by weight,
+     * all fetched in one statement
      * Cached for 10 minutes per user
      * 
      * @param user User
@@ -84,38 +118,41 @@ public class DiscoveryService {
     @Cacheable(value = "recommendedItems", key = "#user.userId + '_' + #limit")
     public List<ProductSummary> getRecommendedItems(User user, int limit) {
         try {
-            // Get user's browsing history categories
-            List<ProductCategory> interests = getUserInterests(user);
+            UUID universityId = user.getUniversity().getUniversityId();
+            List<InterestProfileService.Interest> interests =
+                interestProfileService.getTopInterests(user.getUserId(), MAX_INTEREST_CATEGORIES);
             
             if (interests.isEmpty()) {
                 // No history, return trending items
-                return getTrendingItems(user.getUniversity().getUniversityId(), limit);
+                return getTrendingItems(universityId, limit);
             }
             
-            // Get products from user's interested categories
-            List<Product> recommended = new ArrayList<>();
-            int perCategory = Math.max(1, limit / interests.size());
-            
-            for (ProductCategory category : interests) {
-                List<Product> categoryProducts = productRepository
-                    .findByUniversityAndCategoryAndIsActiveTrueAndModerationStatus(
-                        user.getUniversity(),
-                        category,
-                        ModerationStatus.APPROVED,
-                        PageRequest.of(0, perCategory)
-                    ).getContent();
-                    
-                recommended.addAll(categoryProducts);
-                
-                if (recommended.size() >= limit) {
-                    break;
-                }
+            // Newest listings of every interest category, up to the whole limit each so short categories can be made up
+            Map<ProductCategory, List<ProductSummaryView>> candidates = new HashMap<>();
+            for (ProductSummaryView product : productRepository.findNewestSummariesPerCategory(
+                    universityId,
+                    interests.stream().map(InterestProfileService.Interest::getCategory).toList(),
+                    limit)) {
+                candidates.computeIfAbsent(product.getCategory(), c -> new ArrayList<>()).add(product);
             }
             
-            List<ProductSummary> result = recommended.stream()
-                .limit(limit)
-                .map(this::transformToSummary)
-                .collect(Collectors.toList());
+            // Each category's share follows its weight (at least one); what a category can't fill goes to the others
+            double totalWeight = interests.stream().mapToDouble(InterestProfileService.Interest::getWeight).sum();
+            List<ProductSummary> result = new ArrayList<>(limit);
+            Map<ProductCategory, Integer> taken = new HashMap<>();
+            for (InterestProfileService.Interest interest : interests) {
+                List<ProductSummaryView> products = candidates.getOrDefault(interest.getCategory(), List.of());
+                int share = (int) Math.max(1, Math.round(limit * interest.getWeight() / totalWeight));
+                int count = Math.min(products.size(), Math.min(share, limit - result.size()));
+                products.subList(0, count).forEach(product -> result.add(transformToSummary(product)));
+                taken.put(interest.getCategory(), count);
+            }
+            for (InterestProfileService.Interest interest : interests) {
+                List<ProductSummaryView> products = candidates.getOrDefault(interest.getCategory(), List.of());
+                int from = taken.get(interest.getCategory());
+                int count = Math.min(products.size() - from, limit - result.size());
+                products.subList(from, from + count).forEach(product -> result.add(transformToSummary(product)));
+            }
             
             log.debug("Recommended items: user={}, count={}", user.getUsername(), result.size());
             return result;
@@ -128,7 +165,9 @@ public class DiscoveryService {
     
     /**
      * Get similar items to a given product
-     * Based on category and other attributes
+     * Listings most often viewed together with it first (precomputed by SimilarListingsService),
+     * then listings with similar title and description (MinHash buckets of the search index),
+     * then other listings of the same category
      * 
      * @param productId Product UUID
      * @param limit Maximum number of products to return
@@ -138,23 +177,45 @@ public class DiscoveryService {
         try {
             Product product = productRepository.findById(productId)
                 .orElseThrow(() -> new NotFoundException("Product not found with id: " + productId));
+            UUID universityId = product.getUniversity().getUniversityId();
             
-            // Find products in the same category
-            List<Product> similar = productRepository
-                .findByUniversityAndCategoryAndIsActiveTrueAndModerationStatus(
-                    product.getUniversity(),
-                    product.getCategory(),
-                    ModerationStatus.APPROVED,
-                    PageRequest.of(0, limit + 1)  // +1 to exclude the product itself
-                ).getContent()
-                .stream()
-                .filter(p -> !p.getProductId().equals(productId))  // Exclude the product itself
-                .limit(limit)
-                .toList();
+            List<ProductSummary> result = new ArrayList<>(limit);
+            Set<UUID> candidates = new LinkedHashSet<>(similarListingsService.getSimilarListings(productId, limit));
+            if (candidates.size() < limit) {
+                candidates.addAll(listingSearchIndex.similar(universityId, productId, limit));
+            }
+            if (!candidates.isEmpty()) {
+                // Keep the candidate order; inactive listings and other campuses drop out
+                Map<UUID, ProductSummaryView> byId = productRepository
+                    .findActiveSummariesByIdIn(candidates, universityId)
+                    .stream()
+                    .collect(Collectors.toMap(ProductSummaryView::getProductId, p -> p));
+                candidates.stream()
+                    .map(byId::get)
+                    .filter(Objects::nonNull)
+                    .limit(limit)
+                    .map(this::transformToSummary)
+                    .forEach(result::add);
+            }
             
-            List<ProductSummary> result = similar.stream()
-                .map(this::transformToSummary)
-                .collect(Collectors.toList());
+            if (result.size() < limit) {
+                // Find products in the same category
+                Set<UUID> seen = result.stream()
+                    .map(ProductSummary::getProductId)
+                    .collect(Collectors.toSet());
+                productRepository
+                    .findSummariesByCategory(
+                        universityId,
+                        product.getCategory(),
+                        PageRequest.of(0, limit + 1)  // +1 to exclude the product itself
+                    )
+                    .stream()
+                    .filter(p -> !p.getProductId().equals(productId))  // Exclude the product itself
+                    .filter(p -> !seen.contains(p.getProductId()))
+                    .limit(limit - result.size())
+                    .map(this::transformToSummary)
+                    .forEach(result::add);
+            }
             
             log.debug("Similar items: productId={}, count={}", productId, result.size());
             return result;
@@ -170,23 +231,24 @@ public class DiscoveryService {
     
     /**
      * Get recently viewed items for a user
-     * Cached for 1 hour per user
+     * Read from the user's recently viewed ring, so a view shows up right away
      * 
      * @param user User
      * @param limit Maximum number of products to return
      * @return List of recently viewed products
      */
-    @Cacheable(value = "recentlyViewed", key = "#user.userId + '_' + #limit")
     public List<ProductSummary> getRecentlyViewedItems(User user, int limit) {
         try {
-            // Fetch products (seller will be loaded when accessed in transformToSummary)
-            List<Product> recentlyViewed = productViewRepository.findRecentlyViewedByUser(
-                user, PageRequest.of(0, limit)
-            );
+            List<UUID> ids = recentlyViewedService.getRecentlyViewed(user.getUserId(), limit);
             
-            // Transform to summaries (seller is accessed here, triggering lazy load)
-            // Since we're in a transaction context, lazy loading will work
-            List<ProductSummary> result = recentlyViewed.stream()
+            // One keyed statement for the listing columns and seller, then back into view order
+            Map<UUID, ProductSummaryView> byId = ids.isEmpty() ? Map.of() : productRepository
+                .findSummariesByIdIn(ids)
+                .stream()
+                .collect(Collectors.toMap(ProductSummaryView::getProductId, p -> p));
+            List<ProductSummary> result = ids.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
                 .map(this::transformToSummary)
                 .collect(Collectors.toList());
             
@@ -200,36 +262,9 @@ public class DiscoveryService {
     }
     
     /**
-     * Get user interests based on browsing history
-     * Analyzes recently viewed products to determine preferred categories
-     * 
-     * @param user User
-     * @return List of product categories the user is interested in
-     */
-    private List<ProductCategory> getUserInterests(User user) {
-        try {
-            List<Product> recentlyViewed = productViewRepository.findRecentlyViewedByUser(
-                user, PageRequest.of(0, 20)  // Last 20 viewed products
-            );
-            
-            // Count category occurrences
-            return recentlyViewed.stream()
-                .map(Product::getCategory)
-                .distinct()
-                .limit(3)  // Top 3 categories
-                .toList();
-        } catch (Exception e) {
-            log.error("Error determining user interests for {}: {}", 
-                     user.getUserId(), e.getMessage(), e);
-            return List.of();
-        }
-    }
-    
-    /**
-     * Transform Product to ProductSummary
-     * Handles null seller/university gracefully to avoid NPE
+     * Transform a product summary projection to ProductSummary
      */
-    private ProductSummary transformToSummary(Product product) {
+    private ProductSummary transformToSummary(ProductSummaryView product) {
         ProductSummary summary = new ProductSummary();
         summary.setProductId(product.getProductId());
         summary.setTitle(product.getTitle());
@@ -241,15 +276,10 @@ public class DiscoveryService {
         summary.setViewCount(product.getViewCount());
         summary.setFavoriteCount(product.getFavoriteCount());
         summary.setCreatedAt(product.getCreatedAt());
-        
-        // Handle null seller gracefully
-        if (product.getSeller() != null) {
-            summary.setSellerId(product.getSeller().getUserId());
-            summary.setSellerUsername(product.getSeller().getUsername());
-        }
-        
+        summary.setSellerId(product.getSellerId());
+        summary.setSellerUsername(product.getSellerUsername());
         summary.setLocation(product.getPickupLocation());
-        summary.setNegotiable(product.isNegotiable());
+        summary.setNegotiable(product.getNegotiable());
         summary.setQuantity(product.getQuantity());
         return summary;
     }
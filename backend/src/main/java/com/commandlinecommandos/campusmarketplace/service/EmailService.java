@@ -156,6 +156,16 @@ public class EmailService {
         logger.info("Message notification email sent to: {}", to);
     }
     
+    /**
+     * Send notification when a new listing matches a saved search
+     */
+    public void sendSavedSearchMatchEmail(String to, String recipientName, String searchName, String listingTitle) {
+        String subject = "New match for your saved search \"" + searchName + "\"";
+        String body = buildSavedSearchMatchEmailBody(recipientName, searchName, listingTitle);
+        sendEmail(to, subject, body);
+        logger.info("Saved search match email sent to: {}", to);
+    }
+    
     /**
      * Send notification when a listing is rejected
      */
@@ -336,6 +346,19 @@ public class EmailService {
         );
     }
     
+    private String buildSavedSearchMatchEmailBody(String recipientName, String searchName, String listingTitle) {
+        String recipient = (recipientName != null && !recipientName.trim().isEmpty()) ? recipientName : "there";
+        return String.format(
+            "Hi %s,\n\n" +
+            "A new listing matches your saved search \"%s\":\n\n" +
+            "%s\n\n" +
+            "Log in to Campus Marketplace to see it before it's gone.\n\n" +
+            "Best regards,\n" +
+            "Campus Marketplace Team",
+            recipient, searchName, listingTitle
+        );
+    }
+    
     private String buildListingRejectedEmailBody(String username, String listingTitle, String reason) {
         String rejectionReason = (reason != null && !reason.trim().isEmpty()) 
             ? reason 
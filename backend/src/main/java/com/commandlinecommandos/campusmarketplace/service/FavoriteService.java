@@ -29,6 +29,12 @@ public class FavoriteService {
     @Autowired
     private ProductRepository productRepository;
     
+    @Autowired
+    private TrendingService trendingService;
+    
+    @Autowired
+    private InterestProfileService interestProfileService;
+    
     /**
      * Add product to favorites
      */
@@ -51,6 +57,8 @@ public class FavoriteService {
         // Update product favorite count
         product.setFavoriteCount(product.getFavoriteCount() + 1);
         productRepository.save(product);
+        trendingService.recordFavorite(product);
+        interestProfileService.recordFavorite(user.getUserId(), product.getCategory());
         
         return favoriteRepository.save(favorite);
     }
@@ -0,0 +1,188 @@
+package com.commandlinecommandos.campusmarketplace.service;
+
+import com.commandlinecommandos.campusmarketplace.model.ProductCategory;
+import com.commandlinecommandos.campusmarketplace.repository.CategoryActivity;
+import com.commandlinecommandos.campusmarketplace.repository.ProductViewRepository;
+import com.commandlinecommandos.campusmarketplace.repository.UserFavoriteRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Service for per-user category interests
+ * A user's interests are one decaying weight per category, a float array indexed by
+ * ProductCategory.ordinal(): every view or favorite adds its weight to the listing's category
+ * and all weights halve every half-life. Profiles are updated in place as views and favorites
+ * happen; a user's profile is built once from their recent views and favorites on first use.
+ */
+@Service
+public class InterestProfileService {
+
+    private static final ProductCategory[] CATEGORIES = ProductCategory.values();
+
+    @Autowired
+    private ProductViewRepository productViewRepository;
+
+    @Autowired
+    private UserFavoriteRepository userFavoriteRepository;
+
+    @Value("${app.discovery.interests.half-life-days:14}")
+    private double halfLifeDays;
+
+    @Value("${app.discovery.interests.view-weight:1}")
+    private float viewWeight;
+
+    @Value("${app.discovery.interests.favorite-weight:3}")
+    private float favoriteWeight;
+
+    @Value("${app.discovery.interests.seed-days:60}")
+    private int seedDays;
+
+    @Value("${app.discovery.interests.max-profiles:50000}")
+    private long maxProfiles;
+
+    private Cache<UUID, Profile> profiles;
+    private double halfLifeMillis;
+
+    @PostConstruct
+    void init() {
+        halfLifeMillis = halfLifeDays * Duration.ofDays(1).toMillis();
+        profiles = Caffeine.newBuilder()
+            .maximumSize(maxProfiles)
+            .expireAfterAccess(Duration.ofDays(seedDays))
+            .build();
+    }
+
+    /**
+     * Count a (first daily) view of a listing in the given category
+     */
+    public void recordView(UUID userId, ProductCategory category) {
+        record(userId, category, viewWeight, System.currentTimeMillis());
+    }
+
+    /**
+     * Count a favorite of a listing in the given category
+     */
+    public void recordFavorite(UUID userId, ProductCategory category) {
+        record(userId, category, favoriteWeight, System.currentTimeMillis());
+    }
+
+    /**
+     * A user's strongest interests, strongest first, with their current weights
+     * Categories the user never engaged with are left out
+     */
+    public List<Interest> getTopInterests(UUID userId, int limit) {
+        return getTopInterests(userId, limit, System.currentTimeMillis());
+    }
+
+    List<Interest> getTopInterests(UUID userId, int limit, long nowMillis) {
+        float[] weights = profiles.get(userId, this::load).weights(nowMillis, halfLifeMillis);
+        List<Interest> interests = new ArrayList<>();
+        for (int i = 0; i < weights.length; i++) {
+            if (weights[i] > 0) {
+                interests.add(new Interest(CATEGORIES[i], weights[i]));
+            }
+        }
+        interests.sort(Comparator.comparingDouble(Interest::getWeight).reversed());
+        return interests.size() > limit ? interests.subList(0, limit) : interests;
+    }
+
+    void record(UUID userId, ProductCategory category, float weight, long atMillis) {
+        if (userId == null || category == null) {
+            return;
+        }
+        // Profiles not loaded yet pick this event up from the database when they are
+        Profile profile = profiles.getIfPresent(userId);
+        if (profile != null) {
+            profile.add(category.ordinal(), weight, atMillis, halfLifeMillis);
+        }
+    }
+
+    private Profile load(UUID userId) {
+        LocalDateTime since = LocalDateTime.now().minusDays(seedDays);
+        Profile profile = new Profile();
+        replay(profile, productViewRepository.findCategoryActivitySince(userId, since), viewWeight);
+        replay(profile, userFavoriteRepository.findCategoryActivitySince(userId, since), favoriteWeight);
+        return profile;
+    }
+
+    private void replay(Profile profile, List<CategoryActivity> activity, float weight) {
+        for (CategoryActivity event : activity) {
+            if (event.getCategory() != null && event.getOccurredAt() != null) {
+                long at = event.getOccurredAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+                profile.add(event.getCategory().ordinal(), weight, at, halfLifeMillis);
+            }
+        }
+    }
+
+    /**
+     * Category weights as of updatedAtMillis
+     */
+    private static final class Profile {
+        private final float[] weights = new float[CATEGORIES.length];
+        private long updatedAtMillis;
+
+        synchronized void add(int category, float weight, long atMillis, double halfLifeMillis) {
+            if (atMillis >= updatedAtMillis) {
+                decay(atMillis, halfLifeMillis);
+                weights[category] += weight;
+            } else {
+                // Older event (seeding is not in time order): decay it to the profile's time instead
+                weights[category] += (float) (weight * Math.pow(2, (atMillis - updatedAtMillis) / halfLifeMillis));
+            }
+        }
+
+        synchronized float[] weights(long nowMillis, double halfLifeMillis) {
+            float[] current = weights.clone();
+            if (nowMillis > updatedAtMillis) {
+                float factor = (float) Math.pow(2, (updatedAtMillis - nowMillis) / halfLifeMillis);
+                for (int i = 0; i < current.length; i++) {
+                    current[i] *= factor;
+                }
+            }
+            return current;
+        }
+
+        private void decay(long nowMillis, double halfLifeMillis) {
+            if (updatedAtMillis > 0) {
+                float factor = (float) Math.pow(2, (updatedAtMillis - nowMillis) / halfLifeMillis);
+                for (int i = 0; i < weights.length; i++) {
+                    weights[i] *= factor;
+                }
+            }
+            updatedAtMillis = nowMillis;
+        }
+    }
+
+    /**
+     * One category of interest and how strong it is
+     */
+    public static final class Interest {
+        private final ProductCategory category;
+        private final float weight;
+
+        public Interest(ProductCategory category, float weight) {
+            this.category = category;
+            this.weight = weight;
+        }
+
+        public ProductCategory getCategory() {
+            return category;
+        }
+
+        public float getWeight() {
+            return weight;
+        }
+    }
+}
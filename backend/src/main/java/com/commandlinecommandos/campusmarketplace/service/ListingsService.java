@@ -5,12 +5,19 @@ import com.commandlinecommandos.campusmarketplace.dto.SellerSummary;
 import com.commandlinecommandos.campusmarketplace.dto.ListingImage;
 import com.commandlinecommandos.campusmarketplace.model.*;
 import com.commandlinecommandos.campusmarketplace.repository.ProductRepository;
+import com.commandlinecommandos.campusmarketplace.repository.ProductSpecifications;
 import com.commandlinecommandos.campusmarketplace.repository.UserRepository;
+import com.commandlinecommandos.campusmarketplace.search.CampusLocationResolver;
+import com.commandlinecommandos.campusmarketplace.search.ListingSearchIndex;
+import com.commandlinecommandos.campusmarketplace.search.SearchCursor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -39,6 +46,21 @@ public class ListingsService {
     @Autowired(required = false)
     private EmailService emailService;
 
+    @Autowired
+    private ListingSearchIndex listingSearchIndex;
+
+    @Autowired
+    private SavedSearchService savedSearchService;
+
+    @Autowired
+    private CampusLocationResolver locationResolver;
+
+    @Autowired
+    private TrendingService trendingService;
+
+    @Autowired
+    private ViewCountBuffer viewCountBuffer;
+
     /**
      * Get all active listings with pagination
      */
@@ -49,6 +71,29 @@ public class ListingsService {
                 pageable);
     }
 
+    /**
+     * Keyset page of the listings feed, newest first (createdAt, then listing id)
+     * Fetches one extra row to detect the next page instead of running a COUNT
+     *
+     * @param category optional category filter
+     * @param cursor position to continue after, or null for the first page
+     */
+    public Slice<Product> getListingsAfter(ProductCategory category, SearchCursor cursor, int size) {
+        Specification<Product> spec = ProductSpecifications.isActive().and(ProductSpecifications.isApproved());
+        if (category != null) {
+            spec = spec.and(ProductSpecifications.hasCategory(category));
+        }
+        if (cursor != null) {
+            spec = spec.and(ProductSpecifications.afterCursor(cursor));
+        }
+
+        Sort sort = Sort.by(Sort.Direction.DESC, "createdAt", "productId");
+        List<Product> rows = productRepository.findBy(spec, query -> query.sortBy(sort).limit(size + 1).all());
+
+        boolean hasNext = rows.size() > size;
+        return new SliceImpl<>(hasNext ? rows.subList(0, size) : rows, PageRequest.of(0, size), hasNext);
+    }
+
     /**
      * Get listings by category
      */
@@ -139,6 +184,7 @@ public class ListingsService {
         // Parse location/pickup location
         if (listingData.containsKey("location")) {
             product.setPickupLocation((String) listingData.get("location"));
+            product.setLocationId(resolveLocation(product));
         }
 
         // Parse image URLs
@@ -159,6 +205,8 @@ public class ListingsService {
         product.publish();
 
         Product savedProduct = productRepository.save(product);
+        listingSearchIndex.indexAfterCommit(savedProduct);
+        savedSearchService.percolateAfterCommit(savedProduct);
         
         // Send email notification for listing creation
         org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(ListingsService.class);
@@ -243,6 +291,7 @@ public class ListingsService {
         }
         if (updates.containsKey("location")) {
             product.setPickupLocation((String) updates.get("location"));
+            product.setLocationId(resolveLocation(product));
         }
         if (updates.containsKey("negotiable")) {
             product.setNegotiable((Boolean) updates.get("negotiable"));
@@ -265,7 +314,10 @@ public class ListingsService {
             }
         }
 
-        return productRepository.save(product);
+        Product savedProduct = productRepository.save(product);
+        listingSearchIndex.indexAfterCommit(savedProduct);
+        trendingService.update(savedProduct);
+        return savedProduct;
     }
 
     /**
@@ -283,6 +335,8 @@ public class ListingsService {
         // Soft delete
         product.setActive(false);
         productRepository.save(product);
+        listingSearchIndex.indexAfterCommit(product);
+        trendingService.update(product);
     }
 
     /**
@@ -422,7 +476,9 @@ public class ListingsService {
         }
 
         // Metrics
-        response.setViewCount(product.getViewCount() != null ? product.getViewCount() : 0);
+        // Views still waiting in the buffer are included so a fresh view shows up right away
+        int viewCount = product.getViewCount() != null ? product.getViewCount() : 0;
+        response.setViewCount(viewCount + (int) viewCountBuffer.pendingViews(product.getProductId()));
         response.setFavoriteCount(product.getFavoriteCount() != null ? product.getFavoriteCount() : 0);
         response.setFavorite(isFavorite);
 
@@ -435,4 +491,12 @@ public class ListingsService {
 
         return response;
     }
+
+    /**
+     * Campus location dictionary id for the product's pickup text (null if none matches)
+     */
+    private Integer resolveLocation(Product product) {
+        UUID universityId = product.getUniversity() != null ? product.getUniversity().getUniversityId() : null;
+        return locationResolver.resolveListing(universityId, product.getPickupLocation());
+    }
 }
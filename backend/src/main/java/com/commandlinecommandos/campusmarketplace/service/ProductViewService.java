@@ -5,19 +5,24 @@ import com.commandlinecommandos.campusmarketplace.model.ProductView;
 import com.commandlinecommandos.campusmarketplace.model.User;
 import com.commandlinecommandos.campusmarketplace.repository.ProductRepository;
 import com.commandlinecommandos.campusmarketplace.repository.ProductViewRepository;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.PageRequest;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 /**
  * Service for tracking product views
@@ -34,43 +39,80 @@ public class ProductViewService {
     @Autowired
     private ProductRepository productRepository;
     
+    @Autowired
+    private TrendingService trendingService;
+    
+    @Autowired
+    private SimilarListingsService similarListingsService;
+    
+    @Autowired
+    private InterestProfileService interestProfileService;
+    
+    @Autowired
+    private RecentlyViewedService recentlyViewedService;
+    
+    @Autowired
+    private ViewCountBuffer viewCountBuffer;
+    
+    @Autowired
+    private DailyViewFilter dailyViewFilter;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    private TransactionTemplate newTransaction;
+    
+    @PostConstruct
+    void init() {
+        newTransaction = new TransactionTemplate(transactionManager);
+        newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+    
     /**
      * Track a product view asynchronously
-     * Upserts view record (one per user per product per day)
-     * Also increments product view count
+     * Upserts view record (one per user per product per day). First views of the day are told
+     * apart in memory by DailyViewFilter, so only possible repeats are checked in the database.
+     * The filter only knows this instance's views, so a first view whose row already exists
+     * (stored by another instance or a concurrent request) is treated as a repeat.
+     * The first view of the day also counts towards the product's view count (buffered by
+     * ViewCountBuffer), its trending score and the user's interest in the product's category.
+     * The recently viewed ring is updated separately on the request thread (recordRecentView).
      * 
      * @param user The user viewing the product
      * @param product The product being viewed
      */
     @Async
-    @Transactional
     public void trackView(User user, Product product) {
         try {
             LocalDate today = LocalDate.now();
             LocalDateTime now = LocalDateTime.now();
             
-            // Check if view already exists today
-            Optional<ProductView> existingView = productViewRepository
-                .findByUserAndProductAndViewedAtDate(user, product, today);
+            // The daily filter knows first views for certain; only possible repeats touch product_views
+            boolean firstView = dailyViewFilter.markViewed(user.getUserId(), product.getProductId(), today);
+            if (!firstView) {
+                if (updateViewTime(user, product, today, now)) {
+                    log.debug("Updated view timestamp for user {} on product {}", 
+                             user.getUserId(), product.getProductId());
+                } else {
+                    // Filter false positive: not viewed today after all
+                    dailyViewFilter.recordFalsePositive();
+                    firstView = true;
+                }
+            }
             
-            if (existingView.isPresent()) {
-                // Update timestamp of existing view
-                productViewRepository.updateViewTime(user, product, today, now);
-                log.debug("Updated view timestamp for user {} on product {}", 
+            if (firstView && !insertView(user, product, today, now)) {
+                // Already stored today by another instance or a concurrent request
+                updateViewTime(user, product, today, now);
+                firstView = false;
+                log.debug("View record for user {} on product {} already existed", 
                          user.getUserId(), product.getProductId());
-            } else {
-                // Create new view record
-                ProductView view = new ProductView();
-                view.setUser(user);
-                view.setProduct(product);
-                view.setViewedAt(now);
-                view.setViewedAtDate(today);
-                    
-                productViewRepository.save(view);
-                
-                // Increment product view count
-                product.incrementViewCount();
-                productRepository.save(product);
+            }
+            
+            if (firstView) {
+                // Counted in memory and added to view_count in batches, never by saving the product
+                viewCountBuffer.increment(product.getProductId());
+                trendingService.recordView(product);
+                interestProfileService.recordView(user.getUserId(), product.getCategory());
                 
                 log.debug("Created new view record for user {} on product {}", 
                          user.getUserId(), product.getProductId());
@@ -82,6 +124,45 @@ public class ProductViewService {
         }
     }
     
+    /**
+     * Move a viewed product to the front of the user's recently viewed ring
+     * Called on the request thread before trackView, so the user's next read already sees the view
+     */
+    public void recordRecentView(User user, Product product) {
+        try {
+            recentlyViewedService.record(user.getUserId(), product.getProductId());
+        } catch (Exception e) {
+            log.error("Error recording recently viewed product: user={}, product={}", 
+                     user.getUserId(), product.getProductId(), e);
+            // Don't throw exception - view tracking should not break product viewing
+        }
+    }
+    
+    /**
+     * Store the day's view record in its own transaction
+     * 
+     * @return false if the user already has a view record for the product that day
+     */
+    private boolean insertView(User user, Product product, LocalDate today, LocalDateTime now) {
+        ProductView view = new ProductView();
+        view.setUser(user);
+        view.setProduct(product);
+        view.setViewedAt(now);
+        view.setViewedAtDate(today);
+        try {
+            // A duplicate only rolls back this transaction, not the caller's
+            newTransaction.executeWithoutResult(status -> productViewRepository.saveAndFlush(view));
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            return false;
+        }
+    }
+    
+    private boolean updateViewTime(User user, Product product, LocalDate today, LocalDateTime now) {
+        Integer updated = newTransaction.execute(status -> productViewRepository.updateViewTime(user, product, today, now));
+        return updated != null && updated > 0;
+    }
+    
     /**
      * Get recently viewed products for a user
      * 
@@ -90,19 +171,22 @@ public class ProductViewService {
      * @return List of recently viewed products
      */
     public List<Product> getRecentlyViewedProducts(User user, int limit) {
-        return productViewRepository.findRecentlyViewedByUser(user, PageRequest.of(0, limit));
+        List<UUID> ids = recentlyViewedService.getRecentlyViewed(user.getUserId(), limit);
+        Map<UUID, Product> byId = productRepository.findAllById(ids).stream()
+            .collect(Collectors.toMap(Product::getProductId, product -> product));
+        return ids.stream().map(byId::get).filter(Objects::nonNull).toList();
     }
     
     /**
      * Get products frequently viewed together with a given product
-     * Used for "customers also viewed" recommendations
+     * Used for "customers also viewed" recommendations; precomputed by SimilarListingsService
      * 
      * @param productId The product ID
      * @param limit Maximum number of recommendations
      * @return List of product IDs
      */
     public List<UUID> getFrequentlyViewedTogether(UUID productId, int limit) {
-        return productViewRepository.findFrequentlyViewedTogether(productId, limit);
+        return similarListingsService.getSimilarListings(productId, limit);
     }
     
     /**
@@ -0,0 +1,173 @@
+package com.commandlinecommandos.campusmarketplace.service;
+
+import com.commandlinecommandos.campusmarketplace.cache.RecentlyViewedRing;
+import com.commandlinecommandos.campusmarketplace.repository.ProductViewRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisStringCommands.SetOption;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.serializer.RedisSerializationContext.SerializationPair;
+import org.springframework.data.redis.util.ByteUtils;
+import org.springframework.stereotype.Service;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Service for a user's recently viewed listings
+ * Each user has a bounded, deduplicated most-recent-first ring of listing ids in the
+ * "recentlyViewedIds" cache (Redis or Caffeine), updated on every view, so reads are always
+ * current and never scan product_views. A user without a ring in the cache (new, evicted or
+ * after a cache flush) gets one built once from their latest views.
+ * Concurrent views by the same user are applied atomically: with a compute on the in-memory
+ * caches and an optimistic WATCH/MULTI transaction on Redis.
+ */
+@Service
+public class RecentlyViewedService {
+
+    public static final String CACHE_NAME = "recentlyViewedIds";
+
+    private static final Logger log = LoggerFactory.getLogger(RecentlyViewedService.class);
+
+    // Retries of a Redis update whose ring was changed by a concurrent view
+    private static final int REDIS_UPDATE_ATTEMPTS = 5;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private ProductViewRepository productViewRepository;
+
+    @Autowired
+    private RedisConnectionFactory redisConnectionFactory;
+
+    @Value("${app.discovery.recently-viewed.capacity:50}")
+    private int capacity;
+
+    /**
+     * Move a listing to the front of a user's ring
+     */
+    public void record(UUID userId, UUID listingId) {
+        Cache cache = cache();
+        if (cache instanceof TransactionAwareCacheDecorator) {
+            // The ring is not transactional state; update it now rather than after a commit
+            cache = ((TransactionAwareCacheDecorator) cache).getTargetCache();
+        }
+        String key = userId.toString();
+        if (cache instanceof RedisCache) {
+            recordInRedis((RedisCache) cache, userId, listingId);
+            return;
+        }
+        ConcurrentMap<Object, Object> map = nativeMap(cache);
+        if (map == null) {
+            cache.put(key, load(cache, userId).withFirst(listingId, capacity));
+            return;
+        }
+        // Built outside the compute so the database is not queried while the entry is locked
+        RecentlyViewedRing history = map.containsKey(key) ? null : fromHistory(userId);
+        map.compute(key, (k, current) -> {
+            RecentlyViewedRing ring = current instanceof RecentlyViewedRing ? (RecentlyViewedRing) current
+                : history != null ? history : fromHistory(userId);
+            return ring.withFirst(listingId, capacity);
+        });
+    }
+
+    /**
+     * Up to limit listing ids the user viewed, most recent first
+     */
+    public List<UUID> getRecentlyViewed(UUID userId, int limit) {
+        return load(cache(), userId).first(limit);
+    }
+
+    private RecentlyViewedRing load(Cache cache, UUID userId) {
+        RecentlyViewedRing ring = null;
+        try {
+            ring = cache.get(userId.toString(), RecentlyViewedRing.class);
+        } catch (RuntimeException e) {
+            log.warn("Could not read recently viewed ring of user {}: {}", userId, e.getMessage());
+        }
+        if (ring == null) {
+            ring = fromHistory(userId);
+            // A view recorded meanwhile wins over the ring built from older history
+            Cache.ValueWrapper existing = cache.putIfAbsent(userId.toString(), ring);
+            if (existing != null && existing.get() instanceof RecentlyViewedRing) {
+                ring = (RecentlyViewedRing) existing.get();
+            }
+        }
+        return ring;
+    }
+
+    private RecentlyViewedRing fromHistory(UUID userId) {
+        return RecentlyViewedRing.of(
+            productViewRepository.findRecentlyViewedListingIds(userId, PageRequest.of(0, capacity)), capacity);
+    }
+
+    /**
+     * Read-modify-write of the ring under WATCH, retried if another view changed it first
+     */
+    private void recordInRedis(RedisCache cache, UUID userId, UUID listingId) {
+        RedisCacheConfiguration config = cache.getCacheConfiguration();
+        SerializationPair<Object> values = config.getValueSerializationPair();
+        String prefix = config.usePrefix() ? config.getKeyPrefixFor(cache.getName()) : "";
+        byte[] key = (prefix + userId).getBytes(StandardCharsets.UTF_8);
+
+        try (RedisConnection connection = redisConnectionFactory.getConnection()) {
+            for (int attempt = 0; attempt < REDIS_UPDATE_ATTEMPTS; attempt++) {
+                connection.watch(key);
+                byte[] raw = connection.stringCommands().get(key);
+                Object stored = raw != null ? values.read(ByteBuffer.wrap(raw)) : null;
+                RecentlyViewedRing ring = (stored instanceof RecentlyViewedRing
+                    ? (RecentlyViewedRing) stored : fromHistory(userId)).withFirst(listingId, capacity);
+                Duration ttl = config.getTtlFunction().getTimeToLive(userId.toString(), ring);
+
+                connection.multi();
+                connection.stringCommands().set(key, ByteUtils.getBytes(values.write(ring)),
+                    ttl != null && ttl.toMillis() > 0 ? Expiration.from(ttl) : Expiration.persistent(),
+                    SetOption.upsert());
+                List<Object> result = connection.exec();
+                if (result != null && !result.isEmpty()) {
+                    return;
+                }
+            }
+        }
+        log.warn("Gave up recording listing {} as viewed by user {} after {} conflicting updates",
+            listingId, userId, REDIS_UPDATE_ATTEMPTS);
+    }
+
+    /**
+     * Backing map of an in-memory cache (Caffeine or ConcurrentMap), or null for other caches
+     */
+    @SuppressWarnings("unchecked")
+    private static ConcurrentMap<Object, Object> nativeMap(Cache cache) {
+        Object nativeCache = cache.getNativeCache();
+        if (nativeCache instanceof com.github.benmanes.caffeine.cache.Cache) {
+            return ((com.github.benmanes.caffeine.cache.Cache<Object, Object>) nativeCache).asMap();
+        }
+        if (nativeCache instanceof ConcurrentMap) {
+            return (ConcurrentMap<Object, Object>) nativeCache;
+        }
+        return null;
+    }
+
+    private Cache cache() {
+        Cache cache = cacheManager.getCache(CACHE_NAME);
+        if (cache == null) {
+            throw new IllegalStateException("Cache " + CACHE_NAME + " is not configured");
+        }
+        return cache;
+    }
+}
@@ -6,6 +6,7 @@ import com.commandlinecommandos.campusmarketplace.model.*;
 import com.commandlinecommandos.campusmarketplace.repository.UserReportRepository;
 import com.commandlinecommandos.campusmarketplace.repository.ProductRepository;
 import com.commandlinecommandos.campusmarketplace.repository.UserRepository;
+import com.commandlinecommandos.campusmarketplace.search.ListingSearchIndex;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -36,6 +37,12 @@ public class ReportService {
     
     @Autowired(required = false)
     private EmailService emailService;
+
+    @Autowired
+    private ListingSearchIndex listingSearchIndex;
+    
+    @Autowired
+    private TrendingService trendingService;
     
     /**
      * Submit a report
@@ -137,6 +144,8 @@ public class ReportService {
             product.setActive(false);  // Hide from marketplace
             product.setModerationStatus(ModerationStatus.REJECTED);  // Mark as rejected by admin
             productRepository.save(product);
+            listingSearchIndex.indexAfterCommit(product);
+            trendingService.update(product);
             
             // Send email notification to seller
             sendListingRejectionEmail(product, resolutionNotes);
@@ -164,6 +173,8 @@ public class ReportService {
             product.setActive(false);  // Hide from marketplace
             product.setModerationStatus(ModerationStatus.REJECTED);  // Mark as rejected by admin
             productRepository.save(product);
+            listingSearchIndex.indexAfterCommit(product);
+            trendingService.update(product);
             
             // Send email notification to seller
             sendListingRejectionEmail(product, resolutionNotes);
@@ -0,0 +1,227 @@
+package com.commandlinecommandos.campusmarketplace.service;
+
+import com.commandlinecommandos.campusmarketplace.communication.service.EmailNotificationService;
+import com.commandlinecommandos.campusmarketplace.dto.SavedSearchItem;
+import com.commandlinecommandos.campusmarketplace.dto.SearchRequest;
+import com.commandlinecommandos.campusmarketplace.exception.NotFoundException;
+import com.commandlinecommandos.campusmarketplace.model.Product;
+import com.commandlinecommandos.campusmarketplace.model.ProductCategory;
+import com.commandlinecommandos.campusmarketplace.model.ProductCondition;
+import com.commandlinecommandos.campusmarketplace.model.SavedSearch;
+import com.commandlinecommandos.campusmarketplace.model.User;
+import com.commandlinecommandos.campusmarketplace.repository.SavedSearchRepository;
+import com.commandlinecommandos.campusmarketplace.search.CampusLocationResolver;
+import com.commandlinecommandos.campusmarketplace.search.IndexedListing;
+import com.commandlinecommandos.campusmarketplace.search.PercolatorQuery;
+import com.commandlinecommandos.campusmarketplace.search.SavedSearchPercolator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Service for saved searches
+ * Stores search criteria per user and keeps the percolator in sync, so every new listing is
+ * matched against the saved searches once and their owners are notified, instead of each
+ * owner re-running the search to look for new items.
+ */
+@Service
+public class SavedSearchService {
+
+    private static final Logger log = LoggerFactory.getLogger(SavedSearchService.class);
+
+    @Autowired
+    private SavedSearchRepository savedSearchRepository;
+
+    @Autowired
+    private SavedSearchPercolator percolator;
+
+    @Autowired
+    private CampusLocationResolver locationResolver;
+
+    @Autowired
+    private EmailNotificationService emailNotificationService;
+
+    @Value("${app.search.saved.max-per-user:20}")
+    private int maxPerUser;
+
+    /**
+     * Saved searches of a user, newest first
+     */
+    @Transactional(readOnly = true)
+    public List<SavedSearchItem> getSavedSearches(User user) {
+        return savedSearchRepository.findByUserOrderByCreatedAtDesc(user).stream()
+            .map(this::toItem)
+            .toList();
+    }
+
+    /**
+     * Store search criteria for the user and start matching new listings against them
+     *
+     * @throws IllegalArgumentException if the name or criteria are invalid or the user is at the limit
+     */
+    @Transactional
+    public SavedSearchItem saveSearch(User user, String name, SearchRequest criteria, Boolean notify) {
+        if (user.getUniversity() == null) {
+            throw new IllegalArgumentException("User must have a university assigned to save searches");
+        }
+        if (name == null || name.trim().isEmpty() || name.trim().length() > 100) {
+            throw new IllegalArgumentException("name: must be between 1 and 100 characters");
+        }
+        if (criteria == null) {
+            throw new IllegalArgumentException("criteria: must not be null");
+        }
+        if (criteria.getMinPrice() != null && criteria.getMaxPrice() != null
+                && criteria.getMinPrice().compareTo(criteria.getMaxPrice()) > 0) {
+            throw new IllegalArgumentException("minPrice cannot be greater than maxPrice");
+        }
+        if (savedSearchRepository.countByUser(user) >= maxPerUser) {
+            throw new IllegalArgumentException("You can save at most " + maxPerUser + " searches");
+        }
+
+        SavedSearch savedSearch = new SavedSearch();
+        savedSearch.setUser(user);
+        savedSearch.setUniversityId(user.getUniversity().getUniversityId());
+        savedSearch.setName(name.trim());
+        savedSearch.setSearchQuery(blankToNull(criteria.getQuery()));
+        savedSearch.setCategories(joinEnums(criteria.getCategories()));
+        savedSearch.setConditions(joinEnums(criteria.getConditions()));
+        savedSearch.setMinPrice(criteria.getMinPrice());
+        savedSearch.setMaxPrice(criteria.getMaxPrice());
+        savedSearch.setLocation(blankToNull(criteria.getLocation()));
+        savedSearch.setNotify(notify == null || notify);
+        savedSearch = savedSearchRepository.save(savedSearch);
+
+        if (savedSearch.isNotify()) {
+            PercolatorQuery query = compile(savedSearch, user.getUserId());
+            afterCommit(() -> percolator.register(query));
+        }
+        log.info("Saved search created: user={}, name='{}'", user.getUsername(), savedSearch.getName());
+        return toItem(savedSearch);
+    }
+
+    /**
+     * Delete one of the user's saved searches
+     *
+     * @throws NotFoundException if the user has no saved search with that id
+     */
+    @Transactional
+    public void deleteSavedSearch(User user, UUID savedSearchId) {
+        SavedSearch savedSearch = savedSearchRepository.findByIdAndUser(savedSearchId, user)
+            .orElseThrow(() -> new NotFoundException("Saved search not found with id: " + savedSearchId));
+        savedSearchRepository.delete(savedSearch);
+        afterCommit(() -> percolator.unregister(savedSearchId));
+    }
+
+    /**
+     * Match a new listing against the saved searches once its transaction commits
+     * Owners get one notification per listing however many of their searches match,
+     * sellers are not notified about their own listings
+     */
+    public void percolateAfterCommit(Product product) {
+        if (product.getProductId() == null) {
+            return;
+        }
+        IndexedListing listing = IndexedListing.from(product);
+        afterCommit(() -> notifyMatches(listing));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void loadPercolator() {
+        List<PercolatorQuery> queries = savedSearchRepository.findAllToNotify().stream()
+            .map(savedSearch -> compile(savedSearch, savedSearch.getUser().getUserId()))
+            .toList();
+        percolator.replaceAll(queries);
+        log.info("Saved search percolator loaded: {} queries", queries.size());
+    }
+
+    private void notifyMatches(IndexedListing listing) {
+        try {
+            List<PercolatorQuery> matches = percolator.match(listing);
+            Set<UUID> notified = new HashSet<>();
+            for (PercolatorQuery match : matches) {
+                if (!match.getUserId().equals(listing.getSellerId()) && notified.add(match.getUserId())) {
+                    emailNotificationService.sendSavedSearchMatchNotification(
+                        match.getUserId(), match.getName(), listing.getTitle());
+                }
+            }
+            log.debug("Percolated listing {}: {} saved searches matched, {} users notified",
+                     listing.getListingId(), matches.size(), notified.size());
+        } catch (Exception e) {
+            // Notifications must never fail listing creation
+            log.error("Error percolating listing {}: {}", listing.getListingId(), e.getMessage(), e);
+        }
+    }
+
+    private PercolatorQuery compile(SavedSearch savedSearch, UUID userId) {
+        return PercolatorQuery.compile(savedSearch.getId(), userId, savedSearch.getUniversityId(),
+            savedSearch.getName(), toCriteria(savedSearch),
+            locationResolver.filterIds(savedSearch.getUniversityId(), savedSearch.getLocation(), false));
+    }
+
+    private SavedSearchItem toItem(SavedSearch savedSearch) {
+        return new SavedSearchItem(savedSearch.getId(), savedSearch.getName(), toCriteria(savedSearch),
+            savedSearch.isNotify(), savedSearch.getCreatedAt());
+    }
+
+    private static SearchRequest toCriteria(SavedSearch savedSearch) {
+        SearchRequest criteria = new SearchRequest();
+        criteria.setQuery(savedSearch.getSearchQuery());
+        criteria.setCategories(splitEnums(savedSearch.getCategories(), ProductCategory::valueOf));
+        criteria.setConditions(splitEnums(savedSearch.getConditions(), ProductCondition::valueOf));
+        criteria.setMinPrice(savedSearch.getMinPrice());
+        criteria.setMaxPrice(savedSearch.getMaxPrice());
+        criteria.setLocation(savedSearch.getLocation());
+        criteria.setSortBy("date_desc");
+        return criteria;
+    }
+
+    /**
+     * Run now if there is no transaction, otherwise only after it commits
+     */
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.trim().isEmpty() ? null : value.trim();
+    }
+
+    private static String joinEnums(List<? extends Enum<?>> values) {
+        if (values == null || values.isEmpty()) {
+            return null;
+        }
+        return values.stream().filter(v -> v != null).map(Enum::name).distinct().collect(Collectors.joining(","));
+    }
+
+    private static <E extends Enum<E>> List<E> splitEnums(String value, Function<String, E> parse) {
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+        return Arrays.stream(value.split(",")).map(parse).toList();
+    }
+}
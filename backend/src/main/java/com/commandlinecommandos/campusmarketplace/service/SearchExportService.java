@@ -0,0 +1,151 @@
+package com.commandlinecommandos.campusmarketplace.service;
+
+import com.commandlinecommandos.campusmarketplace.dto.ProductSearchResult;
+import com.commandlinecommandos.campusmarketplace.dto.SearchRequest;
+import com.commandlinecommandos.campusmarketplace.model.Product;
+import com.commandlinecommandos.campusmarketplace.model.ProductCategory;
+import com.commandlinecommandos.campusmarketplace.model.ProductCondition;
+import com.commandlinecommandos.campusmarketplace.model.User;
+import com.commandlinecommandos.campusmarketplace.repository.ProductSpecifications;
+import com.commandlinecommandos.campusmarketplace.search.CampusLocationResolver;
+import com.commandlinecommandos.campusmarketplace.search.SearchSort;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.jpa.HibernateHints;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Streams every listing matching a search request as NDJSON (one ProductSearchResult per line)
+ * Rows are read as scalar tuples through a forward-only cursor with a fixed fetch size, so no
+ * entities pile up in the persistence context and heap use does not grow with the result size.
+ * Text matching is the portable per-term match of JpaSearchExecutor (every query term in the
+ * title or description), without full-text ranking or a fuzzy fallback for typos; results are
+ * in the requested sort order and paging fields of the request are ignored.
+ */
+@Service
+public class SearchExportService {
+
+    private static final Logger log = LoggerFactory.getLogger(SearchExportService.class);
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private CampusLocationResolver locationResolver;
+
+    @Value("${app.search.export.fetch-size:500}")
+    private int fetchSize;
+
+    /**
+     * Write all matches of the request for the user's university to out
+     *
+     * @return number of rows written
+     */
+    @Transactional(readOnly = true)
+    public long exportNdjson(SearchRequest request, User user, OutputStream out) throws IOException {
+        if (user.getUniversity() == null) {
+            throw new IllegalArgumentException("User must have a university assigned to export searches");
+        }
+        request.applyDateRange(LocalDateTime.now());
+        long startTime = System.currentTimeMillis();
+        UUID universityId = user.getUniversity().getUniversityId();
+
+        Specification<Product> spec = ProductSpecifications.withFilters(
+            universityId,
+            request.getCategories(),
+            request.getConditions(),
+            request.getMinPrice(),
+            request.getMaxPrice(),
+            request.getLocation(),
+            locationResolver.filterIds(universityId, request.getLocation(), request.isIncludeNearby()),
+            request.getDateFrom()
+        );
+        if (request.getQuery() != null && !request.getQuery().trim().isEmpty()) {
+            spec = spec.and(ProductSpecifications.textContainsAllTerms(request.getQuery()));
+        }
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Product> root = query.from(Product.class);
+        Join<Product, User> seller = root.join("seller");
+        query.multiselect(
+                root.get("productId"), root.get("title"), root.get("description"), root.get("price"),
+                root.get("category"), root.get("condition"), root.get("pickupLocation"),
+                root.get("viewCount"), root.get("favoriteCount"), root.get("createdAt"),
+                root.get("negotiable"), root.get("quantity"),
+                seller.get("userId"), seller.get("firstName"), seller.get("lastName"), seller.get("username"))
+             .where(spec.toPredicate(root, query, cb))
+             .orderBy(QueryUtils.toOrders(SearchSort.from(request.getSortBy()).entitySort(), root, cb));
+
+        ObjectWriter writer = objectMapper.writerFor(ProductSearchResult.class)
+            .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        long rows = 0;
+        try (Stream<Tuple> results = entityManager.createQuery(query)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream();
+             JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            json.setRootValueSeparator(null);
+            for (Tuple row : (Iterable<Tuple>) results::iterator) {
+                writer.writeValue(json, toResult(row));
+                json.writeRaw('\n');
+                if (++rows % fetchSize == 0) {
+                    json.flush();
+                }
+            }
+        }
+
+        log.info("Search export completed: user={}, query='{}', rows={}, time={}ms",
+                user.getUsername(), request.getQuery(), rows, System.currentTimeMillis() - startTime);
+        return rows;
+    }
+
+    private static ProductSearchResult toResult(Tuple row) {
+        ProductSearchResult result = new ProductSearchResult();
+        result.setProductId(row.get(0, UUID.class));
+        result.setTitle(row.get(1, String.class));
+        result.setDescription(row.get(2, String.class));
+        result.setPrice(row.get(3, BigDecimal.class));
+        result.setCategory(row.get(4, ProductCategory.class));
+        result.setCondition(row.get(5, ProductCondition.class));
+        result.setLocation(row.get(6, String.class));
+        result.setViewCount(row.get(7, Integer.class));
+        result.setFavoriteCount(row.get(8, Integer.class));
+        result.setCreatedAt(row.get(9, LocalDateTime.class));
+        result.setNegotiable(row.get(10, Boolean.class));
+        result.setQuantity(row.get(11, Integer.class));
+        result.setSellerId(row.get(12, UUID.class));
+        result.setSellerName(row.get(13, String.class) + " " + row.get(14, String.class));
+        result.setSellerUsername(row.get(15, String.class));
+        result.setImageUrls(List.of());
+        return result;
+    }
+}
@@ -1,80 +1,203 @@
 package com.commandlinecommandos.campusmarketplace.service;
 
-import com.commandlinecommandos.campusmarketplace.model.SearchHistory;
+import com.commandlinecommandos.campusmarketplace.dto.PopularSearchItem;
 import com.commandlinecommandos.campusmarketplace.model.User;
 import com.commandlinecommandos.campusmarketplace.repository.SearchHistoryRepository;
 import com.commandlinecommandos.campusmarketplace.repository.UserRepository;
+import com.commandlinecommandos.campusmarketplace.search.ListingSearchIndex;
+import com.commandlinecommandos.campusmarketplace.search.PopularSearchTracker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * Service for managing search history
- * Tracks user searches for analytics and recent searches feature
+ * Tracks user searches for analytics and recent searches feature. Searches are written
+ * behind: recordSearch only queues them, a single flusher thread inserts them in JDBC
+ * batches every batch-size events or flush-interval-ms, and on shutdown. Popular searches
+ * are counted in memory by PopularSearchTracker as searches come in.
  */
 @Service
 public class SearchHistoryService {
     
     private static final Logger log = LoggerFactory.getLogger(SearchHistoryService.class);
     
+    private static final int MAX_QUERY_LENGTH = 500;
+    private static final String INSERT_SQL =
+        "INSERT INTO search_history (search_id, user_id, search_query, results_count, created_at) VALUES (?, ?, ?, ?, ?)";
+    
     @Autowired
     private SearchHistoryRepository searchHistoryRepository;
     
     @Autowired
     private UserRepository userRepository;
     
+    @Autowired
+    private ListingSearchIndex listingSearchIndex;
+    
+    @Autowired
+    private PopularSearchTracker popularSearchTracker;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${app.search.history.buffer-capacity:8192}")
+    private int bufferCapacity;
+    
+    @Value("${app.search.history.batch-size:200}")
+    private int batchSize;
+    
+    @Value("${app.search.history.flush-interval-ms:1000}")
+    private long flushIntervalMs;
+    
+    private final Object flushLock = new Object();
+    private BoundedRingBuffer<SearchEvent> buffer;
+    private Counter droppedFull;
+    private Counter droppedFailed;
+    private Counter written;
+    private Thread flusher;
+    private volatile boolean running = true;
+    
     /**
-     * Save search query asynchronously
-     * Does not block the search operation
+     * Queue a search for the history table
+     * Never blocks: the event goes into a bounded buffer that a background thread writes in
+     * JDBC batches; when the buffer is full the event is dropped and counted
      * 
-     * @param userId User performing the search
-     * @param query Search query
+     * @param user User performing the search
+     * @param query Search query (blank queries are ignored)
      * @param resultsCount Number of results found
      */
-    @Async
-    @Transactional
-    public void saveSearchAsync(UUID userId, String query, int resultsCount) {
-        try {
-            if (query == null || query.trim().isEmpty()) {
-                return;  // Don't save empty queries
+    public void recordSearch(User user, String query, int resultsCount) {
+        if (query == null || query.trim().isEmpty()) {
+            return;  // Don't save empty queries
+        }
+        String trimmed = query.trim();
+        if (trimmed.length() > MAX_QUERY_LENGTH) {
+            trimmed = trimmed.substring(0, MAX_QUERY_LENGTH);
+        }
+        UUID universityId = user.getUniversity() != null ? user.getUniversity().getUniversityId() : null;
+        if (resultsCount > 0) {
+            popularSearchTracker.record(universityId, trimmed);
+        }
+        SearchEvent event = new SearchEvent(user.getUserId(), universityId, trimmed, resultsCount, LocalDateTime.now());
+        if (!buffer.offer(event)) {
+            droppedFull.increment();
+            return;
+        }
+        if (buffer.size() >= batchSize) {
+            LockSupport.unpark(flusher);
+        }
+    }
+    
+    /**
+     * Write everything queued so far (also called by the flusher thread)
+     * 
+     * @return number of searches written
+     */
+    public int flush() {
+        synchronized (flushLock) {
+            int written = 0;
+            List<SearchEvent> batch = new ArrayList<>(batchSize);
+            while (buffer.drainTo(batch, batchSize) > 0) {
+                written += write(batch);
+                batch.clear();
             }
-            
-            User user = userRepository.findById(userId).orElse(null);
-            if (user == null) {
-                log.warn("User not found for search history: {}", userId);
-                return;
+            return written;
+        }
+    }
+    
+    @PostConstruct
+    void start() {
+        buffer = new BoundedRingBuffer<>(bufferCapacity);
+        droppedFull = droppedCounter("buffer_full");
+        droppedFailed = droppedCounter("write_failed");
+        written = Counter.builder("search.history.written")
+            .description("Search history rows written")
+            .register(meterRegistry);
+        Gauge.builder("search.history.buffer.size", buffer, BoundedRingBuffer::size)
+            .description("Search history events waiting to be written")
+            .register(meterRegistry);
+        flusher = Thread.ofPlatform().name("search-history-flusher").daemon().start(this::flushLoop);
+    }
+    
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(flusher);
+        flusher.join(TimeUnit.SECONDS.toMillis(5));
+        int remaining = flush();
+        log.info("Search history writer stopped, flushed {} searches on shutdown", remaining);
+    }
+    
+    /**
+     * Flush every flushIntervalMs, or as soon as a full batch is waiting
+     */
+    private void flushLoop() {
+        long intervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        while (running) {
+            if (buffer.size() < batchSize) {
+                LockSupport.parkNanos(this, intervalNanos);
+            }
+            try {
+                flush();
+            } catch (Exception e) {
+                log.error("Search history flush failed: {}", e.getMessage(), e);
             }
-            
-            SearchHistory searchHistory = new SearchHistory();
-            searchHistory.setUser(user);
-            searchHistory.setSearchQuery(query.trim());
-            searchHistory.setResultsCount(resultsCount);
-                
-            searchHistoryRepository.save(searchHistory);
-            log.debug("Saved search history for user {}: query={}, results={}", 
-                     userId, query, resultsCount);
-        } catch (Exception e) {
-            log.error("Error saving search history for user {}: {}", userId, e.getMessage(), e);
-            // Don't throw exception - search history failure should not break search
         }
     }
     
     /**
-     * Save search query asynchronously (without results count)
-     * 
-     * @param userId User performing the search
-     * @param query Search query
+     * One JDBC batch insert; on failure the batch is dropped and counted
      */
-    @Async
-    @Transactional
-    public void saveSearchAsync(UUID userId, String query) {
-        saveSearchAsync(userId, query, 0);
+    private int write(List<SearchEvent> batch) {
+        try {
+            jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (statement, event) -> {
+                statement.setObject(1, UUID.randomUUID());
+                statement.setObject(2, event.userId);
+                statement.setString(3, event.query);
+                statement.setInt(4, event.resultsCount);
+                statement.setObject(5, event.createdAt);
+            });
+        } catch (Exception e) {
+            droppedFailed.increment(batch.size());
+            log.error("Error saving {} search history rows: {}", batch.size(), e.getMessage());
+            return 0;
+        }
+        written.increment(batch.size());
+        
+        // Successful searches make the phrase a better autocomplete suggestion
+        for (SearchEvent event : batch) {
+            if (event.resultsCount > 0 && event.universityId != null) {
+                listingSearchIndex.recordQuery(event.universityId, event.query);
+            }
+        }
+        log.debug("Saved {} search history rows", batch.size());
+        return batch.size();
+    }
+    
+    private Counter droppedCounter(String reason) {
+        return Counter.builder("search.history.dropped")
+            .description("Search history events that were not written")
+            .tag("reason", reason)
+            .register(meterRegistry);
     }
     
     /**
@@ -95,13 +218,45 @@ public class SearchHistoryService {
     
     /**
      * Get popular search queries
-     * Used for autocomplete suggestions
+     * Served from the in-memory heavy-hitters sketches; only searches that found something count
+     * 
+     * @param universityId University whose searches to rank
+     * @param window Time window (last hour, day or week)
+     * @param limit Maximum number of results
+     * @return Most searched queries, most searched first
+     */
+    public List<PopularSearchItem> getPopularSearches(UUID universityId, PopularSearchTracker.Window window, int limit) {
+        return popularSearchTracker.top(universityId, window, limit);
+    }
+    
+    /**
+     * Get trending search queries
+     * Queries searched in the last hour more often than the day's hourly average
      * 
+     * @param universityId University whose searches to rank
      * @param limit Maximum number of results
-     * @return List of popular search queries
+     * @return Trending queries, strongest rise first
      */
-    public List<String> getPopularSearches(int limit) {
-        return searchHistoryRepository.findPopularSearches(limit);
+    public List<PopularSearchItem> getTrendingSearches(UUID universityId, int limit) {
+        return popularSearchTracker.trending(universityId, limit);
+    }
+    
+    /**
+     * A search waiting to be written
+     */
+    private static final class SearchEvent {
+        private final UUID userId;
+        private final UUID universityId;
+        private final String query;
+        private final int resultsCount;
+        private final LocalDateTime createdAt;
+        
+        SearchEvent(UUID userId, UUID universityId, String query, int resultsCount, LocalDateTime createdAt) {
+            this.userId = userId;
+            this.universityId = universityId;
+            this.query = query;
+            this.resultsCount = resultsCount;
+            this.createdAt = createdAt;
+        }
     }
 }
-
@@ -4,25 +4,43 @@ import com.commandlinecommandos.campusmarketplace.dto.ProductSearchResult;
 import com.commandlinecommandos.campusmarketplace.dto.SearchMetadata;
 import com.commandlinecommandos.campusmarketplace.dto.SearchRequest;
 import com.commandlinecommandos.campusmarketplace.dto.SearchResponse;
-import com.commandlinecommandos.campusmarketplace.model.Product;
 import com.commandlinecommandos.campusmarketplace.model.User;
 import com.commandlinecommandos.campusmarketplace.repository.ProductRepository;
-import com.commandlinecommandos.campusmarketplace.repository.ProductSpecifications;
+import com.commandlinecommandos.campusmarketplace.repository.ProductSummaryView;
+import com.commandlinecommandos.campusmarketplace.search.FederatedSearch;
+import com.commandlinecommandos.campusmarketplace.search.ListingSearchIndex;
+import com.commandlinecommandos.campusmarketplace.search.SearchCursor;
+import com.commandlinecommandos.campusmarketplace.search.SearchExecutor;
+import com.commandlinecommandos.campusmarketplace.search.SearchHits;
+import com.commandlinecommandos.campusmarketplace.search.SearchSort;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
-import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.stream.Collectors;
 
 /**
@@ -32,14 +50,55 @@ import java.util.stream.Collectors;
 @Service
 public class SearchService {
     
+    public static final String CACHE_NAME = "searchResults";
+    
     private static final Logger log = LoggerFactory.getLogger(SearchService.class);
     
+    private static final int AUTOCOMPLETE_LIMIT = 10;
+    
     @Autowired
     private ProductRepository productRepository;
     
     @Autowired
     private SearchHistoryService searchHistoryService;
     
+    @Autowired
+    private List<SearchExecutor> searchExecutors;
+    
+    @Autowired
+    private ListingSearchIndex listingSearchIndex;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Autowired
+    private CacheManager cacheManager;
+    
+    @Value("${app.search.federation.enabled:false}")
+    private boolean federationEnabled;
+    
+    @Value("${app.search.federation.max-universities:10}")
+    private int maxFederatedUniversities;
+    
+    @Value("${app.search.federation.shard-timeout-ms:2000}")
+    private long shardTimeoutMs;
+    
+    @Value("${app.search.federation.max-window:500}")
+    private int maxFederatedWindow;
+    
+    private final ExecutorService shardThreads = Executors.newVirtualThreadPerTaskExecutor();
+    private FederatedSearch federatedSearch;
+    
+    @PostConstruct
+    void init() {
+        federatedSearch = new FederatedSearch(shardThreads, meterRegistry, shardTimeoutMs, maxFederatedWindow);
+    }
+    
+    @PreDestroy
+    void shutdown() {
+        shardThreads.shutdownNow();
+    }
+    
     /**
      * Perform comprehensive product search with filters, sorting, and caching
      * 
@@ -47,43 +106,95 @@ public class SearchService {
      * @param user Current user
      * @return Search response with results and metadata
      * 
-     * Note: Caching disabled temporarily due to Redis deserialization issues with complex DTOs
+     * Cached per university (binary codec in Redis, short TTL) and marked metadata.cached when
+     * served from the cache; search history is recorded by the controller so cache hits still
+     * count. With universityIds set (and federation enabled) every listed university is searched
+     * as a shard and the pages are merged; partial results from slow shards are returned but
+     * not cached.
      */
-    // @Cacheable(value = "searchResults", key = "#request.cacheKey()")
     public SearchResponse search(SearchRequest request, User user) {
-        long startTime = System.currentTimeMillis();
+        // Check if user has a university assigned
+        if (user.getUniversity() == null) {
+            log.error("User {} does not have a university assigned", user.getUsername());
+            throw new IllegalArgumentException("User must have a university assigned to perform searches");
+        }
+        // The cache key holds dateRange itself, not the dateFrom it resolves to
+        request.applyDateRange(LocalDateTime.now());
         
+        Cache cache = cacheManager.getCache(CACHE_NAME);
+        String key = user.getUniversity().getUniversityId() + "_" + request.cacheKey();
+        SearchResponse hit = null;
         try {
-            // Check if user has a university assigned
-            if (user.getUniversity() == null) {
-                log.error("User {} does not have a university assigned", user.getUsername());
-                throw new IllegalArgumentException("User must have a university assigned to perform searches");
+            hit = cache != null ? cache.get(key, SearchResponse.class) : null;
+        } catch (RuntimeException e) {
+            log.warn("Could not read cached search {}: {}", key, e.getMessage());
+        }
+        if (hit != null) {
+            return servedFromCache(hit);
+        }
+        
+        SearchResponse response = execute(request, user);
+        if (cache != null && !response.getMetadata().isPartialResults()) {
+            try {
+                cache.put(key, response);
+            } catch (RuntimeException e) {
+                log.warn("Could not cache search {}: {}", key, e.getMessage());
             }
-            
+        }
+        return response;
+    }
+    
+    private SearchResponse execute(SearchRequest request, User user) {
+        long startTime = System.currentTimeMillis();
+        
+        try {
             UUID universityId = user.getUniversity().getUniversityId();
+            List<UUID> shards = federatedUniversities(request, universityId);
             
-            // Determine search strategy based on query
-            Page<Product> results;
-            if (request.getQuery() != null && !request.getQuery().trim().isEmpty()) {
-                // Full-text search with filters
-                results = searchWithQuery(request, universityId);
-            } else {
-                // Filter-only search (no text query)
-                results = searchWithFiltersOnly(request, universityId);
-            }
+            // Keyset mode: any cursor value (empty = first page) switches off OFFSET paging and COUNT
+            SearchSort sort = SearchSort.from(request.getSortBy());
+            boolean keyset = request.getCursor() != null;
+            SearchCursor cursor = keyset && !request.getCursor().isEmpty()
+                ? SearchCursor.decode(request.getCursor(), sort)
+                : null;
             
-            // Save search history asynchronously
-            if (request.getQuery() != null && !request.getQuery().trim().isEmpty()) {
-                searchHistoryService.saveSearchAsync(user.getUserId(), 
-                    request.getQuery(), (int) results.getTotalElements());
+            // One pass: text predicate, filters, ordering and paging, then a keyed fetch
+            SearchExecutor executor = selectExecutor();
+            SearchHits hits;
+            List<ProductSummaryView> ordered;
+            List<UUID> unavailable = List.of();
+            if (shards == null) {
+                hits = executor.execute(universityId, request, cursor);
+                ordered = findAllInOrder(hits.getListingIds());
+            } else {
+                // The merge loads every candidate's projection anyway, so the page is taken from those
+                Map<UUID, ProductSummaryView> loaded = new HashMap<>();
+                FederatedSearch.Result federated = federatedSearch.execute(executor, shards, request, cursor,
+                    (ids, mergeSort, mergeScores) -> loadSortKeys(ids, mergeSort, mergeScores, loaded));
+                hits = federated.getHits();
+                ordered = inOrder(hits.getListingIds(), loaded);
+                unavailable = federated.getUnavailableUniversityIds();
             }
+            Slice<ProductSummaryView> results = pageOf(ordered, hits, request, keyset);
+            long totalResults = hits.getTotalHits();
+            Map<UUID, Float> scores = scoresById(hits);
             
             // Transform to response
-            SearchResponse response = transformToSearchResponse(results, request, startTime, false);
+            SearchResponse response = transformToSearchResponse(results, totalResults, scores, request, startTime, false);
+            response.getMetadata().setFacets(hits.getFacets());
+            if (!unavailable.isEmpty()) {
+                response.getMetadata().setPartialResults(true);
+                response.getMetadata().setUnavailableUniversityIds(unavailable);
+            }
+            if (keyset) {
+                response.setTotalPages(-1);
+                response.setHasPrevious(cursor != null);
+                response.setNextCursor(nextCursor(results, hits, scores, sort));
+            }
             
-            log.info("Search completed: query='{}', filters={}, results={}, time={}ms",
-                    request.getQuery(), countFilters(request), 
-                    results.getTotalElements(), response.getMetadata().getSearchTimeMs());
+            log.info("Search completed: executor={}, universities={}, query='{}', filters={}, results={}, time={}ms",
+                    executor.name(), shards != null ? shards.size() : 1, request.getQuery(), countFilters(request), 
+                    totalResults, response.getMetadata().getSearchTimeMs());
             
             return response;
         } catch (Exception e) {
@@ -93,125 +204,147 @@ public class SearchService {
     }
     
     /**
-     * Search with full-text query
-     * Falls back to simpler search if PostgreSQL full-text functions are unavailable (e.g., H2 tests)
+     * Copy of a cached page marked as served from the cache
+     * The cached instance itself is left alone, in-memory caches hand out the stored object
      */
-    private Page<Product> searchWithQuery(SearchRequest request, UUID universityId) {
-        Pageable pageable = createPageable(request);
-        Pageable textPageable = PageRequest.of(request.getPage(), request.getSize());
+    private static SearchResponse servedFromCache(SearchResponse hit) {
+        SearchMetadata cached = hit.getMetadata();
+        SearchMetadata metadata = new SearchMetadata(cached.getSearchTimeMs(), cached.getAppliedFilters(),
+            cached.getTotalFilters(), cached.getSortedBy(), true, cached.getSearchQuery());
+        metadata.setFacets(cached.getFacets());
+        metadata.setPartialResults(cached.isPartialResults());
+        metadata.setUnavailableUniversityIds(cached.getUnavailableUniversityIds());
         
-        // Try full-text search first (PostgreSQL only)
-        Page<Product> textSearchResults;
-        try {
-            textSearchResults = productRepository.searchWithFullText(
-                universityId, request.getQuery(), textPageable);
-        } catch (Exception e) {
-            // Fall back to simple search if full-text search fails (H2 compatibility)
-            log.warn("Full-text search failed, falling back to simple search: {}", e.getMessage());
-            Specification<Product> spec = ProductSpecifications.withFilters(
-                universityId,
-                request.getCategories(),
-                request.getConditions(),
-                request.getMinPrice(),
-                request.getMaxPrice(),
-                request.getLocation(),
-                request.getDateFrom()
-            );
-            // Add simple title/description search
-            spec = spec.and((root, query, cb) -> {
-                String searchPattern = "%" + request.getQuery().toLowerCase() + "%";
-                return cb.or(
-                    cb.like(cb.lower(root.get("title")), searchPattern),
-                    cb.like(cb.lower(root.get("description")), searchPattern)
-                );
-            });
-            return productRepository.findAll(spec, pageable);
+        SearchResponse response = new SearchResponse(hit.getResults(), hit.getTotalResults(), hit.getTotalPages(),
+            hit.getCurrentPage(), hit.getPageSize(), hit.isHasNext(), hit.isHasPrevious(), metadata);
+        response.setNextCursor(hit.getNextCursor());
+        return response;
+    }
+    
+    /**
+     * First available executor in @Order order (the JPA executor is always available)
+     */
+    private SearchExecutor selectExecutor() {
+        for (SearchExecutor executor : searchExecutors) {
+            if (executor.isAvailable()) {
+                return executor;
+            }
         }
-        
-        // If no results and query looks like it might have typos, try fuzzy search
-        if (textSearchResults.isEmpty() && request.getQuery().length() > 3) {
-            try {
-                textSearchResults = productRepository.fuzzySearch(
-                    universityId, request.getQuery(), textPageable);
-            } catch (Exception e) {
-                log.warn("Fuzzy search failed: {}", e.getMessage());
-                // Already have empty results, just continue
+        throw new IllegalStateException("No search executor available");
+    }
+    
+    /**
+     * Universities to search as shards, or null for a plain search of the user's university
+     * The user's own university is always included
+     */
+    private List<UUID> federatedUniversities(SearchRequest request, UUID ownUniversityId) {
+        if (request.getUniversityIds() == null || request.getUniversityIds().isEmpty()) {
+            return null;
+        }
+        Set<UUID> universityIds = new LinkedHashSet<>();
+        universityIds.add(ownUniversityId);
+        for (UUID universityId : request.getUniversityIds()) {
+            if (universityId != null) {
+                universityIds.add(universityId);
             }
         }
-        
-        // Apply additional filters using Specifications if needed
-        if (hasAdditionalFilters(request)) {
-            Specification<Product> spec = ProductSpecifications.withFilters(
-                universityId,
-                request.getCategories(),
-                request.getConditions(),
-                request.getMinPrice(),
-                request.getMaxPrice(),
-                request.getLocation(),
-                request.getDateFrom()
-            );
-            
-            return productRepository.findAll(spec, pageable);
+        if (universityIds.size() == 1) {
+            return null;
         }
-        
-        return textSearchResults;
+        if (!federationEnabled) {
+            throw new IllegalArgumentException("Searching other universities is not enabled");
+        }
+        if (universityIds.size() > maxFederatedUniversities) {
+            throw new IllegalArgumentException("universityIds: at most " + maxFederatedUniversities
+                + " universities per search");
+        }
+        return new ArrayList<>(universityIds);
     }
     
     /**
-     * Search with filters only (no text query)
+     * Merge keys for a federated search: one keyed fetch of all shard candidates, kept for the page
      */
-    private Page<Product> searchWithFiltersOnly(SearchRequest request, UUID universityId) {
-        Pageable pageable = createPageable(request);
-        
-        Specification<Product> spec = ProductSpecifications.withFilters(
-            universityId,
-            request.getCategories(),
-            request.getConditions(),
-            request.getMinPrice(),
-            request.getMaxPrice(),
-            request.getLocation(),
-            request.getDateFrom()
-        );
+    private Map<UUID, SearchCursor> loadSortKeys(List<UUID> ids, SearchSort sort, Map<UUID, Float> scores,
+                                                 Map<UUID, ProductSummaryView> loaded) {
+        Map<UUID, SearchCursor> keys = new HashMap<>();
+        for (ProductSummaryView product : productRepository.findSummariesByIdIn(ids)) {
+            loaded.put(product.getProductId(), product);
+            keys.put(product.getProductId(), SearchCursor.after(sort, product, scores.get(product.getProductId())));
+        }
+        return keys;
+    }
+    
+    /**
+     * Wrap the products of a page of hits (already in hit order) as a page or keyset slice
+     */
+    private Slice<ProductSummaryView> pageOf(List<ProductSummaryView> ordered, SearchHits hits,
+                                             SearchRequest request, boolean keyset) {
+        Pageable pageable = PageRequest.of(keyset ? 0 : request.getPage(), request.getSize());
         
-        return productRepository.findAll(spec, pageable);
+        if (keyset) {
+            return new SliceImpl<>(ordered, pageable, hits.hasMore());
+        }
+        return new PageImpl<>(ordered, pageable, hits.getTotalHits());
     }
     
     /**
-     * Create pageable with appropriate sorting
+     * Cursor pointing at the last result of a page, or null if there is no next page
      */
-    private Pageable createPageable(SearchRequest request) {
-        Sort sort = createSort(request.getSortBy());
-        return PageRequest.of(request.getPage(), request.getSize(), sort);
+    private String nextCursor(Slice<ProductSummaryView> results, SearchHits hits, Map<UUID, Float> scores,
+                              SearchSort sort) {
+        if (!results.hasNext()) {
+            return null;
+        }
+        // Continue from the keys the executor sorted by, which may be older than the database row
+        List<SearchCursor> positions = hits.getPositions();
+        if (positions != null && !positions.isEmpty()) {
+            return positions.get(positions.size() - 1).encode();
+        }
+        if (results.getContent().isEmpty()) {
+            return null;
+        }
+        ProductSummaryView last = results.getContent().get(results.getContent().size() - 1);
+        return SearchCursor.after(sort, last, scores.get(last.getProductId())).encode();
     }
     
     /**
-     * Create sort criteria based on sort parameter
+     * Keyed fetch that preserves the given id order (ids no longer in the database are skipped)
+     * One statement for the whole page: listing columns and seller names come from a projection
      */
-    private Sort createSort(String sortBy) {
-        if (sortBy == null) {
-            sortBy = "relevance";
+    private List<ProductSummaryView> findAllInOrder(List<UUID> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
         }
-        
-        return switch (sortBy.toLowerCase()) {
-            case "price_asc" -> Sort.by(Sort.Direction.ASC, "price");
-            case "price_desc" -> Sort.by(Sort.Direction.DESC, "price");
-            case "date_asc" -> Sort.by(Sort.Direction.ASC, "createdAt");
-            case "date_desc" -> Sort.by(Sort.Direction.DESC, "createdAt");
-            case "popularity" -> Sort.by(Sort.Direction.DESC, "viewCount", "favoriteCount");
-            default -> Sort.by(Sort.Direction.DESC, "createdAt");  // Default for relevance
-        };
+        Map<UUID, ProductSummaryView> byId = new HashMap<>();
+        for (ProductSummaryView product : productRepository.findSummariesByIdIn(ids)) {
+            byId.put(product.getProductId(), product);
+        }
+        return inOrder(ids, byId);
     }
     
     /**
-     * Check if request has additional filters beyond text search
+     * Products of the given ids in that order (ids without a product are skipped)
      */
-    private boolean hasAdditionalFilters(SearchRequest request) {
-        return (request.getCategories() != null && !request.getCategories().isEmpty()) ||
-               (request.getConditions() != null && !request.getConditions().isEmpty()) ||
-               request.getMinPrice() != null ||
-               request.getMaxPrice() != null ||
-               (request.getLocation() != null && !request.getLocation().trim().isEmpty()) ||
-               request.getDateFrom() != null;
+    private static List<ProductSummaryView> inOrder(List<UUID> ids, Map<UUID, ProductSummaryView> byId) {
+        List<ProductSummaryView> ordered = new ArrayList<>(ids.size());
+        for (UUID id : ids) {
+            ProductSummaryView product = byId.get(id);
+            if (product != null) {
+                ordered.add(product);
+            }
+        }
+        return ordered;
+    }
+    
+    private Map<UUID, Float> scoresById(SearchHits hits) {
+        Map<UUID, Float> scores = new HashMap<>();
+        for (int i = 0; i < hits.getListingIds().size(); i++) {
+            Float score = hits.getScores().get(i);
+            if (score != null) {
+                scores.put(hits.getListingIds().get(i), score);
+            }
+        }
+        return scores;
     }
     
     /**
@@ -228,14 +361,16 @@ public class SearchService {
     }
     
     /**
-     * Transform Page<Product> to SearchResponse
+     * Transform a page (or keyset slice) of products to SearchResponse
      */
-    private SearchResponse transformToSearchResponse(Page<Product> page, 
+    private SearchResponse transformToSearchResponse(Slice<ProductSummaryView> page, 
+                                                     long totalResults,
+                                                     Map<UUID, Float> scores,
                                                      SearchRequest request, 
                                                      long startTime,
                                                      boolean cached) {
         List<ProductSearchResult> results = page.getContent().stream()
-            .map(this::transformToSearchResult)
+            .map(product -> transformToSearchResult(product, scores.get(product.getProductId())))
             .collect(Collectors.toList());
         
         SearchMetadata metadata = new SearchMetadata(
@@ -249,8 +384,8 @@ public class SearchService {
         
         return new SearchResponse(
             results,
-            page.getTotalElements(),
-            page.getTotalPages(),
+            totalResults,
+            page instanceof Page<ProductSummaryView> counted ? counted.getTotalPages() : -1,
             page.getNumber(),
             page.getSize(),
             page.hasNext(),
@@ -260,9 +395,10 @@ public class SearchService {
     }
     
     /**
-     * Transform Product to ProductSearchResult
+     * Transform a product summary projection to ProductSearchResult
+     * Package-private so the JMH benchmarks (src/jmh) can measure it
      */
-    private ProductSearchResult transformToSearchResult(Product product) {
+    static ProductSearchResult transformToSearchResult(ProductSummaryView product, Float relevanceScore) {
         ProductSearchResult result = new ProductSearchResult();
         result.setProductId(product.getProductId());
         result.setTitle(product.getTitle());
@@ -270,16 +406,16 @@ public class SearchService {
         result.setPrice(product.getPrice());
         result.setCategory(product.getCategory());
         result.setCondition(product.getCondition());
-        result.setSellerId(product.getSeller().getUserId());
-        result.setSellerName(product.getSeller().getFirstName() + " " + product.getSeller().getLastName());
-        result.setSellerUsername(product.getSeller().getUsername());
+        result.setSellerId(product.getSellerId());
+        result.setSellerName(product.getSellerFirstName() + " " + product.getSellerLastName());
+        result.setSellerUsername(product.getSellerUsername());
         result.setLocation(product.getPickupLocation());
         result.setViewCount(product.getViewCount());
         result.setFavoriteCount(product.getFavoriteCount());
         result.setCreatedAt(product.getCreatedAt());
         result.setImageUrls(List.of());  // TODO: Add image URLs when image service is implemented
-        result.setRelevanceScore(null);  // Set from ts_rank if available
-        result.setNegotiable(product.isNegotiable());
+        result.setRelevanceScore(relevanceScore);  // ts_rank / index score, null for filter-only searches
+        result.setNegotiable(product.getNegotiable());
         result.setQuantity(product.getQuantity());
         return result;
     }
@@ -313,14 +449,20 @@ public class SearchService {
     
     /**
      * Get autocomplete suggestions
-     * Cached for 10 minutes
+     * Served from the in-memory trie once the search index has loaded; the database
+     * fallback is cached for 10 minutes
      */
-    @Cacheable(value = "autocomplete", key = "#query + '_' + #universityId")
+    @Cacheable(value = "autocomplete", key = "#query + '_' + #universityId",
+               condition = "!@listingSearchIndex.isReady()")
     public List<String> autocomplete(String query, UUID universityId) {
         if (query == null || query.length() < 2) {
             return List.of();
         }
         
+        if (listingSearchIndex.isReady()) {
+            return listingSearchIndex.complete(universityId, query, AUTOCOMPLETE_LIMIT);
+        }
+        
         try {
             // Try PostgreSQL similarity() first (for production)
             List<String> suggestions = productRepository.findTitleSuggestions(universityId, query);
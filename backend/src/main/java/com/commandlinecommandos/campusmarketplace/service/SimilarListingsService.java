@@ -0,0 +1,268 @@
+package com.commandlinecommandos.campusmarketplace.service;
+
+import com.commandlinecommandos.campusmarketplace.model.ListingNeighbor;
+import com.commandlinecommandos.campusmarketplace.repository.ListingNeighborRepository;
+import com.commandlinecommandos.campusmarketplace.repository.ProductViewRepository;
+import com.commandlinecommandos.campusmarketplace.repository.UserListingView;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Service for "viewed together" listings
+ * Two listings are co-viewed when the same user views both within co-view-window-minutes.
+ * A background job folds the views added since its last run (the watermark) into a sparse
+ * co-view matrix and recomputes the top neighbors of every listing it touched, so requests
+ * only read a precomputed list. The matrix covers the last history-days and is rebuilt from
+ * scratch every rebuild-interval-hours, which also lets old co-views age out. With persist
+ * on, neighbor lists are saved to listing_neighbors and served from there after a restart
+ * until the first rebuild is done.
+ */
+@Service
+public class SimilarListingsService {
+
+    private static final Logger log = LoggerFactory.getLogger(SimilarListingsService.class);
+
+    private static final String INSERT_SQL = "INSERT INTO listing_neighbors "
+        + "(id, listing_id, neighbor_id, neighbor_rank, score) VALUES (?, ?, ?, ?, ?)";
+
+    // Views are tracked asynchronously, so the newest ones may not be committed yet
+    private static final Duration COMMIT_LAG = Duration.ofMinutes(1);
+
+    @Autowired
+    private ProductViewRepository productViewRepository;
+
+    @Autowired
+    private ListingNeighborRepository listingNeighborRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${app.discovery.similar.neighbors:20}")
+    private int maxNeighbors;
+
+    @Value("${app.discovery.similar.min-co-views:2}")
+    private int minCoViews;
+
+    @Value("${app.discovery.similar.co-view-window-minutes:60}")
+    private long coViewWindowMinutes;
+
+    @Value("${app.discovery.similar.history-days:30}")
+    private int historyDays;
+
+    @Value("${app.discovery.similar.rebuild-interval-hours:24}")
+    private long rebuildIntervalHours;
+
+    @Value("${app.discovery.similar.persist:false}")
+    private boolean persist;
+
+    private volatile Map<UUID, CoViewMatrix.Neighbors> neighbors = new ConcurrentHashMap<>();
+
+    // Only used by the synchronized methods below
+    private CoViewMatrix matrix = new CoViewMatrix();
+    private final BitSet dirty = new BitSet();
+    private LocalDateTime watermark;
+    private LocalDateTime builtAt;
+    private boolean rebuilding;
+
+    /**
+     * Listings most often viewed together with a listing, most similar first
+     * Empty until the listing has enough co-views
+     */
+    public List<UUID> getSimilarListings(UUID listingId, int limit) {
+        CoViewMatrix.Neighbors list = neighbors.get(listingId);
+        if (list == null) {
+            return List.of();
+        }
+        int count = Math.min(limit, list.size());
+        List<UUID> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ids.add(list.listingId(i));
+        }
+        return ids;
+    }
+
+    /**
+     * Serve the saved neighbor lists if there are any, otherwise build the matrix right away
+     * Runs in the background so startup does not wait for the history scan; until lists are
+     * published, callers fall back to text similarity and the same category
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (persist && restore() > 0) {
+            return;
+        }
+        refresh();
+    }
+
+    /**
+     * Fold views since the watermark into the matrix and republish the lists they changed
+     */
+    @Scheduled(initialDelayString = "${app.discovery.similar.refresh-interval-ms:300000}",
+               fixedDelayString = "${app.discovery.similar.refresh-interval-ms:300000}")
+    public synchronized void refresh() {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            if (builtAt == null || builtAt.isBefore(now.minusHours(rebuildIntervalHours))) {
+                matrix = new CoViewMatrix();
+                dirty.clear();
+                watermark = now.minusDays(historyDays);
+                builtAt = now;
+                rebuilding = true;
+            }
+            Duration window = Duration.ofMinutes(coViewWindowMinutes);
+            LocalDateTime to = now.minus(COMMIT_LAG);
+            int views = 0;
+            // A day at a time, each with one co-view window of already counted views before it
+            while (watermark.isBefore(to)) {
+                LocalDateTime end = watermark.plusDays(1).isBefore(to) ? watermark.plusDays(1) : to;
+                List<UserListingView> batch = productViewRepository.findViewsBetween(watermark.minus(window), end);
+                apply(batch, watermark);
+                views += batch.size();
+                watermark = end;
+            }
+
+            boolean replaceAll = rebuilding;
+            Map<UUID, CoViewMatrix.Neighbors> updated = publish();
+            if (persist && !updated.isEmpty()) {
+                save(updated, replaceAll);
+            }
+            log.debug("Similar listings refreshed: {} views read, {} lists updated", views, updated.size());
+        } catch (Exception e) {
+            log.error("Could not refresh similar listings: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Count the views after from, pairing each with the same user's earlier views in the window
+     * Views must be ordered by user, then time; views up to from only serve as earlier views.
+     */
+    synchronized void apply(List<UserListingView> views, LocalDateTime from) {
+        Duration window = Duration.ofMinutes(coViewWindowMinutes);
+        Deque<UserListingView> recent = new ArrayDeque<>();
+        UUID userId = null;
+        for (UserListingView view : views) {
+            if (!view.getUserId().equals(userId)) {
+                recent.clear();
+                userId = view.getUserId();
+            }
+            LocalDateTime windowStart = view.getViewedAt().minus(window);
+            while (!recent.isEmpty() && recent.peekFirst().getViewedAt().isBefore(windowStart)) {
+                recent.pollFirst();
+            }
+            if (view.getViewedAt().isAfter(from)) {
+                int listing = matrix.ordinal(view.getListingId());
+                matrix.addView(listing);
+                dirty.set(listing);
+                for (UserListingView earlier : recent) {
+                    if (!earlier.getListingId().equals(view.getListingId())) {
+                        int other = matrix.ordinal(earlier.getListingId());
+                        matrix.addCoView(listing, other);
+                        dirty.set(other);
+                    }
+                }
+            }
+            recent.addLast(view);
+        }
+    }
+
+    /**
+     * Recompute the neighbor lists of changed listings and make them visible to readers
+     *
+     * @return the recomputed lists, empty ones included
+     */
+    synchronized Map<UUID, CoViewMatrix.Neighbors> publish() {
+        Map<UUID, CoViewMatrix.Neighbors> updated = new HashMap<>();
+        for (int listing = dirty.nextSetBit(0); listing >= 0; listing = dirty.nextSetBit(listing + 1)) {
+            updated.put(matrix.listingId(listing), matrix.neighbors(listing, maxNeighbors, minCoViews));
+        }
+        dirty.clear();
+
+        Map<UUID, CoViewMatrix.Neighbors> target = rebuilding ? new ConcurrentHashMap<>() : neighbors;
+        updated.forEach((listingId, list) -> {
+            if (list.size() > 0) {
+                target.put(listingId, list);
+            } else {
+                target.remove(listingId);
+            }
+        });
+        if (rebuilding) {
+            neighbors = target;
+            rebuilding = false;
+        }
+        return updated;
+    }
+
+    private void save(Map<UUID, CoViewMatrix.Neighbors> updated, boolean replaceAll) {
+        List<Object[]> deletes = new ArrayList<>(updated.size());
+        List<Object[]> rows = new ArrayList<>();
+        updated.forEach((listingId, list) -> {
+            deletes.add(new Object[] {listingId});
+            for (int i = 0; i < list.size(); i++) {
+                rows.add(new Object[] {UUID.randomUUID(), listingId, list.listingId(i), i, list.score(i)});
+            }
+        });
+        transactionTemplate.executeWithoutResult(status -> {
+            if (replaceAll) {
+                jdbcTemplate.update("DELETE FROM listing_neighbors");
+            } else {
+                jdbcTemplate.batchUpdate("DELETE FROM listing_neighbors WHERE listing_id = ?", deletes);
+            }
+            jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+        });
+    }
+
+    /**
+     * Load the saved neighbor lists
+     *
+     * @return number of listings with a list
+     */
+    private synchronized int restore() {
+        try {
+            Map<UUID, List<ListingNeighbor>> grouped = new LinkedHashMap<>();
+            for (ListingNeighbor row : listingNeighborRepository.findAllByOrderByListingIdAscNeighborRankAsc()) {
+                grouped.computeIfAbsent(row.getListingId(), id -> new ArrayList<>()).add(row);
+            }
+            grouped.forEach((listingId, rows) -> {
+                long[] bits = new long[rows.size() * 2];
+                float[] scores = new float[rows.size()];
+                for (int i = 0; i < rows.size(); i++) {
+                    bits[2 * i] = rows.get(i).getNeighborId().getMostSignificantBits();
+                    bits[2 * i + 1] = rows.get(i).getNeighborId().getLeastSignificantBits();
+                    scores[i] = rows.get(i).getScore();
+                }
+                neighbors.put(listingId, new CoViewMatrix.Neighbors(bits, scores));
+            });
+            log.info("Similar listings restored for {} listings", grouped.size());
+            return grouped.size();
+        } catch (Exception e) {
+            log.error("Could not restore similar listings: {}", e.getMessage(), e);
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,331 @@
+package com.commandlinecommandos.campusmarketplace.service;
+
+import com.commandlinecommandos.campusmarketplace.communication.repository.MessageRepository;
+import com.commandlinecommandos.campusmarketplace.model.ModerationStatus;
+import com.commandlinecommandos.campusmarketplace.model.Product;
+import com.commandlinecommandos.campusmarketplace.repository.ListingActivity;
+import com.commandlinecommandos.campusmarketplace.repository.ProductRepository;
+import com.commandlinecommandos.campusmarketplace.repository.ProductViewRepository;
+import com.commandlinecommandos.campusmarketplace.repository.UserFavoriteRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service for trending listings
+ * Every view, favorite and message adds its weight to the listing's score, and scores halve
+ * every half-life. Scores are kept forward-decayed (as log2 of weight * 2^(age / half-life)
+ * from a fixed epoch), so events only ever raise a score and the ranking of untouched
+ * listings never changes: each university's ordered set is updated in place per event and
+ * trending is read off its head without touching the database. Only listing ids are kept;
+ * callers load the cards. Scores are seeded from recent activity at startup.
+ */
+@Service
+public class TrendingService {
+
+    private static final Logger log = LoggerFactory.getLogger(TrendingService.class);
+
+    // Listings whose decayed score fell below this are dropped by evictCold()
+    private static final double MIN_SCORE = 0.05;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductViewRepository productViewRepository;
+
+    @Autowired
+    private UserFavoriteRepository userFavoriteRepository;
+
+    @Autowired
+    private MessageRepository messageRepository;
+
+    @Value("${app.discovery.trending.half-life-hours:24}")
+    private double halfLifeHours;
+
+    @Value("${app.discovery.trending.view-weight:1}")
+    private double viewWeight;
+
+    @Value("${app.discovery.trending.favorite-weight:4}")
+    private double favoriteWeight;
+
+    @Value("${app.discovery.trending.message-weight:8}")
+    private double messageWeight;
+
+    @Value("${app.discovery.trending.max-listings:2000}")
+    private int maxListings;
+
+    @Value("${app.discovery.trending.seed-days:7}")
+    private int seedDays;
+
+    private final long epochMillis = System.currentTimeMillis();
+    private final Map<UUID, Board> boards = new ConcurrentHashMap<>();
+    private final Map<UUID, UUID> universityByListing = new ConcurrentHashMap<>();
+    private double halfLifeMillis;
+
+    @PostConstruct
+    void init() {
+        halfLifeMillis = halfLifeHours * TimeUnit.HOURS.toMillis(1);
+    }
+
+    /**
+     * Count a (first daily) view of a listing
+     */
+    public void recordView(Product product) {
+        record(product, viewWeight, System.currentTimeMillis());
+    }
+
+    /**
+     * Count a listing being added to someone's favorites
+     * Removing a favorite does not subtract; the decay takes care of it
+     */
+    public void recordFavorite(Product product) {
+        record(product, favoriteWeight, System.currentTimeMillis());
+    }
+
+    /**
+     * Count a chat message about a listing
+     */
+    public void recordMessage(Product product) {
+        record(product, messageWeight, System.currentTimeMillis());
+    }
+
+    /**
+     * Drop a changed listing once it is no longer active and approved
+     */
+    public void update(Product product) {
+        UUID universityId = universityByListing.get(product.getProductId());
+        Board board = universityId != null ? boards.get(universityId) : null;
+        if (board == null) {
+            return;
+        }
+        if (!isListed(product)) {
+            synchronized (board) {
+                board.remove(product.getProductId());
+                universityByListing.remove(product.getProductId());
+            }
+        }
+    }
+
+    /**
+     * Ids of the highest scoring listings of a university right now, hottest first
+     * May return fewer than limit (or none) when little has happened recently
+     */
+    public List<UUID> getTrending(UUID universityId, int limit) {
+        Board board = universityId != null ? boards.get(universityId) : null;
+        if (board == null) {
+            return List.of();
+        }
+        synchronized (board) {
+            return board.top(limit);
+        }
+    }
+
+    /**
+     * Current decayed score of a listing (0 if it is not tracked)
+     */
+    public double score(UUID listingId) {
+        return score(listingId, System.currentTimeMillis());
+    }
+
+    double score(UUID listingId, long nowMillis) {
+        UUID universityId = universityByListing.get(listingId);
+        Board board = universityId != null ? boards.get(universityId) : null;
+        if (board == null) {
+            return 0;
+        }
+        synchronized (board) {
+            Entry entry = board.entries.get(listingId);
+            return entry != null ? Math.pow(2, entry.logScore - ageInHalfLives(nowMillis)) : 0;
+        }
+    }
+
+    void record(Product product, double weight, long atMillis) {
+        if (product == null || product.getProductId() == null || product.getUniversity() == null
+                || !isListed(product) || weight <= 0) {
+            return;
+        }
+        UUID universityId = product.getUniversity().getUniversityId();
+        Board board = boards.computeIfAbsent(universityId, id -> new Board());
+        synchronized (board) {
+            UUID evicted = board.add(product.getProductId(), Math.log(weight) / Math.log(2) + ageInHalfLives(atMillis),
+                maxListings);
+            universityByListing.put(product.getProductId(), universityId);
+            if (evicted != null) {
+                universityByListing.remove(evicted);
+            }
+        }
+    }
+
+    /**
+     * Drop listings whose score has decayed to (almost) nothing
+     */
+    @Scheduled(fixedDelayString = "${app.discovery.trending.evict-interval-ms:3600000}")
+    public void evictCold() {
+        double minLogScore = Math.log(MIN_SCORE) / Math.log(2) + ageInHalfLives(System.currentTimeMillis());
+        int evicted = 0;
+        for (Board board : boards.values()) {
+            synchronized (board) {
+                for (UUID listingId : board.evictBelow(minLogScore)) {
+                    universityByListing.remove(listingId);
+                    evicted++;
+                }
+            }
+        }
+        log.debug("Trending: evicted {} cold listings", evicted);
+    }
+
+    /**
+     * Replay the last seed-days of views, favorites and messages into the scores
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void seed() {
+        try {
+            LocalDateTime since = LocalDateTime.now().minusDays(seedDays);
+            Map<UUID, List<Activity>> events = new HashMap<>();
+            collect(events, productViewRepository.findActivitySince(since), viewWeight);
+            collect(events, userFavoriteRepository.findActivitySince(since), favoriteWeight);
+            collect(events, messageRepository.findActivitySince(since), messageWeight);
+
+            for (Product product : productRepository.findAllById(events.keySet())) {
+                for (Activity event : events.get(product.getProductId())) {
+                    record(product, event.weight, event.atMillis);
+                }
+            }
+            log.info("Trending scores seeded from {} listings with activity in the last {} days",
+                events.size(), seedDays);
+        } catch (Exception e) {
+            log.error("Could not seed trending scores: {}", e.getMessage(), e);
+        }
+    }
+
+    private static void collect(Map<UUID, List<Activity>> events, List<ListingActivity> activity, double weight) {
+        for (ListingActivity event : activity) {
+            if (event.getListingId() != null && event.getOccurredAt() != null) {
+                long at = event.getOccurredAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+                events.computeIfAbsent(event.getListingId(), id -> new ArrayList<>()).add(new Activity(at, weight));
+            }
+        }
+    }
+
+    // Only listings shown in the marketplace can trend
+    private static boolean isListed(Product product) {
+        return product.isActive() && product.getModerationStatus() == ModerationStatus.APPROVED;
+    }
+
+    private double ageInHalfLives(long atMillis) {
+        return (atMillis - epochMillis) / halfLifeMillis;
+    }
+
+    /**
+     * One university's listings ordered by score
+     */
+    private static final class Board {
+        private final Map<UUID, Entry> entries = new HashMap<>();
+        private final TreeSet<Entry> ranking = new TreeSet<>(Comparator.comparingDouble((Entry e) -> e.logScore)
+            .reversed()
+            .thenComparing(e -> e.listingId));
+
+        /**
+         * Add 2^logIncrement to a listing's score
+         *
+         * @return listing dropped to stay within maxListings, or null
+         */
+        UUID add(UUID listingId, double logIncrement, int maxListings) {
+            Entry entry = entries.get(listingId);
+            if (entry == null) {
+                entry = new Entry(listingId, logIncrement);
+                entries.put(listingId, entry);
+            } else {
+                ranking.remove(entry);
+                entry.logScore = logAdd(entry.logScore, logIncrement);
+            }
+            ranking.add(entry);
+            if (entries.size() > maxListings) {
+                Entry coldest = ranking.pollLast();
+                entries.remove(coldest.listingId);
+                return coldest.listingId;
+            }
+            return null;
+        }
+
+        void remove(UUID listingId) {
+            Entry entry = entries.remove(listingId);
+            if (entry != null) {
+                ranking.remove(entry);
+            }
+        }
+
+        List<UUID> top(int limit) {
+            List<UUID> top = new ArrayList<>(Math.min(limit, ranking.size()));
+            for (Entry entry : ranking) {
+                if (top.size() >= limit) {
+                    break;
+                }
+                top.add(entry.listingId);
+            }
+            return top;
+        }
+
+        List<UUID> evictBelow(double minLogScore) {
+            List<UUID> evicted = new ArrayList<>();
+            while (!ranking.isEmpty() && ranking.last().logScore < minLogScore) {
+                Entry coldest = ranking.pollLast();
+                entries.remove(coldest.listingId);
+                evicted.add(coldest.listingId);
+            }
+            return evicted;
+        }
+
+        /**
+         * log2(2^a + 2^b) without leaving log space
+         */
+        private static double logAdd(double a, double b) {
+            double high = Math.max(a, b);
+            return high + Math.log1p(Math.pow(2, Math.min(a, b) - high)) / Math.log(2);
+        }
+    }
+
+    /**
+     * Seed event: when and with which weight
+     */
+    private static final class Activity {
+        private final long atMillis;
+        private final double weight;
+
+        Activity(long atMillis, double weight) {
+            this.atMillis = atMillis;
+            this.weight = weight;
+        }
+    }
+
+    private static final class Entry {
+        private final UUID listingId;
+        private double logScore;
+
+        Entry(UUID listingId, double logScore) {
+            this.listingId = listingId;
+            this.logScore = logScore;
+        }
+    }
+}
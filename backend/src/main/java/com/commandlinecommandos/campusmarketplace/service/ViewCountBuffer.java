@@ -0,0 +1,189 @@
+package com.commandlinecommandos.campusmarketplace.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Write-behind buffer for listing view counts
+ * Views only bump an in-memory LongAdder per listing, so concurrent views of a hot listing
+ * neither lock its row nor overwrite each other. Every flush-interval-ms (and on shutdown) the
+ * pending increments are added to listings.view_count, on PostgreSQL as one UPDATE ... FROM
+ * (VALUES ...) per batch-size listings, elsewhere as a JDBC batch. Rows are updated in id
+ * order so that concurrent flushes from several instances cannot deadlock, and a failed
+ * flush puts its increments back for the next one. Counters are only changed and dropped
+ * inside pending.compute, so a view can never land on a counter that is being dropped.
+ * Backlog is exposed as the
+ * "listing.views.pending.listings" and "listing.views.pending.views" gauges.
+ */
+@Service
+public class ViewCountBuffer {
+
+    private static final Logger log = LoggerFactory.getLogger(ViewCountBuffer.class);
+
+    private static final String BATCH_SQL =
+        "UPDATE listings SET view_count = COALESCE(view_count, 0) + ? WHERE listing_id = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.listings.views.batch-size:500}")
+    private int batchSize;
+
+    private final Map<UUID, LongAdder> pending = new ConcurrentHashMap<>();
+    private final Object flushLock = new Object();
+    private Counter flushed;
+    private volatile Boolean postgres;
+
+    @PostConstruct
+    void init() {
+        flushed = Counter.builder("listing.views.flushed")
+            .description("Listing views added to view_count")
+            .register(meterRegistry);
+        Gauge.builder("listing.views.pending.listings", pending, Map::size)
+            .description("Listings with views not yet added to view_count")
+            .register(meterRegistry);
+        Gauge.builder("listing.views.pending.views", this, ViewCountBuffer::pendingViews)
+            .description("Views not yet added to view_count")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Count one view of a listing
+     */
+    public void increment(UUID listingId) {
+        add(listingId, 1);
+    }
+
+    /**
+     * Views of a listing not written yet
+     */
+    public long pendingViews(UUID listingId) {
+        LongAdder adder = pending.get(listingId);
+        return adder != null ? adder.sum() : 0;
+    }
+
+    long pendingViews() {
+        long total = 0;
+        for (LongAdder adder : pending.values()) {
+            total += adder.sum();
+        }
+        return total;
+    }
+
+    /**
+     * Add every pending increment to view_count
+     *
+     * @return number of views written
+     */
+    @Scheduled(initialDelayString = "${app.listings.views.flush-interval-ms:5000}",
+               fixedDelayString = "${app.listings.views.flush-interval-ms:5000}")
+    public long flush() {
+        synchronized (flushLock) {
+            List<Map.Entry<UUID, Long>> increments = new ArrayList<>();
+            for (Map.Entry<UUID, LongAdder> entry : pending.entrySet()) {
+                long views = entry.getValue().sumThenReset();
+                if (views > 0) {
+                    increments.add(Map.entry(entry.getKey(), views));
+                } else {
+                    evict(entry.getKey());
+                }
+            }
+            increments.sort(Map.Entry.comparingByKey());
+
+            long written = 0;
+            for (int from = 0; from < increments.size(); from += batchSize) {
+                List<Map.Entry<UUID, Long>> batch = increments.subList(from, Math.min(increments.size(), from + batchSize));
+                try {
+                    write(batch);
+                    written += batch.stream().mapToLong(Map.Entry::getValue).sum();
+                } catch (Exception e) {
+                    log.error("Error adding views of {} listings, retrying next flush: {}", batch.size(), e.getMessage());
+                    batch.forEach(entry -> add(entry.getKey(), entry.getValue()));
+                }
+            }
+            flushed.increment(written);
+            if (written > 0) {
+                log.debug("Added {} views to {} listings", written, increments.size());
+            }
+            return written;
+        }
+    }
+
+    @PreDestroy
+    void drain() {
+        long written = flush();
+        log.info("View count buffer stopped, flushed {} views on shutdown", written);
+    }
+
+    private void add(UUID listingId, long views) {
+        pending.compute(listingId, (id, adder) -> {
+            LongAdder counter = adder != null ? adder : new LongAdder();
+            counter.add(views);
+            return counter;
+        });
+    }
+
+    /**
+     * Drop the counter of a listing that had no views since the last flush
+     * Rechecked under compute, so a view added meanwhile keeps the counter
+     */
+    private void evict(UUID listingId) {
+        pending.computeIfPresent(listingId, (id, adder) -> adder.sum() == 0 ? null : adder);
+    }
+
+    private void write(List<Map.Entry<UUID, Long>> batch) {
+        if (isPostgres()) {
+            StringBuilder sql = new StringBuilder(
+                "UPDATE listings l SET view_count = COALESCE(l.view_count, 0) + v.views FROM (VALUES ");
+            List<Object> args = new ArrayList<>(batch.size() * 2);
+            for (int i = 0; i < batch.size(); i++) {
+                sql.append(i == 0 ? "" : ", ").append("(CAST(? AS uuid), CAST(? AS integer))");
+                args.add(batch.get(i).getKey());
+                args.add(batch.get(i).getValue());
+            }
+            sql.append(") AS v(listing_id, views) WHERE l.listing_id = v.listing_id");
+            jdbcTemplate.update(sql.toString(), args.toArray());
+        } else {
+            jdbcTemplate.batchUpdate(BATCH_SQL, batch, batch.size(), (statement, entry) -> {
+                statement.setLong(1, entry.getValue());
+                statement.setObject(2, entry.getKey());
+            });
+        }
+    }
+
+    private boolean isPostgres() {
+        Boolean detected = postgres;
+        if (detected == null) {
+            try {
+                detected = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+                    connection.getMetaData().getDatabaseProductName().toLowerCase().contains("postgresql"));
+            } catch (Exception e) {
+                log.warn("Could not detect database type, using batched view count updates: {}", e.getMessage());
+                detected = false;
+            }
+            postgres = detected;
+        }
+        return Boolean.TRUE.equals(detected);
+    }
+}
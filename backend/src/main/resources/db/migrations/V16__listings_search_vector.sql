@@ -0,0 +1,30 @@
+-- V16: Stored, weighted full-text vector for listings
+-- Search used to evaluate to_tsvector(title || ' ' || description) for every row at query time.
+-- The search_vector column from V1 is (re)defined here with title at weight A and
+-- description at weight B, kept current by a trigger and backfilled for existing rows.
+-- The GIN indexes that make it fast are built concurrently in V17.
+
+ALTER TABLE listings ADD COLUMN IF NOT EXISTS search_vector tsvector;
+
+CREATE OR REPLACE FUNCTION update_product_search_vector()
+RETURNS TRIGGER AS $$
+BEGIN
+    NEW.search_vector :=
+        setweight(to_tsvector('english', COALESCE(NEW.title, '')), 'A') ||
+        setweight(to_tsvector('english', COALESCE(NEW.description, '')), 'B');
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Replace the V1 trigger (renamed in V8) so category edits no longer rewrite the vector
+DROP TRIGGER IF EXISTS trigger_products_search_vector ON listings;
+DROP TRIGGER IF EXISTS trigger_listings_search_vector ON listings;
+CREATE TRIGGER trigger_listings_search_vector
+    BEFORE INSERT OR UPDATE OF title, description ON listings
+    FOR EACH ROW EXECUTE FUNCTION update_product_search_vector();
+
+-- Backfill rows written before the trigger existed (or with the old category weight)
+UPDATE listings
+SET search_vector =
+    setweight(to_tsvector('english', COALESCE(title, '')), 'A') ||
+    setweight(to_tsvector('english', COALESCE(description, '')), 'B');
@@ -0,0 +1,15 @@
+-- V17: GIN indexes for listing search
+-- Built CONCURRENTLY so deploys don't block listing writes; this script therefore runs
+-- outside a transaction (see V17__listings_search_indexes.sql.conf).
+-- V1 created the search_vector and title trigram indexes on fresh databases, hence IF NOT EXISTS.
+
+-- Full-text search: search_vector @@ plainto_tsquery(...)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_listings_search_vector
+    ON listings USING gin (search_vector);
+
+-- Fuzzy search: title % :query / description % :query
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_listings_title_trgm
+    ON listings USING gin (title gin_trgm_ops);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_listings_description_trgm
+    ON listings USING gin (description gin_trgm_ops);
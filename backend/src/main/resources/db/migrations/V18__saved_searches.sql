@@ -0,0 +1,21 @@
+-- V18: Saved searches
+-- A user's stored search criteria. Every saved search is also compiled into the in-memory
+-- percolator, so new listings are matched against it once instead of users polling /search.
+-- Categories and conditions are comma-separated enum names; an empty value means "any".
+
+CREATE TABLE IF NOT EXISTS saved_searches (
+    saved_search_id UUID PRIMARY KEY DEFAULT uuid_generate_v4(),
+    user_id UUID NOT NULL REFERENCES users(user_id) ON DELETE CASCADE,
+    university_id UUID NOT NULL REFERENCES universities(university_id) ON DELETE CASCADE,
+    name VARCHAR(100) NOT NULL,
+    search_query VARCHAR(500),
+    categories VARCHAR(500),
+    conditions VARCHAR(200),
+    min_price DECIMAL(10, 2),
+    max_price DECIMAL(10, 2),
+    location VARCHAR(255),
+    notify BOOLEAN DEFAULT TRUE NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_saved_searches_user ON saved_searches(user_id, created_at DESC);
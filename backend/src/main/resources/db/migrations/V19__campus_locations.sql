@@ -0,0 +1,101 @@
+-- V19: Campus location dictionary
+-- Pickup locations become integer ids resolved from normalized names and aliases, so the
+-- search location filter is an indexed equality/IN lookup instead of LOWER(...) LIKE '%x%'.
+-- Adjacency lists nearby locations (stored in both directions) for "include nearby" filters.
+-- Names and aliases are match keys: lowercase, runs of anything but [a-z0-9] as one space.
+
+CREATE TABLE IF NOT EXISTS campus_locations (
+    location_id SERIAL PRIMARY KEY,
+    university_id UUID NOT NULL REFERENCES universities(university_id) ON DELETE CASCADE,
+    name VARCHAR(100) NOT NULL,
+    normalized_name VARCHAR(100) NOT NULL,
+    CONSTRAINT uk_campus_locations_name UNIQUE (university_id, normalized_name)
+);
+
+CREATE TABLE IF NOT EXISTS campus_location_aliases (
+    location_id INTEGER NOT NULL REFERENCES campus_locations(location_id) ON DELETE CASCADE,
+    alias VARCHAR(100) NOT NULL,
+    PRIMARY KEY (location_id, alias)
+);
+
+CREATE TABLE IF NOT EXISTS campus_location_adjacency (
+    location_id INTEGER NOT NULL REFERENCES campus_locations(location_id) ON DELETE CASCADE,
+    nearby_location_id INTEGER NOT NULL REFERENCES campus_locations(location_id) ON DELETE CASCADE,
+    PRIMARY KEY (location_id, nearby_location_id),
+    CHECK (location_id <> nearby_location_id)
+);
+
+ALTER TABLE listings ADD COLUMN IF NOT EXISTS location_id INTEGER
+    REFERENCES campus_locations(location_id) ON DELETE SET NULL;
+
+CREATE INDEX IF NOT EXISTS idx_listings_university_location
+    ON listings(university_id, location_id) WHERE location_id IS NOT NULL;
+
+-- SJSU dictionary
+INSERT INTO campus_locations (university_id, name, normalized_name)
+SELECT u.university_id, v.name, v.normalized_name
+FROM universities u
+CROSS JOIN (VALUES
+    ('Engineering Building', 'engineering building'),
+    ('MLK Library', 'mlk library'),
+    ('Student Union', 'student union'),
+    ('Campus Village', 'campus village'),
+    ('Dudley Moorhead Hall', 'dudley moorhead hall'),
+    ('Event Center', 'event center'),
+    ('Art Building', 'art building')
+) AS v(name, normalized_name)
+WHERE u.domain = 'sjsu.edu'
+ON CONFLICT DO NOTHING;
+
+INSERT INTO campus_location_aliases (location_id, alias)
+SELECT l.location_id, v.alias
+FROM campus_locations l
+JOIN universities u ON u.university_id = l.university_id AND u.domain = 'sjsu.edu'
+JOIN (VALUES
+    ('engineering building', 'engineering'),
+    ('engineering building', 'eng building'),
+    ('mlk library', 'library'),
+    ('mlk library', 'king library'),
+    ('mlk library', 'mlk'),
+    ('student union', 'union'),
+    ('student union', 'su'),
+    ('campus village', 'cv'),
+    ('dudley moorhead hall', 'dmh'),
+    ('dudley moorhead hall', 'moorhead hall'),
+    ('event center', 'sjsu event center'),
+    ('art building', 'art')
+) AS v(normalized_name, alias) ON v.normalized_name = l.normalized_name
+ON CONFLICT DO NOTHING;
+
+INSERT INTO campus_location_adjacency (location_id, nearby_location_id)
+SELECT a.location_id, b.location_id
+FROM (VALUES
+    ('engineering building', 'student union'),
+    ('student union', 'mlk library'),
+    ('student union', 'event center'),
+    ('mlk library', 'dudley moorhead hall'),
+    ('dudley moorhead hall', 'art building'),
+    ('event center', 'campus village')
+) AS v(first_name, second_name)
+JOIN universities u ON u.domain = 'sjsu.edu'
+JOIN campus_locations a ON a.university_id = u.university_id AND a.normalized_name IN (v.first_name, v.second_name)
+JOIN campus_locations b ON b.university_id = u.university_id AND b.normalized_name IN (v.first_name, v.second_name)
+WHERE a.location_id <> b.location_id
+ON CONFLICT DO NOTHING;
+
+-- Backfill: the longest name or alias found as whole words in the pickup text wins
+UPDATE listings l
+SET location_id = (
+    SELECT t.location_id
+    FROM (
+        SELECT c.location_id, c.university_id, c.normalized_name AS term FROM campus_locations c
+        UNION ALL
+        SELECT a.location_id, c.university_id, a.alias FROM campus_location_aliases a
+        JOIN campus_locations c ON c.location_id = a.location_id
+    ) t
+    WHERE t.university_id = l.university_id
+      AND ' ' || regexp_replace(LOWER(l.pickup_location), '[^a-z0-9]+', ' ', 'g') || ' ' LIKE '% ' || t.term || ' %'
+    ORDER BY LENGTH(t.term) DESC, t.location_id
+    LIMIT 1
+)
+WHERE l.pickup_location IS NOT NULL;
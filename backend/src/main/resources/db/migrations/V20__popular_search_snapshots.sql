@@ -0,0 +1,19 @@
+-- V20: Popular search snapshots
+-- Popular and trending searches are counted in memory with Space-Saving heavy-hitters
+-- sketches (per university, in sliding hour/day/week windows made of time slots) instead of
+-- GROUP BY over search_history. The sketches are saved here periodically and on shutdown,
+-- and loaded back at startup. The table is replaced as a whole on every snapshot; it is a
+-- cache, so there is no foreign key that could fail a snapshot of a deleted university.
+
+CREATE TABLE IF NOT EXISTS popular_search_snapshots (
+    snapshot_id UUID PRIMARY KEY DEFAULT uuid_generate_v4(),
+    university_id UUID NOT NULL,
+    time_window VARCHAR(10) NOT NULL,
+    slot BIGINT NOT NULL,
+    search_query VARCHAR(500) NOT NULL,
+    search_count BIGINT NOT NULL,
+    error_bound BIGINT NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_popular_search_snapshots_university
+    ON popular_search_snapshots(university_id, time_window, slot);
@@ -0,0 +1,17 @@
+-- V21: Listing neighbors
+-- "Viewed together" recommendations are precomputed in the background from a co-view
+-- matrix built incrementally from product_views, instead of self-joining product_views per
+-- request. Each listing's top neighbors are saved here so they are served right after a
+-- restart, while the matrix is rebuilt. Like popular_search_snapshots this is a cache, so
+-- there are no foreign keys to listings.
+
+CREATE TABLE IF NOT EXISTS listing_neighbors (
+    id UUID PRIMARY KEY DEFAULT uuid_generate_v4(),
+    listing_id UUID NOT NULL,
+    neighbor_id UUID NOT NULL,
+    neighbor_rank INTEGER NOT NULL,
+    score REAL NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_listing_neighbors_listing
+    ON listing_neighbors(listing_id, neighbor_rank);
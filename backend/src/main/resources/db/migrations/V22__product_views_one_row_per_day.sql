@@ -0,0 +1,40 @@
+-- V22: One product_views row per user, listing and day
+-- ProductViewService inserts the first view of a day and treats a unique violation as a
+-- repeat view (already stored by another instance or a concurrent request), so the
+-- uniq_user_product_view_per_day index must exist in the database, not only on the entity.
+-- V1 created product_views without viewed_at_date; this adds it, aligns the key column
+-- with the ProductView entity and folds existing duplicates into the day's latest view.
+
+DO $$
+BEGIN
+    IF EXISTS (
+        SELECT 1 FROM information_schema.columns
+        WHERE table_name = 'product_views' AND column_name = 'view_id'
+    ) THEN
+        EXECUTE 'ALTER TABLE product_views RENAME COLUMN view_id TO id';
+    END IF;
+END $$;
+
+ALTER TABLE product_views ADD COLUMN IF NOT EXISTS viewed_at_date DATE;
+
+UPDATE product_views SET viewed_at = CURRENT_TIMESTAMP WHERE viewed_at IS NULL;
+UPDATE product_views SET viewed_at_date = CAST(viewed_at AS DATE) WHERE viewed_at_date IS NULL;
+
+ALTER TABLE product_views ALTER COLUMN viewed_at SET NOT NULL;
+ALTER TABLE product_views ALTER COLUMN viewed_at_date SET DEFAULT CURRENT_DATE;
+ALTER TABLE product_views ALTER COLUMN viewed_at_date SET NOT NULL;
+
+-- Keep the latest row of each (user, listing, day); anonymous views (user_id NULL) never collide
+DELETE FROM product_views older
+USING product_views newer
+WHERE older.user_id = newer.user_id
+  AND older.product_id = newer.product_id
+  AND older.viewed_at_date = newer.viewed_at_date
+  AND (older.viewed_at, older.id) < (newer.viewed_at, newer.id);
+
+CREATE UNIQUE INDEX IF NOT EXISTS uniq_user_product_view_per_day
+    ON product_views(user_id, product_id, viewed_at_date);
+
+-- Recently viewed rings are rebuilt from a user's latest views
+CREATE INDEX IF NOT EXISTS idx_product_views_user
+    ON product_views(user_id, viewed_at DESC);
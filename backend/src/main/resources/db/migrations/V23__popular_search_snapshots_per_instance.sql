@@ -0,0 +1,11 @@
+-- V23: Popular search snapshots per instance
+-- Every instance counts only the searches it serves, so each one now replaces and restores
+-- only its own snapshot rows instead of the whole table, which let instances wipe each
+-- other's saved windows. Rows written before this have no owner; they are not restored
+-- and are deleted once their slots leave the window, like rows of instances that are gone.
+
+ALTER TABLE popular_search_snapshots ADD COLUMN IF NOT EXISTS instance_id VARCHAR(255) NOT NULL DEFAULT '';
+ALTER TABLE popular_search_snapshots ALTER COLUMN instance_id DROP DEFAULT;
+
+CREATE INDEX IF NOT EXISTS idx_popular_search_snapshots_instance
+    ON popular_search_snapshots(instance_id);
@@ -0,0 +1,293 @@
+package com.commandlinecommandos.campusmarketplace.cache;
+
+import com.commandlinecommandos.campusmarketplace.dto.ProductSearchResult;
+import com.commandlinecommandos.campusmarketplace.dto.ProductSummary;
+import com.commandlinecommandos.campusmarketplace.dto.SearchFacets;
+import com.commandlinecommandos.campusmarketplace.dto.SearchMetadata;
+import com.commandlinecommandos.campusmarketplace.dto.SearchResponse;
+import com.commandlinecommandos.campusmarketplace.model.ProductCategory;
+import com.commandlinecommandos.campusmarketplace.model.ProductCondition;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compatibility tests for the binary cache value codecs
+ * The golden tokens pin each wire format: if one of them breaks, bump the codec version
+ * and keep reading the old version instead of changing the layout in place.
+ */
+class CacheValueCodecTest {
+
+    private static final UUID PRODUCT_ID = UUID.fromString("0f8fad5b-d9cb-469f-a165-70867728950e");
+    private static final UUID SELLER_ID = UUID.fromString("7c9e6679-7425-40de-944b-e07fc1f90ae7");
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(2025, 10, 1, 12, 30, 15, 250_000_000);
+
+    private static final String SEARCH_RESPONSE_V1 =
+        "xwEBAgIAAQAACWJ5IHByaWNlAQQLTm8gZmlsdGVycwAKcHJpY2VfYXNjAAVkZXNrAQEPj61b2ctGn6FlcIZ3KJUOC1N0dWR5IERlc2sAAQSA"
+            + "fQpGVVJOSVRVUkUFR09PRAF8nmZ5dCVA3pRL4H/B+QrnDFRlc3QgU2VsbGVyC3Rlc3RzZWxsZXIAAQkBAAGu++iNDYDlmncBAT9AAAAAAQI=";
+    private static final String SEARCH_RESPONSE_V2 =
+        "xwECAgIAAQAACWJ5IHByaWNlAQQLTm8gZmlsdGVycwAKcHJpY2VfYXNjAAVkZXNrAQIKVEVYVEJPT0tTAgpGVVJOSVRVUkUAAQVHT09EAgIGMj"
+            + "UtNTACBTUwMCsAAQEPj61b2ctGn6FlcIZ3KJUOC1N0dWR5IERlc2sAAQSAfQpGVVJOSVRVUkUFR09PRAF8nmZ5dCVA3pRL4H/B+QrnDFRlc3Qg"
+            + "U2VsbGVyC3Rlc3RzZWxsZXIAAQkBAAGu++iNDYDlmncBAT9AAAAAAQI=";
+    private static final String PRODUCT_SUMMARY_LIST_V1 =
+        "xwIBAQEPj61b2ctGn6FlcIZ3KJUOB0xhcHRvcAABBMCpBwxFTEVDVFJPTklDUwlMSUtFX05FVwABKgABrvvojQ2A5Zp3AXyeZnl0JUDelEvg"
+            + "f8H5CucACExpYnJhcnkCAQA=";
+
+    private final CodecRedisSerializer<SearchResponse> searchSerializer =
+        new CodecRedisSerializer<>(new SearchResponseCodec());
+    private final CodecRedisSerializer<List<ProductSummary>> summarySerializer =
+        new CodecRedisSerializer<>(new ProductSummaryListCodec());
+    private final CodecRedisSerializer<List<String>> suggestionSerializer =
+        new CodecRedisSerializer<>(new StringListCodec());
+    private final CodecRedisSerializer<RecentlyViewedRing> recentlyViewedSerializer =
+        new CodecRedisSerializer<>(new RecentlyViewedRingCodec());
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+        .registerModule(new JavaTimeModule())
+        .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    @Test
+    void testSearchResponseRoundTrip() throws Exception {
+        SearchResponse response = searchResponse(5);
+        response.setNextCursor("djF-UFJJQ0VfQVNDfn4xMC4wMA");
+
+        SearchResponse decoded = searchSerializer.deserialize(searchSerializer.serialize(response));
+
+        assertEquals(objectMapper.writeValueAsString(response), objectMapper.writeValueAsString(decoded));
+    }
+
+    @Test
+    void testNullFieldsAndEmptyCollectionsRoundTrip() throws Exception {
+        ProductSearchResult sparse = new ProductSearchResult();
+        SearchResponse response = new SearchResponse(new ArrayList<>(List.of(sparse)), -1, -1, 0, 20,
+            false, false, null);
+
+        SearchResponse decoded = searchSerializer.deserialize(searchSerializer.serialize(response));
+
+        assertEquals(objectMapper.writeValueAsString(response), objectMapper.writeValueAsString(decoded));
+        assertNull(decoded.getResults().get(0).getImageUrls());
+        assertNull(decoded.getResults().get(0).getNegotiable());
+
+        List<ProductSummary> empty = summarySerializer.deserialize(summarySerializer.serialize(List.of()));
+        assertEquals(List.of(), empty);
+    }
+
+    @Test
+    void testProductSummaryListRoundTrip() throws Exception {
+        List<ProductSummary> summaries = List.of(summary("Laptop"), summary("Ünïcödé desk 📚"));
+
+        List<ProductSummary> decoded = summarySerializer.deserialize(summarySerializer.serialize(summaries));
+
+        assertEquals(objectMapper.writeValueAsString(summaries), objectMapper.writeValueAsString(decoded));
+    }
+
+    @Test
+    void testRecentlyViewedRingRoundTrip() {
+        RecentlyViewedRing ring = RecentlyViewedRing.of(List.of(UUID.randomUUID(), UUID.randomUUID()), 50);
+
+        byte[] encoded = recentlyViewedSerializer.serialize(ring);
+
+        assertEquals(ring, recentlyViewedSerializer.deserialize(encoded));
+        // Header plus 16 bytes per id
+        assertTrue(encoded.length < 2 * 16 + 8);
+        assertEquals(0, recentlyViewedSerializer.deserialize(
+            recentlyViewedSerializer.serialize(RecentlyViewedRing.empty())).size());
+    }
+
+    @Test
+    void testAutocompleteSuggestionsRoundTrip() {
+        List<String> suggestions = List.of("MacBook Pro", "MacBook Air", "");
+
+        assertEquals(suggestions, suggestionSerializer.deserialize(suggestionSerializer.serialize(suggestions)));
+    }
+
+    @Test
+    void testDecimalsKeepScale() {
+        ProductSummary summary = summary("Big ticket");
+        summary.setPrice(new BigDecimal("123456789012345678901234567890.50"));
+        ProductSummary cheap = summary("Cheap");
+        cheap.setPrice(new BigDecimal("-0.010"));
+
+        List<ProductSummary> decoded = summarySerializer.deserialize(summarySerializer.serialize(List.of(summary, cheap)));
+
+        assertEquals(summary.getPrice(), decoded.get(0).getPrice());
+        assertEquals(cheap.getPrice(), decoded.get(1).getPrice());
+    }
+
+    @Test
+    void testGoldenEncodingIsStable() throws Exception {
+        assertEquals(SEARCH_RESPONSE_V2, base64(searchSerializer.serialize(goldenSearchResponse(true))));
+        assertEquals(PRODUCT_SUMMARY_LIST_V1, base64(summarySerializer.serialize(List.of(goldenSummary()))));
+
+        SearchResponse decoded = searchSerializer.deserialize(Base64.getDecoder().decode(SEARCH_RESPONSE_V2));
+        assertEquals(objectMapper.writeValueAsString(goldenSearchResponse(true)), objectMapper.writeValueAsString(decoded));
+        List<ProductSummary> summaries = summarySerializer.deserialize(Base64.getDecoder().decode(PRODUCT_SUMMARY_LIST_V1));
+        assertEquals(objectMapper.writeValueAsString(List.of(goldenSummary())), objectMapper.writeValueAsString(summaries));
+    }
+
+    @Test
+    void testOlderSearchResponseLayoutStillDecodes() throws Exception {
+        SearchResponse decoded = searchSerializer.deserialize(Base64.getDecoder().decode(SEARCH_RESPONSE_V1));
+
+        assertEquals(objectMapper.writeValueAsString(goldenSearchResponse(false)), objectMapper.writeValueAsString(decoded));
+        assertNull(decoded.getMetadata().getFacets());
+    }
+
+    @Test
+    void testForeignNewerOrCorruptEntriesAreMisses() {
+        byte[] search = searchSerializer.serialize(searchResponse(2));
+
+        // Another codec's entry
+        assertNull(summarySerializer.deserialize(search));
+
+        // Written by a newer layout version
+        byte[] newer = search.clone();
+        newer[2] = (byte) (new SearchResponseCodec().version() + 1);
+        assertNull(searchSerializer.deserialize(newer));
+
+        // Truncated, garbage, legacy JSON entries
+        assertNull(searchSerializer.deserialize(Arrays.copyOf(search, search.length / 2)));
+        assertNull(searchSerializer.deserialize(new byte[] {(byte) 0xC7, 1, 1, (byte) 0xFF, (byte) 0xFF}));
+        assertNull(searchSerializer.deserialize("{\"@class\":\"x\"}".getBytes()));
+        assertNull(searchSerializer.deserialize(new byte[0]));
+    }
+
+    @Test
+    void testSmallerThanJsonSerializer() {
+        GenericJackson2JsonRedisSerializer json = new GenericJackson2JsonRedisSerializer(objectMapper);
+        SearchResponse response = searchResponse(20);
+        List<ProductSummary> summaries = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            summaries.add(summary("Item " + i));
+        }
+
+        int binarySearch = searchSerializer.serialize(response).length;
+        int jsonSearch = json.serialize(response).length;
+        int binarySummaries = summarySerializer.serialize(summaries).length;
+        int jsonSummaries = json.serialize(summaries).length;
+
+        assertTrue(binarySearch * 2 < jsonSearch, "binary " + binarySearch + " vs json " + jsonSearch);
+        assertTrue(binarySummaries * 2 < jsonSummaries, "binary " + binarySummaries + " vs json " + jsonSummaries);
+    }
+
+    private SearchResponse searchResponse(int size) {
+        List<ProductSearchResult> results = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            ProductSearchResult result = new ProductSearchResult();
+            result.setProductId(UUID.randomUUID());
+            result.setTitle("Calculus Textbook " + i);
+            result.setDescription("Used calculus book, some highlighting in chapter " + i);
+            result.setPrice(new BigDecimal("45.99"));
+            result.setCategory(ProductCategory.TEXTBOOKS);
+            result.setCondition(ProductCondition.GOOD);
+            result.setSellerId(UUID.randomUUID());
+            result.setSellerName("Test Seller");
+            result.setSellerUsername("testseller");
+            result.setLocation("Library");
+            result.setViewCount(i * 10);
+            result.setFavoriteCount(i);
+            result.setCreatedAt(CREATED_AT.plusMinutes(i));
+            result.setImageUrls(List.of("https://cdn.example.com/listings/" + i + ".jpg"));
+            result.setRelevanceScore(i % 2 == 0 ? 0.5f + i : null);
+            result.setNegotiable(i % 2 == 0);
+            result.setQuantity(1);
+            results.add(result);
+        }
+        SearchMetadata metadata = new SearchMetadata(12, "Categories: [TEXTBOOKS]", 1, "relevance", false, "calculus");
+        metadata.setFacets(facets(size));
+        return new SearchResponse(results, 137, 7, 0, 20, true, false, metadata);
+    }
+
+    private ProductSummary summary(String title) {
+        ProductSummary summary = new ProductSummary();
+        summary.setProductId(UUID.randomUUID());
+        summary.setTitle(title);
+        summary.setDescription("Description of " + title);
+        summary.setPrice(new BigDecimal("600.00"));
+        summary.setCategory(ProductCategory.ELECTRONICS);
+        summary.setCondition(ProductCondition.LIKE_NEW);
+        summary.setImageUrls(List.of());
+        summary.setViewCount(42);
+        summary.setFavoriteCount(3);
+        summary.setCreatedAt(CREATED_AT);
+        summary.setSellerId(UUID.randomUUID());
+        summary.setSellerUsername("seller");
+        summary.setLocation("Library");
+        summary.setNegotiable(true);
+        summary.setQuantity(1);
+        return summary;
+    }
+
+    private SearchResponse goldenSearchResponse(boolean withFacets) {
+        ProductSearchResult result = new ProductSearchResult();
+        result.setProductId(PRODUCT_ID);
+        result.setTitle("Study Desk");
+        result.setPrice(new BigDecimal("80.00"));
+        result.setCategory(ProductCategory.FURNITURE);
+        result.setCondition(ProductCondition.GOOD);
+        result.setSellerId(SELLER_ID);
+        result.setSellerName("Test Seller");
+        result.setSellerUsername("testseller");
+        result.setViewCount(-5);
+        result.setFavoriteCount(0);
+        result.setCreatedAt(CREATED_AT);
+        result.setImageUrls(List.of());
+        result.setRelevanceScore(0.75f);
+        result.setNegotiable(false);
+        result.setQuantity(1);
+        SearchMetadata metadata = new SearchMetadata(4, "No filters", 0, "price_asc", false, "desk");
+        if (withFacets) {
+            metadata.setFacets(facets(1));
+        }
+        SearchResponse response = new SearchResponse(new ArrayList<>(List.of(result)), 1, 1, 0, 1,
+            false, false, metadata);
+        response.setNextCursor("by price");
+        return response;
+    }
+
+    private SearchFacets facets(long matches) {
+        Map<String, Long> categories = new LinkedHashMap<>();
+        categories.put("TEXTBOOKS", matches);
+        categories.put("FURNITURE", 0L);
+        Map<String, Long> conditions = new LinkedHashMap<>();
+        conditions.put("GOOD", matches);
+        Map<String, Long> priceRanges = new LinkedHashMap<>();
+        priceRanges.put("25-50", matches);
+        priceRanges.put("500+", 0L);
+        return new SearchFacets(categories, conditions, priceRanges);
+    }
+
+    private ProductSummary goldenSummary() {
+        ProductSummary summary = new ProductSummary();
+        summary.setProductId(PRODUCT_ID);
+        summary.setTitle("Laptop");
+        summary.setPrice(new BigDecimal("600.00"));
+        summary.setCategory(ProductCategory.ELECTRONICS);
+        summary.setCondition(ProductCondition.LIKE_NEW);
+        summary.setViewCount(21);
+        summary.setCreatedAt(CREATED_AT);
+        summary.setSellerId(SELLER_ID);
+        summary.setLocation("Library");
+        summary.setNegotiable(null);
+        summary.setQuantity(0);
+        return summary;
+    }
+
+    private static String base64(byte[] bytes) {
+        return Base64.getEncoder().encodeToString(bytes);
+    }
+}
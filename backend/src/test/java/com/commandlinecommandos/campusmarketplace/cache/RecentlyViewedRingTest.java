@@ -0,0 +1,41 @@
+package com.commandlinecommandos.campusmarketplace.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the per-user recently viewed ring
+ */
+class RecentlyViewedRingTest {
+
+    private final UUID a = UUID.randomUUID();
+    private final UUID b = UUID.randomUUID();
+    private final UUID c = UUID.randomUUID();
+    private final UUID d = UUID.randomUUID();
+
+    @Test
+    void testMostRecentFirstWithoutDuplicates() {
+        RecentlyViewedRing ring = RecentlyViewedRing.empty()
+            .withFirst(a, 10)
+            .withFirst(b, 10)
+            .withFirst(c, 10)
+            .withFirst(a, 10);
+
+        assertEquals(List.of(a, c, b), ring.first(10));
+        assertEquals(List.of(a, c), ring.first(2));
+        assertSame(ring, ring.withFirst(a, 10));
+    }
+
+    @Test
+    void testOldestDropsOutAtCapacity() {
+        RecentlyViewedRing ring = RecentlyViewedRing.of(List.of(c, b, a), 3).withFirst(d, 3);
+
+        assertEquals(List.of(d, c, b), ring.first(10));
+        assertEquals(List.of(b, d, c), ring.withFirst(b, 3).first(10));
+        assertEquals(List.of(a, b), RecentlyViewedRing.of(List.of(a, b, a, c), 2).first(10));
+    }
+}
@@ -2,9 +2,12 @@ package com.commandlinecommandos.campusmarketplace.controller;
 
 import com.commandlinecommandos.campusmarketplace.model.*;
 import com.commandlinecommandos.campusmarketplace.repository.ProductRepository;
+import com.commandlinecommandos.campusmarketplace.repository.ProductViewRepository;
 import com.commandlinecommandos.campusmarketplace.repository.UniversityRepository;
 import com.commandlinecommandos.campusmarketplace.repository.UserRepository;
 import com.commandlinecommandos.campusmarketplace.security.JwtUtil;
+import com.commandlinecommandos.campusmarketplace.service.RecentlyViewedService;
+import com.commandlinecommandos.campusmarketplace.service.TrendingService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -34,6 +37,7 @@ import static org.hamcrest.Matchers.*;
  * - GET /discovery/recommended
  * - GET /discovery/similar/{productId}
  * - GET /discovery/recently-viewed
+ * - GET /discovery/feed
  */
 @SpringBootTest
 @AutoConfigureMockMvc(addFilters = false)  // Disable Spring Security filters for testing
@@ -56,9 +60,18 @@ public class DiscoveryControllerIntegrationTest {
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private ProductViewRepository productViewRepository;
+
     @Autowired
     private JwtUtil jwtUtil;
 
+    @Autowired
+    private RecentlyViewedService recentlyViewedService;
+
+    @Autowired
+    private TrendingService trendingService;
+
     private String authToken;
     private User testUser;
     private University testUniversity;
@@ -205,6 +218,110 @@ public class DiscoveryControllerIntegrationTest {
         // Same format, ordered by most recent view
     }
 
+    @Test
+    public void testGetRecentlyViewed_LatestViewFirstAndOncePerProduct() throws Exception {
+        // ✅ VALID REQUEST: Products viewed on several days appear once, at their latest view
+        Product desk = new Product(testUser, "Standing desk", "Adjustable", ProductCategory.FURNITURE,
+            ProductCondition.GOOD, new BigDecimal("150.00"));
+        desk.setUniversity(testUniversity);
+        desk.setModerationStatus(ModerationStatus.APPROVED);
+        desk = productRepository.save(desk);
+
+        LocalDateTime now = LocalDateTime.now();
+        recordView(testProduct, now.minusDays(2));
+        recordView(desk, now.minusDays(1));
+        recordView(testProduct, now.minusHours(1));
+
+        mockMvc.perform(get("/discovery/recently-viewed")
+                .param("limit", "20")
+                .header("Authorization", "Bearer " + authToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.recentlyViewed.length()").value(2))
+                .andExpect(jsonPath("$.recentlyViewed[0].productId").value(testProduct.getProductId().toString()))
+                .andExpect(jsonPath("$.recentlyViewed[0].sellerUsername").value("testuser"))
+                .andExpect(jsonPath("$.recentlyViewed[1].title").value("Standing desk"));
+    }
+
+    @Test
+    public void testGetRecentlyViewed_NewViewShowsUpImmediately() throws Exception {
+        // ✅ VALID REQUEST: A view after the first read is not hidden behind a cached list
+        Product desk = new Product(testUser, "Standing desk", "Adjustable", ProductCategory.FURNITURE,
+            ProductCondition.GOOD, new BigDecimal("150.00"));
+        desk.setUniversity(testUniversity);
+        desk.setModerationStatus(ModerationStatus.APPROVED);
+        desk = productRepository.save(desk);
+        recordView(testProduct, LocalDateTime.now().minusHours(1));
+
+        mockMvc.perform(get("/discovery/recently-viewed")
+                .param("limit", "20")
+                .header("Authorization", "Bearer " + authToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.recentlyViewed.length()").value(1));
+
+        recentlyViewedService.record(testUser.getUserId(), desk.getProductId());
+
+        mockMvc.perform(get("/discovery/recently-viewed")
+                .param("limit", "20")
+                .header("Authorization", "Bearer " + authToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.recentlyViewed.length()").value(2))
+                .andExpect(jsonPath("$.recentlyViewed[0].title").value("Standing desk"))
+                .andExpect(jsonPath("$.recentlyViewed[1].productId").value(testProduct.getProductId().toString()));
+    }
+
+    @Test
+    public void testGetRecommended_SharesLimitByInterestWeight() throws Exception {
+        // ✅ VALID REQUEST: Three furniture views and one textbook view give furniture three of four slots
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < 3; i++) {
+            recordView(listing("Desk " + i, ProductCategory.FURNITURE), now.minusHours(i + 1));
+            listing("Textbook " + i, ProductCategory.TEXTBOOKS);
+        }
+        recordView(listing("Calculus", ProductCategory.TEXTBOOKS), now.minusHours(1));
+
+        mockMvc.perform(get("/discovery/recommended")
+                .param("limit", "4")
+                .header("Authorization", "Bearer " + authToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.recommended.length()").value(4))
+                .andExpect(jsonPath("$.recommended[0].category").value("FURNITURE"))
+                .andExpect(jsonPath("$.recommended[?(@.category == 'FURNITURE')].title", hasSize(3)))
+                .andExpect(jsonPath("$.recommended[3].category").value("TEXTBOOKS"))
+                .andExpect(jsonPath("$.recommended[?(@.category == 'ELECTRONICS')]").isEmpty());
+    }
+
+    @Test
+    public void testGetFeed_ValidRequest() throws Exception {
+        // ✅ VALID REQUEST: All sections in one response, none of them missing
+        // (sections run on their own threads, outside this test's transaction, so only the shape is checked)
+        mockMvc.perform(get("/discovery/feed")
+                .param("limit", "5")
+                .header("Authorization", "Bearer " + authToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.trending").isArray())
+                .andExpect(jsonPath("$.recommended").isArray())
+                .andExpect(jsonPath("$.recentlyViewed").isArray())
+                .andExpect(jsonPath("$.similar").isArray())
+                .andExpect(jsonPath("$.missingSections").isEmpty());
+    }
+
+    private Product listing(String title, ProductCategory category) {
+        Product product = new Product(testUser, title, "For recommendations", category,
+            ProductCondition.GOOD, new BigDecimal("20.00"));
+        product.setUniversity(testUniversity);
+        product.setModerationStatus(ModerationStatus.APPROVED);
+        return productRepository.save(product);
+    }
+
+    private void recordView(Product product, LocalDateTime viewedAt) {
+        ProductView view = new ProductView();
+        view.setUser(testUser);
+        view.setProduct(product);
+        view.setViewedAt(viewedAt);
+        view.setViewedAtDate(viewedAt.toLocalDate());
+        productViewRepository.save(view);
+    }
+
     // ========================================
     // ❌ INVALID REQUEST EXAMPLES
     // ========================================
@@ -248,6 +365,23 @@ public class DiscoveryControllerIntegrationTest {
         // }
     }
 
+    @Test
+    public void testGetFeed_MissingAuthentication() throws Exception {
+        // ❌ INVALID: The feed is personal, so it needs a user
+        mockMvc.perform(get("/discovery/feed"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    public void testGetFeed_InvalidLimit() throws Exception {
+        // ❌ INVALID: Limit exceeds maximum
+        mockMvc.perform(get("/discovery/feed")
+                .param("limit", "51")
+                .header("Authorization", "Bearer " + authToken))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("limit must be between 1 and 50"));
+    }
+
     @Test
     public void testGetSimilar_InvalidProductId() throws Exception {
         // ❌ INVALID: Non-existent product ID
@@ -314,6 +448,26 @@ public class DiscoveryControllerIntegrationTest {
     // 🔍 EDGE CASES
     // ========================================
 
+    @Test
+    public void testGetTrending_RecentActivityComesFirstWithSeller() throws Exception {
+        // Edge Case: a favorited listing with few views outranks the most viewed one;
+        // its card is loaded when trending is read, so the seller is filled in
+        Product favorited = new Product(testUser, "Desk lamp", "LED desk lamp", ProductCategory.FURNITURE,
+            ProductCondition.GOOD, new BigDecimal("15.00"));
+        favorited.setUniversity(testUniversity);
+        favorited.setModerationStatus(ModerationStatus.APPROVED);
+        favorited = productRepository.save(favorited);
+        trendingService.recordFavorite(favorited);
+
+        mockMvc.perform(get("/discovery/trending")
+                .param("limit", "2")
+                .header("Authorization", "Bearer " + authToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.trending[0].productId").value(favorited.getProductId().toString()))
+                .andExpect(jsonPath("$.trending[0].sellerUsername").value("testuser"))
+                .andExpect(jsonPath("$.trending[1].productId").value(testProduct.getProductId().toString()));
+    }
+
     @Test
     public void testGetTrending_NoTrendingItems() throws Exception {
         // Edge Case: No trending items (all products have low views)
@@ -34,6 +34,7 @@ import static org.hamcrest.Matchers.*;
  * - POST /search - Advanced search with filters
  * - GET /search/autocomplete - Auto-suggest
  * - GET /search/history - User search history
+ * - GET /search/popular, /search/trending - Popular searches
  * 
  * Includes examples of:
  * - ✅ Valid requests and responses
@@ -274,6 +275,79 @@ public class SearchControllerIntegrationTest {
                 .andExpect(jsonPath("$.history").isArray());
     }
 
+    @Test
+    public void testPopularSearches_CountsSuccessfulSearches() throws Exception {
+        // ✅ VALID REQUEST: A search that finds something shows up as popular and trending
+        mockMvc.perform(post("/search")
+                .header("Authorization", "Bearer " + authToken)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"query\": \"MacBook\"}"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/search/popular")
+                .param("window", "hour")
+                .header("Authorization", "Bearer " + authToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.window").value("hour"))
+                .andExpect(jsonPath("$.searches[0].query").value("macbook"))
+                .andExpect(jsonPath("$.searches[0].count").value(1))
+                .andExpect(jsonPath("$.searches[0].errorBound").value(0));
+
+        mockMvc.perform(get("/search/trending")
+                .header("Authorization", "Bearer " + authToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.searches[0].query").value("macbook"));
+    }
+
+    @Test
+    public void testPopularSearches_InvalidWindow() throws Exception {
+        // ❌ INVALID REQUEST: Unknown time window
+        mockMvc.perform(get("/search/popular")
+                .param("window", "month")
+                .header("Authorization", "Bearer " + authToken))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("window must be one of hour, day, week"));
+    }
+
+    @Test
+    public void testSavedSearches_CreateListDelete() throws Exception {
+        // ✅ VALID REQUEST: Save a search, list it, delete it
+        String requestBody = """
+            {
+                "name": "Cheap laptops",
+                "criteria": {
+                    "query": "laptop",
+                    "categories": ["ELECTRONICS"],
+                    "maxPrice": 500
+                }
+            }
+            """;
+
+        MvcResult created = mockMvc.perform(post("/search/saved")
+                .header("Authorization", "Bearer " + authToken)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(requestBody))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.name").value("Cheap laptops"))
+                .andExpect(jsonPath("$.notify").value(true))
+                .andExpect(jsonPath("$.criteria.categories[0]").value("ELECTRONICS"))
+                .andReturn();
+        String id = objectMapper.readTree(created.getResponse().getContentAsString()).get("id").asText();
+
+        mockMvc.perform(get("/search/saved")
+                .header("Authorization", "Bearer " + authToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.savedSearches.length()").value(1))
+                .andExpect(jsonPath("$.savedSearches[0].criteria.query").value("laptop"));
+
+        mockMvc.perform(delete("/search/saved/" + id)
+                .header("Authorization", "Bearer " + authToken))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(delete("/search/saved/" + id)
+                .header("Authorization", "Bearer " + authToken))
+                .andExpect(status().isNotFound());
+    }
+
     // ========================================
     // ❌ INVALID REQUEST EXAMPLES
     // ========================================
@@ -307,6 +381,55 @@ public class SearchControllerIntegrationTest {
         // }
     }
 
+    @Test
+    public void testExport_MissingAuthentication() throws Exception {
+        // ❌ INVALID: Missing Authorization header
+        mockMvc.perform(post("/search/export")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"query\": \"laptop\"}"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    public void testExport_InvalidPriceRange() throws Exception {
+        // ❌ INVALID: minPrice > maxPrice is rejected before streaming starts
+        mockMvc.perform(post("/search/export")
+                .header("Authorization", "Bearer " + authToken)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"minPrice\": 500, \"maxPrice\": 100}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("minPrice cannot be greater than maxPrice"));
+    }
+
+    @Test
+    public void testSearch_OtherUniversitiesWithoutFederation() throws Exception {
+        // ❌ INVALID: Searching other campuses needs app.search.federation.enabled
+        mockMvc.perform(post("/search")
+                .header("Authorization", "Bearer " + authToken)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"query\": \"laptop\", \"universityIds\": [\"" + UUID.randomUUID() + "\"]}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Searching other universities is not enabled"));
+    }
+
+    @Test
+    public void testSavedSearch_MissingName() throws Exception {
+        // ❌ INVALID: A saved search needs a name
+        mockMvc.perform(post("/search/saved")
+                .header("Authorization", "Bearer " + authToken)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"criteria\": {\"query\": \"laptop\"}}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("name: must be between 1 and 100 characters"));
+    }
+
+    @Test
+    public void testSavedSearch_MissingAuthentication() throws Exception {
+        // ❌ INVALID: Missing Authorization header
+        mockMvc.perform(get("/search/saved"))
+                .andExpect(status().isUnauthorized());
+    }
+
     @Test
     public void testSearch_InvalidPageNumber() throws Exception {
         // ❌ INVALID: Negative page number
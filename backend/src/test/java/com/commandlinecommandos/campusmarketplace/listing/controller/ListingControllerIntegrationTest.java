@@ -132,6 +132,25 @@ public class ListingControllerIntegrationTest {
                 .andExpect(jsonPath("$.content[0].category", is("ELECTRONICS")));
     }
 
+    @Test
+    public void testGetAllListings_CursorMode() throws Exception {
+        mockMvc.perform(get("/listings")
+                .param("size", "20")
+                .param("cursor", ""))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.last", is(true)))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist())
+                .andExpect(jsonPath("$.totalPages").doesNotExist());
+    }
+
+    @Test
+    public void testGetAllListings_InvalidCursor() throws Exception {
+        mockMvc.perform(get("/listings")
+                .param("cursor", "garbage"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     public void testGetListingById_Success() throws Exception {
         mockMvc.perform(get("/listings/" + testListing.getProductId()))
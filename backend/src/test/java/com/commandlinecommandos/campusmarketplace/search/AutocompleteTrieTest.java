@@ -0,0 +1,97 @@
+package com.commandlinecommandos.campusmarketplace.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the autocomplete prefix trie
+ */
+class AutocompleteTrieTest {
+
+    private AutocompleteTrie trie;
+
+    @BeforeEach
+    void setUp() {
+        trie = new AutocompleteTrie(3);
+    }
+
+    @Test
+    void testCompletesFromAnyWordStartByWeight() {
+        trie.adjust("Calculus Textbook", 5);
+        trie.adjust("Chemistry Textbook", 9);
+        trie.adjust("Textbook stand", 1);
+
+        assertEquals(List.of("Chemistry Textbook", "Calculus Textbook", "Textbook stand"), complete("text"));
+        assertEquals(List.of("Chemistry Textbook", "Calculus Textbook"), complete("C"));
+        assertEquals(List.of("Calculus Textbook"), complete("calculus t"));
+        assertEquals(List.of(), complete("physics"));
+    }
+
+    @Test
+    void testTopKIsBoundedAndFollowsWeightChanges() {
+        trie.adjust("Desk", 1);
+        trie.adjust("Desk lamp", 2);
+        trie.adjust("Desk chair", 3);
+        trie.adjust("Deskjet printer", 4);
+        assertEquals(List.of("Deskjet printer", "Desk chair", "Desk lamp"), complete("desk"));
+
+        trie.adjust("Desk", 10);
+        assertEquals(List.of("Desk", "Deskjet printer", "Desk chair"), complete("de"));
+        assertEquals(List.of("Desk"), trie.complete("desk", 1));
+    }
+
+    @Test
+    void testRemovingSuggestionsKeepsSiblings() {
+        trie.adjust("Desk", 1);
+        trie.adjust("Desk lamp", 2);
+        trie.adjust("Deskjet printer", 3);
+
+        trie.adjust("Desk lamp", -2);
+        assertEquals(List.of("Deskjet printer", "Desk"), complete("des"));
+        assertEquals(List.of(), complete("lamp"));
+
+        trie.adjust("Deskjet printer", -3);
+        trie.adjust("Desk", -1);
+        assertEquals(List.of(), complete("d"));
+        assertFalse(trie.isDirty());
+    }
+
+    @Test
+    void testSameTextFromSeveralSourcesAddsUp() {
+        trie.adjust("Mini fridge", 2);
+        trie.adjust("Microwave", 3);
+        trie.adjust("Mini fridge", 2);
+
+        assertEquals(List.of("Mini fridge", "Microwave"), complete("mi"));
+    }
+
+    @Test
+    void testSpellingsOfOnePhraseAreMerged() {
+        trie.adjust("Mini Fridge", 2);
+        trie.adjust("mini fridge", 5);
+        trie.adjust("Microwave", 6);
+
+        assertEquals(List.of("mini fridge", "Microwave"), complete("mi"));
+    }
+
+    @Test
+    void testPrefixNormalization() {
+        trie.adjust("Wi-Fi Router", 1);
+        trie.adjust("Widescreen monitor", 2);
+
+        assertEquals(List.of("Wi-Fi Router"), complete("wi f"));
+        assertEquals(List.of("Wi-Fi Router"), complete("  WI-FI"));
+        assertEquals(List.of("Widescreen monitor"), complete("widescreen "));
+        assertEquals(List.of(), complete("router "));
+        assertEquals(List.of(), complete("--"));
+    }
+
+    private List<String> complete(String prefix) {
+        trie.refresh();
+        return trie.complete(prefix, 10);
+    }
+}
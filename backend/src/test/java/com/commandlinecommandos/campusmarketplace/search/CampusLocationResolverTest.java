@@ -0,0 +1,65 @@
+package com.commandlinecommandos.campusmarketplace.search;
+
+import com.commandlinecommandos.campusmarketplace.model.CampusLocation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for resolving location text against the campus location dictionary
+ */
+class CampusLocationResolverTest {
+
+    private final UUID universityId = UUID.randomUUID();
+
+    private CampusLocationResolver resolver;
+
+    @BeforeEach
+    void setUp() {
+        CampusLocation engineering = location(1, "Engineering Building", "engineering building", "engineering");
+        CampusLocation union = location(2, "Student Union", "student union", "union", "su");
+        CampusLocation art = location(3, "Art Building", "art building", "art");
+        engineering.getNearbyLocationIds().add(2);
+        union.getNearbyLocationIds().addAll(Set.of(1, 3));
+        art.getNearbyLocationIds().add(2);
+
+        resolver = new CampusLocationResolver();
+        resolver.load(List.of(art, union, engineering));
+    }
+
+    @Test
+    void testFiltersResolveOnExactNamesAndAliases() {
+        assertEquals(Set.of(2), resolver.filterIds(universityId, "  Student-Union ", false));
+        assertEquals(Set.of(2), resolver.filterIds(universityId, "SU", false));
+        assertEquals(Set.of(2, 1, 3), resolver.filterIds(universityId, "union", true));
+        assertEquals(Set.of(1, 2), resolver.filterIds(universityId, "Engineering", true));
+
+        // Partial names and other universities fall back to text matching
+        assertNull(resolver.filterIds(universityId, "Engin", false));
+        assertNull(resolver.filterIds(UUID.randomUUID(), "union", false));
+        assertNull(resolver.filterIds(universityId, "", false));
+    }
+
+    @Test
+    void testListingsResolveOnLongestWholeWordMatch() {
+        assertEquals(1, resolver.resolveListing(universityId, "Engineering Building, Room 285"));
+        assertEquals(3, resolver.resolveListing(universityId, "Art Building - Studio 2"));
+        assertEquals(2, resolver.resolveListing(universityId, "Lobby of the student union"));
+
+        // "art" must be a whole word, "Smart" is not the Art Building
+        assertNull(resolver.resolveListing(universityId, "Smart Hall"));
+        assertNull(resolver.resolveListing(universityId, null));
+    }
+
+    private CampusLocation location(int id, String name, String normalizedName, String... aliases) {
+        CampusLocation location = new CampusLocation(universityId, name, normalizedName);
+        location.setId(id);
+        location.getAliases().addAll(List.of(aliases));
+        return location;
+    }
+}
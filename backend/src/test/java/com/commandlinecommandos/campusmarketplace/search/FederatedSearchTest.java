@@ -0,0 +1,209 @@
+package com.commandlinecommandos.campusmarketplace.search;
+
+import com.commandlinecommandos.campusmarketplace.dto.SearchRequest;
+import com.commandlinecommandos.campusmarketplace.model.Product;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for fanning a search out to university shards and merging the pages
+ */
+class FederatedSearchTest {
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final FederatedSearch federatedSearch = new FederatedSearch(executor, registry, 500, 100);
+
+    private final UUID north = UUID.randomUUID();
+    private final UUID south = UUID.randomUUID();
+    private final UUID east = UUID.randomUUID();
+    private final Map<UUID, Product> products = new HashMap<>();
+    private final Set<UUID> deleted = new HashSet<>();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testOffsetPagesAreMergedInSortOrder() {
+        FakeExecutor shards = new FakeExecutor();
+        shards.add(north, "10", "30", "50");
+        shards.add(south, "20", "40");
+        shards.add(east, "5");
+
+        SearchRequest request = request("price_asc", 3);
+        FederatedSearch.Result first = run(shards, request, null);
+        request.setPage(1);
+        FederatedSearch.Result second = run(shards, request, null);
+
+        assertFalse(first.isPartial());
+        assertEquals(List.of("5", "10", "20"), prices(first.getHits()));
+        assertEquals(6, first.getHits().getTotalHits());
+        assertTrue(first.getHits().hasMore());
+        assertEquals(List.of("30", "40", "50"), prices(second.getHits()));
+        assertFalse(second.getHits().hasMore());
+    }
+
+    @Test
+    void testKeysetPagesContinueAfterTheCursor() {
+        FakeExecutor shards = new FakeExecutor();
+        shards.add(north, "50", "30", "10");
+        shards.add(south, "40", "20");
+
+        SearchRequest request = request("price_desc", 2);
+        request.setCursor("");
+        SearchHits first = run(shards, request, null).getHits();
+        UUID last = first.getListingIds().get(1);
+        SearchHits second = run(shards, request, SearchCursor.after(SearchSort.PRICE_DESC, products.get(last), null)).getHits();
+        SearchHits third = run(shards, request, SearchCursor.after(SearchSort.PRICE_DESC,
+            products.get(second.getListingIds().get(1)), null)).getHits();
+
+        assertEquals(List.of("50", "40"), prices(first));
+        assertEquals(-1, first.getTotalHits());
+        assertTrue(first.hasMore());
+        assertEquals(List.of("30", "20"), prices(second));
+        assertTrue(second.hasMore());
+        assertEquals(List.of("10"), prices(third));
+        assertFalse(third.hasMore());
+    }
+
+    @Test
+    void testSlowAndFailingShardsGivePartialResults() {
+        FakeExecutor shards = new FakeExecutor();
+        shards.add(north, "10", "30");
+        shards.add(south, "20");
+        shards.add(east, "5");
+        shards.slow.add(south);
+        shards.failing.add(east);
+
+        FederatedSearch.Result result = run(shards, request("price_asc", 10), null);
+
+        assertTrue(result.isPartial());
+        assertEquals(List.of(south, east), result.getUnavailableUniversityIds());
+        assertEquals(List.of("10", "30"), prices(result.getHits()));
+        assertEquals(2, result.getHits().getTotalHits());
+        assertEquals(1, registry.get("search.federated.shards").tag("outcome", "timeout").counter().count());
+        assertEquals(1, registry.get("search.federated.shards").tag("outcome", "failed").counter().count());
+    }
+
+    @Test
+    void testListingsDeletedBeforeTheMergeAreSkipped() {
+        FakeExecutor shards = new FakeExecutor();
+        shards.add(north, "10", "30");
+        shards.add(south, "20");
+        deleted.add(shards.hits.get(north).get(0));
+
+        FederatedSearch.Result result = run(shards, request("price_asc", 10), null);
+
+        assertEquals(List.of("20", "30"), prices(result.getHits()));
+    }
+
+    @Test
+    void testDeepOffsetPagesAreRejected() {
+        SearchRequest request = request("price_asc", 20);
+        request.setPage(5);
+
+        assertThrows(IllegalArgumentException.class, () -> run(new FakeExecutor(), request, null));
+    }
+
+    private FederatedSearch.Result run(FakeExecutor shards, SearchRequest request, SearchCursor cursor) {
+        return federatedSearch.execute(shards, List.of(north, south, east), request, cursor,
+            (ids, sort, scores) -> {
+                Map<UUID, SearchCursor> keys = new HashMap<>();
+                for (UUID id : ids) {
+                    if (!deleted.contains(id)) {
+                        keys.put(id, SearchCursor.after(sort, products.get(id), scores.get(id)));
+                    }
+                }
+                return keys;
+            });
+    }
+
+    private List<String> prices(SearchHits hits) {
+        return hits.getListingIds().stream().map(id -> products.get(id).getPrice().toPlainString()).toList();
+    }
+
+    private static SearchRequest request(String sortBy, int size) {
+        SearchRequest request = new SearchRequest();
+        request.setSortBy(sortBy);
+        request.setSize(size);
+        return request;
+    }
+
+    /**
+     * Shard executor over fixed listings, sorted by the request's sort
+     */
+    private class FakeExecutor implements SearchExecutor {
+
+        private final Map<UUID, List<UUID>> hits = new HashMap<>();
+        private final List<UUID> slow = new ArrayList<>();
+        private final List<UUID> failing = new ArrayList<>();
+
+        void add(UUID universityId, String... prices) {
+            for (String price : prices) {
+                Product product = new Product();
+                product.setProductId(UUID.randomUUID());
+                product.setPrice(new BigDecimal(price));
+                product.setCreatedAt(LocalDateTime.now());
+                products.put(product.getProductId(), product);
+                hits.computeIfAbsent(universityId, id -> new ArrayList<>()).add(product.getProductId());
+            }
+        }
+
+        @Override
+        public boolean isAvailable() {
+            return true;
+        }
+
+        @Override
+        public SearchHits execute(UUID universityId, SearchRequest request, SearchCursor cursor) {
+            if (failing.contains(universityId)) {
+                throw new IllegalStateException("shard down");
+            }
+            if (slow.contains(universityId)) {
+                try {
+                    Thread.sleep(10_000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return SearchHits.empty();
+            }
+            SearchSort sort = SearchSort.from(request.getSortBy());
+            List<SearchCursor> keys = new ArrayList<>();
+            for (UUID id : hits.getOrDefault(universityId, List.of())) {
+                SearchCursor key = SearchCursor.after(sort, products.get(id), null);
+                if (cursor == null || SearchCursor.compare(key, cursor) > 0) {
+                    keys.add(key);
+                }
+            }
+            keys.sort(SearchCursor::compare);
+            int offset = request.getCursor() != null ? 0 : request.getPage() * request.getSize();
+            List<UUID> page = keys.stream().skip(offset).limit(request.getSize())
+                .map(SearchCursor::getListingId).toList();
+            return new SearchHits(page, Collections.nCopies(page.size(), null), keys.size(),
+                offset + page.size() < keys.size());
+        }
+
+        @Override
+        public String name() {
+            return "fake";
+        }
+    }
+}
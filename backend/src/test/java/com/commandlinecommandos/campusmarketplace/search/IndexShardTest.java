@@ -0,0 +1,272 @@
+package com.commandlinecommandos.campusmarketplace.search;
+
+import com.commandlinecommandos.campusmarketplace.dto.SearchFacets;
+import com.commandlinecommandos.campusmarketplace.dto.SearchRequest;
+import com.commandlinecommandos.campusmarketplace.model.ProductCategory;
+import com.commandlinecommandos.campusmarketplace.model.ProductCondition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the per-university inverted index shard
+ */
+class IndexShardTest {
+
+    private final UUID universityId = UUID.randomUUID();
+    private final LocalDateTime now = LocalDateTime.of(2025, 10, 1, 12, 0);
+
+    private IndexShard shard;
+
+    @BeforeEach
+    void setUp() {
+        shard = new IndexShard();
+    }
+
+    @Test
+    void testAllTermsMustMatch() {
+        UUID textbook = add("Calculus Textbook", "Used calculus book", "TEXTBOOKS", "50.00", 0);
+        add("Physics Textbook", "Intro physics", "TEXTBOOKS", "40.00", 1);
+
+        SearchHits result = shard.search(request("calculus textbooks"), null, null);
+
+        assertEquals(1, result.getTotalHits());
+        assertEquals(List.of(textbook), result.getListingIds());
+        assertNotNull(result.getScores().get(0));
+    }
+
+    @Test
+    void testTitleMatchesRankAboveDescriptionMatches() {
+        UUID inDescription = add("Desk lamp", "Goes well with a laptop stand", "ELECTRONICS", "15.00", 0);
+        UUID inTitle = add("Laptop", "Barely used", "ELECTRONICS", "600.00", 1);
+
+        SearchHits result = shard.search(request("laptop"), null, null);
+
+        assertEquals(List.of(inTitle, inDescription), result.getListingIds());
+        assertTrue(result.getScores().get(0) > result.getScores().get(1));
+    }
+
+    @Test
+    void testUnknownTermReturnsNothing() {
+        add("Laptop", "Barely used", "ELECTRONICS", "600.00", 0);
+
+        assertEquals(0, shard.search(request("laptop unicorn"), null, null).getTotalHits());
+    }
+
+    @Test
+    void testFiltersAndPriceSort() {
+        UUID cheap = add("Desk", "Wooden desk", "FURNITURE", "20.00", 0);
+        UUID mid = add("Chair", "Office chair", "FURNITURE", "45.50", 1);
+        add("Sofa", "Big sofa", "FURNITURE", "300.00", 2);
+        add("Monitor", "27 inch", "ELECTRONICS", "30.00", 3);
+
+        SearchRequest request = request(null);
+        request.setCategories(List.of(ProductCategory.FURNITURE));
+        request.setMaxPrice(new BigDecimal("100"));
+        request.setSortBy("price_asc");
+
+        SearchHits result = shard.search(request, null, null);
+
+        assertEquals(2, result.getTotalHits());
+        assertEquals(List.of(cheap, mid), result.getListingIds());
+    }
+
+    @Test
+    void testPagingWithoutQueryIsNewestFirst() {
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            ids.add(add("Item " + i, "Thing", "OTHER", "10.00", i));
+        }
+
+        SearchRequest request = request(null);
+        request.setSize(2);
+        request.setPage(1);
+
+        SearchHits result = shard.search(request, null, null);
+
+        assertEquals(5, result.getTotalHits());
+        assertEquals(List.of(ids.get(2), ids.get(1)), result.getListingIds());
+    }
+
+    @Test
+    void testKeysetPagingKeepsListingsFromTheSameMillisecond() {
+        // The newer listing has the lower id, so a millisecond sort would put it second
+        UUID newer = new UUID(0, 1);
+        UUID older = new UUID(0, 2);
+        shard.upsert(new IndexedListing(newer, universityId, UUID.randomUUID(), "seller", "Test Seller",
+            "Lamp", "Desk lamp", new BigDecimal("10.00"), ProductCategory.OTHER, ProductCondition.GOOD,
+            "Library", null, 0, 0, now.plusNanos(900_000), false, 1, true));
+        shard.upsert(new IndexedListing(older, universityId, UUID.randomUUID(), "seller", "Test Seller",
+            "Lamp", "Desk lamp", new BigDecimal("10.00"), ProductCategory.OTHER, ProductCondition.GOOD,
+            "Library", null, 0, 0, now.plusNanos(100_000), false, 1, true));
+
+        SearchRequest request = request(null);
+        request.setSortBy("date_desc");
+        request.setSize(1);
+        request.setCursor("");
+
+        SearchHits first = shard.search(request, null, null);
+        SearchHits second = shard.search(request, first.getPositions().get(0), null);
+
+        assertEquals(List.of(newer), first.getListingIds());
+        assertEquals(List.of(older), second.getListingIds());
+        assertFalse(second.hasMore());
+    }
+
+    @Test
+    void testTitleEditReplacesPostings() {
+        UUID id = add("Blue bike", "Road bike", "SPORTS_EQUIPMENT", "120.00", 0);
+        shard.upsert(listing(id, "Red scooter", "Electric", "SPORTS_EQUIPMENT", "120.00", 0, true));
+
+        assertEquals(0, shard.search(request("bike"), null, null).getTotalHits());
+        assertEquals(List.of(id), shard.search(request("scooter"), null, null).getListingIds());
+        assertEquals(1, shard.size());
+    }
+
+    @Test
+    void testRemovedAndUnsearchableListingsAreHidden() {
+        UUID removed = add("Guitar", "Acoustic", "OTHER", "80.00", 0);
+        UUID hidden = add("Guitar amp", "Small amp", "OTHER", "60.00", 1);
+
+        assertTrue(shard.remove(removed));
+        assertFalse(shard.remove(removed));
+        shard.upsert(listing(hidden, "Guitar amp", "Small amp", "OTHER", "60.00", 1, false));
+
+        assertEquals(0, shard.search(request("guitar"), null, null).getTotalHits());
+    }
+
+    @Test
+    void testCompactionKeepsLiveDocuments() {
+        List<UUID> kept = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            UUID id = add("Notebook " + i, "Spiral notebook", "OTHER", "3.00", i);
+            if (i % 2 == 0) {
+                shard.remove(id);
+            } else {
+                kept.add(id);
+            }
+        }
+
+        SearchRequest request = request("notebook");
+        request.setSize(100);
+        SearchHits result = shard.search(request, null, null);
+
+        assertEquals(kept.size(), result.getTotalHits());
+        assertTrue(result.getListingIds().containsAll(kept));
+    }
+
+    @Test
+    void testMisspelledTermsFallBackToFuzzyMatches() {
+        UUID calculus = add("Calculus Textbook", "Used calculus book", "TEXTBOOKS", "50.00", 0);
+        add("Physics Textbook", "Intro physics", "TEXTBOOKS", "40.00", 1);
+
+        SearchHits result = shard.search(request("calclus textbok"), null, null);
+
+        assertEquals(List.of(calculus), result.getListingIds());
+        assertTrue(result.getScores().get(0) > 0);
+        assertEquals(0, shard.search(request("calclus unicorn"), null, null).getTotalHits());
+        // Short queries are not corrected
+        assertEquals(0, shard.search(request("bok"), null, null).getTotalHits());
+    }
+
+    @Test
+    void testFacetCountsIgnoreOwnDimensionFilter() {
+        add("Desk", "Wooden desk", "FURNITURE", "20.00", 0);
+        add("Standing desk", "Adjustable", "FURNITURE", "250.00", 1);
+        add("Desk lamp", "LED", "ELECTRONICS", "24.99", 2);
+        shard.upsert(new IndexedListing(UUID.randomUUID(), universityId, UUID.randomUUID(), "seller", "Test Seller",
+            "Desk fan", "Quiet", new BigDecimal("25.00"), ProductCategory.ELECTRONICS, ProductCondition.LIKE_NEW,
+            "Library", null, 0, 0, now, false, 1, true));
+        UUID hidden = add("Desk organizer", "Plastic", "OTHER", "5.00", 3);
+        shard.upsert(listing(hidden, "Desk organizer", "Plastic", "OTHER", "5.00", 3, false));
+
+        SearchRequest request = request("desk");
+        request.setCategories(List.of(ProductCategory.ELECTRONICS));
+        request.setMaxPrice(new BigDecimal("24.99"));
+        SearchHits result = shard.search(request, null, null);
+
+        assertEquals(1, result.getTotalHits());
+        SearchFacets facets = result.getFacets();
+        // Categories: price <= 24.99 applied, category selection not
+        assertEquals(1L, facets.getCategories().get("FURNITURE"));
+        assertEquals(1L, facets.getCategories().get("ELECTRONICS"));
+        assertEquals(0L, facets.getCategories().get("OTHER"));
+        // Conditions: category and price applied
+        assertEquals(1L, facets.getConditions().get("GOOD"));
+        assertEquals(0L, facets.getConditions().get("LIKE_NEW"));
+        // Price ranges: category applied, price selection not
+        assertEquals(1L, facets.getPriceRanges().get("0-25"));
+        assertEquals(1L, facets.getPriceRanges().get("25-50"));
+        assertEquals(0L, facets.getPriceRanges().get("250-500"));
+    }
+
+    @Test
+    void testFacetsFollowInPlaceUpdates() {
+        UUID id = add("Bike", "Road bike", "SPORTS_EQUIPMENT", "150.00", 0);
+        shard.upsert(listing(id, "Bike", "Road bike", "OTHER", "90.00", 0, true));
+
+        SearchFacets facets = shard.search(request("bike"), null, null).getFacets();
+
+        assertEquals(0L, facets.getCategories().get("SPORTS_EQUIPMENT"));
+        assertEquals(1L, facets.getCategories().get("OTHER"));
+        assertEquals(0L, facets.getPriceRanges().get("100-250"));
+        assertEquals(1L, facets.getPriceRanges().get("50-100"));
+    }
+
+    @Test
+    void testAutocompleteRanksPopularTitlesAndSearchedPhrases() {
+        UUID quiet = add("Mini fridge", "Dorm fridge", "ELECTRONICS", "60.00", 0);
+        shard.upsert(new IndexedListing(UUID.randomUUID(), universityId, UUID.randomUUID(), "seller", "Test Seller",
+            "Microwave", "Compact", new BigDecimal("40.00"), ProductCategory.ELECTRONICS, ProductCondition.GOOD,
+            "Library", null, 30, 2, now, false, 1, true));
+
+        assertEquals(List.of("Microwave", "Mini fridge"), shard.complete("mi", 10));
+
+        shard.recordQuery("mini fridge", 50);
+        assertEquals(List.of("mini fridge", "Microwave"), shard.complete("mi", 10));
+
+        shard.remove(quiet);
+        assertEquals(List.of("mini fridge"), shard.complete("fridge", 10));
+    }
+
+    @Test
+    void testSimilarFollowsTextEdits() {
+        UUID lamp = add("Desk lamp", "LED desk lamp with usb port", "ELECTRONICS", "15.00", 0);
+        UUID otherLamp = add("LED desk lamp", "Desk lamp with usb port, warm light", "ELECTRONICS", "12.00", 1);
+        add("Mini fridge", "Dorm fridge", "ELECTRONICS", "60.00", 2);
+
+        assertEquals(List.of(otherLamp), shard.similar(lamp, 10));
+
+        shard.upsert(listing(otherLamp, "Mini fridge", "Dorm fridge, barely used", "ELECTRONICS", "50.00", 1, true));
+        assertEquals(List.of(), shard.similar(lamp, 10));
+
+        shard.remove(lamp);
+        assertEquals(List.of(), shard.similar(lamp, 10));
+    }
+
+    private UUID add(String title, String description, String category, String price, int minutesAfter) {
+        UUID id = UUID.randomUUID();
+        shard.upsert(listing(id, title, description, category, price, minutesAfter, true));
+        return id;
+    }
+
+    private IndexedListing listing(UUID id, String title, String description, String category,
+                                   String price, int minutesAfter, boolean searchable) {
+        return new IndexedListing(id, universityId, UUID.randomUUID(), "seller", "Test Seller",
+            title, description, new BigDecimal(price), ProductCategory.valueOf(category),
+            ProductCondition.GOOD, "Library", null, 0, 0, now.plusMinutes(minutesAfter), false, 1, searchable);
+    }
+
+    private SearchRequest request(String query) {
+        SearchRequest request = new SearchRequest();
+        request.setQuery(query);
+        return request;
+    }
+}
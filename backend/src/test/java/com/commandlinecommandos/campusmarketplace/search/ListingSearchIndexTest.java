@@ -0,0 +1,89 @@
+package com.commandlinecommandos.campusmarketplace.search;
+
+import com.commandlinecommandos.campusmarketplace.dto.PopularSearchItem;
+import com.commandlinecommandos.campusmarketplace.model.ModerationStatus;
+import com.commandlinecommandos.campusmarketplace.model.Product;
+import com.commandlinecommandos.campusmarketplace.model.ProductCategory;
+import com.commandlinecommandos.campusmarketplace.model.ProductCondition;
+import com.commandlinecommandos.campusmarketplace.model.University;
+import com.commandlinecommandos.campusmarketplace.model.User;
+import com.commandlinecommandos.campusmarketplace.repository.ProductRepository;
+import com.commandlinecommandos.campusmarketplace.repository.QueryFrequency;
+import com.commandlinecommandos.campusmarketplace.repository.SearchHistoryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for loading and rebuilding the listing search index
+ */
+@ExtendWith(MockitoExtension.class)
+class ListingSearchIndexTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private SearchHistoryRepository searchHistoryRepository;
+
+    @Mock
+    private PopularSearchTracker popularSearchTracker;
+
+    @InjectMocks
+    private ListingSearchIndex listingSearchIndex;
+
+    private final UUID universityId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(listingSearchIndex, "enabled", true);
+
+        University university = new University();
+        university.setUniversityId(universityId);
+        User seller = new User();
+        seller.setUserId(UUID.randomUUID());
+        Product lamp = new Product(seller, "Desk lamp", "LED", ProductCategory.ELECTRONICS,
+            ProductCondition.GOOD, new BigDecimal("15.00"));
+        lamp.setProductId(UUID.randomUUID());
+        lamp.setUniversity(university);
+        lamp.setModerationStatus(ModerationStatus.APPROVED);
+        when(productRepository.findAllForIndexing(any())).thenReturn(new SliceImpl<>(List.of(lamp)));
+    }
+
+    @Test
+    void testOnlyTheFirstLoadAggregatesSearchHistory() {
+        QueryFrequency history = mock(QueryFrequency.class);
+        when(history.getUniversityId()).thenReturn(universityId);
+        when(history.getQuery()).thenReturn("Desk chair");
+        when(history.getSearches()).thenReturn(4L);
+        when(searchHistoryRepository.countQueriesByUniversity(any())).thenReturn(List.of(history));
+
+        listingSearchIndex.rebuild();
+
+        assertTrue(listingSearchIndex.isReady());
+        assertEquals(List.of("desk chair", "Desk lamp"), listingSearchIndex.complete(universityId, "desk", 10));
+
+        // Later rebuilds take phrase weights from the week's popular searches instead
+        when(popularSearchTracker.top(eq(universityId), eq(PopularSearchTracker.Window.WEEK), anyInt()))
+            .thenReturn(List.of(new PopularSearchItem("desk mat", 9, 1), new PopularSearchItem("desk fan", 2, 2)));
+
+        listingSearchIndex.rebuild();
+
+        verify(searchHistoryRepository, times(1)).countQueriesByUniversity(any());
+        assertEquals(List.of("desk mat", "Desk lamp"), listingSearchIndex.complete(universityId, "desk", 10));
+    }
+}
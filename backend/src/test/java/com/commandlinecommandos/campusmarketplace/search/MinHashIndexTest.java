@@ -0,0 +1,69 @@
+package com.commandlinecommandos.campusmarketplace.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for MinHash signatures and their LSH buckets
+ */
+class MinHashIndexTest {
+
+    private MinHashIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new MinHashIndex();
+    }
+
+    @Test
+    void testSignatureEstimatesJaccardSimilarity() {
+        long[] calculus = MinHashIndex.signature("Calculus textbook", "Stewart calculus early transcendentals 8th edition");
+        long[] sameTextOtherCase = MinHashIndex.signature("CALCULUS TEXTBOOKS", "Stewart calculus early transcendentals 8th edition");
+        long[] bike = MinHashIndex.signature("Road bike", "Aluminum frame, new tires");
+
+        assertEquals(MinHashIndex.SIGNATURE_SIZE, calculus.length);
+        assertEquals(1.0f, MinHashIndex.similarity(calculus, sameTextOtherCase));
+        assertTrue(MinHashIndex.similarity(calculus, bike) < MinHashIndex.MIN_SIMILARITY);
+        assertNull(MinHashIndex.signature("The", "and of a"));
+    }
+
+    @Test
+    void testSimilarRanksBucketNeighborsByEstimatedSimilarity() {
+        UUID calculus = put("Calculus textbook", "Stewart calculus early transcendentals 8th edition, some highlighting");
+        UUID sameBook = put("Stewart calculus textbook", "Early transcendentals 8th edition, some highlighting");
+        UUID olderEdition = put("Calculus textbook", "Stewart calculus 7th edition, no highlighting");
+        put("Road bike", "Aluminum frame, new tires, 54cm");
+
+        List<UUID> similar = index.similar(calculus, 10);
+
+        assertEquals(List.of(sameBook, olderEdition), similar);
+        assertEquals(List.of(), index.similar(UUID.randomUUID(), 10));
+        assertEquals(1, index.similar(calculus, 1).size());
+    }
+
+    @Test
+    void testPutReplacesAndRemoveDropsSignatures() {
+        UUID lamp = put("Desk lamp", "LED desk lamp with usb port");
+        UUID otherLamp = put("Desk lamp", "LED desk lamp with usb port, warm light");
+        assertEquals(List.of(otherLamp), index.similar(lamp, 10));
+
+        index.put(otherLamp, MinHashIndex.signature("Mini fridge", "Dorm fridge, 3.2 cubic feet"));
+        assertEquals(List.of(), index.similar(lamp, 10));
+
+        index.remove(otherLamp);
+        index.remove(otherLamp);
+        assertEquals(1, index.size());
+        assertEquals(List.of(), index.similar(otherLamp, 10));
+    }
+
+    private UUID put(String title, String description) {
+        UUID id = UUID.randomUUID();
+        index.put(id, MinHashIndex.signature(title, description));
+        return id;
+    }
+}
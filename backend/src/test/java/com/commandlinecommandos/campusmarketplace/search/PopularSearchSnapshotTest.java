@@ -0,0 +1,82 @@
+package com.commandlinecommandos.campusmarketplace.search;
+
+import com.commandlinecommandos.campusmarketplace.dto.PopularSearchItem;
+import com.commandlinecommandos.campusmarketplace.repository.PopularSearchSnapshotRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for saving and restoring popular search windows with several instances
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class PopularSearchSnapshotTest {
+
+    @Autowired
+    private PopularSearchSnapshotRepository snapshotRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final UUID universityId = UUID.randomUUID();
+
+    @Test
+    void testInstancesKeepEachOthersSnapshots() {
+        PopularSearchTracker first = tracker("instance-a");
+        PopularSearchTracker second = tracker("instance-b");
+        first.record(universityId, "calculus textbook");
+        second.record(universityId, "mini fridge");
+
+        first.snapshot();
+        second.snapshot();
+        first.snapshot();
+
+        assertEquals(1, snapshotRepository.findByInstanceId("instance-a").stream()
+            .filter(row -> row.getTimeWindow().equals("DAY")).count());
+        assertEquals(1, snapshotRepository.findByInstanceId("instance-b").stream()
+            .filter(row -> row.getTimeWindow().equals("DAY")).count());
+
+        // A restarted instance gets back only the searches it counted
+        PopularSearchTracker restarted = tracker("instance-b");
+        restarted.restore();
+        List<PopularSearchItem> top = restarted.top(universityId, PopularSearchTracker.Window.DAY, 10);
+        assertEquals(List.of("mini fridge"), top.stream().map(PopularSearchItem::getQuery).toList());
+    }
+
+    @Test
+    void testExpiredSlotsOfOtherInstancesAreDeleted() {
+        // Saved by an instance that no longer runs, in a slot long out of the week window
+        jdbcTemplate.update("INSERT INTO popular_search_snapshots (snapshot_id, instance_id, university_id, "
+                + "time_window, slot, search_query, search_count, error_bound) VALUES (?, ?, ?, ?, ?, ?, ?, ?)",
+            UUID.randomUUID(), "instance-gone", universityId, "WEEK", 1L, "desk lamp", 5L, 0L);
+
+        tracker("instance-a").snapshot();
+
+        assertTrue(snapshotRepository.findByInstanceId("instance-gone").isEmpty());
+    }
+
+    private PopularSearchTracker tracker(String instanceId) {
+        PopularSearchTracker tracker = new PopularSearchTracker();
+        ReflectionTestUtils.setField(tracker, "snapshotRepository", snapshotRepository);
+        ReflectionTestUtils.setField(tracker, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(tracker, "transactionTemplate", transactionTemplate);
+        ReflectionTestUtils.setField(tracker, "capacity", 10);
+        ReflectionTestUtils.setField(tracker, "instanceId", instanceId);
+        return tracker;
+    }
+}
@@ -0,0 +1,98 @@
+package com.commandlinecommandos.campusmarketplace.search;
+
+import com.commandlinecommandos.campusmarketplace.dto.PopularSearchItem;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the Space-Saving sketch and the windowed popular search tracker
+ */
+class PopularSearchTrackerTest {
+
+    private static final long NOW = Duration.ofDays(20000).toMillis();
+
+    private PopularSearchTracker tracker;
+    private final UUID universityId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        tracker = new PopularSearchTracker();
+        ReflectionTestUtils.setField(tracker, "capacity", 3);
+    }
+
+    @Test
+    void testSketchEvictsSmallestCounterAndKeepsErrorBound() {
+        SpaceSavingSketch sketch = new SpaceSavingSketch(2);
+        sketch.offer("a", 5);
+        sketch.offer("b", 3);
+        sketch.offer("c", 1);
+
+        assertEquals(5, sketch.get("a").getCount());
+        assertNull(sketch.get("b"));
+        assertEquals(4, sketch.get("c").getCount());
+        assertEquals(3, sketch.get("c").getError());
+        assertEquals(4, sketch.unheldBound());
+        assertEquals(9, sketch.total());
+        assertEquals(List.of("a", "c"), sketch.counters().stream().map(SpaceSavingSketch.Counter::getKey).toList());
+    }
+
+    @Test
+    void testWindowsCountOnlyTheirOwnTimeSpan() {
+        tracker.record(universityId, "Desk Lamp", NOW - Duration.ofDays(2).toMillis());
+        tracker.record(universityId, "bike", NOW - Duration.ofHours(3).toMillis());
+        tracker.record(universityId, "bike", NOW - Duration.ofMinutes(20).toMillis());
+        tracker.record(universityId, " desk lamp ", NOW);
+        tracker.record(UUID.randomUUID(), "bike", NOW);
+
+        assertEquals(List.of("bike", "desk lamp"), queries(tracker.top(universityId, PopularSearchTracker.Window.HOUR, 10, NOW)));
+        assertEquals(2, tracker.top(universityId, PopularSearchTracker.Window.DAY, 10, NOW).get(0).getCount());
+        List<PopularSearchItem> week = tracker.top(universityId, PopularSearchTracker.Window.WEEK, 1, NOW);
+        assertEquals("bike", week.get(0).getQuery());
+        assertEquals(List.of(), tracker.top(UUID.randomUUID(), PopularSearchTracker.Window.WEEK, 10, NOW));
+    }
+
+    @Test
+    void testCountsStayWithinErrorBoundWhenSketchOverflows() {
+        for (int i = 0; i < 20; i++) {
+            tracker.record(universityId, "textbook", NOW);
+        }
+        for (int i = 0; i < 10; i++) {
+            tracker.record(universityId, "rare " + i, NOW);
+        }
+
+        List<PopularSearchItem> top = tracker.top(universityId, PopularSearchTracker.Window.HOUR, 3, NOW);
+        assertEquals("textbook", top.get(0).getQuery());
+        assertEquals(20, top.get(0).getCount());
+        assertEquals(0, top.get(0).getErrorBound());
+        for (PopularSearchItem item : top.subList(1, top.size())) {
+            assertTrue(item.getCount() - item.getErrorBound() <= 1);
+            assertTrue(item.getErrorBound() <= 30 / 3);
+        }
+    }
+
+    @Test
+    void testTrendingComparesLastHourWithDailyAverage() {
+        for (int i = 0; i < 48; i++) {
+            tracker.record(universityId, "desk", NOW - Duration.ofHours(5).toMillis());
+        }
+        tracker.record(universityId, "desk", NOW);
+        for (int i = 0; i < 3; i++) {
+            tracker.record(universityId, "graduation gown", NOW);
+        }
+
+        List<PopularSearchItem> trending = tracker.trending(universityId, 10, NOW);
+        assertEquals(List.of("graduation gown"), queries(trending));
+        assertEquals(3, trending.get(0).getCount());
+    }
+
+    private static List<String> queries(List<PopularSearchItem> items) {
+        return items.stream().map(PopularSearchItem::getQuery).toList();
+    }
+}
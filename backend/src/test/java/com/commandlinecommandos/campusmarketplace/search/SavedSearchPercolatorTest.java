@@ -0,0 +1,150 @@
+package com.commandlinecommandos.campusmarketplace.search;
+
+import com.commandlinecommandos.campusmarketplace.dto.SearchRequest;
+import com.commandlinecommandos.campusmarketplace.model.ProductCategory;
+import com.commandlinecommandos.campusmarketplace.model.ProductCondition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for matching new listings against saved searches
+ */
+class SavedSearchPercolatorTest {
+
+    private final UUID universityId = UUID.randomUUID();
+
+    private SavedSearchPercolator percolator;
+
+    @BeforeEach
+    void setUp() {
+        percolator = new SavedSearchPercolator();
+    }
+
+    @Test
+    void testAllTermsAndFiltersMustMatch() {
+        SearchRequest calculus = criteria("calculus textbooks");
+        calculus.setMaxPrice(new BigDecimal("60"));
+        UUID cheapCalculus = register(calculus);
+        UUID physics = register(criteria("physics textbook"));
+        SearchRequest furniture = criteria(null);
+        furniture.setCategories(List.of(ProductCategory.FURNITURE));
+        UUID anyFurniture = register(furniture);
+
+        assertEquals(List.of(cheapCalculus),
+            matchIds(listing("Calculus Textbook", "Used", ProductCategory.TEXTBOOKS, "50.00", "Library")));
+        assertEquals(List.of(),
+            matchIds(listing("Calculus Textbook", "Used", ProductCategory.TEXTBOOKS, "75.00", "Library")));
+        assertEquals(List.of(anyFurniture),
+            matchIds(listing("Desk", "Wooden", ProductCategory.FURNITURE, "20.00", "Library")));
+        assertNotNull(physics);
+    }
+
+    @Test
+    void testPriceOnlyAndCatchAllQueries() {
+        SearchRequest under25 = criteria(null);
+        under25.setMaxPrice(new BigDecimal("25"));
+        UUID cheap = register(under25);
+        SearchRequest nearLibrary = criteria(null);
+        nearLibrary.setLocation("library");
+        UUID library = register(nearLibrary);
+
+        assertEquals(List.of(cheap, library),
+            matchIds(listing("Lamp", "LED", ProductCategory.ELECTRONICS, "25.00", "Main Library")));
+        assertEquals(List.of(),
+            matchIds(listing("Sofa", "Big", ProductCategory.FURNITURE, "300.00", "Dorm")));
+    }
+
+    @Test
+    void testKnownLocationsMatchByLocationId() {
+        // "mlk" resolved to the library's id 7; pickup text only has to resolve to the same place
+        SearchRequest atLibrary = criteria(null);
+        atLibrary.setLocation("mlk");
+        UUID library = register(atLibrary, Set.of(7));
+
+        assertEquals(List.of(library),
+            matchIds(listing("Lamp", "LED", ProductCategory.ELECTRONICS, "25.00", "King Library 2nd floor", 7)));
+        assertEquals(List.of(),
+            matchIds(listing("Lamp", "LED", ProductCategory.ELECTRONICS, "25.00", "Near mlk statue", 3)));
+        assertEquals(List.of(),
+            matchIds(listing("Lamp", "LED", ProductCategory.ELECTRONICS, "25.00", "mlk", null)));
+    }
+
+    @Test
+    void testConditionFilterAndOtherUniversities() {
+        SearchRequest likeNew = criteria("bike");
+        likeNew.setConditions(List.of(ProductCondition.LIKE_NEW));
+        register(likeNew);
+        PercolatorQuery elsewhere = PercolatorQuery.compile(UUID.randomUUID(), UUID.randomUUID(),
+            UUID.randomUUID(), "Bikes elsewhere", criteria("bike"), null);
+        percolator.register(elsewhere);
+
+        // The listing is GOOD, and the other university's query is never a candidate
+        assertEquals(List.of(), matchIds(listing("Road bike", "Fast", ProductCategory.SPORTS_EQUIPMENT, "120.00", "Gym")));
+    }
+
+    @Test
+    void testReRegisterAndUnregister() {
+        UUID id = UUID.randomUUID();
+        percolator.register(PercolatorQuery.compile(id, UUID.randomUUID(), universityId, "Desks", criteria("desk"), null));
+        percolator.register(PercolatorQuery.compile(id, UUID.randomUUID(), universityId, "Chairs", criteria("chair"), null));
+
+        assertEquals(1, percolator.size());
+        assertEquals(List.of(), matchIds(listing("Desk", "Wooden", ProductCategory.FURNITURE, "20.00", "Library")));
+        assertEquals(List.of(id), matchIds(listing("Chair", "Office", ProductCategory.FURNITURE, "20.00", "Library")));
+
+        percolator.unregister(id);
+        assertEquals(0, percolator.size());
+        assertEquals(List.of(), matchIds(listing("Chair", "Office", ProductCategory.FURNITURE, "20.00", "Library")));
+    }
+
+    @Test
+    void testUnsearchableListingsMatchNothing() {
+        register(criteria(null));
+
+        IndexedListing pending = new IndexedListing(UUID.randomUUID(), universityId, UUID.randomUUID(), "seller",
+            "Test Seller", "Desk", "Wooden", new BigDecimal("20.00"), ProductCategory.FURNITURE,
+            ProductCondition.GOOD, "Library", null, 0, 0, LocalDateTime.now(), false, 1, false);
+
+        assertEquals(List.of(), percolator.match(pending));
+    }
+
+    private UUID register(SearchRequest criteria) {
+        return register(criteria, null);
+    }
+
+    private UUID register(SearchRequest criteria, Set<Integer> locationIds) {
+        UUID id = UUID.randomUUID();
+        percolator.register(PercolatorQuery.compile(id, UUID.randomUUID(), universityId, "search", criteria, locationIds));
+        return id;
+    }
+
+    private List<UUID> matchIds(IndexedListing listing) {
+        return percolator.match(listing).stream().map(PercolatorQuery::getSavedSearchId).toList();
+    }
+
+    private IndexedListing listing(String title, String description, ProductCategory category,
+                                   String price, String location) {
+        return listing(title, description, category, price, location, null);
+    }
+
+    private IndexedListing listing(String title, String description, ProductCategory category,
+                                   String price, String location, Integer locationId) {
+        return new IndexedListing(UUID.randomUUID(), universityId, UUID.randomUUID(), "seller", "Test Seller",
+            title, description, new BigDecimal(price), category, ProductCondition.GOOD, location,
+            locationId, 0, 0, LocalDateTime.now(), false, 1, true);
+    }
+
+    private SearchRequest criteria(String query) {
+        SearchRequest request = new SearchRequest();
+        request.setQuery(query);
+        return request;
+    }
+}
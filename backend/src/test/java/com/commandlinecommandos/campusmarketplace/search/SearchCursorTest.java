@@ -0,0 +1,100 @@
+package com.commandlinecommandos.campusmarketplace.search;
+
+import com.commandlinecommandos.campusmarketplace.dto.SearchRequest;
+import com.commandlinecommandos.campusmarketplace.model.Product;
+import com.commandlinecommandos.campusmarketplace.model.ProductCategory;
+import com.commandlinecommandos.campusmarketplace.model.ProductCondition;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for keyset pagination cursors
+ */
+class SearchCursorTest {
+
+    private final UUID universityId = UUID.randomUUID();
+    private final Map<UUID, IndexedListing> listings = new HashMap<>();
+
+    @Test
+    void testKeysetPagesMatchOffsetPages() {
+        IndexShard shard = new IndexShard();
+        LocalDateTime createdAt = LocalDateTime.of(2025, 10, 1, 12, 0);
+        for (int i = 0; i < 7; i++) {
+            // Duplicate prices and view counts so the listing id tie-breaker matters
+            shard.upsert(listing(new BigDecimal(10 + (i % 3)), i % 2, createdAt.plusMinutes(i)));
+        }
+
+        for (String sortBy : List.of("price_asc", "price_desc", "date_asc", "date_desc", "popularity", "relevance")) {
+            SearchSort sort = SearchSort.from(sortBy);
+            List<UUID> expected = shard.search(request(sortBy, 7), null, null).getListingIds();
+
+            SearchRequest keyset = request(sortBy, 2);
+            keyset.setCursor("");
+            List<UUID> actual = new ArrayList<>();
+            SearchCursor cursor = null;
+            SearchHits page;
+            do {
+                page = shard.search(keyset, cursor, null);
+                actual.addAll(page.getListingIds());
+                if (!page.getListingIds().isEmpty()) {
+                    UUID last = page.getListingIds().get(page.getListingIds().size() - 1);
+                    cursor = SearchCursor.decode(SearchCursor.after(sort, toProduct(last), null).encode(), sort);
+                }
+            } while (page.hasMore());
+
+            assertEquals(expected, actual, "keyset order for " + sortBy);
+        }
+    }
+
+    @Test
+    void testDecodeRejectsTamperedOrMismatchedTokens() {
+        assertThrows(IllegalArgumentException.class, () -> SearchCursor.decode("%%%", SearchSort.PRICE_ASC));
+        assertThrows(IllegalArgumentException.class, () -> SearchCursor.decode("djE", SearchSort.PRICE_ASC));
+
+        Product product = new Product();
+        product.setProductId(UUID.randomUUID());
+        product.setPrice(new BigDecimal("12.50"));
+        String token = SearchCursor.after(SearchSort.PRICE_ASC, product, null).encode();
+
+        SearchCursor decoded = SearchCursor.decode(token, SearchSort.PRICE_ASC);
+        assertEquals(new BigDecimal("12.50"), decoded.getPrice());
+        assertEquals(product.getProductId(), decoded.getListingId());
+        assertThrows(IllegalArgumentException.class, () -> SearchCursor.decode(token, SearchSort.PRICE_DESC));
+    }
+
+    private IndexedListing listing(BigDecimal price, int viewCount, LocalDateTime createdAt) {
+        UUID id = UUID.randomUUID();
+        IndexedListing listing = new IndexedListing(id, universityId, UUID.randomUUID(), "seller", "Test Seller",
+            "Item", "Thing", price, ProductCategory.OTHER, ProductCondition.GOOD, "Library", null,
+            viewCount, 0, createdAt, false, 1, true);
+        listings.put(id, listing);
+        return listing;
+    }
+
+    private Product toProduct(UUID listingId) {
+        IndexedListing listing = listings.get(listingId);
+        Product product = new Product();
+        product.setProductId(listing.getListingId());
+        product.setPrice(listing.getPrice());
+        product.setCreatedAt(listing.getCreatedAt());
+        product.setViewCount(listing.getViewCount());
+        product.setFavoriteCount(listing.getFavoriteCount());
+        return product;
+    }
+
+    private SearchRequest request(String sortBy, int size) {
+        SearchRequest request = new SearchRequest();
+        request.setSortBy(sortBy);
+        request.setSize(size);
+        return request;
+    }
+}
@@ -0,0 +1,150 @@
+package com.commandlinecommandos.campusmarketplace.search;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for racing a preferred and a fallback search strategy
+ */
+class SpeculativeExecutionTest {
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final SpeculativeExecution speculation = new SpeculativeExecution(executor, registry);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testAcceptedPreferredResultCancelsFallback() throws InterruptedException {
+        FakeStrategy fulltext = new FakeStrategy("fulltext", List.of("hit"), 0);
+        FakeStrategy fuzzy = new FakeStrategy("fuzzy", List.of("fuzzy hit"), 10_000);
+
+        List<String> result = speculation.run(fulltext, fuzzy, hits -> !hits.isEmpty(), 5_000);
+
+        assertEquals(List.of("hit"), result);
+        assertTrue(fuzzy.cancelled);
+        assertEquals(1, registry.get("search.speculative").tag("winner", "fulltext").timer().count());
+        // The loser records its timer on its own thread once it has stopped
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (registry.find("search.strategy").tags("strategy", "fuzzy", "outcome", "cancelled").timer() == null
+                && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertNotNull(registry.find("search.strategy").tags("strategy", "fuzzy", "outcome", "cancelled").timer());
+    }
+
+    @Test
+    void testRejectedPreferredResultWaitsForFallback() {
+        FakeStrategy fulltext = new FakeStrategy("fulltext", List.of(), 0);
+        FakeStrategy fuzzy = new FakeStrategy("fuzzy", List.of("fuzzy hit"), 50);
+
+        List<String> result = speculation.run(fulltext, fuzzy, hits -> !hits.isEmpty(), 5_000);
+
+        assertEquals(List.of("fuzzy hit"), result);
+        assertFalse(fuzzy.cancelled);
+        assertEquals(1, registry.get("search.speculative").tag("winner", "fuzzy").timer().count());
+        assertEquals(1, registry.get("search.strategy").tags("strategy", "fulltext", "outcome", "completed")
+            .timer().count());
+    }
+
+    @Test
+    void testDeadlineReturnsFinishedFallback() {
+        FakeStrategy fulltext = new FakeStrategy("fulltext", List.of("hit"), 10_000);
+        FakeStrategy fuzzy = new FakeStrategy("fuzzy", List.of("fuzzy hit"), 0);
+
+        List<String> result = speculation.run(fulltext, fuzzy, hits -> !hits.isEmpty(), 100);
+
+        assertEquals(List.of("fuzzy hit"), result);
+        assertTrue(fulltext.cancelled);
+        assertEquals(1, registry.get("search.speculative").tag("winner", "fuzzy").timer().count());
+    }
+
+    @Test
+    void testDeadlineReturnsRejectedPreferredResult() {
+        FakeStrategy fulltext = new FakeStrategy("fulltext", List.of(), 0);
+        FakeStrategy fuzzy = new FakeStrategy("fuzzy", List.of("fuzzy hit"), 10_000);
+
+        List<String> result = speculation.run(fulltext, fuzzy, hits -> !hits.isEmpty(), 50);
+
+        assertEquals(List.of(), result);
+        assertTrue(fuzzy.cancelled);
+        assertEquals(1, registry.get("search.speculative").tag("winner", "fulltext").timer().count());
+    }
+
+    @Test
+    void testDeadlineCancelsBothStrategies() {
+        FakeStrategy fulltext = new FakeStrategy("fulltext", List.of("hit"), 10_000);
+        FakeStrategy fuzzy = new FakeStrategy("fuzzy", List.of("fuzzy hit"), 10_000);
+
+        assertThrows(QueryTimeoutException.class,
+            () -> speculation.run(fulltext, fuzzy, hits -> !hits.isEmpty(), 50));
+
+        assertTrue(fulltext.cancelled);
+        assertTrue(fuzzy.cancelled);
+        assertEquals(1, registry.get("search.speculative").tag("winner", "none").timer().count());
+    }
+
+    @Test
+    void testPreferredFailureIsRethrown() {
+        FakeStrategy broken = new FakeStrategy("fulltext", null, 0);
+        FakeStrategy fuzzy = new FakeStrategy("fuzzy", List.of("fuzzy hit"), 10_000);
+
+        IllegalStateException error = assertThrows(IllegalStateException.class,
+            () -> speculation.run(broken, fuzzy, hits -> !hits.isEmpty(), 5_000));
+
+        assertEquals("fulltext failed", error.getMessage());
+        assertTrue(fuzzy.cancelled);
+    }
+
+    /**
+     * Returns result after delayMillis unless cancelled first; a null result fails
+     */
+    private static final class FakeStrategy implements SpeculativeExecution.Strategy<List<String>> {
+        private final String name;
+        private final List<String> result;
+        private final long delayMillis;
+        private final CountDownLatch cancel = new CountDownLatch(1);
+        private volatile boolean cancelled;
+
+        FakeStrategy(String name, List<String> result, long delayMillis) {
+            this.name = name;
+            this.result = result;
+            this.delayMillis = delayMillis;
+        }
+
+        @Override
+        public String name() {
+            return name;
+        }
+
+        @Override
+        public List<String> call() throws InterruptedException {
+            if (cancel.await(delayMillis, TimeUnit.MILLISECONDS)) {
+                throw new SpeculativeExecution.CancelledException(name + " cancelled");
+            }
+            if (result == null) {
+                throw new IllegalStateException(name + " failed");
+            }
+            return result;
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            cancel.countDown();
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.commandlinecommandos.campusmarketplace.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the trigram term dictionary and the bounded edit distance
+ */
+class TrigramTermIndexTest {
+
+    private TrigramTermIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new TrigramTermIndex();
+        for (String term : List.of("calculus", "calendar", "textbook", "desk", "dusk", "disk", "laptop", "lamp")) {
+            index.add(term);
+        }
+    }
+
+    @Test
+    void testCorrectsTyposWithinEditBudget() {
+        assertEquals(List.of("calculus"), terms(index.similar("calclus", 5)));
+        assertEquals(List.of("textbook"), terms(index.similar("textbok", 5)));
+        assertEquals(List.of("laptop"), terms(index.similar("labtop", 5)));
+    }
+
+    @Test
+    void testShortTermsAndExactTermsAreNotCorrected() {
+        assertEquals(List.of(), index.similar("dsk", 5));
+        assertEquals(List.of(), terms(index.similar("desk", 5)));
+        assertEquals(List.of(), index.similar("zebra", 5));
+    }
+
+    @Test
+    void testResultsAreOrderedAndLimited() {
+        List<TrigramTermIndex.FuzzyTerm> matches = index.similar("dessk", 5);
+
+        assertEquals(List.of("desk"), terms(matches));
+        assertTrue(matches.get(0).similarity > 0 && matches.get(0).similarity < 1);
+        assertEquals(1, index.similar("calculas", 1).size());
+    }
+
+    @Test
+    void testBoundedDistance() {
+        assertEquals(0, TrigramTermIndex.boundedDistance("desk", "desk", 2));
+        assertEquals(1, TrigramTermIndex.boundedDistance("desk", "disk", 2));
+        assertEquals(2, TrigramTermIndex.boundedDistance("calclus", "calculas", 2));
+        assertEquals(3, TrigramTermIndex.boundedDistance("kitten", "sitting", 3));
+        // Gives up with max + 1 once the budget is exceeded
+        assertEquals(2, TrigramTermIndex.boundedDistance("kitten", "sitting", 1));
+        assertEquals(2, TrigramTermIndex.boundedDistance("a", "abcdef", 1));
+        assertEquals(3, TrigramTermIndex.boundedDistance("", "abc", 5));
+    }
+
+    @Test
+    void testClear() {
+        index.clear();
+
+        assertEquals(List.of(), index.similar("calclus", 5));
+    }
+
+    private static List<String> terms(List<TrigramTermIndex.FuzzyTerm> matches) {
+        return matches.stream().map(match -> match.term).toList();
+    }
+}
@@ -0,0 +1,93 @@
+package com.commandlinecommandos.campusmarketplace.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the lock-free write-behind ring buffer
+ */
+class BoundedRingBufferTest {
+
+    @Test
+    void testFifoOrderAcrossWrapAround() {
+        BoundedRingBuffer<Integer> buffer = new BoundedRingBuffer<>(3);
+        assertEquals(4, buffer.capacity());
+
+        List<Integer> taken = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            assertTrue(buffer.offer(i));
+            if (i % 2 == 1) {
+                buffer.drainTo(taken, 2);
+            }
+        }
+
+        assertEquals(List.of(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), taken);
+        assertNull(buffer.poll());
+        assertEquals(0, buffer.size());
+    }
+
+    @Test
+    void testFullBufferRejectsUntilDrained() {
+        BoundedRingBuffer<String> buffer = new BoundedRingBuffer<>(2);
+
+        assertTrue(buffer.offer("a"));
+        assertTrue(buffer.offer("b"));
+        assertFalse(buffer.offer("c"));
+        assertEquals(2, buffer.size());
+
+        assertEquals("a", buffer.poll());
+        assertTrue(buffer.offer("c"));
+        List<String> rest = new ArrayList<>();
+        assertEquals(2, buffer.drainTo(rest, 10));
+        assertEquals(List.of("b", "c"), rest);
+    }
+
+    @Test
+    void testConcurrentProducersLoseNothingThatWasAccepted() throws InterruptedException {
+        BoundedRingBuffer<Integer> buffer = new BoundedRingBuffer<>(64);
+        int producers = 4;
+        int perProducer = 20_000;
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        CountDownLatch done = new CountDownLatch(producers);
+        AtomicInteger accepted = new AtomicInteger();
+        ConcurrentLinkedQueue<Integer> consumed = new ConcurrentLinkedQueue<>();
+
+        for (int p = 0; p < producers; p++) {
+            int base = p * perProducer;
+            executor.execute(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    if (buffer.offer(base + i)) {
+                        accepted.incrementAndGet();
+                    }
+                }
+                done.countDown();
+            });
+        }
+        // Single consumer drains while the producers run
+        Integer element;
+        while (done.getCount() > 0 || buffer.size() > 0) {
+            while ((element = buffer.poll()) != null) {
+                consumed.add(element);
+            }
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        Set<Integer> unique = new HashSet<>(consumed);
+        assertEquals(accepted.get(), consumed.size());
+        assertEquals(consumed.size(), unique.size());
+        assertTrue(accepted.get() > 0);
+    }
+}
@@ -0,0 +1,130 @@
+package com.commandlinecommandos.campusmarketplace.service;
+
+import com.commandlinecommandos.campusmarketplace.repository.ProductViewRepository;
+import com.commandlinecommandos.campusmarketplace.repository.UserListingView;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the Bloom filter and the daily "first view today" filter built on it
+ */
+@ExtendWith(MockitoExtension.class)
+class DailyViewFilterTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 3, 1);
+
+    @Mock
+    private ProductViewRepository productViewRepository;
+
+    @InjectMocks
+    private DailyViewFilter filter;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final UUID alice = UUID.randomUUID();
+    private final UUID lamp = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(filter, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(filter, "expectedViewsPerDay", 1000L);
+        ReflectionTestUtils.setField(filter, "falsePositiveRate", 0.01);
+        ReflectionTestUtils.invokeMethod(filter, "init");
+    }
+
+    @Test
+    void testBloomFilterHasNoFalseNegativesAndAboutTheConfiguredFalsePositiveRate() {
+        BloomFilter bloom = new BloomFilter(10_000, 0.01);
+        assertEquals(7, bloom.hashCount());
+        long[][] keys = new long[20_000][];
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = new long[] {random.nextLong(), random.nextLong()};
+        }
+        for (int i = 0; i < 10_000; i++) {
+            bloom.put(keys[i][0], keys[i][1]);
+        }
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(bloom.mightContain(keys[i][0], keys[i][1]));
+            assertFalse(bloom.put(keys[i][0], keys[i][1]));
+        }
+
+        int falsePositives = 0;
+        for (int i = 10_000; i < 20_000; i++) {
+            if (bloom.mightContain(keys[i][0], keys[i][1])) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 200, "false positives: " + falsePositives);
+        assertEquals(0.01, bloom.expectedFalsePositiveRate(), 0.005);
+    }
+
+    @Test
+    void testOnlyTheFirstViewOfTheDayIsCertain() {
+        when(productViewRepository.findViewsOn(DAY)).thenReturn(List.of());
+
+        assertTrue(filter.markViewed(alice, lamp, DAY));
+        assertFalse(filter.markViewed(alice, lamp, DAY));
+        assertTrue(filter.markViewed(UUID.randomUUID(), lamp, DAY));
+        assertTrue(meterRegistry.get("listing.views.dedupe.false_positive_rate").gauge().value() > 0);
+    }
+
+    @Test
+    void testFilterRotatesAtMidnightAndIsSeededWithStoredViews() {
+        UUID desk = UUID.randomUUID();
+        when(productViewRepository.findViewsOn(DAY)).thenReturn(List.of(view(alice, desk)));
+        when(productViewRepository.findViewsOn(DAY.plusDays(1))).thenReturn(List.of());
+
+        // Stored before a restart, so already seen today
+        assertFalse(filter.markViewed(alice, desk, DAY));
+        assertTrue(filter.markViewed(alice, lamp, DAY));
+
+        assertTrue(filter.markViewed(alice, lamp, DAY.plusDays(1)));
+        assertTrue(filter.markViewed(alice, desk, DAY.plusDays(1)));
+        // A late view from the day before goes to the database
+        assertFalse(filter.markViewed(UUID.randomUUID(), lamp, DAY));
+        verify(productViewRepository, times(1)).findViewsOn(DAY);
+    }
+
+    @Test
+    void testUnseededFilterSendsEveryViewToTheDatabase() {
+        when(productViewRepository.findViewsOn(DAY)).thenThrow(new DataAccessResourceFailureException("down"));
+
+        assertFalse(filter.markViewed(alice, lamp, DAY));
+        assertFalse(filter.markViewed(UUID.randomUUID(), lamp, DAY));
+    }
+
+    private static UserListingView view(UUID userId, UUID listingId) {
+        return new UserListingView() {
+            @Override
+            public UUID getUserId() {
+                return userId;
+            }
+
+            @Override
+            public UUID getListingId() {
+                return listingId;
+            }
+
+            @Override
+            public LocalDateTime getViewedAt() {
+                return DAY.atTime(9, 0);
+            }
+        };
+    }
+}
@@ -0,0 +1,107 @@
+package com.commandlinecommandos.campusmarketplace.service;
+
+import com.commandlinecommandos.campusmarketplace.dto.DiscoveryFeedResponse;
+import com.commandlinecommandos.campusmarketplace.dto.ProductSummary;
+import com.commandlinecommandos.campusmarketplace.model.University;
+import com.commandlinecommandos.campusmarketplace.model.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the concurrent discovery home feed
+ */
+@ExtendWith(MockitoExtension.class)
+class DiscoveryFeedServiceTest {
+
+    @Mock
+    private DiscoveryService discoveryService;
+
+    @InjectMocks
+    private DiscoveryFeedService feedService;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(feedService, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(feedService, "trendingTimeoutMs", 2000L);
+        ReflectionTestUtils.setField(feedService, "recommendedTimeoutMs", 100L);
+        ReflectionTestUtils.setField(feedService, "recentlyViewedTimeoutMs", 2000L);
+        ReflectionTestUtils.setField(feedService, "similarTimeoutMs", 2000L);
+
+        University university = new University();
+        university.setUniversityId(UUID.randomUUID());
+        user = new User();
+        user.setUserId(UUID.randomUUID());
+        user.setUniversity(university);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        ReflectionTestUtils.invokeMethod(feedService, "shutdown");
+    }
+
+    @Test
+    void testSlowSectionIsLeftEmptyAndNamed() {
+        ProductSummary lamp = summary("Desk lamp");
+        ProductSummary bike = summary("Road bike");
+        when(discoveryService.getTrendingItems(user.getUniversity().getUniversityId(), 5)).thenReturn(List.of(lamp));
+        when(discoveryService.getRecommendedItems(user, 5)).thenAnswer(invocation -> {
+            release.await();
+            return List.of(bike);
+        });
+        when(discoveryService.getRecentlyViewedItems(user, 5)).thenReturn(List.of(bike, lamp));
+
+        DiscoveryFeedResponse feed = feedService.getFeed(user, null, 5);
+
+        assertEquals(List.of(lamp), feed.getTrending());
+        assertEquals(List.of(), feed.getRecommended());
+        assertEquals(List.of(bike, lamp), feed.getRecentlyViewed());
+        assertEquals(List.of(), feed.getSimilar());
+        assertEquals(List.of("recommended"), feed.getMissingSections());
+        verify(discoveryService, never()).getSimilarItems(any(), anyInt());
+        assertEquals(1.0, meterRegistry.counter("discovery.feed.sections",
+            "section", "recommended", "outcome", "timeout").count());
+    }
+
+    @Test
+    void testFailedSectionDoesNotFailTheFeed() {
+        UUID heroId = UUID.randomUUID();
+        ProductSummary chair = summary("Office chair");
+        when(discoveryService.getTrendingItems(any(), anyInt())).thenThrow(new IllegalStateException("boom"));
+        when(discoveryService.getRecommendedItems(user, 10)).thenReturn(List.of(chair));
+        when(discoveryService.getRecentlyViewedItems(user, 10)).thenReturn(List.of());
+        when(discoveryService.getSimilarItems(heroId, 10)).thenReturn(List.of(chair));
+
+        DiscoveryFeedResponse feed = feedService.getFeed(user, heroId, 10);
+
+        assertEquals(List.of(), feed.getTrending());
+        assertEquals(List.of(chair), feed.getRecommended());
+        assertEquals(List.of(chair), feed.getSimilar());
+        assertEquals(List.of("trending"), feed.getMissingSections());
+    }
+
+    private static ProductSummary summary(String title) {
+        ProductSummary summary = new ProductSummary();
+        summary.setProductId(UUID.randomUUID());
+        summary.setTitle(title);
+        return summary;
+    }
+}
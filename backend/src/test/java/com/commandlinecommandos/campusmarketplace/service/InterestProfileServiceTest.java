@@ -0,0 +1,104 @@
+package com.commandlinecommandos.campusmarketplace.service;
+
+import com.commandlinecommandos.campusmarketplace.model.ProductCategory;
+import com.commandlinecommandos.campusmarketplace.repository.CategoryActivity;
+import com.commandlinecommandos.campusmarketplace.repository.ProductViewRepository;
+import com.commandlinecommandos.campusmarketplace.repository.UserFavoriteRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for InterestProfileService
+ */
+@ExtendWith(MockitoExtension.class)
+class InterestProfileServiceTest {
+
+    @Mock
+    private ProductViewRepository productViewRepository;
+
+    @Mock
+    private UserFavoriteRepository userFavoriteRepository;
+
+    @InjectMocks
+    private InterestProfileService interestProfileService;
+
+    private final UUID userId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(interestProfileService, "halfLifeDays", 14.0);
+        ReflectionTestUtils.setField(interestProfileService, "viewWeight", 1f);
+        ReflectionTestUtils.setField(interestProfileService, "favoriteWeight", 3f);
+        ReflectionTestUtils.setField(interestProfileService, "seedDays", 60);
+        ReflectionTestUtils.setField(interestProfileService, "maxProfiles", 100L);
+        ReflectionTestUtils.invokeMethod(interestProfileService, "init");
+    }
+
+    @Test
+    void testProfileIsSeededOnceFromViewsAndFavorites() {
+        LocalDateTime now = LocalDateTime.now();
+        when(productViewRepository.findCategoryActivitySince(eq(userId), any())).thenReturn(List.of(
+            activity(ProductCategory.TEXTBOOKS, now.minusDays(1)),
+            activity(ProductCategory.TEXTBOOKS, now.minusDays(2)),
+            activity(ProductCategory.ELECTRONICS, now.minusDays(28))));
+        when(userFavoriteRepository.findCategoryActivitySince(eq(userId), any())).thenReturn(List.of(
+            activity(ProductCategory.FURNITURE, now.minusHours(1))));
+
+        List<InterestProfileService.Interest> interests = interestProfileService.getTopInterests(userId, 3);
+        interestProfileService.getTopInterests(userId, 3);
+
+        assertEquals(List.of(ProductCategory.FURNITURE, ProductCategory.TEXTBOOKS, ProductCategory.ELECTRONICS),
+            interests.stream().map(InterestProfileService.Interest::getCategory).toList());
+        // Two half-lives old
+        assertEquals(0.25, interests.get(2).getWeight(), 0.01);
+        verify(productViewRepository, times(1)).findCategoryActivitySince(eq(userId), any());
+    }
+
+    @Test
+    void testEventsUpdateLoadedProfilesAndDecay() {
+        when(productViewRepository.findCategoryActivitySince(eq(userId), any())).thenReturn(List.of());
+        when(userFavoriteRepository.findCategoryActivitySince(eq(userId), any())).thenReturn(List.of());
+        long now = System.currentTimeMillis();
+        long halfLife = 14L * 24 * 60 * 60 * 1000;
+
+        // Not loaded yet: left to the seed query
+        interestProfileService.record(userId, ProductCategory.SERVICES, 1f, now);
+        assertEquals(List.of(), interestProfileService.getTopInterests(userId, 3, now));
+
+        interestProfileService.record(userId, ProductCategory.CLOTHING, 4f, now);
+        interestProfileService.record(userId, ProductCategory.OTHER, 3f, now + halfLife);
+
+        List<InterestProfileService.Interest> interests = interestProfileService.getTopInterests(userId, 1, now + halfLife);
+        assertEquals(1, interests.size());
+        assertEquals(ProductCategory.OTHER, interests.get(0).getCategory());
+        assertEquals(2f, interestProfileService.getTopInterests(userId, 2, now + halfLife).get(1).getWeight(), 1e-3);
+    }
+
+    private static CategoryActivity activity(ProductCategory category, LocalDateTime occurredAt) {
+        return new CategoryActivity() {
+            @Override
+            public ProductCategory getCategory() {
+                return category;
+            }
+
+            @Override
+            public LocalDateTime getOccurredAt() {
+                return occurredAt;
+            }
+        };
+    }
+}
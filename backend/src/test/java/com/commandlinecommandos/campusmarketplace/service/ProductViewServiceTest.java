@@ -0,0 +1,125 @@
+package com.commandlinecommandos.campusmarketplace.service;
+
+import com.commandlinecommandos.campusmarketplace.model.Product;
+import com.commandlinecommandos.campusmarketplace.model.ProductCategory;
+import com.commandlinecommandos.campusmarketplace.model.ProductView;
+import com.commandlinecommandos.campusmarketplace.model.User;
+import com.commandlinecommandos.campusmarketplace.repository.ProductViewRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for product view tracking
+ */
+@ExtendWith(MockitoExtension.class)
+class ProductViewServiceTest {
+
+    @Mock
+    private ProductViewRepository productViewRepository;
+
+    @Mock
+    private TrendingService trendingService;
+
+    @Mock
+    private InterestProfileService interestProfileService;
+
+    @Mock
+    private RecentlyViewedService recentlyViewedService;
+
+    @Mock
+    private ViewCountBuffer viewCountBuffer;
+
+    @Mock
+    private DailyViewFilter dailyViewFilter;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private ProductViewService productViewService;
+
+    private User user;
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.invokeMethod(productViewService, "init");
+
+        user = new User();
+        user.setUserId(UUID.randomUUID());
+        product = new Product();
+        product.setProductId(UUID.randomUUID());
+        product.setCategory(ProductCategory.FURNITURE);
+    }
+
+    @Test
+    void testFirstViewIsStoredAndCounted() {
+        when(dailyViewFilter.markViewed(eq(user.getUserId()), eq(product.getProductId()), any())).thenReturn(true);
+
+        productViewService.trackView(user, product);
+
+        verify(productViewRepository).saveAndFlush(any(ProductView.class));
+        verify(viewCountBuffer).increment(product.getProductId());
+        verify(trendingService).recordView(product);
+        verify(interestProfileService).recordView(user.getUserId(), ProductCategory.FURNITURE);
+        verify(transactionManager).commit(any());
+        verifyNoInteractions(recentlyViewedService);
+    }
+
+    @Test
+    void testExistingRowIsARepeatEvenIfTheFilterSaysFirstView() {
+        // Stored by another instance, which this instance's filter cannot know of
+        when(dailyViewFilter.markViewed(eq(user.getUserId()), eq(product.getProductId()), any())).thenReturn(true);
+        when(productViewRepository.saveAndFlush(any(ProductView.class)))
+            .thenThrow(new DataIntegrityViolationException("duplicate key"));
+        when(productViewRepository.updateViewTime(eq(user), eq(product), any(), any())).thenReturn(1);
+
+        productViewService.trackView(user, product);
+
+        verify(productViewRepository).updateViewTime(eq(user), eq(product), any(), any());
+        verify(transactionManager).rollback(any());
+        verifyNoInteractions(viewCountBuffer, trendingService, interestProfileService);
+    }
+
+    @Test
+    void testPossibleRepeatOnlyUpdatesTheTimestamp() {
+        when(dailyViewFilter.markViewed(eq(user.getUserId()), eq(product.getProductId()), any())).thenReturn(false);
+        when(productViewRepository.updateViewTime(eq(user), eq(product), any(), any())).thenReturn(1);
+
+        productViewService.trackView(user, product);
+
+        verify(productViewRepository, never()).saveAndFlush(any());
+        verify(dailyViewFilter, never()).recordFalsePositive();
+        verifyNoInteractions(viewCountBuffer, trendingService, interestProfileService);
+    }
+
+    @Test
+    void testRecentViewIsRecordedSeparately() {
+        productViewService.recordRecentView(user, product);
+
+        verify(recentlyViewedService).record(user.getUserId(), product.getProductId());
+        verifyNoInteractions(productViewRepository, dailyViewFilter, viewCountBuffer);
+    }
+
+    @Test
+    void testRecentViewFailureIsNotThrown() {
+        doThrow(new IllegalStateException("cache down")).when(recentlyViewedService)
+            .record(user.getUserId(), product.getProductId());
+
+        assertDoesNotThrow(() -> productViewService.recordRecentView(user, product));
+    }
+}
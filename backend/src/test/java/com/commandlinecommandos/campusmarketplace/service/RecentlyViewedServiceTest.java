@@ -0,0 +1,88 @@
+package com.commandlinecommandos.campusmarketplace.service;
+
+import com.commandlinecommandos.campusmarketplace.repository.ProductViewRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the per-user recently viewed ring
+ */
+@ExtendWith(MockitoExtension.class)
+class RecentlyViewedServiceTest {
+
+    @Mock
+    private ProductViewRepository productViewRepository;
+
+    @InjectMocks
+    private RecentlyViewedService recentlyViewedService;
+
+    private final UUID userId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(recentlyViewedService, "cacheManager", new ConcurrentMapCacheManager());
+        ReflectionTestUtils.setField(recentlyViewedService, "capacity", 50);
+    }
+
+    @Test
+    void testRingStartsFromHistoryAndMovesViewsToTheFront() {
+        UUID older = UUID.randomUUID();
+        UUID newer = UUID.randomUUID();
+        when(productViewRepository.findRecentlyViewedListingIds(eq(userId), any())).thenReturn(List.of(newer, older));
+
+        recentlyViewedService.record(userId, older);
+
+        assertEquals(List.of(older, newer), recentlyViewedService.getRecentlyViewed(userId, 10));
+        verify(productViewRepository, times(1)).findRecentlyViewedListingIds(eq(userId), any());
+    }
+
+    @Test
+    void testConcurrentViewsOfOneUserAreAllKept() throws Exception {
+        when(productViewRepository.findRecentlyViewedListingIds(eq(userId), any())).thenReturn(List.of());
+        List<UUID> listings = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            listings.add(UUID.randomUUID());
+        }
+
+        ExecutorService threads = Executors.newFixedThreadPool(8);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> views = new ArrayList<>();
+            for (UUID listing : listings) {
+                views.add(threads.submit(() -> {
+                    start.await();
+                    recentlyViewedService.record(userId, listing);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> view : views) {
+                view.get();
+            }
+        } finally {
+            threads.shutdownNow();
+        }
+
+        assertEquals(new HashSet<>(listings), new HashSet<>(recentlyViewedService.getRecentlyViewed(userId, 50)));
+    }
+}
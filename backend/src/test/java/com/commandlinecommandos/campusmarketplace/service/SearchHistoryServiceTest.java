@@ -0,0 +1,114 @@
+package com.commandlinecommandos.campusmarketplace.service;
+
+import com.commandlinecommandos.campusmarketplace.model.University;
+import com.commandlinecommandos.campusmarketplace.model.User;
+import com.commandlinecommandos.campusmarketplace.model.UserRole;
+import com.commandlinecommandos.campusmarketplace.repository.UniversityRepository;
+import com.commandlinecommandos.campusmarketplace.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for write-behind search history
+ * The timed flush is pushed out of the way so each test flushes explicitly, inside its
+ * own transaction
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+@TestPropertySource(properties = {
+    "app.search.history.buffer-capacity=4",
+    "app.search.history.flush-interval-ms=3600000"
+})
+class SearchHistoryServiceTest {
+    
+    @Autowired
+    private SearchHistoryService searchHistoryService;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private UniversityRepository universityRepository;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    private User testUser;
+    
+    @BeforeEach
+    void setUp() {
+        University university = new University();
+        university.setName("History University");
+        university.setDomain("history.edu");
+        university = universityRepository.save(university);
+        
+        testUser = new User();
+        testUser.setUsername("historyuser");
+        testUser.setEmail("history@history.edu");
+        testUser.setPassword("hashedpassword123");
+        testUser.setFirstName("History");
+        testUser.setLastName("User");
+        testUser.setUniversity(university);
+        testUser.setRoles(Set.of(UserRole.BUYER));
+        testUser = userRepository.saveAndFlush(testUser);
+        
+        searchHistoryService.flush();
+    }
+    
+    @Test
+    void testSearchesAreWrittenInOneBatchOnFlush() {
+        // Given
+        searchHistoryService.recordSearch(testUser, "  calculus textbook ", 3);
+        searchHistoryService.recordSearch(testUser, "   ", 0);
+        searchHistoryService.recordSearch(testUser, "desk lamp", 0);
+        assertEquals(List.of(), queries());
+        
+        // When
+        int written = searchHistoryService.flush();
+        
+        // Then - blank queries are skipped, the rest is trimmed and stored
+        assertEquals(2, written);
+        assertEquals(List.of("calculus textbook", "desk lamp"), queries());
+    }
+    
+    @Test
+    void testFullBufferDropsAndCountsSearches() {
+        double droppedBefore = dropped();
+        
+        // When - six searches into a four-slot buffer
+        for (int i = 0; i < 6; i++) {
+            searchHistoryService.recordSearch(testUser, "bike " + i, 1);
+        }
+        
+        // Then
+        assertEquals(2, dropped() - droppedBefore);
+        assertEquals(4, searchHistoryService.flush());
+        assertEquals(List.of("bike 0", "bike 1", "bike 2", "bike 3"), queries());
+    }
+    
+    private List<String> queries() {
+        return jdbcTemplate.queryForList(
+            "SELECT search_query FROM search_history WHERE user_id = ? ORDER BY search_query",
+            String.class, testUser.getUserId());
+    }
+    
+    private double dropped() {
+        return meterRegistry.get("search.history.dropped").tag("reason", "buffer_full").counter().count();
+    }
+}
@@ -3,21 +3,35 @@ package com.commandlinecommandos.campusmarketplace.service;
 import com.commandlinecommandos.campusmarketplace.dto.SearchRequest;
 import com.commandlinecommandos.campusmarketplace.dto.SearchResponse;
 import com.commandlinecommandos.campusmarketplace.model.*;
+import com.commandlinecommandos.campusmarketplace.repository.CampusLocationRepository;
 import com.commandlinecommandos.campusmarketplace.repository.ProductRepository;
 import com.commandlinecommandos.campusmarketplace.repository.UniversityRepository;
 import com.commandlinecommandos.campusmarketplace.repository.UserRepository;
+import com.commandlinecommandos.campusmarketplace.search.CampusLocationResolver;
+import com.commandlinecommandos.campusmarketplace.search.ListingSearchIndex;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.Disabled;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.ByteArrayOutputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
+import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -33,6 +47,12 @@ class SearchServiceTest {
     @Autowired
     private SearchService searchService;
     
+    @Autowired
+    private SearchExportService searchExportService;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
     @Autowired
     private ProductRepository productRepository;
     
@@ -42,6 +62,18 @@ class SearchServiceTest {
     @Autowired
     private UniversityRepository universityRepository;
     
+    @Autowired
+    private CampusLocationRepository campusLocationRepository;
+    
+    @Autowired
+    private CampusLocationResolver locationResolver;
+    
+    @Autowired
+    private ListingSearchIndex listingSearchIndex;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
     private User testUser;
     private University testUniversity;
     
@@ -112,6 +144,51 @@ class SearchServiceTest {
         productRepository.save(desk);
     }
     
+    @Test
+    void testExportStreamsAllMatchesAsNdjson() throws Exception {
+        SearchRequest request = new SearchRequest();
+        request.setMaxPrice(new BigDecimal("100"));
+        request.setSortBy("price_asc");
+        request.setSize(1);  // paging is ignored by the export
+        
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long rows = searchExportService.exportNdjson(request, testUser, out);
+        
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, rows);
+        assertEquals(2, lines.length);
+        JsonNode first = objectMapper.readTree(lines[0]);
+        assertEquals("Java Programming Textbook", first.get("title").asText());
+        assertEquals("Test User", first.get("sellerName").asText());
+        assertEquals("Study Desk", objectMapper.readTree(lines[1]).get("title").asText());
+    }
+    
+    @Test
+    void testExportAppliesTextQuery() throws Exception {
+        SearchRequest request = new SearchRequest();
+        request.setQuery("macbook");
+        
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        
+        assertEquals(1, searchExportService.exportNdjson(request, testUser, out));
+        assertTrue(out.toString(StandardCharsets.UTF_8).endsWith("\n"));
+    }
+    
+    @Test
+    void testExportMatchesEveryQueryTermLikeSearch() throws Exception {
+        SearchRequest request = new SearchRequest();
+        // Terms in any order and field, plural and stop word analyzed as in /search
+        request.setQuery("the wooden desks");
+        
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        
+        assertEquals(1, searchExportService.exportNdjson(request, testUser, out));
+        assertEquals("Study Desk", objectMapper.readTree(out.toString(StandardCharsets.UTF_8)).get("title").asText());
+        
+        request.setQuery("wooden laptop");
+        assertEquals(0, searchExportService.exportNdjson(request, testUser, new ByteArrayOutputStream()));
+    }
+    
     @Test
     @Disabled("Requires PostgreSQL - H2 doesn't support ts_rank() and plainto_tsquery()")
     void testBasicSearch() {
@@ -188,6 +265,22 @@ class SearchServiceTest {
         }
     }
     
+    @Test
+    void testTextQueryWithFiltersKeepsTextMatch() {
+        // Given - "desk" only matches the furniture listing, the price range covers two listings
+        SearchRequest request = new SearchRequest();
+        request.setQuery("desk");
+        request.setMinPrice(new BigDecimal("40.00"));
+        request.setMaxPrice(new BigDecimal("100.00"));
+        
+        // When
+        SearchResponse response = searchService.search(request, testUser);
+        
+        // Then
+        assertEquals(1, response.getTotalResults());
+        assertEquals("Study Desk", response.getResults().get(0).getTitle());
+    }
+    
     @Test
     void testSortByPrice() {
         // Given
@@ -288,6 +381,48 @@ class SearchServiceTest {
         );
     }
     
+    @Test
+    void testRepeatedSearchIsMarkedCached() {
+        // Given
+        SearchRequest request = new SearchRequest();
+        request.setCategories(List.of(ProductCategory.FURNITURE));
+        
+        // When
+        SearchResponse first = searchService.search(request, testUser);
+        SearchResponse second = searchService.search(request, testUser);
+        
+        // Then
+        assertFalse(first.getMetadata().isCached());
+        assertTrue(second.getMetadata().isCached());
+        assertEquals(first.getTotalResults(), second.getTotalResults());
+        assertEquals("Study Desk", second.getResults().get(0).getTitle());
+        // The in-memory test cache stores the first response itself, which serving must not change
+        assertTrue(searchService.search(request, testUser).getMetadata().isCached());
+        assertFalse(first.getMetadata().isCached());
+    }
+
+    @Test
+    void testDateRangeSearchIsCached() {
+        // Given - two requests for the last week, resolved at different times
+        SearchRequest request = new SearchRequest();
+        request.setDateRange("7d");
+        SearchRequest again = new SearchRequest();
+        again.setDateRange("7d");
+
+        // When
+        SearchResponse first = searchService.search(request, testUser);
+        SearchResponse second = searchService.search(again, testUser);
+
+        // Then
+        assertEquals(3, first.getTotalResults());
+        assertNotNull(request.getDateFrom());
+        assertTrue(second.getMetadata().isCached());
+
+        SearchRequest invalid = new SearchRequest();
+        invalid.setDateRange("1y");
+        assertThrows(IllegalArgumentException.class, () -> searchService.search(invalid, testUser));
+    }
+
     @Test
     void testEmptySearch() {
         // Given
@@ -301,5 +436,180 @@ class SearchServiceTest {
         assertNotNull(response);
         assertTrue(response.getTotalResults() >= 0);
     }
-}
+    
+    @Test
+    void testKeysetPaginationWalksAllResults() {
+        // Given
+        SearchRequest request = new SearchRequest();
+        request.setSortBy("price_asc");
+        request.setSize(1);
+        request.setCursor("");
+        
+        // When - follow nextCursor until the last page
+        List<BigDecimal> prices = new ArrayList<>();
+        SearchResponse response;
+        do {
+            response = searchService.search(request, testUser);
+            response.getResults().forEach(result -> prices.add(result.getPrice()));
+            request.setCursor(response.getNextCursor());
+        } while (response.getNextCursor() != null);
+        
+        // Then
+        assertEquals(List.of(new BigDecimal("50.00"), new BigDecimal("80.00"), new BigDecimal("1200.00")), prices);
+        assertEquals(-1, response.getTotalPages());
+        assertFalse(response.isHasNext());
+    }
+    
+    @Test
+    void testKeysetCursorMustMatchSort() {
+        // Given
+        SearchRequest request = new SearchRequest();
+        request.setSortBy("price_asc");
+        request.setSize(1);
+        request.setCursor("");
+        String cursor = searchService.search(request, testUser).getNextCursor();
+        
+        // When
+        request.setSortBy("date_desc");
+        request.setCursor(cursor);
+        
+        // Then
+        assertThrows(IllegalArgumentException.class, () -> searchService.search(request, testUser));
+        request.setCursor("not-a-cursor");
+        assertThrows(IllegalArgumentException.class, () -> searchService.search(request, testUser));
+    }
+
+    @Test
+    void testIndexCursorFollowsIndexSnapshotNotDatabaseCounts() {
+        // Given - the index holds view counts 3, 2, 1, then buffered views reach the database
+        List<Product> products = productRepository.findAll().stream()
+            .filter(product -> product.getUniversity().getUniversityId().equals(testUniversity.getUniversityId()))
+            .toList();
+        for (int i = 0; i < products.size(); i++) {
+            products.get(i).setViewCount(products.size() - i);
+        }
+        ReflectionTestUtils.setField(listingSearchIndex, "enabled", true);
+        ReflectionTestUtils.setField(listingSearchIndex, "ready", true);
+        try {
+            products.forEach(listingSearchIndex::index);
+            products.get(0).setViewCount(10);
+            productRepository.saveAllAndFlush(products);
+
+            SearchRequest request = new SearchRequest();
+            request.setSortBy("popularity");
+            request.setSize(1);
+            request.setCursor("");
 
+            // When - follow nextCursor until the last page
+            List<UUID> seen = new ArrayList<>();
+            SearchResponse response;
+            do {
+                response = searchService.search(request, testUser);
+                response.getResults().forEach(result -> seen.add(result.getProductId()));
+                request.setCursor(response.getNextCursor());
+            } while (response.getNextCursor() != null && seen.size() <= products.size());
+
+            // Then - every listing once, in the order the index sorted by
+            assertEquals(products.stream().map(Product::getProductId).toList(), seen);
+        } finally {
+            products.forEach(product -> listingSearchIndex.remove(product.getProductId()));
+            ReflectionTestUtils.setField(listingSearchIndex, "ready", false);
+            ReflectionTestUtils.setField(listingSearchIndex, "enabled", false);
+        }
+    }
+
+    @Test
+    void testResultPageCostDoesNotGrowWithSellers() {
+        // Given - ten listings from ten different sellers
+        for (int i = 0; i < 10; i++) {
+            User seller = new User();
+            seller.setUsername("seller" + i);
+            seller.setEmail("seller" + i + "@test.edu");
+            seller.setPassword("hashedpassword123");
+            seller.setFirstName("Seller");
+            seller.setLastName(String.valueOf(i));
+            seller.setUniversity(testUniversity);
+            seller.setRoles(Set.of(UserRole.SELLER));
+            seller = userRepository.save(seller);
+            
+            Product lamp = new Product(seller, "Desk lamp " + i, "LED lamp", ProductCategory.ELECTRONICS,
+                ProductCondition.GOOD, new BigDecimal("15.00"));
+            lamp.setUniversity(testUniversity);
+            lamp.setActive(true);
+            lamp.setModerationStatus(ModerationStatus.APPROVED);
+            productRepository.save(lamp);
+        }
+        entityManager.flush();
+        entityManager.clear();
+        
+        SearchRequest request = new SearchRequest();
+        request.setCategories(List.of(ProductCategory.ELECTRONICS));
+        request.setMaxPrice(new BigDecimal("20"));
+        request.setSize(20);
+        
+        Statistics statistics = entityManager.getEntityManagerFactory()
+            .unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        
+        // When
+        SearchResponse response = searchService.search(request, testUser);
+        
+        // Then - hits, count and one summary fetch; no per-seller loads
+        long statements = statistics.getPrepareStatementCount();
+        statistics.setStatisticsEnabled(false);
+        assertEquals(10, response.getResults().size());
+        assertEquals("Seller 3", response.getResults().stream()
+            .filter(result -> result.getTitle().equals("Desk lamp 3"))
+            .findFirst().orElseThrow().getSellerName());
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertTrue(statements <= 3, "Expected at most 3 statements, got " + statements);
+    }
+    
+    @Test
+    void testLocationFilterUsesDictionaryAndNearbyLocations() {
+        // Given - two adjacent dictionary locations and a listing at each
+        CampusLocation library = new CampusLocation(testUniversity.getUniversityId(), "MLK Library", "mlk library");
+        library.getAliases().add("library");
+        library = campusLocationRepository.save(library);
+        CampusLocation union = campusLocationRepository.save(
+            new CampusLocation(testUniversity.getUniversityId(), "Student Union", "student union"));
+        library.getNearbyLocationIds().add(union.getId());
+        union.getNearbyLocationIds().add(library.getId());
+        campusLocationRepository.save(library);
+        campusLocationRepository.save(union);
+        locationResolver.reload();
+        
+        saveAt("Desk lamp", "MLK Library, 3rd Floor");
+        saveAt("Mini fridge", "Student Union lobby");
+        
+        // When
+        SearchRequest request = new SearchRequest();
+        request.setLocation("Library");
+        SearchResponse exact = searchService.search(request, testUser);
+        request.setIncludeNearby(true);
+        SearchResponse nearby = searchService.search(request, testUser);
+        request.setLocation("San");
+        SearchResponse unknown = searchService.search(request, testUser);
+        
+        // Then - alias lookup by id, adjacency expansion, and substring fallback for free text
+        assertEquals(List.of("Desk lamp"), titles(exact));
+        assertEquals(Set.of("Desk lamp", "Mini fridge"), Set.copyOf(titles(nearby)));
+        assertEquals(2, unknown.getTotalResults());
+    }
+    
+    private void saveAt(String title, String pickupLocation) {
+        Product product = new Product(testUser, title, "Works fine", ProductCategory.ELECTRONICS,
+            ProductCondition.GOOD, new BigDecimal("20.00"));
+        product.setUniversity(testUniversity);
+        product.setPickupLocation(pickupLocation);
+        product.setLocationId(locationResolver.resolveListing(testUniversity.getUniversityId(), pickupLocation));
+        product.setActive(true);
+        product.setModerationStatus(ModerationStatus.APPROVED);
+        productRepository.save(product);
+    }
+    
+    private static List<String> titles(SearchResponse response) {
+        return response.getResults().stream().map(result -> result.getTitle()).toList();
+    }
+}
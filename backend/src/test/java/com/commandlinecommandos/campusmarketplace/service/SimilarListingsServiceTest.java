@@ -0,0 +1,140 @@
+package com.commandlinecommandos.campusmarketplace.service;
+
+import com.commandlinecommandos.campusmarketplace.repository.UserListingView;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the co-view matrix and the incremental "viewed together" lists
+ */
+class SimilarListingsServiceTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 3, 1, 12, 0);
+
+    private SimilarListingsService service;
+    private final UUID lamp = UUID.randomUUID();
+    private final UUID desk = UUID.randomUUID();
+    private final UUID chair = UUID.randomUUID();
+    private final UUID bike = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        service = new SimilarListingsService();
+        ReflectionTestUtils.setField(service, "maxNeighbors", 2);
+        ReflectionTestUtils.setField(service, "minCoViews", 1);
+        ReflectionTestUtils.setField(service, "coViewWindowMinutes", 60L);
+    }
+
+    @Test
+    void testMatrixRanksNeighborsByCosineSimilarity() {
+        CoViewMatrix matrix = new CoViewMatrix();
+        int a = matrix.ordinal(lamp);
+        int b = matrix.ordinal(desk);
+        int c = matrix.ordinal(chair);
+        assertEquals(a, matrix.ordinal(lamp));
+        for (int i = 0; i < 4; i++) {
+            matrix.addView(a);
+        }
+        matrix.addView(b);
+        for (int i = 0; i < 9; i++) {
+            matrix.addView(c);
+        }
+        matrix.addCoView(a, b);
+        matrix.addCoView(a, c);
+        matrix.addCoView(a, c);
+
+        assertEquals(2, matrix.coViews(c, a));
+        assertEquals(0, matrix.coViews(b, c));
+        // desk: 1 / sqrt(4 * 1) = 0.5, chair: 2 / sqrt(4 * 9) = 0.33
+        CoViewMatrix.Neighbors neighbors = matrix.neighbors(a, 5, 1);
+        assertEquals(2, neighbors.size());
+        assertEquals(desk, neighbors.listingId(0));
+        assertEquals(0.5f, neighbors.score(0), 1e-6);
+        assertEquals(chair, neighbors.listingId(1));
+        assertEquals(1, matrix.neighbors(a, 5, 2).size());
+        assertEquals(1, matrix.neighbors(a, 1, 1).size());
+    }
+
+    @Test
+    void testMatrixRowsGrowPastManyNeighbors() {
+        CoViewMatrix matrix = new CoViewMatrix();
+        int hub = matrix.ordinal(lamp);
+        matrix.addView(hub);
+        for (int i = 0; i < 500; i++) {
+            int other = matrix.ordinal(UUID.randomUUID());
+            matrix.addView(other);
+            matrix.addCoView(hub, other);
+        }
+        int favorite = matrix.ordinal(desk);
+        matrix.addView(favorite);
+        matrix.addCoView(hub, favorite);
+        matrix.addCoView(hub, favorite);
+
+        assertEquals(502, matrix.size());
+        assertEquals(2, matrix.coViews(hub, favorite));
+        assertEquals(desk, matrix.neighbors(hub, 3, 1).listingId(0));
+    }
+
+    @Test
+    void testOnlyViewsOfOneUserWithinTheWindowArePaired() {
+        UUID alice = UUID.randomUUID();
+        UUID bob = UUID.randomUUID();
+        List<UserListingView> views = new ArrayList<>();
+        views.add(view(alice, lamp, 0));
+        views.add(view(alice, desk, 10));
+        views.add(view(alice, bike, 200));
+        views.add(view(bob, chair, 0));
+        service.apply(views, START.minusDays(1));
+        service.publish();
+
+        assertEquals(List.of(desk), service.getSimilarListings(lamp, 10));
+        assertEquals(List.of(lamp), service.getSimilarListings(desk, 10));
+        assertEquals(List.of(), service.getSimilarListings(bike, 10));
+        assertEquals(List.of(), service.getSimilarListings(chair, 10));
+    }
+
+    @Test
+    void testIncrementalBatchesPairNewViewsWithAlreadyCountedOnes() {
+        UUID alice = UUID.randomUUID();
+        service.apply(List.of(view(alice, lamp, 0)), START.minusDays(1));
+        service.publish();
+        assertEquals(List.of(), service.getSimilarListings(lamp, 10));
+
+        // The next batch repeats the earlier lamp view as context; only the chair view is new
+        service.apply(List.of(view(alice, lamp, 0), view(alice, chair, 30)), START);
+        service.publish();
+
+        assertEquals(List.of(chair), service.getSimilarListings(lamp, 10));
+        CoViewMatrix matrix = (CoViewMatrix) ReflectionTestUtils.getField(service, "matrix");
+        assertEquals(1, matrix.views(matrix.ordinal(lamp)));
+        assertEquals(1, matrix.coViews(matrix.ordinal(lamp), matrix.ordinal(chair)));
+    }
+
+    private static UserListingView view(UUID userId, UUID listingId, int minutes) {
+        LocalDateTime viewedAt = START.plusMinutes(minutes);
+        return new UserListingView() {
+            @Override
+            public UUID getUserId() {
+                return userId;
+            }
+
+            @Override
+            public UUID getListingId() {
+                return listingId;
+            }
+
+            @Override
+            public LocalDateTime getViewedAt() {
+                return viewedAt;
+            }
+        };
+    }
+}
@@ -0,0 +1,153 @@
+package com.commandlinecommandos.campusmarketplace.service;
+
+import com.commandlinecommandos.campusmarketplace.model.ModerationStatus;
+import com.commandlinecommandos.campusmarketplace.model.Product;
+import com.commandlinecommandos.campusmarketplace.model.University;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the time-decayed trending scores
+ */
+class TrendingServiceTest {
+
+    private static final long HOUR = Duration.ofHours(1).toMillis();
+
+    private TrendingService trendingService;
+    private University university;
+    private long now;
+
+    @BeforeEach
+    void setUp() {
+        trendingService = new TrendingService();
+        ReflectionTestUtils.setField(trendingService, "halfLifeHours", 24.0);
+        ReflectionTestUtils.setField(trendingService, "viewWeight", 1.0);
+        ReflectionTestUtils.setField(trendingService, "favoriteWeight", 4.0);
+        ReflectionTestUtils.setField(trendingService, "messageWeight", 8.0);
+        ReflectionTestUtils.setField(trendingService, "maxListings", 3);
+        ReflectionTestUtils.invokeMethod(trendingService, "init");
+        university = university();
+        now = System.currentTimeMillis();
+    }
+
+    @Test
+    void testScoresHalveEveryHalfLife() {
+        Product product = product(university, "Desk lamp");
+        trendingService.record(product, 8, now);
+
+        assertEquals(8, trendingService.score(product.getProductId(), now), 1e-9);
+        assertEquals(4, trendingService.score(product.getProductId(), now + 24 * HOUR), 1e-9);
+
+        trendingService.record(product, 4, now + 24 * HOUR);
+        assertEquals(8, trendingService.score(product.getProductId(), now + 24 * HOUR), 1e-9);
+        assertEquals(0, trendingService.score(UUID.randomUUID(), now), 1e-9);
+    }
+
+    @Test
+    void testRecentActivityOutranksOlderActivity() {
+        Product old = product(university, "Old bike");
+        Product fresh = product(university, "New bike");
+        for (int i = 0; i < 4; i++) {
+            trendingService.record(old, 1, now);
+        }
+        trendingService.record(fresh, 1, now + 72 * HOUR);
+
+        assertEquals(List.of(fresh.getProductId(), old.getProductId()), trendingService.getTrending(university.getUniversityId(), 10));
+    }
+
+    @Test
+    void testHeavierSignalsOutrankViews() {
+        Product viewed = product(university, "Viewed");
+        Product favorited = product(university, "Favorited");
+        Product discussed = product(university, "Discussed");
+        for (int i = 0; i < 3; i++) {
+            trendingService.recordView(viewed);
+        }
+        trendingService.recordFavorite(favorited);
+        trendingService.recordMessage(discussed);
+
+        assertEquals(List.of(discussed.getProductId(), favorited.getProductId()),
+            trendingService.getTrending(university.getUniversityId(), 2));
+    }
+
+    @Test
+    void testUniversitiesAreRankedSeparately() {
+        University other = university();
+        Product ours = product(university, "Ours");
+        trendingService.record(ours, 1, now);
+        trendingService.record(product(other, "Theirs"), 1, now);
+
+        assertEquals(List.of(ours.getProductId()), trendingService.getTrending(university.getUniversityId(), 10));
+        assertEquals(1, trendingService.getTrending(other.getUniversityId(), 10).size());
+        assertEquals(List.of(), trendingService.getTrending(UUID.randomUUID(), 10));
+    }
+
+    @Test
+    void testUpdateDropsInactiveListings() {
+        Product product = product(university, "Desk lamp");
+        trendingService.record(product, 1, now);
+
+        product.setTitle("Desk lamp (LED)");
+        trendingService.update(product);
+        assertEquals(List.of(product.getProductId()), trendingService.getTrending(university.getUniversityId(), 10));
+
+        product.setActive(false);
+        trendingService.update(product);
+        assertEquals(List.of(), trendingService.getTrending(university.getUniversityId(), 10));
+        assertEquals(0, trendingService.score(product.getProductId(), now), 1e-9);
+
+        trendingService.record(product, 1, now);
+        assertEquals(List.of(), trendingService.getTrending(university.getUniversityId(), 10));
+    }
+
+    @Test
+    void testOnlyApprovedListingsTrend() {
+        Product pending = product(university, "Pending lamp");
+        pending.setModerationStatus(ModerationStatus.PENDING);
+        trendingService.record(pending, 1, now);
+        assertEquals(List.of(), trendingService.getTrending(university.getUniversityId(), 10));
+
+        Product flagged = product(university, "Flagged lamp");
+        trendingService.record(flagged, 1, now);
+        flagged.setModerationStatus(ModerationStatus.FLAGGED);
+        trendingService.update(flagged);
+        assertEquals(List.of(), trendingService.getTrending(university.getUniversityId(), 10));
+    }
+
+    @Test
+    void testColdestListingIsDroppedBeyondMaxListings() {
+        Product coldest = product(university, "Coldest");
+        trendingService.record(coldest, 1, now);
+        for (int i = 0; i < 3; i++) {
+            trendingService.record(product(university, "Hot " + i), 2, now);
+        }
+
+        List<UUID> trending = trendingService.getTrending(university.getUniversityId(), 10);
+        assertEquals(3, trending.size());
+        assertFalse(trending.contains(coldest.getProductId()));
+        assertEquals(0, trendingService.score(coldest.getProductId(), now), 1e-9);
+    }
+
+    private static University university() {
+        University university = new University();
+        university.setUniversityId(UUID.randomUUID());
+        return university;
+    }
+
+    private static Product product(University university, String title) {
+        Product product = new Product();
+        product.setProductId(UUID.randomUUID());
+        product.setUniversity(university);
+        product.setTitle(title);
+        product.setActive(true);
+        product.setModerationStatus(ModerationStatus.APPROVED);
+        return product;
+    }
+}
@@ -0,0 +1,181 @@
+package com.commandlinecommandos.campusmarketplace.service;
+
+import com.commandlinecommandos.campusmarketplace.model.ModerationStatus;
+import com.commandlinecommandos.campusmarketplace.model.Product;
+import com.commandlinecommandos.campusmarketplace.model.ProductCategory;
+import com.commandlinecommandos.campusmarketplace.model.ProductCondition;
+import com.commandlinecommandos.campusmarketplace.model.University;
+import com.commandlinecommandos.campusmarketplace.model.User;
+import com.commandlinecommandos.campusmarketplace.model.UserRole;
+import com.commandlinecommandos.campusmarketplace.repository.ProductRepository;
+import com.commandlinecommandos.campusmarketplace.repository.UniversityRepository;
+import com.commandlinecommandos.campusmarketplace.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for buffered listing view counts
+ * The timed flush is pushed out of the way so each test flushes explicitly, inside its
+ * own transaction
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+@TestPropertySource(properties = {
+    "app.listings.views.batch-size=2",
+    "app.listings.views.flush-interval-ms=3600000"
+})
+class ViewCountBufferTest {
+
+    @Autowired
+    private ViewCountBuffer viewCountBuffer;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UniversityRepository universityRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private User seller;
+    private University university;
+
+    @BeforeEach
+    void setUp() {
+        university = new University();
+        university.setName("Views University");
+        university.setDomain("views.edu");
+        university = universityRepository.save(university);
+
+        seller = new User();
+        seller.setUsername("viewsseller");
+        seller.setEmail("seller@views.edu");
+        seller.setPassword("hashedpassword123");
+        seller.setFirstName("Views");
+        seller.setLastName("Seller");
+        seller.setUniversity(university);
+        seller.setRoles(Set.of(UserRole.SELLER));
+        seller = userRepository.saveAndFlush(seller);
+
+        viewCountBuffer.flush();
+    }
+
+    @Test
+    void testViewsAreAddedToViewCountInBatchesOnFlush() {
+        // Given
+        UUID lamp = listing("Desk lamp", 10);
+        UUID desk = listing("Standing desk", 0);
+        UUID chair = listing("Office chair", 5);
+        for (int i = 0; i < 3; i++) {
+            viewCountBuffer.increment(lamp);
+        }
+        viewCountBuffer.increment(desk);
+        viewCountBuffer.increment(chair);
+
+        // Then nothing is written before the flush
+        assertEquals(3, viewCountBuffer.pendingViews(lamp));
+        assertEquals(10, viewCount(lamp));
+        assertEquals(5.0, meterRegistry.get("listing.views.pending.views").gauge().value());
+        assertEquals(3.0, meterRegistry.get("listing.views.pending.listings").gauge().value());
+
+        // When (three listings, two UPDATE batches)
+        assertEquals(5, viewCountBuffer.flush());
+
+        // Then
+        assertEquals(13, viewCount(lamp));
+        assertEquals(1, viewCount(desk));
+        assertEquals(6, viewCount(chair));
+        assertEquals(0, viewCountBuffer.pendingViews(lamp));
+        assertEquals(0.0, meterRegistry.get("listing.views.pending.views").gauge().value());
+    }
+
+    @Test
+    void testIdleCountersAreDroppedAndNewViewsStillCount() {
+        UUID lamp = listing("Desk lamp", 0);
+        viewCountBuffer.increment(lamp);
+        viewCountBuffer.flush();
+
+        // The listing had no views since the last flush, so its counter goes away
+        assertEquals(0, viewCountBuffer.flush());
+        assertEquals(0.0, meterRegistry.get("listing.views.pending.listings").gauge().value());
+
+        viewCountBuffer.increment(lamp);
+        viewCountBuffer.flush();
+        assertEquals(2, viewCount(lamp));
+    }
+
+    @Test
+    void testViewsDuringFlushesAreNeverLost() throws Exception {
+        List<UUID> lamps = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            lamps.add(listing("Desk lamp " + i, 0));
+        }
+
+        // Views spread thinly over many listings, so most counters are idle and dropped at each flush
+        ExecutorService viewers = Executors.newFixedThreadPool(4);
+        List<Future<?>> views = new ArrayList<>();
+        try {
+            for (int thread = 0; thread < 4; thread++) {
+                int offset = thread;
+                views.add(viewers.submit(() -> {
+                    for (int i = 0; i < 2000; i++) {
+                        viewCountBuffer.increment(lamps.get((i * 7 + offset) % lamps.size()));
+                        if (i % 50 == 0) {
+                            Thread.yield();
+                        }
+                    }
+                }));
+            }
+            while (views.stream().anyMatch(view -> !view.isDone())) {
+                viewCountBuffer.flush();
+            }
+            for (Future<?> view : views) {
+                view.get();
+            }
+        } finally {
+            viewers.shutdownNow();
+        }
+        viewCountBuffer.flush();
+
+        assertEquals(8000, lamps.stream().mapToInt(this::viewCount).sum());
+    }
+
+    private UUID listing(String title, int views) {
+        Product product = new Product(seller, title, "Buffered views", ProductCategory.FURNITURE,
+            ProductCondition.GOOD, new BigDecimal("20.00"));
+        product.setUniversity(university);
+        product.setModerationStatus(ModerationStatus.APPROVED);
+        product.setViewCount(views);
+        return productRepository.saveAndFlush(product).getProductId();
+    }
+
+    private int viewCount(UUID listingId) {
+        return jdbcTemplate.queryForObject("SELECT view_count FROM listings WHERE listing_id = ?", Integer.class, listingId);
+    }
+}